@@ -1,6 +1,9 @@
 package com.charles.camera;
 
+import com.charles.base.FlightRecorder;
+import com.charles.base.HandleLeakDetector;
 import com.charles.base.Log;
+import com.charles.base.ObjectPool;
 import com.charles.base.ThreadMonitor;
 
 import android.app.Application;
@@ -32,5 +35,16 @@ public final class CameraApplication extends Application
 		// initialize thread monitor
 		if(DEBUG)
 			ThreadMonitor.prepare();
+		
+		// track handles which are not closed
+		if(DEBUG)
+			HandleLeakDetector.enable();
+		
+		// record events and property changes to dump on camera errors
+		if(DEBUG)
+			FlightRecorder.enable();
+		
+		// check usage of pooled objects
+		ObjectPool.setDebugMode(DEBUG);
 	}
 }
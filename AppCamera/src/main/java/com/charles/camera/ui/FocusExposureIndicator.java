@@ -25,7 +25,7 @@ import android.widget.ImageView;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
-import com.charles.base.HandlerUtils;
+import com.charles.base.KeyedScheduler;
 import com.charles.base.Log;
 import com.charles.base.PropertyChangeEventArgs;
 import com.charles.base.PropertyChangedCallback;
@@ -72,6 +72,7 @@ final class FocusExposureIndicator extends UIComponent
 	private int m_IndicatorContainerHeight;
 	private int m_IndicatorContainerWidth;
 	private boolean m_IsChangingExposureComp;
+	private final KeyedScheduler m_MessageScheduler = new KeyedScheduler(this);
 	private float m_RelativeExposureComp;
 	private float m_RelativeExposureCompStep = 0.1f;
 	private final int[] m_TempLocationBuffer = new int[2];
@@ -243,7 +244,7 @@ final class FocusExposureIndicator extends UIComponent
 					&& m_IndicatorAnimation == null
 					&& !m_IsChangingExposureComp)
 			{
-				HandlerUtils.sendMessage(FocusExposureIndicator.this, MSG_HIDE_FOCUS_INDICATOR, true, DURATION_FOCUS_INDICATOR_VISIBLE);
+				m_MessageScheduler.reschedule(MSG_HIDE_FOCUS_INDICATOR, DURATION_FOCUS_INDICATOR_VISIBLE);
 			}
 		}
 		else
@@ -323,7 +324,7 @@ final class FocusExposureIndicator extends UIComponent
 			case MotionEvent.ACTION_DOWN:
 			{
 				// cancel hiding indicator
-				this.getHandler().removeMessages(MSG_HIDE_FOCUS_INDICATOR);
+				m_MessageScheduler.cancel(MSG_HIDE_FOCUS_INDICATOR);
 				
 				// calculate center point
 				m_IndicatorContainer.getLocationInWindow(m_TempLocationBuffer);
@@ -732,7 +733,7 @@ final class FocusExposureIndicator extends UIComponent
 		Log.v(TAG, "showFocusIndicator");
 		
 		// cancel hiding indicator
-		HandlerUtils.removeMessages(this, MSG_HIDE_FOCUS_INDICATOR);
+		m_MessageScheduler.cancel(MSG_HIDE_FOCUS_INDICATOR);
 		 
 		// cancel current animator
 		if(!animation && m_IndicatorAnimation != null)
@@ -856,7 +857,7 @@ final class FocusExposureIndicator extends UIComponent
 			{
 				// show focus indicator
 				this.showFocusIndicator(true, false);
-				this.getHandler().removeMessages(MSG_HIDE_FOCUS_INDICATOR);
+				m_MessageScheduler.cancel(MSG_HIDE_FOCUS_INDICATOR);
 				
 				// check recording state
 				switch(this.getCameraActivity().get(CameraActivity.PROP_VIDEO_CAPTURE_STATE))
@@ -13,7 +13,7 @@ import android.view.Gravity;
 import android.view.View;
 import android.widget.SeekBar;
 
-import com.charles.base.HandlerUtils;
+import com.charles.base.KeyedScheduler;
 import com.charles.base.PropertyChangeEventArgs;
 import com.charles.base.PropertyChangedCallback;
 import com.charles.base.PropertyKey;
@@ -36,6 +36,7 @@ final class ZoomBarImpl extends UIComponent
 	
 	// Private fields.
 	private View m_Container;
+	private final KeyedScheduler m_MessageScheduler = new KeyedScheduler(this);
 	private boolean m_UpdatingZoom;
 	private SeekBar m_ZoomBar;
 	private ZoomController m_ZoomController;
@@ -147,7 +148,7 @@ final class ZoomBarImpl extends UIComponent
 				{
 					m_UpdatingZoom = true;
 					float zoom = (1 + ((float)progress / seekBar.getMax() * (m_ZoomController.get(ZoomController.PROP_MAX_DIGITAL_ZOOM) - 1)));
-					m_ZoomController.set(ZoomController.PROP_DIGITAL_ZOOM, zoom);
+					m_ZoomController.setFloat(ZoomController.PROP_DIGITAL_ZOOM, zoom);
 					m_UpdatingZoom = false;
 				}
 			}
@@ -192,7 +193,7 @@ final class ZoomBarImpl extends UIComponent
 					if(getCameraActivity().get(CameraActivity.PROP_CAMERA_PREVIEW_STATE) == OperationState.STARTED
 							&& !m_ZoomController.get(ZoomController.PROP_IS_ZOOM_LOCKED))
 					{
-						HandlerUtils.sendMessage(ZoomBarImpl.this, MSG_HIDE_ZOOM_BAR, true, DURATION_ZOOM_BAR_VISIBLE);
+						m_MessageScheduler.reschedule(MSG_HIDE_ZOOM_BAR, DURATION_ZOOM_BAR_VISIBLE);
 						setViewVisibility(m_Container, true);
 					}
 				}
@@ -0,0 +1,248 @@
+package com.charles.base.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.charles.base.BasicBaseObject;
+import com.charles.base.EventArgs;
+import com.charles.base.EventHandler;
+import com.charles.base.EventKey;
+import com.charles.base.EventSource;
+import com.charles.base.IntPropertyChangedCallback;
+import com.charles.base.IntPropertyKey;
+import com.charles.base.PropertyChangeEventArgs;
+import com.charles.base.PropertyChangedCallback;
+import com.charles.base.PropertyKey;
+import com.charles.base.PropertySource;
+
+/**
+ * Benchmarks of property access and event dispatching of {@link BasicBaseObject}.
+ * Run with '-prof gc' to compare allocation of primitive property keys with boxed property keys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BaseObjectBenchmark
+{
+	/**
+	 * Number of subscribers of each property and event.
+	 */
+	@Param({ "0", "1", "10" })
+	public int subscriberCount;
+	
+	
+	// Constants
+	private static final String[] VALUES = new String[]{ "A", "B" };
+	
+	
+	// Private fields
+	private int m_Counter;
+	private TestObject m_Object;
+	private final Subscriber m_Subscriber = new Subscriber();
+	
+	
+	// Object to benchmark.
+	static final class TestObject extends BasicBaseObject
+	{
+		public static final EventKey<EventArgs> EVENT_CHURN = new EventKey<>("Churn", EventArgs.class, TestObject.class);
+		public static final EventKey<EventArgs> EVENT_TEST = new EventKey<>("Test", EventArgs.class, TestObject.class);
+		public static final PropertyKey<Integer> PROP_BOXED_INT_VALUE = new PropertyKey<>("BoxedIntValue", Integer.class, TestObject.class, PropertyKey.FLAG_NOT_NULL, 0);
+		public static final IntPropertyKey PROP_INT_VALUE = new IntPropertyKey("IntValue", TestObject.class, PropertyKey.FLAG_NOT_NULL, 0);
+		public static final PropertyKey<String> PROP_VALUE = new PropertyKey<>("Value", String.class, TestObject.class, PropertyKey.FLAG_NOT_NULL, "");
+		
+		public void raise(EventKey<EventArgs> key)
+		{
+			this.raise(key, EventArgs.EMPTY);
+		}
+	}
+	
+	
+	// Subscriber of boxed int property which counts received notifications.
+	static final class BoxedSubscriber implements PropertyChangedCallback<Integer>
+	{
+		public int count;
+		
+		@Override
+		public void onPropertyChanged(PropertySource source, PropertyKey<Integer> key, PropertyChangeEventArgs<Integer> e)
+		{
+			++this.count;
+		}
+	}
+	
+	
+	// Subscriber which counts received notifications.
+	static final class Subscriber implements EventHandler<EventArgs>, IntPropertyChangedCallback, PropertyChangedCallback<String>
+	{
+		public int count;
+		
+		@Override
+		public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+		{
+			++this.count;
+		}
+		
+		@Override
+		public void onPropertyChanged(PropertySource source, IntPropertyKey key, int oldValue, int newValue)
+		{
+			++this.count;
+		}
+		
+		@Override
+		public void onPropertyChanged(PropertySource source, PropertyKey<String> key, PropertyChangeEventArgs<String> e)
+		{
+			++this.count;
+		}
+	}
+	
+	
+	// Subscriber which removes and adds handler while event is being dispatched.
+	static final class ChurnSubscriber implements EventHandler<EventArgs>
+	{
+		private final Subscriber m_Handler = new Subscriber();
+		
+		@Override
+		public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+		{
+			TestObject obj = (TestObject)source;
+			obj.removeHandler(key, m_Handler);
+			obj.addHandler(key, m_Handler);
+		}
+	}
+	
+	
+	/**
+	 * Add and remove event handler.
+	 * @return Number of received notifications.
+	 */
+	@Benchmark
+	public int addRemoveHandler()
+	{
+		m_Object.addHandler(TestObject.EVENT_TEST, m_Subscriber);
+		m_Object.removeHandler(TestObject.EVENT_TEST, m_Subscriber);
+		return m_Subscriber.count;
+	}
+	
+	
+	/**
+	 * Get object property value.
+	 * @return Property value.
+	 */
+	@Benchmark
+	public String get()
+	{
+		return m_Object.get(TestObject.PROP_VALUE);
+	}
+	
+	
+	/**
+	 * Get int property value.
+	 * @return Property value.
+	 */
+	@Benchmark
+	public int getInt()
+	{
+		return m_Object.getInt(TestObject.PROP_INT_VALUE);
+	}
+	
+	
+	/**
+	 * Raise event.
+	 * @return Number of received notifications.
+	 */
+	@Benchmark
+	public int raise()
+	{
+		m_Object.raise(TestObject.EVENT_TEST);
+		return m_Subscriber.count;
+	}
+	
+	
+	/**
+	 * Raise event while one of handlers removes and adds another handler during dispatch.
+	 * @return Number of received notifications.
+	 */
+	@Benchmark
+	public int raiseWithHandlerChanges()
+	{
+		m_Object.raise(TestObject.EVENT_CHURN);
+		return m_Subscriber.count;
+	}
+	
+	
+	/**
+	 * Change object property value.
+	 * @return Whether property value is changed or not.
+	 */
+	@Benchmark
+	public boolean set()
+	{
+		return m_Object.set(TestObject.PROP_VALUE, VALUES[++m_Counter & 1]);
+	}
+	
+	
+	/**
+	 * Change int property value through boxed property key, values are out of range of Integer cache.
+	 * @return Whether property value is changed or not.
+	 */
+	@Benchmark
+	public boolean setBoxedInt()
+	{
+		return m_Object.set(TestObject.PROP_BOXED_INT_VALUE, (++m_Counter | 0x10000));
+	}
+	
+	
+	/**
+	 * Change int property value.
+	 * @return Whether property value is changed or not.
+	 */
+	@Benchmark
+	public boolean setInt()
+	{
+		return m_Object.setInt(TestObject.PROP_INT_VALUE, ++m_Counter);
+	}
+	
+	
+	/**
+	 * Prepare object and subscribers.
+	 */
+	@Setup
+	public void setup()
+	{
+		m_Object = new TestObject();
+		for(int i = 0 ; i < this.subscriberCount ; ++i)
+		{
+			Subscriber subscriber = (i == 0 ? m_Subscriber : new Subscriber());
+			m_Object.addHandler(TestObject.EVENT_TEST, subscriber);
+			m_Object.addHandler(TestObject.EVENT_CHURN, subscriber);
+			m_Object.addCallback(TestObject.PROP_BOXED_INT_VALUE, new BoxedSubscriber());
+			m_Object.addCallback(TestObject.PROP_INT_VALUE, subscriber);
+			m_Object.addCallback(TestObject.PROP_VALUE, subscriber);
+		}
+		m_Object.addHandler(TestObject.EVENT_CHURN, new ChurnSubscriber());
+	}
+	
+	
+	/**
+	 * Release object.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		m_Object.release();
+	}
+}
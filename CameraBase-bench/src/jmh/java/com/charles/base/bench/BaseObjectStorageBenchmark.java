@@ -0,0 +1,443 @@
+package com.charles.base.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.charles.base.BasicBaseObject;
+import com.charles.base.EventArgs;
+import com.charles.base.EventHandler;
+import com.charles.base.EventKey;
+import com.charles.base.EventSource;
+import com.charles.base.PropertyChangeEventArgs;
+import com.charles.base.PropertyChangedCallback;
+import com.charles.base.PropertyKey;
+import com.charles.base.PropertySource;
+
+/**
+ * Benchmarks of get, set and raise on {@link BasicBaseObject} with per-owner slot tables, compared with the same object using former storage which finds entries in SparseArray by global key ID.
+ * Keys of other types are created between keys of the object so that global key IDs are sparse as in application.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BaseObjectStorageBenchmark
+{
+	/**
+	 * Number of properties and events stored in object.
+	 */
+	@Param({ "4", "32" })
+	public int entryCount;
+	/**
+	 * Storage of properties and events, {@code slotTable} for {@link BasicBaseObject} or {@code sparseArray} for former storage.
+	 */
+	@Param({ "slotTable", "sparseArray" })
+	public String storage;
+	
+	
+	// Constants
+	private static final List<EventKey<EventArgs>> EVENTS = new ArrayList<>();
+	private static final int LOOKUP_COUNT = 1024;
+	private static final int MAX_ENTRY_COUNT = 32;
+	private static final List<PropertyKey<String>> PROPERTIES = new ArrayList<>();
+	private static final String[] VALUES = new String[]{ "A", "B" };
+	
+	
+	// Private fields
+	private int m_Counter;
+	private EventKey<EventArgs>[] m_LookupEvents;
+	private int m_LookupIndex;
+	private PropertyKey<String>[] m_LookupProperties;
+	private TestObject m_Object;
+	private final Subscriber m_Subscriber = new Subscriber();
+	
+	
+	// Create keys, keys of other owner are interleaved to spread global key IDs.
+	static
+	{
+		for(int i = 0 ; i < MAX_ENTRY_COUNT ; ++i)
+		{
+			EVENTS.add(new EventKey<>("Event" + i, EventArgs.class, TestObject.class));
+			new EventKey<>("OtherEvent" + i, EventArgs.class, OtherObject.class);
+			PROPERTIES.add(new PropertyKey<>("Value" + i, String.class, TestObject.class, PropertyKey.FLAG_NOT_NULL, ""));
+			new PropertyKey<>("OtherValue" + i, String.class, OtherObject.class, PropertyKey.FLAG_NOT_NULL, "");
+		}
+	}
+	
+	
+	// Owner of keys which are not stored in object.
+	static abstract class OtherObject extends BasicBaseObject
+	{}
+	
+	
+	// Object to benchmark.
+	static class TestObject extends BasicBaseObject
+	{
+		public void raise(EventKey<EventArgs> key)
+		{
+			this.raise(key, EventArgs.EMPTY);
+		}
+	}
+	
+	
+	// Object which stores properties and events in SparseArray by global key ID, with the same get, set and raise as BasicBaseObject before slot tables.
+	static final class SparseArrayObject extends TestObject
+	{
+		private final IdMap<Event> m_Events = new IdMap<>();
+		private final IdMap<Property> m_Properties = new IdMap<>();
+		
+		@Override
+		public <TValue> void addCallback(PropertyKey<TValue> key, PropertyChangedCallback<TValue> callback)
+		{
+			this.verifyAccess();
+			Property property = m_Properties.get(key.id);
+			if(property == null)
+			{
+				property = new Property(key);
+				m_Properties.put(key.id, property);
+			}
+			if(property.callbacks == null)
+				property.callbacks = new ArrayList<>();
+			property.callbacks.add(callback);
+		}
+		
+		@Override
+		public <TArgs extends EventArgs> void addHandler(EventKey<TArgs> key, EventHandler<TArgs> handler)
+		{
+			this.verifyAccess();
+			Event event = m_Events.get(key.id);
+			if(event == null)
+			{
+				event = new Event(key);
+				m_Events.put(key.id, event);
+			}
+			if(event.handlers == null)
+				event.handlers = new ArrayList<>();
+			event.handlers.add(handler);
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public <TValue> TValue get(PropertyKey<TValue> key)
+		{
+			if(key == PROP_IS_RELEASED)
+				return super.get(key);
+			Property property = m_Properties.get(key.id);
+			while(property != null && property.key != key)
+				property = m_Properties.get(key.id);
+			if(property != null && property.hasValue)
+				return (TValue)property.value;
+			return key.defaultValue;
+		}
+		
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		private boolean notifyPropertyChanged(Property property, Object oldValue, Object newValue)
+		{
+			if(oldValue != null ? oldValue.equals(newValue) : newValue == null)
+				return false;
+			++property.version;
+			++property.updatingCounter;
+			try
+			{
+				List<PropertyChangedCallback<?>> callbacks = property.callbacks;
+				if(callbacks != null && !callbacks.isEmpty())
+				{
+					int version = property.version;
+					PropertyChangeEventArgs<?> e = PropertyChangeEventArgs.obtain(oldValue, newValue);
+					for(int i = 0, count = callbacks.size() ; i < count ; ++i)
+					{
+						callbacks.get(i).onPropertyChanged(this, (PropertyKey)property.key, (PropertyChangeEventArgs)e);
+						if(version != property.version)
+							break;
+					}
+					e.recycle();
+				}
+				return true;
+			}
+			finally
+			{
+				--property.updatingCounter;
+				if(property.updatingCounter <= 0)
+				{
+					property.removingCallbacks = null;
+					property.addingCallbacks = null;
+				}
+			}
+		}
+		
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		@Override
+		protected <TArgs extends EventArgs> void raise(EventKey<TArgs> key, TArgs e)
+		{
+			this.verifyEvent(key);
+			this.verifyAccess();
+			Event event = m_Events.get(key.id);
+			if(event == null)
+				return;
+			++event.raisingCounter;
+			try
+			{
+				List<EventHandler<?>> handlers = event.handlers;
+				if(handlers != null && !handlers.isEmpty())
+				{
+					for(int i = 0, count = handlers.size() ; i < count ; ++i)
+					{
+						EventHandler handler = handlers.get(i);
+						handler.onEventReceived(this, key, e);
+					}
+				}
+			}
+			finally
+			{
+				--event.raisingCounter;
+				if(event.raisingCounter <= 0)
+				{
+					event.removingHandlers = null;
+					event.addingHandlers = null;
+				}
+			}
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public <TValue> boolean set(PropertyKey<TValue> key, TValue value)
+		{
+			if(key.isReadOnly())
+				throw new RuntimeException("Property " + key + " is read-only.");
+			this.verifyProperty(key);
+			this.verifyAccess();
+			TValue oldValue;
+			Property property = m_Properties.get(key.id);
+			if(property != null)
+				oldValue = (TValue)(property.hasValue ? property.value : property.key.defaultValue);
+			else
+			{
+				property = new Property(key);
+				m_Properties.put(key.id, property);
+				oldValue = key.defaultValue;
+			}
+			property.hasValue = true;
+			property.value = value;
+			return this.notifyPropertyChanged(property, oldValue, value);
+		}
+	}
+	
+	
+	// Event stored in SparseArray.
+	static final class Event
+	{
+		public List<EventHandler<?>> addingHandlers;
+		public List<EventHandler<?>> handlers;
+		public final EventKey<?> key;
+		public int raisingCounter;
+		public List<EventHandler<?>> removingHandlers;
+		
+		public Event(EventKey<?> key)
+		{
+			this.key = key;
+		}
+	}
+	
+	
+	// Map from key ID to value with the same layout and binary search as android.util.SparseArray.
+	static final class IdMap<T>
+	{
+		private int[] m_Keys = new int[10];
+		private int m_Size;
+		private Object[] m_Values = new Object[10];
+		
+		private int binarySearch(int key)
+		{
+			int low = 0;
+			int high = (m_Size - 1);
+			while(low <= high)
+			{
+				int middle = ((low + high) >>> 1);
+				int middleKey = m_Keys[middle];
+				if(middleKey < key)
+					low = (middle + 1);
+				else if(middleKey > key)
+					high = (middle - 1);
+				else
+					return middle;
+			}
+			return ~low;
+		}
+		
+		@SuppressWarnings("unchecked")
+		public T get(int key)
+		{
+			int index = this.binarySearch(key);
+			return (index >= 0 ? (T)m_Values[index] : null);
+		}
+		
+		public void put(int key, T value)
+		{
+			int index = this.binarySearch(key);
+			if(index >= 0)
+			{
+				m_Values[index] = value;
+				return;
+			}
+			index = ~index;
+			if(m_Size == m_Keys.length)
+			{
+				int[] keys = new int[m_Size * 2];
+				Object[] values = new Object[m_Size * 2];
+				System.arraycopy(m_Keys, 0, keys, 0, m_Size);
+				System.arraycopy(m_Values, 0, values, 0, m_Size);
+				m_Keys = keys;
+				m_Values = values;
+			}
+			System.arraycopy(m_Keys, index, m_Keys, index + 1, m_Size - index);
+			System.arraycopy(m_Values, index, m_Values, index + 1, m_Size - index);
+			m_Keys[index] = key;
+			m_Values[index] = value;
+			++m_Size;
+		}
+	}
+	
+	
+	// Property stored in SparseArray.
+	static final class Property
+	{
+		public List<PropertyChangedCallback<?>> addingCallbacks;
+		public List<PropertyChangedCallback<?>> callbacks;
+		public volatile boolean hasValue;
+		public final PropertyKey<?> key;
+		public List<PropertyChangedCallback<?>> removingCallbacks;
+		public int updatingCounter;
+		public volatile Object value;
+		public int version;
+		
+		public Property(PropertyKey<?> key)
+		{
+			this.key = key;
+		}
+	}
+	
+	
+	// Subscriber which counts received notifications.
+	static final class Subscriber implements EventHandler<EventArgs>, PropertyChangedCallback<String>
+	{
+		public int count;
+		
+		@Override
+		public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+		{
+			++this.count;
+		}
+		
+		@Override
+		public void onPropertyChanged(PropertySource source, PropertyKey<String> key, PropertyChangeEventArgs<String> e)
+		{
+			++this.count;
+		}
+	}
+	
+	
+	/**
+	 * Get property value.
+	 * @return Property value.
+	 */
+	@Benchmark
+	public String get()
+	{
+		return m_Object.get(m_LookupProperties[this.nextLookup()]);
+	}
+	
+	
+	// Get index of next key to access.
+	private int nextLookup()
+	{
+		int index = m_LookupIndex;
+		m_LookupIndex = ((index + 1) & (LOOKUP_COUNT - 1));
+		return index;
+	}
+	
+	
+	/**
+	 * Raise event.
+	 * @return Number of received notifications.
+	 */
+	@Benchmark
+	public int raise()
+	{
+		m_Object.raise(m_LookupEvents[this.nextLookup()]);
+		return m_Subscriber.count;
+	}
+	
+	
+	/**
+	 * Change property value.
+	 * @return Whether property value is changed or not.
+	 */
+	@Benchmark
+	public boolean set()
+	{
+		return m_Object.set(m_LookupProperties[this.nextLookup()], VALUES[++m_Counter & 1]);
+	}
+	
+	
+	/**
+	 * Prepare object, subscribers and order of access.
+	 */
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setup()
+	{
+		// create object
+		if("slotTable".equals(this.storage))
+			m_Object = new TestObject();
+		else if("sparseArray".equals(this.storage))
+			m_Object = new SparseArrayObject();
+		else
+			throw new IllegalArgumentException("Unknown storage : " + this.storage);
+		
+		// add subscribers
+		for(int i = 0 ; i < this.entryCount ; ++i)
+		{
+			m_Object.addHandler(EVENTS.get(i), m_Subscriber);
+			m_Object.addCallback(PROPERTIES.get(i), m_Subscriber);
+			m_Object.set(PROPERTIES.get(i), VALUES[0]);
+		}
+		
+		// prepare order of access
+		Random random = new Random(0);
+		m_LookupEvents = new EventKey[LOOKUP_COUNT];
+		m_LookupProperties = new PropertyKey[LOOKUP_COUNT];
+		for(int i = 0 ; i < LOOKUP_COUNT ; ++i)
+		{
+			int index = random.nextInt(this.entryCount);
+			m_LookupEvents[i] = EVENTS.get(index);
+			m_LookupProperties[i] = PROPERTIES.get(index);
+		}
+	}
+	
+	
+	/**
+	 * Release object.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		m_Object.release();
+	}
+}
@@ -0,0 +1,263 @@
+package com.charles.base.bench;
+
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.charles.camera.BurstCaptureEngine;
+import com.charles.camera.BurstCaptureStats;
+
+/**
+ * Measures throughput of running {@link BurstCaptureEngine} end to end against fake camera and fake file saver in simulated time.
+ * Each run performs a burst until it is stopped and waits for all frames to be saved, pacing and limits of bursts are verified by BurstCaptureEngineTest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BurstCaptureBenchmark
+{
+	/**
+	 * Time to save one picture in milliseconds, 40 ms is faster than target rate and 150 ms is slower.
+	 */
+	@Param({ "40", "150" })
+	public int saveMillis;
+	
+	
+	// Constants
+	private static final long BURST_DURATION = 10000;
+	private static final int EVENT_CAPTURE_COMPLETED = 0;
+	private static final int EVENT_FRAME_CAPTURED = 1;
+	private static final int EVENT_FRAME_FAILED = 2;
+	private static final int EVENT_FRAME_SAVED = 3;
+	private static final int EVENT_STOP = 4;
+	private static final int EVENT_UPDATE = 5;
+	private static final float FRAME_FAILURE_RATE = 0.02f;
+	private static final long FRAME_INTERVAL = 33;
+	private static final int FRAMES_IN_FLIGHT_LIMIT = 8;
+	private static final long HEAP_SIZE = (64L << 20);
+	private static final long MEMORY_BUDGET = (16L << 20);
+	private static final long PICTURE_SIZE = (3L << 20);
+	private static final float SAVE_FAILURE_RATE = 0.01f;
+	private static final long SHUTTER_LAG = 60;
+	private static final float TARGET_RATE = 15;
+	
+	
+	// Private fields
+	private BurstCaptureEngine m_Engine;
+	private final PriorityQueue<Event> m_Events = new PriorityQueue<>();
+	private boolean m_IsCameraBusy;
+	private long m_NextEventSequence;
+	private Random m_Random;
+	private final ArrayDeque<Long> m_SaveQueue = new ArrayDeque<>();
+	private BurstCaptureStats m_Stats;
+	private long m_Time;
+	private long m_UpdateSequence = -1;
+	
+	
+	// Simulated event.
+	private static final class Event implements Comparable<Event>
+	{
+		public final long sequence;
+		public final long time;
+		public final int type;
+		
+		public Event(long time, int type, long sequence)
+		{
+			this.time = time;
+			this.type = type;
+			this.sequence = sequence;
+		}
+		
+		@Override
+		public int compareTo(Event other)
+		{
+			if(this.time != other.time)
+				return (this.time < other.time ? -1 : 1);
+			return Long.compare(this.sequence, other.sequence);
+		}
+	}
+	
+	
+	/**
+	 * Burst statistics collected during measurement.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class BurstCounters
+	{
+		/**
+		 * Number of dropped frames.
+		 */
+		public long droppedFrames;
+		
+		/**
+		 * Number of saved frames.
+		 */
+		public long savedFrames;
+		
+		
+		/**
+		 * Reset counters.
+		 */
+		@Setup(Level.Iteration)
+		public void reset()
+		{
+			this.droppedFrames = 0;
+			this.savedFrames = 0;
+		}
+	}
+	
+	
+	// Fake camera and file saver.
+	private final BurstCaptureEngine.Backend m_Backend = new BurstCaptureEngine.Backend()
+	{
+		@Override
+		public long getAvailableMemory()
+		{
+			return (HEAP_SIZE - m_Engine.getFramesInFlight() * PICTURE_SIZE);
+		}
+		
+		@Override
+		public int getSaveQueueDepth()
+		{
+			return m_SaveQueue.size();
+		}
+		
+		@Override
+		public void onCaptureStopped()
+		{}
+		
+		@Override
+		public void onStatsUpdated(BurstCaptureStats stats)
+		{
+			m_Stats = stats;
+		}
+		
+		@Override
+		public boolean requestFrames(int frameCount)
+		{
+			m_IsCameraBusy = true;
+			long time = (m_Time + SHUTTER_LAG);
+			for(int i = 0 ; i < frameCount ; ++i, time += FRAME_INTERVAL)
+				schedule(time, (m_Random.nextFloat() < FRAME_FAILURE_RATE ? EVENT_FRAME_FAILED : EVENT_FRAME_CAPTURED));
+			schedule(time, EVENT_CAPTURE_COMPLETED);
+			return true;
+		}
+		
+		@Override
+		public void scheduleUpdate(long delay)
+		{
+			m_UpdateSequence = schedule(m_Time + delay, EVENT_UPDATE);
+		}
+	};
+	
+	
+	// Handle simulated event.
+	private void handleEvent(Event event)
+	{
+		switch(event.type)
+		{
+			case EVENT_CAPTURE_COMPLETED:
+				m_IsCameraBusy = false;
+				m_Engine.onCaptureCompleted(m_Time);
+				break;
+			case EVENT_FRAME_CAPTURED:
+				m_SaveQueue.addLast(m_Time);
+				if(m_SaveQueue.size() == 1)
+					this.schedule(m_Time + this.saveMillis, EVENT_FRAME_SAVED);
+				m_Engine.onFrameCaptured(PICTURE_SIZE, m_Time);
+				break;
+			case EVENT_FRAME_FAILED:
+				m_Engine.onFrameFailed(m_Time);
+				break;
+			case EVENT_FRAME_SAVED:
+				m_SaveQueue.removeFirst();
+				if(!m_SaveQueue.isEmpty())
+					this.schedule(m_Time + this.saveMillis, EVENT_FRAME_SAVED);
+				if(m_Random.nextFloat() < SAVE_FAILURE_RATE)
+					m_Engine.onFrameSaveFailed(m_Time);
+				else
+					m_Engine.onFrameSaved(m_Time);
+				break;
+			case EVENT_STOP:
+				m_Engine.stop(m_Time);
+				break;
+			case EVENT_UPDATE:
+				if(event.sequence == m_UpdateSequence)
+					m_Engine.update(m_Time);
+				break;
+		}
+	}
+	
+	
+	/**
+	 * Run one burst.
+	 * @param counters Burst counters.
+	 * @return Number of saved frames.
+	 */
+	@Benchmark
+	public long runBurst(BurstCounters counters)
+	{
+		// start burst
+		m_Time = 0;
+		m_Events.clear();
+		m_SaveQueue.clear();
+		m_IsCameraBusy = false;
+		m_UpdateSequence = -1;
+		if(!m_Engine.start(-1, m_Time))
+			throw new IllegalStateException("Fail to start burst");
+		this.schedule(BURST_DURATION, EVENT_STOP);
+		
+		// run until all frames are saved
+		Event event;
+		while((event = m_Events.poll()) != null)
+		{
+			m_Time = event.time;
+			this.handleEvent(event);
+		}
+		
+		// update counters
+		BurstCaptureStats stats = m_Stats;
+		counters.droppedFrames += stats.getFramesDropped();
+		counters.savedFrames += stats.getFramesSaved();
+		return stats.getFramesSaved();
+	}
+	
+	
+	// Schedule simulated event.
+	private long schedule(long time, int type)
+	{
+		long sequence = m_NextEventSequence++;
+		m_Events.add(new Event(time, type, sequence));
+		return sequence;
+	}
+	
+	
+	/**
+	 * Prepare engine.
+	 */
+	@Setup
+	public void setup()
+	{
+		m_Random = new Random(0);
+		m_Engine = new BurstCaptureEngine(m_Backend, TARGET_RATE, FRAMES_IN_FLIGHT_LIMIT, MEMORY_BUDGET);
+	}
+}
@@ -0,0 +1,259 @@
+package com.charles.base.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.charles.camera.CaptureFrameMatcher;
+
+/**
+ * Measures throughput of replaying 30 fps bursts through {@link CaptureFrameMatcher} with shuffled capture start, capture result and picture arrival orders, failed captures and lost pictures.
+ * Correctness of joined frames is verified by CaptureFrameMatcherTest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CaptureMatchingBenchmark
+{
+	/**
+	 * Number of frames in one burst.
+	 */
+	@Param({ "30", "120" })
+	public int burstSize;
+	
+	/**
+	 * Maximum displacement of each call-back from its nominal arrival order, in frames.
+	 */
+	@Param({ "0", "3" })
+	public int shuffleDistance;
+	
+	
+	// Constants
+	private static final int EVENT_STARTED = 0;
+	private static final int EVENT_RESULT = 1;
+	private static final int EVENT_FAILED = 2;
+	private static final int EVENT_PICTURE = 3;
+	private static final long FRAME_INTERVAL = (1000000000L / 30);
+	private static final float FAILURE_RATE = 0.03f;
+	private static final float PICTURE_LOSS_RATE = 0.02f;
+	private static final int SCENARIO_COUNT = 16;
+	private static final long TIMEOUT = (FRAME_INTERVAL * 10);
+	
+	
+	// Private fields
+	private CaptureFrameMatcher<Long, Long> m_Matcher;
+	private long[] m_Pictures;
+	private long[] m_Results;
+	private Scenario[] m_Scenarios;
+	private int m_ScenarioIndex;
+	
+	
+	// Replayed burst.
+	private static final class Scenario
+	{
+		public int[] eventFrames;
+		public long[] eventTimes;
+		public int[] eventTypes;
+	}
+	
+	
+	/**
+	 * Matching statistics collected during measurement.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class MatchingCounters
+	{
+		/**
+		 * Number of frames reported as failed.
+		 */
+		public long failedFrames;
+		
+		/**
+		 * Number of joined frames.
+		 */
+		public long matchedFrames;
+		
+		
+		/**
+		 * Reset counters.
+		 */
+		@Setup(Level.Iteration)
+		public void reset()
+		{
+			this.failedFrames = 0;
+			this.matchedFrames = 0;
+		}
+	}
+	
+	
+	// Create shuffled call-back sequence of one burst.
+	private Scenario createScenario(Random random)
+	{
+		// create call-backs with nominal order
+		int frameCount = this.burstSize;
+		int[] types = new int[frameCount * 3];
+		int[] frames = new int[frameCount * 3];
+		double[] keys = new double[frameCount * 3];
+		int eventCount = 0;
+		for(int i = 0 ; i < frameCount ; ++i)
+		{
+			boolean failed = (random.nextFloat() < FAILURE_RATE);
+			boolean pictureLost = (!failed && random.nextFloat() < PICTURE_LOSS_RATE);
+			for(int type = EVENT_STARTED ; type <= EVENT_PICTURE ; ++type)
+			{
+				if(type == EVENT_RESULT && failed)
+					continue;
+				if(type == EVENT_FAILED && !failed)
+					continue;
+				if(type == EVENT_PICTURE && (failed || pictureLost))
+					continue;
+				types[eventCount] = type;
+				frames[eventCount] = i;
+				keys[eventCount] = (i + (type == EVENT_STARTED ? 0 : 1) + random.nextDouble() * this.shuffleDistance);
+				++eventCount;
+			}
+		}
+		
+		// sort by shuffled arrival order
+		Integer[] order = new Integer[eventCount];
+		for(int i = 0 ; i < eventCount ; ++i)
+			order[i] = i;
+		final double[] sortKeys = keys;
+		Arrays.sort(order, new java.util.Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer lhs, Integer rhs)
+			{
+				return Double.compare(sortKeys[lhs], sortKeys[rhs]);
+			}
+		});
+		Scenario scenario = new Scenario();
+		scenario.eventTypes = new int[eventCount];
+		scenario.eventFrames = new int[eventCount];
+		scenario.eventTimes = new long[eventCount];
+		for(int i = 0 ; i < eventCount ; ++i)
+		{
+			int index = order[i];
+			scenario.eventTypes[i] = types[index];
+			scenario.eventFrames[i] = frames[index];
+			scenario.eventTimes[i] = (long)(keys[index] * FRAME_INTERVAL);
+		}
+		return scenario;
+	}
+	
+	
+	/**
+	 * Replay one burst.
+	 * @param counters Matching counters.
+	 * @return Number of joined frames.
+	 */
+	@Benchmark
+	public long replayBurst(MatchingCounters counters)
+	{
+		// replay call-backs
+		Scenario scenario = m_Scenarios[m_ScenarioIndex];
+		m_ScenarioIndex = ((m_ScenarioIndex + 1) % SCENARIO_COUNT);
+		long matchedCount = m_Matcher.getMatchedFrameCount();
+		long failedCount = m_Matcher.getFailedFrameCount();
+		long time = 0;
+		for(int i = 0, count = scenario.eventTypes.length ; i < count ; ++i)
+		{
+			int frame = scenario.eventFrames[i];
+			time = scenario.eventTimes[i];
+			switch(scenario.eventTypes[i])
+			{
+				case EVENT_STARTED:
+					m_Matcher.onCaptureStarted(frame, getFrameNumber(frame), getTimestamp(frame), time);
+					break;
+				case EVENT_RESULT:
+					m_Matcher.onCaptureResult(getFrameNumber(frame), getTimestamp(frame), m_Results[frame], time);
+					break;
+				case EVENT_FAILED:
+					m_Matcher.onCaptureFailed(getFrameNumber(frame), time);
+					break;
+				case EVENT_PICTURE:
+					m_Matcher.onPictureReceived(getTimestamp(frame), m_Pictures[frame], time);
+					break;
+			}
+			m_Matcher.expire(time);
+		}
+		m_Matcher.expire(time + TIMEOUT);
+		
+		// update counters
+		matchedCount = (m_Matcher.getMatchedFrameCount() - matchedCount);
+		counters.matchedFrames += matchedCount;
+		counters.failedFrames += (m_Matcher.getFailedFrameCount() - failedCount);
+		return matchedCount;
+	}
+	
+	
+	// Get frame number of given frame, capture frames are interleaved with preview frames.
+	private static long getFrameNumber(int frame)
+	{
+		return (1000 + frame * 2L);
+	}
+	
+	
+	// Get sensor timestamp of given frame.
+	private static long getTimestamp(int frame)
+	{
+		return (5000000000L + frame * FRAME_INTERVAL);
+	}
+	
+	
+	/**
+	 * Prepare scenarios and matcher.
+	 */
+	@Setup
+	public void setup()
+	{
+		// prepare parts
+		m_Results = new long[this.burstSize];
+		m_Pictures = new long[this.burstSize];
+		for(int i = this.burstSize - 1 ; i >= 0 ; --i)
+		{
+			m_Results[i] = i;
+			m_Pictures[i] = -i;
+		}
+		
+		// prepare scenarios
+		Random random = new Random(0);
+		m_Scenarios = new Scenario[SCENARIO_COUNT];
+		for(int i = 0 ; i < SCENARIO_COUNT ; ++i)
+			m_Scenarios[i] = this.createScenario(random);
+		
+		// create matcher
+		m_Matcher = new CaptureFrameMatcher<>(16, TIMEOUT, new CaptureFrameMatcher.Callback<Long, Long>()
+		{
+			@Override
+			public void onFrameFailed(int index, long frameNumber, Long result, Long picture)
+			{}
+			
+			@Override
+			public void onFrameMatched(int index, long frameNumber, Long result, Long picture)
+			{}
+			
+			@Override
+			public void onOrphanDropped(Long result, Long picture)
+			{}
+		});
+	}
+}
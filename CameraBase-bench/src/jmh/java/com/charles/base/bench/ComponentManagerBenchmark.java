@@ -0,0 +1,209 @@
+package com.charles.base.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.os.Looper;
+
+import com.charles.base.HandlerBaseObject;
+import com.charles.base.component.BasicComponent;
+import com.charles.base.component.Component;
+import com.charles.base.component.ComponentBuilder;
+import com.charles.base.component.ComponentCreationPriority;
+import com.charles.base.component.ComponentManager;
+import com.charles.base.component.ComponentOwner;
+
+/**
+ * Benchmarks of {@link ComponentManager#findComponent(Class, Object...)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComponentManagerBenchmark
+{
+	/**
+	 * Number of components other than target component, camera thread and main activity host about 10 to 20 components each.
+	 */
+	@Param({ "8", "32" })
+	public int componentCount;
+	
+	
+	// Private fields
+	private ComponentManager m_ComponentManager;
+	private TestOwner m_Owner;
+	
+	
+	// Interface of target component.
+	interface TargetComponent extends Component
+	{}
+	
+	
+	// Interface which is not implemented by any component.
+	interface MissingComponent extends Component
+	{}
+	
+	
+	// Interfaces of filler components.
+	interface FillerComponentA extends Component
+	{}
+	interface FillerComponentB extends Component
+	{}
+	
+	
+	// Component owner.
+	static final class TestOwner extends HandlerBaseObject implements ComponentOwner
+	{
+		private final ComponentManager m_ComponentManager;
+		
+		public TestOwner(ComponentManager componentManager)
+		{
+			super(true);
+			m_ComponentManager = componentManager;
+		}
+		
+		@Override
+		public <TComponent extends Component> TComponent findComponent(Class<TComponent> componentType)
+		{
+			return m_ComponentManager.findComponent(componentType);
+		}
+		
+		@Override
+		public <TComponent extends Component> TComponent[] findComponents(Class<TComponent> componentType)
+		{
+			return m_ComponentManager.findComponents(componentType);
+		}
+		
+		@Override
+		public void removeComponent(Component component)
+		{
+			m_ComponentManager.removeComponent(component);
+		}
+	}
+	
+	
+	// Component implementations.
+	static final class TargetComponentImpl extends BasicComponent implements TargetComponent
+	{
+		public TargetComponentImpl(ComponentOwner owner)
+		{
+			super("Target", owner, false);
+		}
+	}
+	static final class FillerComponentAImpl extends BasicComponent implements FillerComponentA
+	{
+		public FillerComponentAImpl(ComponentOwner owner)
+		{
+			super("FillerA", owner, false);
+		}
+	}
+	static final class FillerComponentBImpl extends BasicComponent implements FillerComponentA, FillerComponentB
+	{
+		public FillerComponentBImpl(ComponentOwner owner)
+		{
+			super("FillerB", owner, false);
+		}
+	}
+	
+	
+	// Builder of component.
+	static final class TestComponentBuilder implements ComponentBuilder
+	{
+		private final int m_Index;
+		private final TestOwner m_Owner;
+		
+		public TestComponentBuilder(TestOwner owner, int index)
+		{
+			m_Owner = owner;
+			m_Index = index;
+		}
+		
+		@Override
+		public Component create(Object... args)
+		{
+			if(m_Index < 0)
+				return new TargetComponentImpl(m_Owner);
+			if((m_Index & 1) == 0)
+				return new FillerComponentAImpl(m_Owner);
+			return new FillerComponentBImpl(m_Owner);
+		}
+		
+		@Override
+		public ComponentCreationPriority getPriority()
+		{
+			return ComponentCreationPriority.LAUNCH;
+		}
+		
+		@Override
+		public boolean isComponentTypeSupported(Class<?> componentType)
+		{
+			return false;
+		}
+	}
+	
+	
+	/**
+	 * Find component which is not hosted by manager.
+	 * @return Null component.
+	 */
+	@Benchmark
+	public MissingComponent findMissingComponent()
+	{
+		return m_ComponentManager.findComponent(MissingComponent.class);
+	}
+	
+	
+	/**
+	 * Find component which is scanned last by manager.
+	 * @return Found component.
+	 */
+	@Benchmark
+	public TargetComponent findTargetComponent()
+	{
+		return m_ComponentManager.findComponent(TargetComponent.class);
+	}
+	
+	
+	/**
+	 * Prepare components, messages sent to benchmark thread are never dispatched.
+	 */
+	@Setup
+	public void setup()
+	{
+		if(Looper.myLooper() == null)
+			Looper.prepare();
+		m_ComponentManager = new ComponentManager();
+		m_Owner = new TestOwner(m_ComponentManager);
+		m_ComponentManager.createComponents(ComponentCreationPriority.LAUNCH);
+		m_ComponentManager.addComponentBuilder(new TestComponentBuilder(m_Owner, -1));
+		for(int i = 0 ; i < this.componentCount ; ++i)
+			m_ComponentManager.addComponentBuilder(new TestComponentBuilder(m_Owner, i));
+		if(m_ComponentManager.findComponent(TargetComponent.class) == null)
+			throw new IllegalStateException("No target component");
+	}
+	
+	
+	/**
+	 * Release components.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		m_ComponentManager.release();
+		m_Owner.release();
+	}
+}
@@ -0,0 +1,448 @@
+package com.charles.base.bench;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.os.HandlerThread;
+import android.os.Looper;
+
+import com.charles.base.bench.ComponentManagerBenchmark.TestOwner;
+import com.charles.base.component.BasicComponent;
+import com.charles.base.component.Component;
+import com.charles.base.component.ComponentBuilder;
+import com.charles.base.component.ComponentCreationPriority;
+import com.charles.base.component.ComponentManager;
+import com.charles.base.component.ComponentOwner;
+import com.charles.base.component.PreparableComponentBuilder;
+import com.charles.base.component.StartupProfile;
+
+/**
+ * Benchmarks of cold start of components which are created on demand but always used during startup, like file manager and audio manager of camera thread.
+ * Without trained {@link StartupProfile}, thread startup, media scanning and sound loading are performed on owner thread when components are found. With trained profile, they are prepared on worker thread while owner thread is blocked by creating components with {@link ComponentCreationPriority#HIGH HIGH} priority.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComponentStartupBenchmark
+{
+	/**
+	 * Whether startup profile is trained so that on-demand components are prepared early or not.
+	 */
+	@Param({ "false", "true" })
+	public boolean isProfileTrained;
+	
+	
+	// Constants
+	private static final int MEDIA_FILE_COUNT = 500;
+	private static final long OWNER_BLOCKING_MILLIS = 5;
+	private static final int SOUND_FILE_COUNT = 3;
+	private static final int SOUND_FILE_SIZE = (64 << 10);
+	
+	
+	// Private fields
+	private ComponentManager m_ComponentManager;
+	private File m_ColdProfileFile;
+	private File m_Folder;
+	private File m_MediaFolder;
+	private TestOwner m_Owner;
+	private File[] m_SoundFiles;
+	private File m_TrainedProfileFile;
+	
+	
+	// Interfaces of components.
+	interface FileScanner extends Component
+	{}
+	interface SoundLoader extends Component
+	{}
+	
+	
+	// Builder of component which blocks owner thread, like opening camera device.
+	static final class BlockingComponentBuilder implements ComponentBuilder
+	{
+		private final TestOwner m_Owner;
+		
+		public BlockingComponentBuilder(TestOwner owner)
+		{
+			m_Owner = owner;
+		}
+		
+		@Override
+		public Component create(Object... args)
+		{
+			try
+			{
+				Thread.sleep(OWNER_BLOCKING_MILLIS);
+			}
+			catch(InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+			}
+			return new BasicComponent("Blocking", m_Owner, false){};
+		}
+		
+		@Override
+		public ComponentCreationPriority getPriority()
+		{
+			return ComponentCreationPriority.HIGH;
+		}
+		
+		@Override
+		public boolean isComponentTypeSupported(Class<?> componentType)
+		{
+			return false;
+		}
+	}
+	
+	
+	// Component which owns file thread and scanned media files.
+	static final class FileScannerImpl extends BasicComponent implements FileScanner
+	{
+		public final List<File> mediaFiles;
+		private final HandlerThread m_Thread;
+		
+		public FileScannerImpl(ComponentOwner owner, FileScannerData data)
+		{
+			super("File scanner", owner, false);
+			m_Thread = data.thread;
+			this.mediaFiles = data.mediaFiles;
+		}
+		
+		@Override
+		protected void onRelease()
+		{
+			super.onRelease();
+			m_Thread.quit();
+		}
+	}
+	
+	
+	// Prepared data of file scanner.
+	static final class FileScannerData
+	{
+		public final List<File> mediaFiles;
+		public final HandlerThread thread;
+		
+		public FileScannerData(HandlerThread thread, List<File> mediaFiles)
+		{
+			this.thread = thread;
+			this.mediaFiles = mediaFiles;
+		}
+	}
+	
+	
+	// Builder of file scanner, which starts file thread and scans media files.
+	static final class FileScannerBuilder implements PreparableComponentBuilder
+	{
+		private final File m_MediaFolder;
+		private final TestOwner m_Owner;
+		
+		public FileScannerBuilder(TestOwner owner, File mediaFolder)
+		{
+			m_Owner = owner;
+			m_MediaFolder = mediaFolder;
+		}
+		
+		@Override
+		public Component create(Object... args)
+		{
+			return this.createPrepared(this.prepare(args), args);
+		}
+		
+		@Override
+		public Component createPrepared(Object preparedData, Object... args)
+		{
+			return new FileScannerImpl(m_Owner, (FileScannerData)preparedData);
+		}
+		
+		@Override
+		public void discardPrepared(Object preparedData, Object... args)
+		{
+			((FileScannerData)preparedData).thread.quit();
+		}
+		
+		@Override
+		public Class<?>[] getDependencies()
+		{
+			return null;
+		}
+		
+		@Override
+		public ComponentCreationPriority getPriority()
+		{
+			return ComponentCreationPriority.ON_DEMAND;
+		}
+		
+		@Override
+		public boolean isComponentTypeSupported(Class<?> componentType)
+		{
+			return componentType.isAssignableFrom(FileScannerImpl.class);
+		}
+		
+		@Override
+		public boolean isPreparationThreadIndependent()
+		{
+			return true;
+		}
+		
+		@Override
+		public Object prepare(Object... args)
+		{
+			// start thread
+			HandlerThread thread = new HandlerThread("File scanner");
+			thread.start();
+			thread.getLooper();
+			
+			// scan media files
+			File[] files = m_MediaFolder.listFiles();
+			Arrays.sort(files, new Comparator<File>()
+			{
+				@Override
+				public int compare(File lhs, File rhs)
+				{
+					return Long.compare(rhs.lastModified(), lhs.lastModified());
+				}
+			});
+			List<File> mediaFiles = new ArrayList<>(files.length);
+			for(int i = 0 ; i < files.length ; ++i)
+			{
+				if(files[i].getName().endsWith(".jpg") && files[i].length() > 0)
+					mediaFiles.add(files[i]);
+			}
+			return new FileScannerData(thread, mediaFiles);
+		}
+	}
+	
+	
+	// Component which owns loaded sounds.
+	static final class SoundLoaderImpl extends BasicComponent implements SoundLoader
+	{
+		public final byte[][] sounds;
+		
+		public SoundLoaderImpl(ComponentOwner owner, byte[][] sounds)
+		{
+			super("Sound loader", owner, false);
+			this.sounds = sounds;
+		}
+	}
+	
+	
+	// Builder of sound loader, which reads sound files.
+	static final class SoundLoaderBuilder implements PreparableComponentBuilder
+	{
+		private final TestOwner m_Owner;
+		private final File[] m_SoundFiles;
+		
+		public SoundLoaderBuilder(TestOwner owner, File[] soundFiles)
+		{
+			m_Owner = owner;
+			m_SoundFiles = soundFiles;
+		}
+		
+		@Override
+		public Component create(Object... args)
+		{
+			return this.createPrepared(this.prepare(args), args);
+		}
+		
+		@Override
+		public Component createPrepared(Object preparedData, Object... args)
+		{
+			return new SoundLoaderImpl(m_Owner, (byte[][])preparedData);
+		}
+		
+		@Override
+		public void discardPrepared(Object preparedData, Object... args)
+		{}
+		
+		@Override
+		public Class<?>[] getDependencies()
+		{
+			return null;
+		}
+		
+		@Override
+		public ComponentCreationPriority getPriority()
+		{
+			return ComponentCreationPriority.ON_DEMAND;
+		}
+		
+		@Override
+		public boolean isComponentTypeSupported(Class<?> componentType)
+		{
+			return componentType.isAssignableFrom(SoundLoaderImpl.class);
+		}
+		
+		@Override
+		public boolean isPreparationThreadIndependent()
+		{
+			return true;
+		}
+		
+		@Override
+		public Object prepare(Object... args)
+		{
+			byte[][] sounds = new byte[m_SoundFiles.length][];
+			for(int i = 0 ; i < m_SoundFiles.length ; ++i)
+			{
+				try(FileInputStream stream = new FileInputStream(m_SoundFiles[i]))
+				{
+					byte[] sound = new byte[(int)m_SoundFiles[i].length()];
+					for(int offset = 0, count ; offset < sound.length ; offset += count)
+					{
+						count = stream.read(sound, offset, sound.length - offset);
+						if(count < 0)
+							throw new IOException("Unexpected end of " + m_SoundFiles[i]);
+					}
+					sounds[i] = sound;
+				}
+				catch(IOException ex)
+				{
+					throw new RuntimeException(ex);
+				}
+			}
+			return sounds;
+		}
+	}
+	
+	
+	// Delete given file or folder recursively.
+	private static void delete(File file)
+	{
+		File[] files = file.listFiles();
+		if(files != null)
+		{
+			for(int i = files.length - 1 ; i >= 0 ; --i)
+				delete(files[i]);
+		}
+		file.delete();
+	}
+	
+	
+	/**
+	 * Create component manager with startup profile and add builders.
+	 */
+	@Setup(Level.Invocation)
+	public void prepareLaunch()
+	{
+		m_ComponentManager = new ComponentManager();
+		m_Owner = new TestOwner(m_ComponentManager);
+		m_ComponentManager.setStartupProfile(StartupProfile.load(this.isProfileTrained ? m_TrainedProfileFile : m_ColdProfileFile));
+	}
+	
+	
+	/**
+	 * Release components of launch.
+	 */
+	@TearDown(Level.Invocation)
+	public void releaseLaunch()
+	{
+		m_ComponentManager.release();
+		m_Owner.release();
+	}
+	
+	
+	/**
+	 * Create files and train startup profile.
+	 * @throws IOException If files cannot be created.
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		// create media files
+		if(Looper.myLooper() == null)
+			Looper.prepare();
+		m_Folder = File.createTempFile("component-startup", "");
+		if(!m_Folder.delete() || !m_Folder.mkdir())
+			throw new IOException("Cannot create " + m_Folder);
+		m_MediaFolder = new File(m_Folder, "100MEDIA");
+		if(!m_MediaFolder.mkdir())
+			throw new IOException("Cannot create " + m_MediaFolder);
+		byte[] content = new byte[SOUND_FILE_SIZE];
+		for(int i = 0 ; i < MEDIA_FILE_COUNT ; ++i)
+		{
+			try(FileOutputStream stream = new FileOutputStream(new File(m_MediaFolder, "IMG_" + i + ".jpg")))
+			{
+				stream.write(content, 0, 1 + (i & 0xff));
+			}
+		}
+		
+		// create sound files
+		m_SoundFiles = new File[SOUND_FILE_COUNT];
+		for(int i = 0 ; i < SOUND_FILE_COUNT ; ++i)
+		{
+			m_SoundFiles[i] = new File(m_Folder, "sound" + i + ".ogg");
+			try(FileOutputStream stream = new FileOutputStream(m_SoundFiles[i]))
+			{
+				stream.write(content);
+			}
+		}
+		
+		// train profile
+		m_ColdProfileFile = new File(m_Folder, "cold.profile");
+		m_TrainedProfileFile = new File(m_Folder, "trained.profile");
+		for(int i = 0 ; i < StartupProfile.MIN_LAUNCH_COUNT ; ++i)
+		{
+			m_ComponentManager = new ComponentManager();
+			m_Owner = new TestOwner(m_ComponentManager);
+			StartupProfile profile = StartupProfile.load(m_TrainedProfileFile);
+			m_ComponentManager.setStartupProfile(profile);
+			this.startup();
+			profile.completeStartup();
+			profile.save();
+			this.releaseLaunch();
+		}
+	}
+	
+	
+	/**
+	 * Add builders, create components with {@link ComponentCreationPriority#HIGH HIGH} priority, then find on-demand components used during startup.
+	 * @return Number of media files.
+	 */
+	@Benchmark
+	public int startup()
+	{
+		m_ComponentManager.addComponentBuilders(new ComponentBuilder[]{
+			new BlockingComponentBuilder(m_Owner),
+			new FileScannerBuilder(m_Owner, m_MediaFolder),
+			new SoundLoaderBuilder(m_Owner, m_SoundFiles),
+		});
+		m_ComponentManager.createComponents(ComponentCreationPriority.HIGH);
+		SoundLoaderImpl soundLoader = (SoundLoaderImpl)m_ComponentManager.findComponent(SoundLoader.class);
+		FileScannerImpl fileScanner = (FileScannerImpl)m_ComponentManager.findComponent(FileScanner.class);
+		return (fileScanner.mediaFiles.size() + soundLoader.sounds.length);
+	}
+	
+	
+	/**
+	 * Delete files.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		delete(m_Folder);
+	}
+}
@@ -0,0 +1,180 @@
+package com.charles.base.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.charles.camera.FrameAnalysisPipeline;
+import com.charles.camera.FrameAnalyzer;
+import com.charles.camera.LumaHistogramAnalyzer;
+import com.charles.camera.MotionAnalyzer;
+import com.charles.camera.SharpnessAnalyzer;
+
+/**
+ * Benchmarks of {@link FrameAnalysisPipeline} fed by synthetic YUV_420_888 frames with 30 fps timestamps, with numbers of analyzed and skipped frames reported as auxiliary counters.
+ * Frames are submitted faster than real time, so skipped frames show how backpressure keeps submission cost bounded when workers cannot keep up.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameAnalysisBenchmark
+{
+	/**
+	 * Frame size.
+	 */
+	@Param({ "1280x720", "1920x1080" })
+	public String frameSize;
+	
+	/**
+	 * Number of worker threads.
+	 */
+	@Param({ "1", "2" })
+	public int workerCount;
+	
+	
+	// Constants
+	private static final int FRAME_COUNT = 8;
+	private static final long FRAME_INTERVAL = (1000000000L / 30);
+	
+	
+	// Private fields
+	private int m_FrameHeight;
+	private byte[][] m_Frames;
+	private int m_FrameIndex;
+	private int m_FrameWidth;
+	private FrameAnalysisPipeline m_Pipeline;
+	private long m_Sequence;
+	private long m_Timestamp;
+	
+	
+	/**
+	 * Pipeline statistics collected during measurement.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class PipelineCounters
+	{
+		/**
+		 * Number of frames analyzed by stages.
+		 */
+		public long analyzedFrames;
+		
+		/**
+		 * Number of submitted frames skipped by all stages.
+		 */
+		public long skippedFrames;
+		
+		/**
+		 * Number of times that due stage skips frame because it is busy.
+		 */
+		public long stageSkips;
+		
+		
+		/**
+		 * Reset counters.
+		 */
+		@Setup(Level.Iteration)
+		public void reset()
+		{
+			this.analyzedFrames = 0;
+			this.skippedFrames = 0;
+			this.stageSkips = 0;
+		}
+	}
+	
+	
+	/**
+	 * Release pipeline.
+	 */
+	@TearDown
+	public void release()
+	{
+		m_Pipeline.release();
+	}
+	
+	
+	/**
+	 * Prepare synthetic frames and pipeline with histogram, sharpness and motion analyzers.
+	 */
+	@Setup
+	public void setup()
+	{
+		// parse frame size
+		int separatorIndex = this.frameSize.indexOf('x');
+		m_FrameWidth = Integer.parseInt(this.frameSize.substring(0, separatorIndex));
+		m_FrameHeight = Integer.parseInt(this.frameSize.substring(separatorIndex + 1));
+		
+		// prepare frames with noise and moving block
+		Random random = new Random(0);
+		int lumaSize = (m_FrameWidth * m_FrameHeight);
+		m_Frames = new byte[FRAME_COUNT][];
+		for(int i = 0 ; i < FRAME_COUNT ; ++i)
+		{
+			byte[] frame = new byte[lumaSize * 3 / 2];
+			for(int y = 0, offset = 0 ; y < m_FrameHeight ; ++y)
+			{
+				for(int x = 0 ; x < m_FrameWidth ; ++x, ++offset)
+					frame[offset] = (byte)(((x + y) >> 3) + random.nextInt(16));
+			}
+			int blockSize = (m_FrameHeight / 4);
+			int blockLeft = (i * (m_FrameWidth - blockSize) / FRAME_COUNT);
+			for(int y = blockSize ; y < blockSize * 2 ; ++y)
+			{
+				for(int x = blockLeft ; x < blockLeft + blockSize ; ++x)
+					frame[y * m_FrameWidth + x] = (byte)240;
+			}
+			for(int j = lumaSize ; j < frame.length ; ++j)
+				frame[j] = (byte)128;
+			m_Frames[i] = frame;
+		}
+		
+		// create pipeline
+		m_Pipeline = new FrameAnalysisPipeline("Benchmark", this.workerCount, new FrameAnalysisPipeline.ResultCallback()
+		{
+			@Override
+			public <TResult> void onResultReady(FrameAnalyzer<TResult> analyzer, TResult result, long sequence, long timestamp)
+			{}
+		});
+		m_Pipeline.addAnalyzer(new LumaHistogramAnalyzer(160, 120, 15));
+		m_Pipeline.addAnalyzer(new SharpnessAnalyzer(320, 240, 15));
+		m_Pipeline.addAnalyzer(new MotionAnalyzer(80, 60, 30));
+	}
+	
+	
+	/**
+	 * Submit one frame to pipeline.
+	 * @param counters Pipeline counters.
+	 * @return Whether frame is accepted or not.
+	 */
+	@Benchmark
+	public boolean submitFrame(PipelineCounters counters)
+	{
+		long analyzed = m_Pipeline.getAnalyzedFrameCount();
+		long skipped = m_Pipeline.getSkippedFrameCount();
+		long stageSkips = m_Pipeline.getStageSkipCount();
+		m_Timestamp += FRAME_INTERVAL;
+		boolean accepted = m_Pipeline.submitFrame(m_Frames[m_FrameIndex], m_FrameWidth, m_FrameHeight, ++m_Sequence, m_Timestamp);
+		m_FrameIndex = ((m_FrameIndex + 1) % FRAME_COUNT);
+		counters.analyzedFrames += (m_Pipeline.getAnalyzedFrameCount() - analyzed);
+		counters.skippedFrames += (m_Pipeline.getSkippedFrameCount() - skipped);
+		counters.stageSkips += (m_Pipeline.getStageSkipCount() - stageSkips);
+		return accepted;
+	}
+}
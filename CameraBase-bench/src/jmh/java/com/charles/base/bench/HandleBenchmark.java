@@ -0,0 +1,106 @@
+package com.charles.base.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.charles.base.Handle;
+import com.charles.base.HandleLeakDetector;
+
+/**
+ * Benchmarks of {@link Handle} life cycle.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandleBenchmark
+{
+	/**
+	 * Whether {@link HandleLeakDetector} is enabled or not.
+	 */
+	@Param({ "false", "true" })
+	public boolean isLeakDetectorEnabled;
+	
+	
+	// Private fields
+	private int m_CloseCount;
+	
+	
+	// Handle to benchmark.
+	final class TestHandle extends Handle
+	{
+		public TestHandle()
+		{
+			super("Benchmark");
+		}
+		
+		@Override
+		protected void onClose(int flags)
+		{
+			++m_CloseCount;
+		}
+	}
+	
+	
+	/**
+	 * Close handle twice, second closing should be ignored.
+	 * @return Number of closed handles.
+	 */
+	@Benchmark
+	public int closeTwice()
+	{
+		TestHandle handle = new TestHandle();
+		Handle.close(handle);
+		Handle.close(handle);
+		return m_CloseCount;
+	}
+	
+	
+	/**
+	 * Open and close handle.
+	 * @return Number of closed handles.
+	 */
+	@Benchmark
+	public int openClose()
+	{
+		Handle.close(new TestHandle());
+		return m_CloseCount;
+	}
+	
+	
+	/**
+	 * Set state of leak detector.
+	 */
+	@Setup
+	public void setup()
+	{
+		if(this.isLeakDetectorEnabled)
+			HandleLeakDetector.enable();
+		else
+			HandleLeakDetector.disable();
+	}
+	
+	
+	/**
+	 * Restore state of leak detector.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		HandleLeakDetector.disable();
+	}
+}
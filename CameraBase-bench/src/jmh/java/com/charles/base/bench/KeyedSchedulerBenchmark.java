@@ -0,0 +1,142 @@
+package com.charles.base.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import com.charles.base.HandlerObject;
+import com.charles.base.HandlerUtils;
+import com.charles.base.KeyedScheduler;
+
+/**
+ * Benchmarks of signaling message which is already pending, by {@link KeyedScheduler} and by unique message of {@link HandlerUtils} which removes pending message before sending.
+ * Message loop is blocked during measurement, so signal stays pending and other messages stay in queue.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KeyedSchedulerBenchmark
+{
+	/**
+	 * Number of other messages in queue.
+	 */
+	@Param({ "0", "16", "128" })
+	public int queueLength;
+	
+	
+	// Constants
+	private static final int MSG_OTHER = 1;
+	private static final int MSG_SIGNAL = 2;
+	private static final long OTHER_MESSAGE_DELAY = 3600000;
+	
+	
+	// Private fields
+	private final CountDownLatch m_BlockLatch = new CountDownLatch(1);
+	private Handler m_Handler;
+	private HandlerThread m_HandlerThread;
+	private KeyedScheduler m_Scheduler;
+	private HandlerObject m_Target;
+	
+	
+	/**
+	 * Signal through {@link KeyedScheduler}.
+	 * @return Whether signal is scheduled or pending.
+	 */
+	@Benchmark
+	public boolean keyedScheduler()
+	{
+		return m_Scheduler.schedule(MSG_SIGNAL, 0, 0, null);
+	}
+	
+	
+	/**
+	 * Start and block message loop, then fill message queue.
+	 */
+	@Setup
+	public void setup()
+	{
+		// start message loop
+		m_HandlerThread = new HandlerThread("Benchmark looper");
+		m_HandlerThread.start();
+		m_Handler = new Handler(m_HandlerThread.getLooper());
+		m_Target = new HandlerObject()
+		{
+			@Override
+			public Handler getHandler()
+			{
+				return m_Handler;
+			}
+			
+			@Override
+			public boolean isDependencyThread()
+			{
+				return (Thread.currentThread() == m_HandlerThread);
+			}
+		};
+		m_Scheduler = new KeyedScheduler(m_Target);
+		
+		// block message loop
+		m_Handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					m_BlockLatch.await();
+				}
+				catch(InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		
+		// fill message queue
+		for(int i = 0 ; i < this.queueLength ; ++i)
+			m_Handler.sendEmptyMessageDelayed(MSG_OTHER, OTHER_MESSAGE_DELAY);
+	}
+	
+	
+	/**
+	 * Stop message loop.
+	 * @throws InterruptedException If thread is interrupted.
+	 */
+	@TearDown
+	public void tearDown() throws InterruptedException
+	{
+		m_Handler.removeCallbacksAndMessages(null);
+		m_BlockLatch.countDown();
+		m_HandlerThread.quit();
+		m_HandlerThread.join();
+	}
+	
+	
+	/**
+	 * Signal through unique message of {@link HandlerUtils}.
+	 * @return Whether message is sent or not.
+	 */
+	@Benchmark
+	public boolean uniqueMessage()
+	{
+		return HandlerUtils.sendMessage(m_Target, MSG_SIGNAL, 0, 0, null, true);
+	}
+}
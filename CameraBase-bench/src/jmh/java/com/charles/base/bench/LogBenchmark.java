@@ -0,0 +1,120 @@
+package com.charles.base.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.charles.base.Log;
+
+/**
+ * Benchmarks of verbose logs printed by {@link Log} with verbose logs enabled or disabled at run time.
+ * Headless android.util.Log drops verbose messages by default, so enabled logs measure formatting only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogBenchmark
+{
+	/**
+	 * Whether verbose logs are enabled or not.
+	 */
+	@Param({ "false", "true" })
+	public boolean isVerboseLogsEnabled;
+	
+	
+	// Constants
+	private static final String TAG = "LogBenchmark";
+	
+	
+	// Private fields
+	private int m_Counter;
+	
+	
+	/**
+	 * Print message which is concatenated by caller, message is built even if logs are disabled.
+	 * @return Counter.
+	 */
+	@Benchmark
+	public int concatenated()
+	{
+		int index = ++m_Counter;
+		Log.v(TAG, "onPictureReceived() - Index : " + index + ", timestamp : " + (index * 33L));
+		return index;
+	}
+	
+	
+	/**
+	 * Print message with int argument.
+	 * @return Counter.
+	 */
+	@Benchmark
+	public int intArgument()
+	{
+		int index = ++m_Counter;
+		Log.v(TAG, "onPictureReceived() - Index : ", index);
+		return index;
+	}
+	
+	
+	/**
+	 * Print message with two long arguments.
+	 * @return Counter.
+	 */
+	@Benchmark
+	public int longArguments()
+	{
+		int index = ++m_Counter;
+		Log.v(TAG, "onPictureReceived() - Index : ", (long)index, ", timestamp : ", index * 33L);
+		return index;
+	}
+	
+	
+	/**
+	 * Set state of verbose logs.
+	 */
+	@Setup
+	public void setup()
+	{
+		if(this.isVerboseLogsEnabled)
+			Log.enableVerboseLogs();
+		else
+			Log.disableVerboseLogs();
+	}
+	
+	
+	/**
+	 * Restore state of verbose logs.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		Log.enableVerboseLogs();
+	}
+	
+	
+	/**
+	 * Print message with variable number of arguments, which are boxed.
+	 * @return Counter.
+	 */
+	@Benchmark
+	public int varargs()
+	{
+		int index = ++m_Counter;
+		Log.v(TAG, "onPictureReceived() - Index : ", index, ", timestamp : ", index * 33L, ", size : ", index, "x", index);
+		return index;
+	}
+}
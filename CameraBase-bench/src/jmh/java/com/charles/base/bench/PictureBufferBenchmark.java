@@ -0,0 +1,198 @@
+package com.charles.base.bench;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.charles.base.BufferPool;
+import com.charles.base.PooledBuffer;
+
+/**
+ * Benchmarks of burst capture path which copies each picture into buffer and keeps few pictures in save queue, with GC count and GC time reported as auxiliary counters.
+ * Run with "-jvmArgs -Xmx512m" to get heap pressure similar to device.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PictureBufferBenchmark
+{
+	/**
+	 * Number of pictures in one burst.
+	 */
+	@Param({ "30" })
+	public int burstSize;
+	
+	/**
+	 * Whether pictures are copied into pooled buffers or new arrays.
+	 */
+	@Param({ "false", "true" })
+	public boolean isPooled;
+	
+	/**
+	 * Size of each picture in bytes, 12 MP JPEG and 12 MP NV21 by default.
+	 */
+	@Param({ "4194304", "18874368" })
+	public int pictureSize;
+	
+	/**
+	 * Number of pictures waiting in save queue.
+	 */
+	@Param({ "3" })
+	public int saveQueueSize;
+	
+	
+	// Private fields
+	private BufferPool m_Pool;
+	private final ArrayDeque<Object> m_SaveQueue = new ArrayDeque<>();
+	private byte[] m_Source;
+	
+	
+	/**
+	 * GC statistics collected during measurement.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class GcCounters
+	{
+		/**
+		 * Number of GC.
+		 */
+		public long gcCount;
+		
+		/**
+		 * Accumulated GC time in milliseconds.
+		 */
+		public long gcTimeMillis;
+		
+		
+		/**
+		 * Reset counters.
+		 */
+		@Setup(Level.Iteration)
+		public void reset()
+		{
+			this.gcCount = 0;
+			this.gcTimeMillis = 0;
+		}
+	}
+	
+	
+	/**
+	 * Capture one burst and save all pictures.
+	 * @param counters GC counters.
+	 * @return Checksum of saved pictures.
+	 */
+	@Benchmark
+	public long burst(GcCounters counters)
+	{
+		long gcCount = getGcCount();
+		long gcTime = getGcTime();
+		long checksum = 0;
+		for(int i = 0 ; i < this.burstSize ; ++i)
+		{
+			// copy picture
+			Object picture;
+			if(this.isPooled)
+			{
+				PooledBuffer buffer = m_Pool.obtain(this.pictureSize);
+				System.arraycopy(m_Source, 0, buffer.getData(), 0, this.pictureSize);
+				picture = buffer;
+			}
+			else
+			{
+				byte[] array = new byte[this.pictureSize];
+				System.arraycopy(m_Source, 0, array, 0, this.pictureSize);
+				picture = array;
+			}
+			
+			// save oldest picture
+			m_SaveQueue.addLast(picture);
+			if(m_SaveQueue.size() > this.saveQueueSize)
+				checksum += this.save(m_SaveQueue.pollFirst());
+		}
+		while(!m_SaveQueue.isEmpty())
+			checksum += this.save(m_SaveQueue.pollFirst());
+		counters.gcCount += (getGcCount() - gcCount);
+		counters.gcTimeMillis += (getGcTime() - gcTime);
+		return checksum;
+	}
+	
+	
+	// Get total number of GC.
+	private static long getGcCount()
+	{
+		long count = 0;
+		List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+		for(int i = beans.size() - 1 ; i >= 0 ; --i)
+			count += Math.max(0, beans.get(i).getCollectionCount());
+		return count;
+	}
+	
+	
+	// Get total GC time in milliseconds.
+	private static long getGcTime()
+	{
+		long time = 0;
+		List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+		for(int i = beans.size() - 1 ; i >= 0 ; --i)
+			time += Math.max(0, beans.get(i).getCollectionTime());
+		return time;
+	}
+	
+	
+	// Simulate writing picture to file and release it.
+	private long save(Object picture)
+	{
+		byte[] data;
+		int length;
+		if(picture instanceof PooledBuffer)
+		{
+			PooledBuffer buffer = (PooledBuffer)picture;
+			data = buffer.getData();
+			length = buffer.getLength();
+		}
+		else
+		{
+			data = (byte[])picture;
+			length = data.length;
+		}
+		long checksum = 0;
+		for(int i = 0 ; i < length ; i += 4096)
+			checksum += data[i];
+		if(picture instanceof PooledBuffer)
+			((PooledBuffer)picture).release();
+		return checksum;
+	}
+	
+	
+	/**
+	 * Prepare source picture and pool.
+	 */
+	@Setup
+	public void setup()
+	{
+		m_Source = new byte[this.pictureSize];
+		for(int i = 0 ; i < m_Source.length ; i += 4096)
+			m_Source[i] = (byte)i;
+		m_Pool = new BufferPool("Benchmark", (long)this.pictureSize * (this.saveQueueSize + 2) * 2);
+	}
+}
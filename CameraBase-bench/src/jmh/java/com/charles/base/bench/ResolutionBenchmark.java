@@ -0,0 +1,99 @@
+package com.charles.base.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.util.Size;
+
+import com.charles.camera.media.MediaType;
+import com.charles.camera.media.Resolution;
+import com.charles.util.AspectRatio;
+
+/**
+ * Benchmarks of {@link Resolution} key conversion and {@link AspectRatio} lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResolutionBenchmark
+{
+	// Constants
+	private static final Size[] SIZES = new Size[]{
+		new Size(4032, 3024),
+		new Size(3840, 2160),
+		new Size(1920, 1080),
+		new Size(1280, 720),
+		new Size(1440, 1080),
+		new Size(3024, 3024),
+		new Size(176, 144),
+		new Size(1080, 1920),
+	};
+	
+	
+	// Private fields
+	private int m_Index;
+	private String[] m_Keys;
+	private Resolution[] m_Resolutions;
+	
+	
+	/**
+	 * Get aspect ratio of size.
+	 * @return Aspect ratio.
+	 */
+	@Benchmark
+	public AspectRatio aspectRatio()
+	{
+		return AspectRatio.get(SIZES[++m_Index & 7]);
+	}
+	
+	
+	/**
+	 * Parse resolution from key.
+	 * @return Resolution.
+	 */
+	@Benchmark
+	public Resolution fromKey()
+	{
+		return Resolution.fromKey(m_Keys[++m_Index & 7]);
+	}
+	
+	
+	/**
+	 * Get key of resolution.
+	 * @return Key.
+	 */
+	@Benchmark
+	public String getKey()
+	{
+		return m_Resolutions[++m_Index & 7].getKey();
+	}
+	
+	
+	/**
+	 * Prepare resolutions and keys.
+	 */
+	@Setup
+	public void setup()
+	{
+		m_Keys = new String[SIZES.length];
+		m_Resolutions = new Resolution[SIZES.length];
+		for(int i = 0 ; i < SIZES.length ; ++i)
+		{
+			m_Resolutions[i] = new Resolution(((i & 1) == 0 ? MediaType.PHOTO : MediaType.VIDEO), SIZES[i]);
+			m_Keys[i] = m_Resolutions[i].getKey();
+		}
+	}
+}
@@ -0,0 +1,297 @@
+package com.charles.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link BurstCaptureEngine}, which run bursts against fake camera and fake file saver in simulated time.
+ */
+public class BurstCaptureEngineTest
+{
+	// Constants
+	private static final long BURST_DURATION = 10000;
+	private static final int EVENT_CAPTURE_COMPLETED = 0;
+	private static final int EVENT_FRAME_CAPTURED = 1;
+	private static final int EVENT_FRAME_FAILED = 2;
+	private static final int EVENT_FRAME_SAVED = 3;
+	private static final int EVENT_STOP = 4;
+	private static final int EVENT_UPDATE = 5;
+	private static final long FRAME_INTERVAL = 33;
+	private static final int FRAMES_IN_FLIGHT_LIMIT = 8;
+	private static final long HEAP_SIZE = (64L << 20);
+	private static final long MEMORY_BUDGET = (16L << 20);
+	private static final long PICTURE_SIZE = (3L << 20);
+	private static final long SHUTTER_LAG = 60;
+	private static final float TARGET_RATE = 15;
+	
+	
+	// Private fields
+	private int m_CaptureStoppedCount;
+	private BurstCaptureEngine m_Engine;
+	private final PriorityQueue<Event> m_Events = new PriorityQueue<>();
+	private float m_FrameFailureRate;
+	private boolean m_IsCameraBusy;
+	private long m_NextEventSequence;
+	private Random m_Random;
+	private int m_RequestedFrameCount;
+	private float m_SaveFailureRate;
+	private long m_SaveMillis;
+	private final ArrayDeque<Long> m_SaveQueue = new ArrayDeque<>();
+	private BurstCaptureStats m_Stats;
+	private long m_Time;
+	private long m_UpdateSequence = -1;
+	
+	
+	// Simulated event.
+	private static final class Event implements Comparable<Event>
+	{
+		public final long sequence;
+		public final long time;
+		public final int type;
+		
+		public Event(long time, int type, long sequence)
+		{
+			this.time = time;
+			this.type = type;
+			this.sequence = sequence;
+		}
+		
+		@Override
+		public int compareTo(Event other)
+		{
+			if(this.time != other.time)
+				return (this.time < other.time ? -1 : 1);
+			return Long.compare(this.sequence, other.sequence);
+		}
+	}
+	
+	
+	// Fake camera and file saver.
+	private final BurstCaptureEngine.Backend m_Backend = new BurstCaptureEngine.Backend()
+	{
+		@Override
+		public long getAvailableMemory()
+		{
+			return (HEAP_SIZE - m_Engine.getFramesInFlight() * PICTURE_SIZE);
+		}
+		
+		@Override
+		public int getSaveQueueDepth()
+		{
+			return m_SaveQueue.size();
+		}
+		
+		@Override
+		public void onCaptureStopped()
+		{
+			assertFalse("Capture stopped while camera is busy", m_IsCameraBusy);
+			++m_CaptureStoppedCount;
+		}
+		
+		@Override
+		public void onStatsUpdated(BurstCaptureStats stats)
+		{
+			m_Stats = stats;
+		}
+		
+		@Override
+		public boolean requestFrames(int frameCount)
+		{
+			// check pacing
+			assertFalse("Frames requested while camera is busy", m_IsCameraBusy);
+			m_RequestedFrameCount += frameCount;
+			assertTrue("Frames requested faster than target rate", m_RequestedFrameCount <= 1 + TARGET_RATE * m_Time / 1000);
+			
+			// capture
+			m_IsCameraBusy = true;
+			long time = (m_Time + SHUTTER_LAG);
+			for(int i = 0 ; i < frameCount ; ++i, time += FRAME_INTERVAL)
+				schedule(time, (m_Random.nextFloat() < m_FrameFailureRate ? EVENT_FRAME_FAILED : EVENT_FRAME_CAPTURED));
+			schedule(time, EVENT_CAPTURE_COMPLETED);
+			return true;
+		}
+		
+		@Override
+		public void scheduleUpdate(long delay)
+		{
+			m_UpdateSequence = schedule(m_Time + delay, EVENT_UPDATE);
+		}
+	};
+	
+	
+	// Check limits after handling event.
+	private void checkLimits()
+	{
+		int framesInFlight = m_Engine.getFramesInFlight();
+		assertTrue("Too many frames in flight : " + framesInFlight, framesInFlight <= FRAMES_IN_FLIGHT_LIMIT);
+		assertTrue("Memory budget exceeded by " + framesInFlight + " frames", framesInFlight <= 1 || framesInFlight * PICTURE_SIZE <= MEMORY_BUDGET);
+		assertTrue("Save queue keeps growing : " + m_SaveQueue.size(), m_SaveQueue.size() <= FRAMES_IN_FLIGHT_LIMIT);
+	}
+	
+	
+	// Check that burst is completed and statistics add up.
+	private BurstCaptureStats checkCompletion()
+	{
+		BurstCaptureStats stats = m_Stats;
+		assertNotNull(stats);
+		assertTrue("Burst is not completed : " + stats, stats.isCompleted());
+		assertFalse(m_Engine.isStarted());
+		assertFalse(m_Engine.isCapturing());
+		assertEquals(1, m_CaptureStoppedCount);
+		assertEquals(0, m_Engine.getFramesInFlight());
+		assertEquals(m_RequestedFrameCount, stats.getFramesRequested());
+		assertEquals(stats.getFramesRequested(), stats.getFramesSaved() + stats.getFramesDropped());
+		assertTrue(stats.getPeakFramesInFlight() <= FRAMES_IN_FLIGHT_LIMIT);
+		return stats;
+	}
+	
+	
+	/**
+	 * Test that unlimited burst is captured at target rate when saver is faster than target rate.
+	 */
+	@Test
+	public void fastSaver()
+	{
+		BurstCaptureStats stats = this.runBurst(-1, 40);
+		assertTrue("Too few frames : " + stats, stats.getFramesRequested() >= TARGET_RATE * BURST_DURATION / 1000 * 0.9f);
+		assertTrue("Target rate exceeded : " + stats, stats.getSustainedFps() <= TARGET_RATE * 1.05f);
+		assertTrue("Sustained rate too low : " + stats, stats.getSustainedFps() >= TARGET_RATE * 0.9f);
+		assertEquals(TARGET_RATE, stats.getCaptureRate(), 0.01f);
+	}
+	
+	
+	/**
+	 * Test that invalid frame count is rejected and burst cannot be started while capturing.
+	 */
+	@Test
+	public void invalidStart()
+	{
+		try
+		{
+			m_Engine.start(0, 0);
+			fail("Burst is started with no frames");
+		}
+		catch(IllegalArgumentException ex)
+		{}
+		assertTrue(m_Engine.start(-1, 0));
+		assertFalse(m_Engine.start(-1, 0));
+		assertTrue(m_Engine.isCapturing());
+	}
+	
+	
+	/**
+	 * Test that limited burst captures exactly given number of frames and completes without being stopped.
+	 */
+	@Test
+	public void limitedBurst()
+	{
+		m_FrameFailureRate = 0;
+		m_SaveFailureRate = 0;
+		BurstCaptureStats stats = this.runBurst(20, 40);
+		assertEquals(20, stats.getFramesRequested());
+		assertEquals(20, stats.getFramesCaptured());
+		assertEquals(20, stats.getFramesSaved());
+		assertEquals(0, stats.getFramesDropped());
+		assertTrue("Burst is too short : " + stats, stats.getDuration() >= (long)(19 * 1000 / TARGET_RATE));
+		assertTrue("Burst is too long : " + stats, stats.getDuration() < BURST_DURATION);
+	}
+	
+	
+	// Run burst until all frames are saved.
+	private BurstCaptureStats runBurst(int frameCount, long saveMillis)
+	{
+		// start burst
+		m_SaveMillis = saveMillis;
+		assertTrue(m_Engine.start(frameCount, m_Time));
+		if(frameCount < 0)
+			this.schedule(BURST_DURATION, EVENT_STOP);
+		
+		// run until all frames are saved
+		Event event;
+		while((event = m_Events.poll()) != null)
+		{
+			m_Time = event.time;
+			switch(event.type)
+			{
+				case EVENT_CAPTURE_COMPLETED:
+					m_IsCameraBusy = false;
+					m_Engine.onCaptureCompleted(m_Time);
+					break;
+				case EVENT_FRAME_CAPTURED:
+					m_SaveQueue.addLast(m_Time);
+					if(m_SaveQueue.size() == 1)
+						this.schedule(m_Time + m_SaveMillis, EVENT_FRAME_SAVED);
+					m_Engine.onFrameCaptured(PICTURE_SIZE, m_Time);
+					break;
+				case EVENT_FRAME_FAILED:
+					m_Engine.onFrameFailed(m_Time);
+					break;
+				case EVENT_FRAME_SAVED:
+					m_SaveQueue.removeFirst();
+					if(!m_SaveQueue.isEmpty())
+						this.schedule(m_Time + m_SaveMillis, EVENT_FRAME_SAVED);
+					if(m_Random.nextFloat() < m_SaveFailureRate)
+						m_Engine.onFrameSaveFailed(m_Time);
+					else
+						m_Engine.onFrameSaved(m_Time);
+					break;
+				case EVENT_STOP:
+					m_Engine.stop(m_Time);
+					break;
+				case EVENT_UPDATE:
+					if(event.sequence == m_UpdateSequence)
+						m_Engine.update(m_Time);
+					break;
+			}
+			this.checkLimits();
+		}
+		return this.checkCompletion();
+	}
+	
+	
+	// Schedule simulated event.
+	private long schedule(long time, int type)
+	{
+		long sequence = m_NextEventSequence++;
+		m_Events.add(new Event(time, type, sequence));
+		return sequence;
+	}
+	
+	
+	/**
+	 * Create engine.
+	 */
+	@Before
+	public void setup()
+	{
+		m_Random = new Random(0);
+		m_FrameFailureRate = 0.02f;
+		m_SaveFailureRate = 0.01f;
+		m_Engine = new BurstCaptureEngine(m_Backend, TARGET_RATE, FRAMES_IN_FLIGHT_LIMIT, MEMORY_BUDGET);
+	}
+	
+	
+	/**
+	 * Test that capture rate is decreased to saving rate when saver is slower than target rate.
+	 */
+	@Test
+	public void slowSaver()
+	{
+		BurstCaptureStats stats = this.runBurst(-1, 150);
+		float saveRate = (stats.getFramesCaptured() * 1000f / stats.getDuration());
+		float maxSaveRate = (1000f / 150);
+		assertTrue("Frames saved faster than saver : " + stats, saveRate <= maxSaveRate * 1.05f);
+		assertTrue("Sustained rate too low : " + stats, saveRate >= maxSaveRate * 0.5f);
+		assertTrue("Capture rate is not decreased : " + stats, stats.getCaptureRate() < TARGET_RATE);
+	}
+}
@@ -0,0 +1,305 @@
+package com.charles.camera;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link CaptureFrameMatcher}.
+ */
+public class CaptureFrameMatcherTest
+{
+	// Constants
+	private static final int EVENT_STARTED = 0;
+	private static final int EVENT_RESULT = 1;
+	private static final int EVENT_FAILED = 2;
+	private static final int EVENT_PICTURE = 3;
+	private static final float FAILURE_RATE = 0.03f;
+	private static final long FRAME_INTERVAL = (1000000000L / 30);
+	private static final float PICTURE_LOSS_RATE = 0.02f;
+	private static final int SCENARIO_COUNT = 16;
+	private static final long TIMEOUT = (FRAME_INTERVAL * 10);
+	
+	
+	// Private fields
+	private CaptureFrameMatcher<Long, Long> m_Matcher;
+	private final List<String> m_Reports = new ArrayList<>();
+	
+	
+	// Burst with shuffled call-back order.
+	private static final class Scenario
+	{
+		public int[] eventFrames;
+		public long[] eventTimes;
+		public int[] eventTypes;
+		public boolean[] isFailed;
+	}
+	
+	
+	/**
+	 * Test that full table drops oldest frame as failed frame.
+	 */
+	@Test
+	public void capacity()
+	{
+		for(int i = 0 ; i <= 16 ; ++i)
+			m_Matcher.onCaptureStarted(i, getFrameNumber(i), getTimestamp(i), i);
+		assertEquals(16, m_Matcher.getPendingCount());
+		assertEquals(Arrays.asList("failed 0 1000 null null"), m_Reports);
+	}
+	
+	
+	// Create shuffled call-back sequence of one burst.
+	private static Scenario createScenario(Random random, int frameCount, int shuffleDistance)
+	{
+		// create call-backs with nominal order
+		int[] types = new int[frameCount * 3];
+		int[] frames = new int[frameCount * 3];
+		double[] keys = new double[frameCount * 3];
+		boolean[] isFailed = new boolean[frameCount];
+		int eventCount = 0;
+		for(int i = 0 ; i < frameCount ; ++i)
+		{
+			boolean failed = (random.nextFloat() < FAILURE_RATE);
+			boolean pictureLost = (!failed && random.nextFloat() < PICTURE_LOSS_RATE);
+			isFailed[i] = (failed || pictureLost);
+			for(int type = EVENT_STARTED ; type <= EVENT_PICTURE ; ++type)
+			{
+				if(type == EVENT_RESULT && failed)
+					continue;
+				if(type == EVENT_FAILED && !failed)
+					continue;
+				if(type == EVENT_PICTURE && (failed || pictureLost))
+					continue;
+				types[eventCount] = type;
+				frames[eventCount] = i;
+				keys[eventCount] = (i + (type == EVENT_STARTED ? 0 : 1) + random.nextDouble() * shuffleDistance);
+				++eventCount;
+			}
+		}
+		
+		// sort by shuffled arrival order
+		Integer[] order = new Integer[eventCount];
+		for(int i = 0 ; i < eventCount ; ++i)
+			order[i] = i;
+		final double[] sortKeys = keys;
+		Arrays.sort(order, new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer lhs, Integer rhs)
+			{
+				return Double.compare(sortKeys[lhs], sortKeys[rhs]);
+			}
+		});
+		Scenario scenario = new Scenario();
+		scenario.eventTypes = new int[eventCount];
+		scenario.eventFrames = new int[eventCount];
+		scenario.eventTimes = new long[eventCount];
+		scenario.isFailed = isFailed;
+		for(int i = 0 ; i < eventCount ; ++i)
+		{
+			int index = order[i];
+			scenario.eventTypes[i] = types[index];
+			scenario.eventFrames[i] = frames[index];
+			scenario.eventTimes[i] = (long)(keys[index] * FRAME_INTERVAL);
+		}
+		return scenario;
+	}
+	
+	
+	/**
+	 * Test that duplicate parts are dropped as orphans.
+	 */
+	@Test
+	public void duplicateParts()
+	{
+		m_Matcher.onCaptureResult(getFrameNumber(0), getTimestamp(0), 0L, 0);
+		m_Matcher.onCaptureResult(getFrameNumber(0), getTimestamp(0), 100L, 0);
+		m_Matcher.onPictureReceived(getTimestamp(0), 0L, 0);
+		m_Matcher.onPictureReceived(getTimestamp(0), -100L, 0);
+		m_Matcher.onCaptureStarted(0, getFrameNumber(0), getTimestamp(0), 0);
+		assertEquals(Arrays.asList("orphan 100 null", "orphan null -100", "matched 0 1000 0 0"), m_Reports);
+		assertEquals(2, m_Matcher.getOrphanCount());
+	}
+	
+	
+	/**
+	 * Test that failed capture is reported with parts received before failure.
+	 */
+	@Test
+	public void failedCapture()
+	{
+		m_Matcher.onCaptureStarted(1, getFrameNumber(1), getTimestamp(1), 0);
+		m_Matcher.onPictureReceived(getTimestamp(1), -1L, 0);
+		m_Matcher.onCaptureFailed(getFrameNumber(1), 0);
+		assertEquals(Arrays.asList("failed 1 1002 null -1"), m_Reports);
+		assertEquals(1, m_Matcher.getFailedFrameCount());
+		assertEquals(0, m_Matcher.getPendingCount());
+	}
+	
+	
+	// Get frame number of given frame, capture frames are interleaved with preview frames.
+	private static long getFrameNumber(int frame)
+	{
+		return (1000 + frame * 2L);
+	}
+	
+	
+	// Get sensor timestamp of given frame.
+	private static long getTimestamp(int frame)
+	{
+		return (5000000000L + frame * FRAME_INTERVAL);
+	}
+	
+	
+	/**
+	 * Test that parts arrive in any order are joined by frame number and timestamp.
+	 */
+	@Test
+	public void matchInAnyOrder()
+	{
+		m_Matcher.onPictureReceived(getTimestamp(0), 0L, 0);
+		m_Matcher.onCaptureResult(getFrameNumber(0), getTimestamp(0), 0L, 0);
+		assertEquals(0, m_Reports.size());
+		m_Matcher.onCaptureStarted(0, getFrameNumber(0), getTimestamp(0), 0);
+		m_Matcher.onCaptureResult(getFrameNumber(1), -1, 1L, 0);
+		m_Matcher.onCaptureStarted(1, getFrameNumber(1), getTimestamp(1), 0);
+		m_Matcher.onPictureReceived(getTimestamp(1), -1L, 0);
+		assertEquals(Arrays.asList("matched 0 1000 0 0", "matched 1 1002 1 -1"), m_Reports);
+		assertEquals(2, m_Matcher.getMatchedFrameCount());
+		assertEquals(0, m_Matcher.getPendingCount());
+	}
+	
+	
+	/**
+	 * Test that shuffled bursts with failed captures and lost pictures report every frame exactly once with its own parts.
+	 */
+	@Test
+	public void randomBursts()
+	{
+		Random random = new Random(0);
+		int[] burstSizes = new int[]{ 30, 120 };
+		int[] shuffleDistances = new int[]{ 0, 3 };
+		for(int burstSize : burstSizes)
+		{
+			for(int shuffleDistance : shuffleDistances)
+			{
+				for(int i = 0 ; i < SCENARIO_COUNT ; ++i)
+					this.replay(createScenario(random, burstSize, shuffleDistance));
+			}
+		}
+	}
+	
+	
+	// Replay burst and verify reported frames.
+	private void replay(Scenario scenario)
+	{
+		// replay call-backs
+		m_Reports.clear();
+		long time = 0;
+		for(int i = 0, count = scenario.eventTypes.length ; i < count ; ++i)
+		{
+			int frame = scenario.eventFrames[i];
+			time = scenario.eventTimes[i];
+			switch(scenario.eventTypes[i])
+			{
+				case EVENT_STARTED:
+					m_Matcher.onCaptureStarted(frame, getFrameNumber(frame), getTimestamp(frame), time);
+					break;
+				case EVENT_RESULT:
+					m_Matcher.onCaptureResult(getFrameNumber(frame), getTimestamp(frame), (long)frame, time);
+					break;
+				case EVENT_FAILED:
+					m_Matcher.onCaptureFailed(getFrameNumber(frame), time);
+					break;
+				case EVENT_PICTURE:
+					m_Matcher.onPictureReceived(getTimestamp(frame), (long)-frame, time);
+					break;
+			}
+			m_Matcher.expire(time);
+		}
+		m_Matcher.expire(time + TIMEOUT);
+		
+		// verify
+		assertEquals(0, m_Matcher.getPendingCount());
+		assertEquals(scenario.isFailed.length, m_Reports.size());
+		for(int i = 0 ; i < scenario.isFailed.length ; ++i)
+		{
+			String expectedReport = (scenario.isFailed[i] ? "failed " : "matched ") + i + " ";
+			int reportCount = 0;
+			for(int j = m_Reports.size() - 1 ; j >= 0 ; --j)
+			{
+				String report = m_Reports.get(j);
+				if(report.startsWith("failed " + i + " ") || report.startsWith("matched " + i + " "))
+				{
+					assertEquals(expectedReport, report.substring(0, expectedReport.length()));
+					++reportCount;
+				}
+			}
+			assertEquals("Reports of frame " + i, 1, reportCount);
+		}
+	}
+	
+	
+	/**
+	 * Create matcher which records reported frames.
+	 */
+	@Before
+	public void setup()
+	{
+		m_Reports.clear();
+		m_Matcher = new CaptureFrameMatcher<>(16, TIMEOUT, new CaptureFrameMatcher.Callback<Long, Long>()
+		{
+			@Override
+			public void onFrameFailed(int index, long frameNumber, Long result, Long picture)
+			{
+				if(frameNumber >= 0)
+					assertEquals(getFrameNumber(index), frameNumber);
+				if(result != null)
+					assertEquals(index, result.longValue());
+				if(picture != null)
+					assertEquals(-index, picture.longValue());
+				m_Reports.add("failed " + index + " " + frameNumber + " " + result + " " + picture);
+			}
+			
+			@Override
+			public void onFrameMatched(int index, long frameNumber, Long result, Long picture)
+			{
+				assertEquals(getFrameNumber(index), frameNumber);
+				assertEquals(index, result.longValue());
+				assertEquals(-index, picture.longValue());
+				m_Reports.add("matched " + index + " " + frameNumber + " " + result + " " + picture);
+			}
+			
+			@Override
+			public void onOrphanDropped(Long result, Long picture)
+			{
+				m_Reports.add("orphan " + result + " " + picture);
+			}
+		});
+	}
+	
+	
+	/**
+	 * Test that frames waiting longer than timeout are reported as failed, and parts without capture start are dropped as orphans.
+	 */
+	@Test
+	public void timeout()
+	{
+		m_Matcher.onCaptureStarted(0, getFrameNumber(0), getTimestamp(0), 0);
+		m_Matcher.onCaptureResult(getFrameNumber(0), getTimestamp(0), 0L, 0);
+		m_Matcher.onPictureReceived(getTimestamp(5), -5L, FRAME_INTERVAL);
+		assertEquals(0, m_Matcher.expire(TIMEOUT - 1));
+		assertEquals(1, m_Matcher.expire(TIMEOUT));
+		assertEquals(1, m_Matcher.expire(TIMEOUT + FRAME_INTERVAL));
+		assertEquals(Arrays.asList("failed 0 1000 0 null", "orphan null -5"), m_Reports);
+		assertEquals(0, m_Matcher.getPendingCount());
+	}
+}
@@ -0,0 +1,260 @@
+package com.charles.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.charles.base.BasicBaseObject;
+import com.charles.base.Handle;
+import com.charles.base.PropertyKey;
+
+/**
+ * Tests of {@link FrameAnalysisPipeline}.
+ */
+public class FrameAnalysisPipelineTest
+{
+	// Constants
+	private static final PropertyKey<Long> PROP_RESULT = new PropertyKey<>("FrameAnalysisPipelineTest.Result", Long.class, BasicBaseObject.class, 0, null);
+	private static final long FRAME_INTERVAL = 1000000;
+	private static final int FRAME_HEIGHT = 240;
+	private static final int FRAME_WIDTH = 320;
+	private static final long TIMEOUT = 5000;
+	
+	
+	// Private fields
+	private FrameAnalysisPipeline m_Pipeline;
+	
+	
+	// Result call-back which counts results.
+	private static final class CountingCallback implements FrameAnalysisPipeline.ResultCallback
+	{
+		public final CountDownLatch latch;
+		
+		public CountingCallback(int count)
+		{
+			this.latch = new CountDownLatch(count);
+		}
+		
+		@Override
+		public <TResult> void onResultReady(FrameAnalyzer<TResult> analyzer, TResult result, long sequence, long timestamp)
+		{
+			this.latch.countDown();
+		}
+	}
+	
+	
+	// Analyzer which records received frames and can be blocked while analyzing.
+	private static final class TestAnalyzer extends FrameAnalyzer<Long>
+	{
+		public final List<AnalysisFrame> frames = new ArrayList<>();
+		public final List<Byte> pixels = new ArrayList<>();
+		public volatile CountDownLatch gate;
+		public final CountDownLatch startLatch = new CountDownLatch(1);
+		
+		public TestAnalyzer(String name, int inputWidth, int inputHeight, float targetRate)
+		{
+			super(name, PROP_RESULT, inputWidth, inputHeight, targetRate);
+		}
+		
+		@Override
+		protected Long analyze(AnalysisFrame frame)
+		{
+			synchronized(this.frames)
+			{
+				this.frames.add(frame);
+				this.pixels.add(frame.getData()[0]);
+			}
+			this.startLatch.countDown();
+			CountDownLatch gate = this.gate;
+			if(gate != null)
+			{
+				try
+				{
+					gate.await(TIMEOUT, TimeUnit.MILLISECONDS);
+				}
+				catch(InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			return frame.getSequence();
+		}
+		
+		public List<Long> getSequences()
+		{
+			List<Long> sequences = new ArrayList<>();
+			synchronized(this.frames)
+			{
+				for(int i = 0, count = this.frames.size() ; i < count ; ++i)
+					sequences.add(this.frames.get(i).getSequence());
+			}
+			return sequences;
+		}
+	}
+	
+	
+	// Wait until analyzed frame count reaches given value.
+	private void awaitAnalyzedFrames(long count) throws InterruptedException
+	{
+		long deadline = (System.currentTimeMillis() + TIMEOUT);
+		while(m_Pipeline.getAnalyzedFrameCount() < count)
+		{
+			if(System.currentTimeMillis() >= deadline)
+				fail("Frames are not analyzed in time");
+			Thread.sleep(1);
+		}
+	}
+	
+	
+	// Create frame filled with given luminance.
+	private static byte[] createFrame(int luminance)
+	{
+		byte[] data = new byte[FRAME_WIDTH * FRAME_HEIGHT * 3 / 2];
+		Arrays.fill(data, (byte)luminance);
+		return data;
+	}
+	
+	
+	/**
+	 * Test that frames are dropped instead of being queued while stage is still analyzing previous frame.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void dropWhileBusy() throws InterruptedException
+	{
+		// block analyzer
+		m_Pipeline = new FrameAnalysisPipeline("Test", 1, new CountingCallback(0));
+		TestAnalyzer analyzer = new TestAnalyzer("Busy", 32, 24, 1000000);
+		analyzer.gate = new CountDownLatch(1);
+		m_Pipeline.addAnalyzer(analyzer);
+		byte[] data = createFrame(0);
+		assertTrue(m_Pipeline.submitFrame(data, FRAME_WIDTH, FRAME_HEIGHT, 1, FRAME_INTERVAL));
+		assertTrue(analyzer.startLatch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+		
+		// submit frames while busy
+		for(int i = 2 ; i <= 5 ; ++i)
+			assertFalse(m_Pipeline.submitFrame(data, FRAME_WIDTH, FRAME_HEIGHT, i, i * FRAME_INTERVAL));
+		assertEquals(5, m_Pipeline.getSubmittedFrameCount());
+		assertEquals(4, m_Pipeline.getSkippedFrameCount());
+		assertEquals(4, m_Pipeline.getStageSkipCount());
+		
+		// complete analysis and accept next frame
+		analyzer.gate.countDown();
+		this.awaitAnalyzedFrames(1);
+		this.submitWhenIdle(data, 6, 6 * FRAME_INTERVAL);
+		this.awaitAnalyzedFrames(2);
+		assertEquals(Arrays.asList(1L, 6L), analyzer.getSequences());
+	}
+	
+	
+	/**
+	 * Test that frames are skipped by stage until it is due according to its target rate.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void rateLimit() throws InterruptedException
+	{
+		m_Pipeline = new FrameAnalysisPipeline("Test", 1, new CountingCallback(0));
+		TestAnalyzer analyzer = new TestAnalyzer("Rate", 32, 24, 10);
+		m_Pipeline.addAnalyzer(analyzer);
+		byte[] data = createFrame(0);
+		long interval = 100 * FRAME_INTERVAL;
+		assertTrue(m_Pipeline.submitFrame(data, FRAME_WIDTH, FRAME_HEIGHT, 1, interval));
+		assertFalse(m_Pipeline.submitFrame(data, FRAME_WIDTH, FRAME_HEIGHT, 2, interval + 30 * FRAME_INTERVAL));
+		assertFalse(m_Pipeline.submitFrame(data, FRAME_WIDTH, FRAME_HEIGHT, 3, interval + 60 * FRAME_INTERVAL));
+		assertEquals(2, m_Pipeline.getSkippedFrameCount());
+		this.awaitAnalyzedFrames(1);
+		this.submitWhenIdle(data, 4, 2 * interval);
+		this.awaitAnalyzedFrames(2);
+		assertEquals(Arrays.asList(1L, 4L), analyzer.getSequences());
+	}
+	
+	
+	/**
+	 * Test that closed and released pipeline no longer accepts frames or analyzers.
+	 */
+	@Test
+	public void release()
+	{
+		m_Pipeline = new FrameAnalysisPipeline("Test", 1, new CountingCallback(0));
+		Handle handle = m_Pipeline.addAnalyzer(new TestAnalyzer("Closed", 32, 24, 30));
+		assertEquals(1, m_Pipeline.getAnalyzerCount());
+		Handle.close(handle);
+		assertEquals(0, m_Pipeline.getAnalyzerCount());
+		byte[] data = createFrame(0);
+		assertFalse(m_Pipeline.submitFrame(data, FRAME_WIDTH, FRAME_HEIGHT, 1, FRAME_INTERVAL));
+		assertEquals(1, m_Pipeline.getSkippedFrameCount());
+		m_Pipeline.release();
+		assertNull(m_Pipeline.addAnalyzer(new TestAnalyzer("Released", 32, 24, 30)));
+		assertFalse(m_Pipeline.submitFrame(data, FRAME_WIDTH, FRAME_HEIGHT, 2, 2 * FRAME_INTERVAL));
+		assertEquals(1, m_Pipeline.getSubmittedFrameCount());
+	}
+	
+	
+	/**
+	 * Test that frame is downscaled once for each input size and shared by stages.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void sharedDownscale() throws InterruptedException
+	{
+		CountingCallback callback = new CountingCallback(3);
+		m_Pipeline = new FrameAnalysisPipeline("Test", 3, callback);
+		TestAnalyzer analyzer1 = new TestAnalyzer("Analyzer1", 32, 32, 30);
+		TestAnalyzer analyzer2 = new TestAnalyzer("Analyzer2", 32, 24, 30);
+		TestAnalyzer analyzer3 = new TestAnalyzer("Analyzer3", 16, 12, 30);
+		m_Pipeline.addAnalyzer(analyzer1);
+		m_Pipeline.addAnalyzer(analyzer2);
+		m_Pipeline.addAnalyzer(analyzer3);
+		assertTrue(m_Pipeline.submitFrame(createFrame(100), FRAME_WIDTH, FRAME_HEIGHT, 1, FRAME_INTERVAL));
+		assertTrue(callback.latch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+		AnalysisFrame frame1 = analyzer1.frames.get(0);
+		AnalysisFrame frame2 = analyzer2.frames.get(0);
+		AnalysisFrame frame3 = analyzer3.frames.get(0);
+		assertSame(frame1, frame2);
+		assertEquals(32, frame1.getWidth());
+		assertEquals(24, frame1.getHeight());
+		assertNotSame(frame1, frame3);
+		assertEquals(16, frame3.getWidth());
+		assertEquals(12, frame3.getHeight());
+		assertEquals(Arrays.asList((byte)100), analyzer1.pixels);
+		assertEquals(Arrays.asList((byte)100), analyzer3.pixels);
+	}
+	
+	
+	// Submit frame, retry until stage completes previous frame.
+	private void submitWhenIdle(byte[] data, long sequence, long timestamp) throws InterruptedException
+	{
+		long deadline = (System.currentTimeMillis() + TIMEOUT);
+		while(!m_Pipeline.submitFrame(data, FRAME_WIDTH, FRAME_HEIGHT, sequence, timestamp))
+		{
+			if(System.currentTimeMillis() >= deadline)
+				fail("Frame is not accepted in time");
+			Thread.sleep(1);
+		}
+	}
+	
+	
+	/**
+	 * Release pipeline.
+	 */
+	@After
+	public void tearDown()
+	{
+		if(m_Pipeline != null)
+			m_Pipeline.release();
+	}
+}
@@ -0,0 +1,257 @@
+package com.charles.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import com.charles.base.Handle;
+import com.charles.base.headless.HeadlessRuntime;
+
+/**
+ * Tests of {@link PreviewFrameRing}.
+ */
+public class PreviewFrameRingTest
+{
+	// Constants
+	private static final long TIMEOUT = 5000;
+	
+	
+	// Private fields
+	private Handler m_FastHandler;
+	private HandlerThread m_FastThread;
+	private PreviewFrameRing m_Ring;
+	private Handler m_SlowHandler;
+	private HandlerThread m_SlowThread;
+	
+	
+	// Call-back which records sequence numbers of received frames.
+	private static final class RecordingCallback implements PreviewFrameRing.FrameCallback
+	{
+		public final List<Long> sequences = new ArrayList<>();
+		
+		@Override
+		public void onFrameReceived(PreviewFrameRing.Consumer consumer, PreviewFrame frame)
+		{
+			synchronized(this.sequences)
+			{
+				this.sequences.add(frame.getSequence());
+			}
+		}
+		
+		public List<Long> getSequences()
+		{
+			synchronized(this.sequences)
+			{
+				return new ArrayList<>(this.sequences);
+			}
+		}
+	}
+	
+	
+	// Block thread of handler until latch is released.
+	private static CountDownLatch block(Handler handler)
+	{
+		final CountDownLatch latch = new CountDownLatch(1);
+		handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					latch.await();
+				}
+				catch(InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		return latch;
+	}
+	
+	
+	/**
+	 * Test that closed consumer stops receiving frames and consumer changes are notified.
+	 */
+	@Test
+	public void closeConsumer()
+	{
+		final int[] changeCount = new int[1];
+		m_Ring.setConsumersChangedCallback(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				++changeCount[0];
+			}
+		});
+		RecordingCallback callback = new RecordingCallback();
+		PreviewFrameRing.Consumer consumer = m_Ring.addConsumer("Consumer", PreviewFrameRing.Policy.EVERY_FRAME, 0, m_FastHandler, callback);
+		assertEquals(1, changeCount[0]);
+		this.publishFrame();
+		sync(m_FastHandler);
+		Handle.close(consumer);
+		assertEquals(0, m_Ring.getConsumerCount());
+		assertEquals(2, changeCount[0]);
+		this.publishFrame();
+		sync(m_FastHandler);
+		assertEquals(Arrays.asList(1L), callback.getSequences());
+	}
+	
+	
+	/**
+	 * Test that frames overwritten while consumer is busy are counted as dropped according to frame policy.
+	 */
+	@Test
+	public void overrun()
+	{
+		// add consumers
+		RecordingCallback everyFrameCallback = new RecordingCallback();
+		RecordingCallback everyNthCallback = new RecordingCallback();
+		RecordingCallback latestCallback = new RecordingCallback();
+		PreviewFrameRing.Consumer everyFrameConsumer = m_Ring.addConsumer("EveryFrame", PreviewFrameRing.Policy.EVERY_FRAME, 0, m_SlowHandler, everyFrameCallback);
+		PreviewFrameRing.Consumer everyNthConsumer = m_Ring.addConsumer("EveryNth", PreviewFrameRing.Policy.EVERY_NTH, 2, m_SlowHandler, everyNthCallback);
+		PreviewFrameRing.Consumer latestConsumer = m_Ring.addConsumer("Latest", PreviewFrameRing.Policy.LATEST_ONLY, 0, m_SlowHandler, latestCallback);
+		
+		// publish more frames than slots while consumers are busy
+		CountDownLatch latch = block(m_SlowHandler);
+		for(int i = 0 ; i < 5 ; ++i)
+			this.publishFrame();
+		latch.countDown();
+		sync(m_SlowHandler);
+		
+		// check frames
+		assertEquals(Arrays.asList(3L, 4L, 5L), everyFrameCallback.getSequences());
+		assertEquals(2, everyFrameConsumer.getDroppedFrameCount());
+		assertEquals(3, everyFrameConsumer.getDeliveredFrameCount());
+		assertEquals(2, everyFrameConsumer.getMaxLag());
+		assertEquals(Arrays.asList(4L), everyNthCallback.getSequences());
+		assertEquals(1, everyNthConsumer.getDroppedFrameCount());
+		assertEquals(Arrays.asList(5L), latestCallback.getSequences());
+		assertEquals(4, latestConsumer.getDroppedFrameCount());
+		assertEquals(0, m_Ring.getWriterDropCount());
+	}
+	
+	
+	/**
+	 * Test that each consumer reads frames by its own cursor, so slow consumer does not affect fast consumer.
+	 */
+	@Test
+	public void perConsumerCursors()
+	{
+		RecordingCallback fastCallback = new RecordingCallback();
+		RecordingCallback slowCallback = new RecordingCallback();
+		PreviewFrameRing.Consumer fastConsumer = m_Ring.addConsumer("Fast", PreviewFrameRing.Policy.EVERY_FRAME, 0, m_FastHandler, fastCallback);
+		PreviewFrameRing.Consumer slowConsumer = m_Ring.addConsumer("Slow", PreviewFrameRing.Policy.EVERY_FRAME, 0, m_SlowHandler, slowCallback);
+		CountDownLatch latch = block(m_SlowHandler);
+		for(int i = 0 ; i < 5 ; ++i)
+		{
+			this.publishFrame();
+			sync(m_FastHandler);
+		}
+		assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), fastCallback.getSequences());
+		assertEquals(0, fastConsumer.getDroppedFrameCount());
+		assertEquals(0, slowConsumer.getDeliveredFrameCount());
+		latch.countDown();
+		sync(m_SlowHandler);
+		assertEquals(Arrays.asList(3L, 4L, 5L), slowCallback.getSequences());
+		assertEquals(2, slowConsumer.getDroppedFrameCount());
+		
+		// consumer added later starts from latest frame
+		RecordingCallback lateCallback = new RecordingCallback();
+		m_Ring.addConsumer("Late", PreviewFrameRing.Policy.EVERY_FRAME, 0, m_FastHandler, lateCallback);
+		this.publishFrame();
+		sync(m_FastHandler);
+		assertEquals(Arrays.asList(6L), lateCallback.getSequences());
+	}
+	
+	
+	// Write and publish frame.
+	private long publishFrame()
+	{
+		PreviewFrame frame = m_Ring.beginWrite();
+		assertNotNull(frame);
+		return m_Ring.publish(frame, 0, 0, null, System.nanoTime(), null);
+	}
+	
+	
+	/**
+	 * Create ring and consumer threads.
+	 */
+	@Before
+	public void setup()
+	{
+		m_Ring = new PreviewFrameRing("Test", PreviewFrameRing.DEFAULT_SLOT_COUNT);
+		m_FastThread = new HandlerThread("Fast consumer");
+		m_FastThread.start();
+		m_FastHandler = new Handler(m_FastThread.getLooper());
+		m_SlowThread = new HandlerThread("Slow consumer");
+		m_SlowThread.start();
+		m_SlowHandler = new Handler(m_SlowThread.getLooper());
+	}
+	
+	
+	// Wait until all posted tasks on thread of handler are done.
+	private static void sync(Handler handler)
+	{
+		HeadlessRuntime.runSync(handler, new Runnable()
+		{
+			@Override
+			public void run()
+			{}
+		}, TIMEOUT);
+	}
+	
+	
+	/**
+	 * Stop consumer threads.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@After
+	public void tearDown() throws InterruptedException
+	{
+		m_FastThread.quit();
+		m_SlowThread.quit();
+		m_FastThread.join(TIMEOUT);
+		m_SlowThread.join(TIMEOUT);
+	}
+	
+	
+	/**
+	 * Test that writer drops frame when all slots are being read.
+	 */
+	@Test
+	public void writerDrop()
+	{
+		for(int i = 0 ; i < m_Ring.getSlotCount() ; ++i)
+			this.publishFrame();
+		PreviewFrame[] frames = new PreviewFrame[m_Ring.getSlotCount()];
+		for(int i = 0 ; i < frames.length ; ++i)
+		{
+			frames[i] = m_Ring.acquire(i + 1);
+			assertNotNull(frames[i]);
+		}
+		assertNull(m_Ring.beginWrite());
+		assertEquals(1, m_Ring.getWriterDropCount());
+		m_Ring.release(frames[0]);
+		PreviewFrame frame = m_Ring.beginWrite();
+		assertNotNull(frame);
+		m_Ring.cancelWrite(frame);
+		assertNull(m_Ring.acquire(1));
+		for(int i = 1 ; i < frames.length ; ++i)
+			m_Ring.release(frames[i]);
+	}
+}
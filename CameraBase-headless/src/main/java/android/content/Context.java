@@ -0,0 +1,7 @@
+package android.content;
+
+/**
+ * Headless stand-in for Android {@code Context}.
+ */
+public abstract class Context
+{}
@@ -0,0 +1,7 @@
+package android.hardware.camera2;
+
+/**
+ * Headless stand-in for Android {@code CaptureResult}.
+ */
+public class CaptureResult
+{}
@@ -0,0 +1,251 @@
+package android.os;
+
+/**
+ * Headless implementation of Android {@code Handler} which sends messages to {@link MessageQueue} of {@link Looper}.
+ */
+public class Handler
+{
+	/**
+	 * Call-back interface to handle messages.
+	 */
+	public interface Callback
+	{
+		boolean handleMessage(Message msg);
+	}
+	
+	
+	// Private fields
+	private final Callback m_Callback;
+	private final Looper m_Looper;
+	private final MessageQueue m_Queue;
+	
+	
+	public Handler()
+	{
+		this((Callback)null);
+	}
+	
+	
+	public Handler(Callback callback)
+	{
+		m_Looper = Looper.myLooper();
+		if(m_Looper == null)
+			throw new RuntimeException("Can't create handler inside thread " + Thread.currentThread() + " that has not called Looper.prepare()");
+		m_Queue = m_Looper.getQueue();
+		m_Callback = callback;
+	}
+	
+	
+	public Handler(Looper looper)
+	{
+		this(looper, null);
+	}
+	
+	
+	public Handler(Looper looper, Callback callback)
+	{
+		m_Looper = looper;
+		m_Queue = looper.getQueue();
+		m_Callback = callback;
+	}
+	
+	
+	public void dispatchMessage(Message msg)
+	{
+		if(msg.callback != null)
+			msg.callback.run();
+		else
+		{
+			if(m_Callback != null && m_Callback.handleMessage(msg))
+				return;
+			this.handleMessage(msg);
+		}
+	}
+	
+	
+	// Put message into queue.
+	private boolean enqueueMessage(Message msg, long uptimeMillis)
+	{
+		msg.target = this;
+		return m_Queue.enqueueMessage(msg, uptimeMillis);
+	}
+	
+	
+	public final Looper getLooper()
+	{
+		return m_Looper;
+	}
+	
+	
+	public String getMessageName(Message message)
+	{
+		if(message.callback != null)
+			return message.callback.getClass().getName();
+		return ("0x" + Integer.toHexString(message.what));
+	}
+	
+	
+	public void handleMessage(Message msg)
+	{}
+	
+	
+	public final boolean hasCallbacks(Runnable r)
+	{
+		return m_Queue.hasMessages(this, r, null);
+	}
+	
+	
+	public final boolean hasMessages(int what)
+	{
+		return m_Queue.hasMessages(this, what, null);
+	}
+	
+	
+	public final boolean hasMessages(int what, Object object)
+	{
+		return m_Queue.hasMessages(this, what, object);
+	}
+	
+	
+	public final Message obtainMessage()
+	{
+		return Message.obtain(this);
+	}
+	
+	
+	public final Message obtainMessage(int what)
+	{
+		return Message.obtain(this, what);
+	}
+	
+	
+	public final Message obtainMessage(int what, int arg1, int arg2)
+	{
+		return Message.obtain(this, what, arg1, arg2);
+	}
+	
+	
+	public final Message obtainMessage(int what, int arg1, int arg2, Object obj)
+	{
+		return Message.obtain(this, what, arg1, arg2, obj);
+	}
+	
+	
+	public final Message obtainMessage(int what, Object obj)
+	{
+		return Message.obtain(this, what, obj);
+	}
+	
+	
+	public final boolean post(Runnable r)
+	{
+		return this.sendMessageDelayed(Message.obtain(this, r), 0);
+	}
+	
+	
+	public final boolean postAtFrontOfQueue(Runnable r)
+	{
+		return this.sendMessageAtFrontOfQueue(Message.obtain(this, r));
+	}
+	
+	
+	public final boolean postAtTime(Runnable r, long uptimeMillis)
+	{
+		return this.sendMessageAtTime(Message.obtain(this, r), uptimeMillis);
+	}
+	
+	
+	public final boolean postAtTime(Runnable r, Object token, long uptimeMillis)
+	{
+		Message msg = Message.obtain(this, r);
+		msg.obj = token;
+		return this.sendMessageAtTime(msg, uptimeMillis);
+	}
+	
+	
+	public final boolean postDelayed(Runnable r, long delayMillis)
+	{
+		return this.sendMessageDelayed(Message.obtain(this, r), delayMillis);
+	}
+	
+	
+	public final void removeCallbacks(Runnable r)
+	{
+		m_Queue.removeMessages(this, r, null);
+	}
+	
+	
+	public final void removeCallbacks(Runnable r, Object token)
+	{
+		m_Queue.removeMessages(this, r, token);
+	}
+	
+	
+	public final void removeCallbacksAndMessages(Object token)
+	{
+		m_Queue.removeCallbacksAndMessages(this, token);
+	}
+	
+	
+	public final void removeMessages(int what)
+	{
+		m_Queue.removeMessages(this, what, null);
+	}
+	
+	
+	public final void removeMessages(int what, Object object)
+	{
+		m_Queue.removeMessages(this, what, object);
+	}
+	
+	
+	public final boolean sendEmptyMessage(int what)
+	{
+		return this.sendEmptyMessageDelayed(what, 0);
+	}
+	
+	
+	public final boolean sendEmptyMessageAtTime(int what, long uptimeMillis)
+	{
+		return this.sendMessageAtTime(Message.obtain(this, what), uptimeMillis);
+	}
+	
+	
+	public final boolean sendEmptyMessageDelayed(int what, long delayMillis)
+	{
+		return this.sendMessageDelayed(Message.obtain(this, what), delayMillis);
+	}
+	
+	
+	public final boolean sendMessage(Message msg)
+	{
+		return this.sendMessageDelayed(msg, 0);
+	}
+	
+	
+	public final boolean sendMessageAtFrontOfQueue(Message msg)
+	{
+		return this.enqueueMessage(msg, 0);
+	}
+	
+	
+	public boolean sendMessageAtTime(Message msg, long uptimeMillis)
+	{
+		return this.enqueueMessage(msg, uptimeMillis);
+	}
+	
+	
+	public final boolean sendMessageDelayed(Message msg, long delayMillis)
+	{
+		if(delayMillis < 0)
+			delayMillis = 0;
+		return this.sendMessageAtTime(msg, SystemClock.uptimeMillis() + delayMillis);
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return ("Handler (" + this.getClass().getName() + ") {" + Integer.toHexString(System.identityHashCode(this)) + "}");
+	}
+}
@@ -0,0 +1,96 @@
+package android.os;
+
+/**
+ * Headless implementation of Android {@code HandlerThread}, thread which runs {@link Looper}.
+ */
+public class HandlerThread extends Thread
+{
+	// Private fields
+	private Looper m_Looper;
+	private final int m_Priority;
+	private int m_Tid = -1;
+	
+	
+	public HandlerThread(String name)
+	{
+		this(name, Process.THREAD_PRIORITY_DEFAULT);
+	}
+	
+	
+	public HandlerThread(String name, int priority)
+	{
+		super(name);
+		m_Priority = priority;
+	}
+	
+	
+	public Looper getLooper()
+	{
+		if(!this.isAlive())
+			return null;
+		synchronized(this)
+		{
+			while(this.isAlive() && m_Looper == null)
+			{
+				try
+				{
+					this.wait();
+				}
+				catch(InterruptedException ex)
+				{}
+			}
+		}
+		return m_Looper;
+	}
+	
+	
+	public int getThreadId()
+	{
+		return m_Tid;
+	}
+	
+	
+	protected void onLooperPrepared()
+	{}
+	
+	
+	public boolean quit()
+	{
+		Looper looper = this.getLooper();
+		if(looper != null)
+		{
+			looper.quit();
+			return true;
+		}
+		return false;
+	}
+	
+	
+	public boolean quitSafely()
+	{
+		Looper looper = this.getLooper();
+		if(looper != null)
+		{
+			looper.quitSafely();
+			return true;
+		}
+		return false;
+	}
+	
+	
+	@Override
+	public void run()
+	{
+		m_Tid = Process.myTid();
+		Looper.prepare();
+		synchronized(this)
+		{
+			m_Looper = Looper.myLooper();
+			this.notifyAll();
+		}
+		Process.setThreadPriority(m_Priority);
+		this.onLooperPrepared();
+		Looper.loop();
+		m_Tid = -1;
+	}
+}
@@ -0,0 +1,124 @@
+package android.os;
+
+/**
+ * Headless implementation of Android {@code Looper} which runs message loop on current thread.
+ */
+public final class Looper
+{
+	// Private static fields
+	private static Looper m_MainLooper;
+	private static final ThreadLocal<Looper> m_ThreadLooper = new ThreadLocal<>();
+	
+	
+	// Private fields
+	private final MessageQueue m_Queue;
+	private final Thread m_Thread;
+	
+	
+	// Constructor
+	private Looper(boolean quitAllowed)
+	{
+		m_Queue = new MessageQueue(quitAllowed);
+		m_Thread = Thread.currentThread();
+	}
+	
+	
+	public static synchronized Looper getMainLooper()
+	{
+		return m_MainLooper;
+	}
+	
+	
+	public MessageQueue getQueue()
+	{
+		return m_Queue;
+	}
+	
+	
+	public Thread getThread()
+	{
+		return m_Thread;
+	}
+	
+	
+	public boolean isCurrentThread()
+	{
+		return (Thread.currentThread() == m_Thread);
+	}
+	
+	
+	public static void loop()
+	{
+		Looper looper = myLooper();
+		if(looper == null)
+			throw new RuntimeException("No Looper; Looper.prepare() wasn't called on this thread.");
+		MessageQueue queue = looper.m_Queue;
+		while(true)
+		{
+			Message msg = queue.next();
+			if(msg == null)
+				return;
+			msg.target.dispatchMessage(msg);
+			msg.recycleUnchecked();
+		}
+	}
+	
+	
+	public static Looper myLooper()
+	{
+		return m_ThreadLooper.get();
+	}
+	
+	
+	public static MessageQueue myQueue()
+	{
+		Looper looper = myLooper();
+		return (looper != null ? looper.m_Queue : null);
+	}
+	
+	
+	public static void prepare()
+	{
+		prepare(true);
+	}
+	
+	
+	// Prepare looper for current thread.
+	private static void prepare(boolean quitAllowed)
+	{
+		if(m_ThreadLooper.get() != null)
+			throw new RuntimeException("Only one Looper may be created per thread");
+		m_ThreadLooper.set(new Looper(quitAllowed));
+	}
+	
+	
+	public static void prepareMainLooper()
+	{
+		prepare(false);
+		synchronized(Looper.class)
+		{
+			if(m_MainLooper != null)
+				throw new IllegalStateException("The main Looper has already been prepared.");
+			m_MainLooper = myLooper();
+		}
+	}
+	
+	
+	public void quit()
+	{
+		m_Queue.quit(false);
+	}
+	
+	
+	public void quitSafely()
+	{
+		m_Queue.quit(true);
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return ("Looper (" + m_Thread.getName() + ", tid " + m_Thread.getId() + ") {" + Integer.toHexString(System.identityHashCode(this)) + "}");
+	}
+}
@@ -0,0 +1,220 @@
+package android.os;
+
+/**
+ * Headless implementation of Android {@code Message}, messages are pooled and recycled by {@link Looper} after dispatching.
+ */
+public final class Message
+{
+	public int arg1;
+	public int arg2;
+	public Object obj;
+	public int what;
+	
+	
+	// Constants
+	private static final int FLAG_IN_USE = 0x1;
+	private static final int MAX_POOL_SIZE = 50;
+	
+	
+	// Private static fields
+	private static Message m_Pool;
+	private static final Object m_PoolLock = new Object();
+	private static int m_PoolSize;
+	
+	
+	// Package fields
+	Runnable callback;
+	int flags;
+	Message next;
+	Handler target;
+	long when;
+	
+	
+	public Message()
+	{}
+	
+	
+	public void copyFrom(Message msg)
+	{
+		this.what = msg.what;
+		this.arg1 = msg.arg1;
+		this.arg2 = msg.arg2;
+		this.obj = msg.obj;
+	}
+	
+	
+	public Runnable getCallback()
+	{
+		return this.callback;
+	}
+	
+	
+	public Handler getTarget()
+	{
+		return this.target;
+	}
+	
+	
+	public long getWhen()
+	{
+		return this.when;
+	}
+	
+	
+	// Check whether message is in queue or being dispatched.
+	boolean isInUse()
+	{
+		return ((this.flags & FLAG_IN_USE) != 0);
+	}
+	
+	
+	// Mark message as in use.
+	void markInUse()
+	{
+		this.flags |= FLAG_IN_USE;
+	}
+	
+	
+	public static Message obtain()
+	{
+		synchronized(m_PoolLock)
+		{
+			if(m_Pool != null)
+			{
+				Message msg = m_Pool;
+				m_Pool = msg.next;
+				msg.next = null;
+				msg.flags = 0;
+				--m_PoolSize;
+				return msg;
+			}
+		}
+		return new Message();
+	}
+	
+	
+	public static Message obtain(Handler h)
+	{
+		Message msg = obtain();
+		msg.target = h;
+		return msg;
+	}
+	
+	
+	public static Message obtain(Handler h, int what)
+	{
+		Message msg = obtain();
+		msg.target = h;
+		msg.what = what;
+		return msg;
+	}
+	
+	
+	public static Message obtain(Handler h, int what, int arg1, int arg2)
+	{
+		return obtain(h, what, arg1, arg2, null);
+	}
+	
+	
+	public static Message obtain(Handler h, int what, int arg1, int arg2, Object obj)
+	{
+		Message msg = obtain();
+		msg.target = h;
+		msg.what = what;
+		msg.arg1 = arg1;
+		msg.arg2 = arg2;
+		msg.obj = obj;
+		return msg;
+	}
+	
+	
+	public static Message obtain(Handler h, int what, Object obj)
+	{
+		return obtain(h, what, 0, 0, obj);
+	}
+	
+	
+	public static Message obtain(Handler h, Runnable callback)
+	{
+		Message msg = obtain();
+		msg.target = h;
+		msg.callback = callback;
+		return msg;
+	}
+	
+	
+	public static Message obtain(Message orig)
+	{
+		Message msg = obtain();
+		msg.copyFrom(orig);
+		msg.target = orig.target;
+		msg.callback = orig.callback;
+		return msg;
+	}
+	
+	
+	public void recycle()
+	{
+		if(this.isInUse())
+			throw new IllegalStateException("This message cannot be recycled because it is still in use.");
+		this.recycleUnchecked();
+	}
+	
+	
+	// Recycle message which may be in use.
+	void recycleUnchecked()
+	{
+		this.flags = FLAG_IN_USE;
+		this.what = 0;
+		this.arg1 = 0;
+		this.arg2 = 0;
+		this.obj = null;
+		this.when = 0;
+		this.target = null;
+		this.callback = null;
+		synchronized(m_PoolLock)
+		{
+			if(m_PoolSize < MAX_POOL_SIZE)
+			{
+				this.next = m_Pool;
+				m_Pool = this;
+				++m_PoolSize;
+			}
+		}
+	}
+	
+	
+	public void sendToTarget()
+	{
+		this.target.sendMessage(this);
+	}
+	
+	
+	public void setTarget(Handler target)
+	{
+		this.target = target;
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder("{ when=");
+		builder.append(this.when - SystemClock.uptimeMillis()).append("ms");
+		if(this.target != null)
+		{
+			if(this.callback != null)
+				builder.append(" callback=").append(this.callback.getClass().getName());
+			else
+				builder.append(" what=").append(this.what);
+			if(this.arg1 != 0)
+				builder.append(" arg1=").append(this.arg1);
+			if(this.arg2 != 0)
+				builder.append(" arg2=").append(this.arg2);
+			if(this.obj != null)
+				builder.append(" obj=").append(this.obj);
+			builder.append(" target=").append(this.target.getClass().getName());
+		}
+		return builder.append(" }").toString();
+	}
+}
@@ -0,0 +1,350 @@
+package android.os;
+
+import android.util.Log;
+
+import com.charles.base.headless.VirtualTimeScheduler;
+
+/**
+ * Headless implementation of Android {@code MessageQueue}, messages are kept in linked list ordered by time and consumed by {@link Looper}.
+ * If {@link VirtualTimeScheduler} is installed when creating queue, messages are dispatched only when scheduler grants turn to this queue.
+ */
+public final class MessageQueue implements VirtualTimeScheduler.Participant
+{
+	// Constants
+	private static final String TAG = "MessageQueue";
+	
+	
+	// Private fields
+	private boolean m_IsQuitting;
+	private boolean m_IsRegistered;
+	private Message m_Messages;
+	private final String m_Name;
+	private final boolean m_QuitAllowed;
+	private final VirtualTimeScheduler m_Scheduler;
+	
+	
+	// Constructor
+	MessageQueue(boolean quitAllowed)
+	{
+		m_Name = Thread.currentThread().getName();
+		m_QuitAllowed = quitAllowed;
+		m_Scheduler = VirtualTimeScheduler.getCurrent();
+	}
+	
+	
+	// Put message into queue.
+	boolean enqueueMessage(Message msg, long when)
+	{
+		if(msg.target == null)
+			throw new IllegalArgumentException("Message must have a target.");
+		synchronized(this)
+		{
+			if(msg.isInUse())
+				throw new IllegalStateException(msg + " This message is already in use.");
+			if(m_IsQuitting)
+			{
+				Log.w(TAG, msg.target + " sending message to a Handler on a dead thread");
+				msg.recycleUnchecked();
+				return false;
+			}
+			msg.markInUse();
+			msg.when = when;
+			Message p = m_Messages;
+			if(p == null || when == 0 || when < p.when)
+			{
+				msg.next = p;
+				m_Messages = msg;
+			}
+			else
+			{
+				Message prev;
+				do
+				{
+					prev = p;
+					p = p.next;
+				}
+				while(p != null && p.when <= when);
+				msg.next = p;
+				prev.next = msg;
+			}
+			this.notifyAll();
+		}
+		return true;
+	}
+	
+	
+	// Get name for virtual time scheduler.
+	@Override
+	public String getName()
+	{
+		return m_Name;
+	}
+	
+	
+	// Get time of next message for virtual time scheduler.
+	@Override
+	public long getNextDispatchTime()
+	{
+		synchronized(this)
+		{
+			if(m_IsQuitting)
+				return Long.MIN_VALUE;
+			return (m_Messages != null ? m_Messages.when : Long.MAX_VALUE);
+		}
+	}
+	
+	
+	// Check whether there is message matches given condition or not.
+	boolean hasMessages(Handler h, int what, Object object)
+	{
+		synchronized(this)
+		{
+			for(Message p = m_Messages ; p != null ; p = p.next)
+			{
+				if(p.target == h && p.callback == null && p.what == what && (object == null || p.obj == object))
+					return true;
+			}
+			return false;
+		}
+	}
+	
+	
+	// Check whether there is callback matches given condition or not.
+	boolean hasMessages(Handler h, Runnable r, Object object)
+	{
+		synchronized(this)
+		{
+			for(Message p = m_Messages ; p != null ; p = p.next)
+			{
+				if(p.target == h && p.callback == r && (object == null || p.obj == object))
+					return true;
+			}
+			return false;
+		}
+	}
+	
+	
+	/**
+	 * Check whether there is no message to be dispatched now.
+	 * @return Whether queue is idle or not.
+	 */
+	public boolean isIdle()
+	{
+		synchronized(this)
+		{
+			return (m_Messages == null || SystemClock.uptimeMillis() < m_Messages.when);
+		}
+	}
+	
+	
+	// Take next message, block until message is due or queue is quitting.
+	Message next()
+	{
+		if(m_Scheduler != null)
+			return this.nextVirtual();
+		synchronized(this)
+		{
+			while(true)
+			{
+				// check next message
+				Message msg = m_Messages;
+				long now = SystemClock.uptimeMillis();
+				if(msg != null && msg.when <= now)
+				{
+					m_Messages = msg.next;
+					msg.next = null;
+					return msg;
+				}
+				if(m_IsQuitting)
+					return null;
+				
+				// wait for next message
+				try
+				{
+					if(msg != null)
+						this.wait(msg.when - now);
+					else
+						this.wait();
+				}
+				catch(InterruptedException ex)
+				{
+					Log.w(TAG, "next() - Interrupted while waiting for message");
+				}
+			}
+		}
+	}
+	
+	
+	// Take next message when virtual time scheduler grants turn.
+	private Message nextVirtual()
+	{
+		// end current turn
+		VirtualTimeScheduler scheduler = m_Scheduler;
+		if(!m_IsRegistered)
+		{
+			m_IsRegistered = true;
+			scheduler.register(this);
+		}
+		else
+			scheduler.endTurn(this);
+		
+		// wait for turn
+		while(true)
+		{
+			scheduler.awaitTurn(this);
+			synchronized(this)
+			{
+				Message msg = m_Messages;
+				if(msg != null && msg.when <= scheduler.now())
+				{
+					m_Messages = msg.next;
+					msg.next = null;
+					return msg;
+				}
+				if(m_IsQuitting)
+					break;
+			}
+			scheduler.endTurn(this);
+		}
+		
+		// quit
+		scheduler.unregister(this);
+		return null;
+	}
+	
+	
+	// Quit queue, remaining messages are removed or only messages in the future are removed if quitting safely.
+	void quit(boolean safe)
+	{
+		if(!m_QuitAllowed)
+			throw new IllegalStateException("Main thread not allowed to quit.");
+		synchronized(this)
+		{
+			if(m_IsQuitting)
+				return;
+			m_IsQuitting = true;
+			if(safe)
+				this.removeAllFutureMessagesLocked();
+			else
+				this.removeAllMessagesLocked();
+			this.notifyAll();
+		}
+	}
+	
+	
+	// Remove all messages.
+	private void removeAllMessagesLocked()
+	{
+		Message p = m_Messages;
+		while(p != null)
+		{
+			Message next = p.next;
+			p.recycleUnchecked();
+			p = next;
+		}
+		m_Messages = null;
+	}
+	
+	
+	// Remove all messages which are not due yet.
+	private void removeAllFutureMessagesLocked()
+	{
+		long now = SystemClock.uptimeMillis();
+		Message p = m_Messages;
+		if(p == null)
+			return;
+		if(p.when > now)
+		{
+			this.removeAllMessagesLocked();
+			return;
+		}
+		Message n;
+		while((n = p.next) != null && n.when <= now)
+			p = n;
+		p.next = null;
+		while(n != null)
+		{
+			Message next = n.next;
+			n.recycleUnchecked();
+			n = next;
+		}
+	}
+	
+	
+	// Remove callbacks and messages of given handler matches given object.
+	void removeCallbacksAndMessages(Handler h, Object object)
+	{
+		synchronized(this)
+		{
+			Message prev = null;
+			Message p = m_Messages;
+			while(p != null)
+			{
+				Message next = p.next;
+				if(p.target == h && (object == null || p.obj == object))
+				{
+					if(prev == null)
+						m_Messages = next;
+					else
+						prev.next = next;
+					p.recycleUnchecked();
+				}
+				else
+					prev = p;
+				p = next;
+			}
+		}
+	}
+	
+	
+	// Remove messages matches given condition.
+	void removeMessages(Handler h, int what, Object object)
+	{
+		synchronized(this)
+		{
+			Message prev = null;
+			Message p = m_Messages;
+			while(p != null)
+			{
+				Message next = p.next;
+				if(p.target == h && p.callback == null && p.what == what && (object == null || p.obj == object))
+				{
+					if(prev == null)
+						m_Messages = next;
+					else
+						prev.next = next;
+					p.recycleUnchecked();
+				}
+				else
+					prev = p;
+				p = next;
+			}
+		}
+	}
+	
+	
+	// Remove callbacks matches given condition.
+	void removeMessages(Handler h, Runnable r, Object object)
+	{
+		synchronized(this)
+		{
+			Message prev = null;
+			Message p = m_Messages;
+			while(p != null)
+			{
+				Message next = p.next;
+				if(p.target == h && p.callback == r && (object == null || p.obj == object))
+				{
+					if(prev == null)
+						m_Messages = next;
+					else
+						prev.next = next;
+					p.recycleUnchecked();
+				}
+				else
+					prev = p;
+				p = next;
+			}
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package android.os;
+
+/**
+ * Headless implementation of Android {@code Process}.
+ */
+public final class Process
+{
+	public static final int THREAD_PRIORITY_BACKGROUND = 10;
+	public static final int THREAD_PRIORITY_DEFAULT = 0;
+	public static final int THREAD_PRIORITY_DISPLAY = -4;
+	public static final int THREAD_PRIORITY_FOREGROUND = -2;
+	public static final int THREAD_PRIORITY_URGENT_DISPLAY = -8;
+	
+	
+	// Constructor
+	private Process()
+	{}
+	
+	
+	public static int myPid()
+	{
+		return 1;
+	}
+	
+	
+	public static int myTid()
+	{
+		return (int)Thread.currentThread().getId();
+	}
+	
+	
+	public static void setThreadPriority(int priority)
+	{
+		// map nice value [-20, 19] to Java priority [10, 1]
+		int javaPriority = (Thread.NORM_PRIORITY - (priority / 4));
+		Thread.currentThread().setPriority(Math.max(Thread.MIN_PRIORITY, Math.min(Thread.MAX_PRIORITY, javaPriority)));
+	}
+}
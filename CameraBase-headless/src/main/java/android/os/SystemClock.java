@@ -0,0 +1,61 @@
+package android.os;
+
+import com.charles.base.headless.VirtualTimeScheduler;
+
+/**
+ * Headless implementation of Android {@code SystemClock} based on {@link System#nanoTime()}, or virtual time if {@link VirtualTimeScheduler} is installed.
+ */
+public final class SystemClock
+{
+	// Constructor
+	private SystemClock()
+	{}
+	
+	
+	public static long elapsedRealtime()
+	{
+		return uptimeMillis();
+	}
+	
+	
+	public static long elapsedRealtimeNanos()
+	{
+		VirtualTimeScheduler scheduler = VirtualTimeScheduler.getCurrent();
+		if(scheduler != null)
+			return (scheduler.now() * 1000000);
+		return System.nanoTime();
+	}
+	
+	
+	public static void sleep(long ms)
+	{
+		VirtualTimeScheduler scheduler = VirtualTimeScheduler.getCurrent();
+		if(scheduler != null)
+		{
+			scheduler.sleep(ms);
+			return;
+		}
+		long endTime = (uptimeMillis() + ms);
+		while(true)
+		{
+			long remaining = (endTime - uptimeMillis());
+			if(remaining <= 0)
+				return;
+			try
+			{
+				Thread.sleep(remaining);
+			}
+			catch(InterruptedException ex)
+			{}
+		}
+	}
+	
+	
+	public static long uptimeMillis()
+	{
+		VirtualTimeScheduler scheduler = VirtualTimeScheduler.getCurrent();
+		if(scheduler != null)
+			return scheduler.now();
+		return (System.nanoTime() / 1000000);
+	}
+}
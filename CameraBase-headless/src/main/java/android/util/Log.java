@@ -0,0 +1,127 @@
+package android.util;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * Headless implementation of Android {@code Log} which prints messages to standard error stream.
+ * Only messages with priority higher than or equal to minimum priority are printed, minimum priority can be set by system property "android.util.Log.level".
+ */
+public final class Log
+{
+	public static final int VERBOSE = 2;
+	public static final int DEBUG = 3;
+	public static final int INFO = 4;
+	public static final int WARN = 5;
+	public static final int ERROR = 6;
+	public static final int ASSERT = 7;
+	
+	
+	// Constants
+	private static final String PRIORITY_NAMES = "??VDIWEA";
+	
+	
+	// Private static fields
+	private static volatile int m_MinPriority = Integer.getInteger("android.util.Log.level", ERROR);
+	
+	
+	// Constructor
+	private Log()
+	{}
+	
+	
+	public static int d(String tag, String msg)
+	{
+		return println(DEBUG, tag, msg);
+	}
+	
+	
+	public static int d(String tag, String msg, Throwable tr)
+	{
+		return println(DEBUG, tag, msg + '\n' + getStackTraceString(tr));
+	}
+	
+	
+	public static int e(String tag, String msg)
+	{
+		return println(ERROR, tag, msg);
+	}
+	
+	
+	public static int e(String tag, String msg, Throwable tr)
+	{
+		return println(ERROR, tag, msg + '\n' + getStackTraceString(tr));
+	}
+	
+	
+	public static String getStackTraceString(Throwable tr)
+	{
+		if(tr == null)
+			return "";
+		StringWriter writer = new StringWriter();
+		tr.printStackTrace(new PrintWriter(writer));
+		return writer.toString();
+	}
+	
+	
+	public static int i(String tag, String msg)
+	{
+		return println(INFO, tag, msg);
+	}
+	
+	
+	public static int i(String tag, String msg, Throwable tr)
+	{
+		return println(INFO, tag, msg + '\n' + getStackTraceString(tr));
+	}
+	
+	
+	public static boolean isLoggable(String tag, int level)
+	{
+		return (level >= m_MinPriority);
+	}
+	
+	
+	public static int println(int priority, String tag, String msg)
+	{
+		if(priority < m_MinPriority)
+			return 0;
+		String line = (PRIORITY_NAMES.charAt(Math.max(0, Math.min(priority, ASSERT))) + "/" + tag + "(" + Thread.currentThread().getName() + "): " + msg);
+		System.err.println(line);
+		return line.length();
+	}
+	
+	
+	/**
+	 * Set minimum priority of messages to print, this method is not part of Android API.
+	 * @param priority Minimum priority.
+	 */
+	public static void setMinPriority(int priority)
+	{
+		m_MinPriority = priority;
+	}
+	
+	
+	public static int v(String tag, String msg)
+	{
+		return println(VERBOSE, tag, msg);
+	}
+	
+	
+	public static int v(String tag, String msg, Throwable tr)
+	{
+		return println(VERBOSE, tag, msg + '\n' + getStackTraceString(tr));
+	}
+	
+	
+	public static int w(String tag, String msg)
+	{
+		return println(WARN, tag, msg);
+	}
+	
+	
+	public static int w(String tag, String msg, Throwable tr)
+	{
+		return println(WARN, tag, msg + '\n' + getStackTraceString(tr));
+	}
+}
@@ -0,0 +1,54 @@
+package android.util;
+
+/**
+ * Headless implementation of Android {@code Size}.
+ */
+public final class Size
+{
+	// Private fields
+	private final int m_Height;
+	private final int m_Width;
+	
+	
+	public Size(int width, int height)
+	{
+		m_Width = width;
+		m_Height = height;
+	}
+	
+	
+	@Override
+	public boolean equals(Object obj)
+	{
+		if(!(obj instanceof Size))
+			return false;
+		Size size = (Size)obj;
+		return (m_Width == size.m_Width && m_Height == size.m_Height);
+	}
+	
+	
+	public int getHeight()
+	{
+		return m_Height;
+	}
+	
+	
+	public int getWidth()
+	{
+		return m_Width;
+	}
+	
+	
+	@Override
+	public int hashCode()
+	{
+		return (m_Height ^ ((m_Width << 16) | (m_Width >>> 16)));
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return (m_Width + "x" + m_Height);
+	}
+}
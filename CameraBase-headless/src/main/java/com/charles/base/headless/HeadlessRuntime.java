@@ -0,0 +1,284 @@
+package com.charles.base.headless;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.charles.base.BaseThread;
+import com.charles.base.HandlerObject;
+
+/**
+ * Utilities to start and drive {@link BaseThread} and other {@link HandlerObject} on plain JVM with headless message loop.
+ */
+public final class HeadlessRuntime
+{
+	// Constants
+	private static final long POLLING_INTERVAL = 1;
+	
+	
+	// Private static fields
+	private static Handler m_MainHandler;
+	
+	
+	// Constructor
+	private HeadlessRuntime()
+	{}
+	
+	
+	/**
+	 * Call given task on thread of handler and wait for result.
+	 * @param handler Handler to run task.
+	 * @param task Task to call.
+	 * @param timeoutMillis Timeout in milliseconds.
+	 * @return Result of task.
+	 */
+	public static <T> T callSync(Handler handler, final Callable<T> task, long timeoutMillis)
+	{
+		// run on current thread
+		if(handler.getLooper().isCurrentThread())
+		{
+			try
+			{
+				return task.call();
+			}
+			catch(RuntimeException ex)
+			{
+				throw ex;
+			}
+			catch(Exception ex)
+			{
+				throw new RuntimeException(ex);
+			}
+		}
+		
+		// post task
+		final AtomicReference<T> result = new AtomicReference<>();
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final CountDownLatch latch = new CountDownLatch(1);
+		if(!handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					result.set(task.call());
+				}
+				catch(Throwable ex)
+				{
+					error.set(ex);
+				}
+				finally
+				{
+					latch.countDown();
+				}
+			}
+		}))
+		{
+			throw new IllegalStateException("Fail to post task to " + handler);
+		}
+		
+		// wait for result
+		try
+		{
+			VirtualTimeScheduler scheduler = VirtualTimeScheduler.getCurrent();
+			if(scheduler != null)
+			{
+				long deadline = (System.currentTimeMillis() + timeoutMillis);
+				while(true)
+				{
+					scheduler.runUntilIdle();
+					if(latch.await(POLLING_INTERVAL, TimeUnit.MILLISECONDS))
+						break;
+					if(System.currentTimeMillis() >= deadline)
+						throw new IllegalStateException("Timeout waiting for task on " + handler.getLooper());
+				}
+			}
+			else if(!latch.await(timeoutMillis, TimeUnit.MILLISECONDS))
+				throw new IllegalStateException("Timeout waiting for task on " + handler.getLooper());
+		}
+		catch(InterruptedException ex)
+		{
+			throw new IllegalStateException("Interrupted while waiting for task", ex);
+		}
+		Throwable ex = error.get();
+		if(ex instanceof RuntimeException)
+			throw (RuntimeException)ex;
+		if(ex instanceof Error)
+			throw (Error)ex;
+		if(ex != null)
+			throw new RuntimeException(ex);
+		return result.get();
+	}
+	
+	
+	/**
+	 * Get handler of main thread, main looper will be prepared on a daemon thread named "main" if it is not prepared yet.
+	 * @return Handler of main thread.
+	 */
+	public static synchronized Handler getMainHandler()
+	{
+		if(m_MainHandler == null)
+		{
+			Looper looper = Looper.getMainLooper();
+			if(looper == null)
+			{
+				final CountDownLatch latch = new CountDownLatch(1);
+				Thread thread = new Thread("main")
+				{
+					@Override
+					public void run()
+					{
+						Looper.prepareMainLooper();
+						latch.countDown();
+						Looper.loop();
+					}
+				};
+				thread.setDaemon(true);
+				thread.start();
+				try
+				{
+					latch.await();
+				}
+				catch(InterruptedException ex)
+				{
+					throw new IllegalStateException("Interrupted while preparing main looper", ex);
+				}
+				looper = Looper.getMainLooper();
+			}
+			m_MainHandler = new Handler(looper);
+		}
+		return m_MainHandler;
+	}
+	
+	
+	/**
+	 * Run given task on thread of handler and wait for completion.
+	 * @param handler Handler to run task.
+	 * @param task Task to run.
+	 * @param timeoutMillis Timeout in milliseconds.
+	 */
+	public static void runSync(Handler handler, final Runnable task, long timeoutMillis)
+	{
+		callSync(handler, new Callable<Void>()
+		{
+			@Override
+			public Void call()
+			{
+				task.run();
+				return null;
+			}
+		}, timeoutMillis);
+	}
+	
+	
+	/**
+	 * Start given thread and wait until its message loop is running.
+	 * @param thread Thread to start.
+	 * @param timeoutMillis Timeout in milliseconds.
+	 * @return Started thread.
+	 */
+	public static <T extends BaseThread> T startThread(T thread, long timeoutMillis)
+	{
+		thread.start();
+		long deadline = (System.currentTimeMillis() + timeoutMillis);
+		Handler handler = waitForHandler(thread, deadline);
+		runSync(handler, new Runnable()
+		{
+			@Override
+			public void run()
+			{}
+		}, Math.max(0, deadline - System.currentTimeMillis()));
+		return thread;
+	}
+	
+	
+	/**
+	 * Release given thread and wait until it stops, pending messages are dispatched first if virtual time is enabled.
+	 * @param thread Thread to stop.
+	 * @param timeoutMillis Timeout in milliseconds.
+	 * @return Whether thread stops in time or not.
+	 */
+	public static boolean stopThread(BaseThread thread, long timeoutMillis)
+	{
+		thread.release();
+		try
+		{
+			VirtualTimeScheduler scheduler = VirtualTimeScheduler.getCurrent();
+			if(scheduler != null)
+			{
+				long deadline = (System.currentTimeMillis() + timeoutMillis);
+				while(thread.isAlive() && System.currentTimeMillis() < deadline)
+				{
+					scheduler.runUntilIdle();
+					thread.join(POLLING_INTERVAL);
+				}
+			}
+			else
+				thread.join(timeoutMillis);
+		}
+		catch(InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+		return !thread.isAlive();
+	}
+	
+	
+	// Wait until handler of given object is created.
+	private static Handler waitForHandler(HandlerObject obj, long deadline)
+	{
+		while(true)
+		{
+			Handler handler = obj.getHandler();
+			if(handler != null)
+				return handler;
+			if(System.currentTimeMillis() >= deadline)
+				throw new IllegalStateException("Timeout waiting for handler of " + obj);
+			try
+			{
+				Thread.sleep(POLLING_INTERVAL);
+			}
+			catch(InterruptedException ex)
+			{
+				throw new IllegalStateException("Interrupted while waiting for handler", ex);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Wait until there is no message to be dispatched now on thread of handler, delayed messages in the future are ignored.
+	 * @param handler Handler to check.
+	 * @param timeoutMillis Timeout in milliseconds.
+	 * @return Whether message queue becomes idle in time or not.
+	 */
+	public static boolean waitForIdle(Handler handler, long timeoutMillis)
+	{
+		if(handler.getLooper().isCurrentThread())
+			throw new IllegalStateException("Cannot wait for idle on thread of looper");
+		long deadline = (System.currentTimeMillis() + timeoutMillis);
+		final boolean[] isIdle = new boolean[1];
+		while(true)
+		{
+			long remaining = (deadline - System.currentTimeMillis());
+			if(remaining <= 0)
+				return false;
+			final Looper looper = handler.getLooper();
+			runSync(handler, new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					isIdle[0] = looper.getQueue().isIdle();
+				}
+			}, remaining);
+			if(isIdle[0])
+				return true;
+		}
+	}
+}
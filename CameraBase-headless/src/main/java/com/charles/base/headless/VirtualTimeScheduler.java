@@ -0,0 +1,378 @@
+package com.charles.base.headless;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import android.os.Looper;
+
+/**
+ * Virtual clock for headless message loops.
+ * While scheduler is installed, {@link android.os.SystemClock} returns virtual time and loopers created after installation dispatch one message at a time when granted by scheduler.
+ * Messages are dispatched in timestamp order and time jumps directly to next message, ties between loopers are broken by random generator with given seed so interleaving is reproducible.
+ * Scheduler is driven by {@link #runUntilIdle()}, {@link #advanceBy(long)} and {@link #runUntilQuiet(long)} from thread which is not a looper thread.
+ */
+public final class VirtualTimeScheduler
+{
+	/**
+	 * Default virtual time when scheduler is created, in milliseconds.
+	 */
+	public static final long DEFAULT_START_TIME = 100000;
+	
+	
+	// Private static fields
+	private static volatile VirtualTimeScheduler m_Current;
+	
+	
+	// Private fields
+	private long m_DispatchCount;
+	private boolean m_IsTurnTaken;
+	private volatile long m_Now;
+	private final List<Participant> m_Participants = new ArrayList<>();
+	private final Random m_Random;
+	private final long m_Seed;
+	private Participant m_TurnOwner;
+	
+	
+	/**
+	 * Message queue which dispatches messages under control of scheduler.
+	 */
+	public interface Participant
+	{
+		/**
+		 * Get stable name used to order participants before breaking ties.
+		 * @return Name.
+		 */
+		String getName();
+		
+		/**
+		 * Get time of next message to dispatch.
+		 * @return Time in milliseconds, {@link Long#MAX_VALUE} if there is no message, or {@link Long#MIN_VALUE} if participant is quitting.
+		 */
+		long getNextDispatchTime();
+	}
+	
+	
+	// Comparator to order participants by name.
+	private static final Comparator<Participant> NAME_COMPARATOR = new Comparator<Participant>()
+	{
+		@Override
+		public int compare(Participant lhs, Participant rhs)
+		{
+			return lhs.getName().compareTo(rhs.getName());
+		}
+	};
+	
+	
+	/**
+	 * Initialize new VirtualTimeScheduler instance.
+	 * @param seed Seed to break ties between loopers.
+	 * @param startTime Initial virtual time in milliseconds.
+	 */
+	public VirtualTimeScheduler(long seed, long startTime)
+	{
+		m_Seed = seed;
+		m_Random = new Random(seed);
+		m_Now = startTime;
+	}
+	
+	
+	/**
+	 * Advance virtual time by given duration and dispatch all messages before that time.
+	 * @param durationMillis Duration in milliseconds.
+	 * @return Number of dispatched messages.
+	 */
+	public int advanceBy(long durationMillis)
+	{
+		if(durationMillis < 0)
+			throw new IllegalArgumentException("Invalid duration : " + durationMillis);
+		return this.advanceTo(m_Now + durationMillis);
+	}
+	
+	
+	/**
+	 * Advance virtual time to given time and dispatch all messages before that time.
+	 * @param time Virtual time in milliseconds.
+	 * @return Number of dispatched messages.
+	 */
+	public int advanceTo(long time)
+	{
+		int count = 0;
+		while(this.runNext(time))
+			++count;
+		synchronized(this)
+		{
+			if(m_Now < time)
+				m_Now = time;
+		}
+		return count;
+	}
+	
+	
+	/**
+	 * Wait until scheduler grants turn to given participant, called by looper thread.
+	 * @param participant Participant.
+	 */
+	public void awaitTurn(Participant participant)
+	{
+		synchronized(this)
+		{
+			while(m_TurnOwner != participant)
+			{
+				try
+				{
+					this.wait();
+				}
+				catch(InterruptedException ex)
+				{}
+			}
+			m_IsTurnTaken = true;
+		}
+	}
+	
+	
+	/**
+	 * End turn of given participant if it has taken the turn, called by looper thread.
+	 * @param participant Participant.
+	 */
+	public void endTurn(Participant participant)
+	{
+		synchronized(this)
+		{
+			if(m_TurnOwner == participant && m_IsTurnTaken)
+			{
+				m_TurnOwner = null;
+				m_IsTurnTaken = false;
+				this.notifyAll();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Get installed scheduler.
+	 * @return Installed scheduler, or Null if virtual time is not enabled.
+	 */
+	public static VirtualTimeScheduler getCurrent()
+	{
+		return m_Current;
+	}
+	
+	
+	/**
+	 * Get number of messages dispatched under control of this scheduler.
+	 * @return Number of dispatched messages.
+	 */
+	public synchronized long getDispatchCount()
+	{
+		return m_DispatchCount;
+	}
+	
+	
+	/**
+	 * Get seed to break ties between loopers.
+	 * @return Seed.
+	 */
+	public long getSeed()
+	{
+		return m_Seed;
+	}
+	
+	
+	/**
+	 * Install new scheduler with default start time, loopers created after calling this method run on virtual time.
+	 * @param seed Seed to break ties between loopers.
+	 * @return Installed scheduler.
+	 */
+	public static VirtualTimeScheduler install(long seed)
+	{
+		return install(new VirtualTimeScheduler(seed, DEFAULT_START_TIME));
+	}
+	
+	
+	/**
+	 * Install given scheduler, loopers created after calling this method run on virtual time.
+	 * @param scheduler Scheduler to install.
+	 * @return Installed scheduler.
+	 */
+	public static synchronized VirtualTimeScheduler install(VirtualTimeScheduler scheduler)
+	{
+		if(m_Current != null)
+			throw new IllegalStateException("Virtual time scheduler is already installed");
+		m_Current = scheduler;
+		return scheduler;
+	}
+	
+	
+	/**
+	 * Get current virtual time.
+	 * @return Virtual time in milliseconds.
+	 */
+	public long now()
+	{
+		return m_Now;
+	}
+	
+	
+	/**
+	 * Register participant, called by looper thread when entering loop.
+	 * @param participant Participant.
+	 */
+	public void register(Participant participant)
+	{
+		synchronized(this)
+		{
+			if(!m_Participants.contains(participant))
+			{
+				m_Participants.add(participant);
+				this.notifyAll();
+			}
+		}
+	}
+	
+	
+	// Dispatch next message which time is not later than given time.
+	private boolean runNext(long endTime)
+	{
+		// check thread
+		if(Looper.myLooper() != null)
+			throw new IllegalStateException("Cannot drive virtual time scheduler from looper thread");
+		
+		synchronized(this)
+		{
+			// wait for current turn
+			while(m_TurnOwner != null)
+			{
+				try
+				{
+					this.wait();
+				}
+				catch(InterruptedException ex)
+				{
+					throw new IllegalStateException("Interrupted while waiting for turn", ex);
+				}
+			}
+			
+			// find participants to run next
+			long nextTime = Long.MAX_VALUE;
+			List<Participant> candidates = new ArrayList<>();
+			for(int i = 0, count = m_Participants.size() ; i < count ; ++i)
+			{
+				Participant participant = m_Participants.get(i);
+				long time = participant.getNextDispatchTime();
+				if(time < nextTime)
+				{
+					nextTime = time;
+					candidates.clear();
+					candidates.add(participant);
+				}
+				else if(time == nextTime && time != Long.MAX_VALUE)
+					candidates.add(participant);
+			}
+			if(candidates.isEmpty() || nextTime > endTime)
+				return false;
+			
+			// advance time
+			if(nextTime > m_Now)
+				m_Now = nextTime;
+			
+			// grant turn
+			Participant participant;
+			if(candidates.size() > 1)
+			{
+				Collections.sort(candidates, NAME_COMPARATOR);
+				participant = candidates.get(m_Random.nextInt(candidates.size()));
+			}
+			else
+				participant = candidates.get(0);
+			m_TurnOwner = participant;
+			m_IsTurnTaken = false;
+			this.notifyAll();
+			
+			// wait for completion
+			while(m_TurnOwner == participant)
+			{
+				try
+				{
+					this.wait();
+				}
+				catch(InterruptedException ex)
+				{
+					throw new IllegalStateException("Interrupted while waiting for turn", ex);
+				}
+			}
+			++m_DispatchCount;
+			return true;
+		}
+	}
+	
+	
+	/**
+	 * Dispatch all messages which are due at current virtual time without advancing time.
+	 * @return Number of dispatched messages.
+	 */
+	public int runUntilIdle()
+	{
+		return this.advanceTo(m_Now);
+	}
+	
+	
+	/**
+	 * Dispatch messages and advance virtual time until there is no message in any looper.
+	 * @param maxDurationMillis Maximum duration of virtual time to advance, in milliseconds.
+	 * @return Number of dispatched messages.
+	 */
+	public int runUntilQuiet(long maxDurationMillis)
+	{
+		long endTime = (m_Now + maxDurationMillis);
+		int count = 0;
+		while(this.runNext(endTime))
+			++count;
+		return count;
+	}
+	
+	
+	/**
+	 * Consume virtual time, called when thread sleeps.
+	 * @param durationMillis Duration in milliseconds.
+	 */
+	public void sleep(long durationMillis)
+	{
+		if(durationMillis <= 0)
+			return;
+		synchronized(this)
+		{
+			m_Now += durationMillis;
+		}
+	}
+	
+	
+	/**
+	 * Uninstall current scheduler, loopers created after calling this method run on real time.
+	 */
+	public static synchronized void uninstall()
+	{
+		m_Current = null;
+	}
+	
+	
+	/**
+	 * Unregister participant, called by looper thread when leaving loop.
+	 * @param participant Participant.
+	 */
+	public void unregister(Participant participant)
+	{
+		synchronized(this)
+		{
+			m_Participants.remove(participant);
+			if(m_TurnOwner == participant)
+			{
+				m_TurnOwner = null;
+				m_IsTurnTaken = false;
+			}
+			this.notifyAll();
+		}
+	}
+}
@@ -0,0 +1,398 @@
+package com.charles.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+
+/**
+ * Tests of event and property call-back dispatching in {@link BasicBaseObject}.
+ */
+public class BasicBaseObjectTest
+{
+	// Constants
+	private static final EventKey<EventArgs> EVENT_INNER = new EventKey<>("Inner", EventArgs.class, TestObject.class);
+	private static final EventKey<EventArgs> EVENT_OUTER = new EventKey<>("Outer", EventArgs.class, TestObject.class);
+	private static final PropertyKey<String> PROP_HANDLER_VALUE = new PropertyKey<>("HandlerValue", String.class, TestHandlerObject.class, 0, null);
+	private static final PropertyKey<String> PROP_VALUE = new PropertyKey<>("Value", String.class, TestObject.class, 0, null);
+	private static final FloatPropertyKey PROP_ZOOM = new FloatPropertyKey("Zoom", TestObject.class, 1f);
+	private static final long TIMEOUT = 3000;
+	
+	
+	// Private fields
+	private final List<String> m_Calls = new ArrayList<>();
+	private TestObject m_Object;
+	
+	
+	// Property changed call-back which records calls.
+	private class RecordingCallback implements PropertyChangedCallback<String>
+	{
+		public final String name;
+		
+		public RecordingCallback(String name)
+		{
+			this.name = name;
+		}
+		
+		@Override
+		public void onPropertyChanged(PropertySource source, PropertyKey<String> key, PropertyChangeEventArgs<String> e)
+		{
+			m_Calls.add(this.name + ":" + e.getNewValue());
+		}
+	}
+	
+	
+	// Event handler which records calls.
+	private class RecordingHandler implements EventHandler<EventArgs>
+	{
+		public final String name;
+		
+		public RecordingHandler(String name)
+		{
+			this.name = name;
+		}
+		
+		@Override
+		public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+		{
+			m_Calls.add(this.name + ":" + key.name);
+		}
+	}
+	
+	
+	// Object with handler which exposes notifying property change.
+	private static final class TestHandlerObject extends HandlerBaseObject
+	{
+		private String m_Value;
+		
+		public TestHandlerObject()
+		{
+			super(true);
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public <TValue> TValue get(PropertyKey<TValue> key)
+		{
+			if(key == PROP_HANDLER_VALUE)
+				return (TValue)m_Value;
+			return super.get(key);
+		}
+		
+		public void notifyValueChanged(String oldValue, String newValue)
+		{
+			m_Value = newValue;
+			this.notifyPropertyChanged(PROP_HANDLER_VALUE, oldValue, newValue);
+		}
+	}
+	
+	
+	// Object which exposes raising event and notifying property change, values are kept in its own fields and exposed by overridden getters.
+	private static final class TestObject extends BasicBaseObject
+	{
+		private String m_Value;
+		private float m_Zoom = 1f;
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public <TValue> TValue get(PropertyKey<TValue> key)
+		{
+			if(key == PROP_VALUE)
+				return (TValue)m_Value;
+			return super.get(key);
+		}
+		
+		@Override
+		public float getFloat(FloatPropertyKey key)
+		{
+			if(key == PROP_ZOOM)
+				return m_Zoom;
+			return super.getFloat(key);
+		}
+		
+		public void notifyValueChanged(String oldValue, String newValue)
+		{
+			m_Value = newValue;
+			this.notifyPropertyChanged(PROP_VALUE, oldValue, newValue);
+		}
+		
+		public void raise(EventKey<EventArgs> key)
+		{
+			this.raise(key, EventArgs.EMPTY);
+		}
+		
+		public boolean setZoom(float zoom)
+		{
+			float oldZoom = m_Zoom;
+			m_Zoom = zoom;
+			return this.notifyPropertyChanged(PROP_ZOOM, oldZoom, zoom);
+		}
+	}
+	
+	
+	/**
+	 * Test that handler added during raising is called from next raise.
+	 */
+	@Test
+	public void addHandlerDuringRaise()
+	{
+		final RecordingHandler added = new RecordingHandler("added");
+		m_Object.addHandler(EVENT_OUTER, new RecordingHandler("first")
+		{
+			@Override
+			public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+			{
+				super.onEventReceived(source, key, e);
+				if(m_Calls.size() == 1)
+					m_Object.addHandler(EVENT_OUTER, added);
+			}
+		});
+		m_Object.addHandler(EVENT_OUTER, new RecordingHandler("second"));
+		m_Object.raise(EVENT_OUTER);
+		assertEquals(Arrays.asList("first:Outer", "second:Outer"), m_Calls);
+		m_Calls.clear();
+		m_Object.raise(EVENT_OUTER);
+		assertEquals(Arrays.asList("first:Outer", "second:Outer", "added:Outer"), m_Calls);
+	}
+	
+	
+	/**
+	 * Test that call-back added or removed during notifying property change takes effect from next change.
+	 */
+	@Test
+	public void changeCallbacksDuringNotify()
+	{
+		final RecordingCallback added = new RecordingCallback("added");
+		final RecordingCallback removed = new RecordingCallback("removed");
+		m_Object.addCallback(PROP_VALUE, new RecordingCallback("first")
+		{
+			@Override
+			public void onPropertyChanged(PropertySource source, PropertyKey<String> key, PropertyChangeEventArgs<String> e)
+			{
+				super.onPropertyChanged(source, key, e);
+				if("A".equals(e.getNewValue()))
+				{
+					m_Object.addCallback(PROP_VALUE, added);
+					m_Object.removeCallback(PROP_VALUE, removed);
+				}
+			}
+		});
+		m_Object.addCallback(PROP_VALUE, removed);
+		m_Object.notifyValueChanged(null, "A");
+		assertEquals(Arrays.asList("first:A"), m_Calls);
+		m_Calls.clear();
+		m_Object.notifyValueChanged("A", "B");
+		assertEquals(Arrays.asList("first:B", "added:B"), m_Calls);
+	}
+	
+	
+	/**
+	 * Test that closing stale transaction handle again does not complete later transaction.
+	 */
+	@Test
+	public void closeTransactionTwice()
+	{
+		m_Object.addCallback(PROP_VALUE, new RecordingCallback("callback"));
+		Handle first = m_Object.beginPropertyTransaction();
+		Handle.close(first);
+		Handle second = m_Object.beginPropertyTransaction();
+		assertNotSame(first, second);
+		m_Object.notifyValueChanged(null, "A");
+		Handle.close(first);
+		assertEquals(0, m_Calls.size());
+		Handle.close(second);
+		assertEquals(Arrays.asList("callback:A"), m_Calls);
+	}
+	
+	
+	/**
+	 * Test that transaction closed from another thread is completed on thread of object.
+	 * @throws InterruptedException If thread is interrupted.
+	 */
+	@Test
+	public void closeTransactionFromOtherThread() throws InterruptedException
+	{
+		// create object and start transaction on its own thread
+		HandlerThread thread = new HandlerThread("Test object");
+		thread.start();
+		final Handler handler = new Handler(thread.getLooper());
+		final TestHandlerObject[] object = new TestHandlerObject[1];
+		final Handle[] transaction = new Handle[1];
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				object[0] = new TestHandlerObject();
+				object[0].addCallback(PROP_HANDLER_VALUE, new RecordingCallback("callback"));
+				transaction[0] = object[0].beginPropertyTransaction();
+				object[0].notifyValueChanged(null, "A");
+				startLatch.countDown();
+			}
+		});
+		assertTrue(startLatch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+		
+		// close transaction from this thread
+		Handle.close(transaction[0]);
+		final CountDownLatch closeLatch = new CountDownLatch(1);
+		handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				closeLatch.countDown();
+			}
+		});
+		try
+		{
+			assertTrue(closeLatch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+			assertEquals(Arrays.asList("callback:A"), m_Calls);
+		}
+		finally
+		{
+			thread.quit();
+			thread.join(TIMEOUT);
+		}
+	}
+	
+	
+	/**
+	 * Test raising another event and the same event from handler.
+	 */
+	@Test
+	public void nestedRaise()
+	{
+		m_Object.addHandler(EVENT_OUTER, new RecordingHandler("first")
+		{
+			@Override
+			public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+			{
+				super.onEventReceived(source, key, e);
+				if(m_Calls.size() == 1)
+				{
+					m_Object.raise(EVENT_INNER);
+					m_Object.raise(EVENT_OUTER);
+				}
+			}
+		});
+		m_Object.addHandler(EVENT_OUTER, new RecordingHandler("second"));
+		m_Object.addHandler(EVENT_INNER, new RecordingHandler("inner"));
+		m_Object.raise(EVENT_OUTER);
+		assertEquals(Arrays.asList("first:Outer", "inner:Inner", "first:Outer", "second:Outer", "second:Outer"), m_Calls);
+	}
+	
+	
+	/**
+	 * Test that value changed back by call-back is read through overridden getter.
+	 */
+	@Test
+	public void overriddenGetterInCallback()
+	{
+		m_Object.addCallback(PROP_ZOOM, new FloatPropertyChangedCallback()
+		{
+			@Override
+			public void onPropertyChanged(PropertySource source, FloatPropertyKey key, float oldValue, float newValue)
+			{
+				m_Calls.add("zoom:" + oldValue + "->" + newValue);
+				if(newValue == 2f)
+					m_Object.setZoom(1f);
+			}
+		});
+		assertFalse(m_Object.setZoom(2f));
+		assertEquals(Arrays.asList("zoom:1.0->2.0", "zoom:2.0->1.0"), m_Calls);
+	}
+	
+	
+	/**
+	 * Test that value committed by property transaction is read through overridden getter.
+	 */
+	@Test
+	public void overriddenGetterInTransaction()
+	{
+		m_Object.addCallback(PROP_ZOOM, new FloatPropertyChangedCallback()
+		{
+			@Override
+			public void onPropertyChanged(PropertySource source, FloatPropertyKey key, float oldValue, float newValue)
+			{
+				m_Calls.add("zoom:" + oldValue + "->" + newValue);
+			}
+		});
+		Handle handle = m_Object.beginPropertyTransaction();
+		m_Object.setZoom(2f);
+		m_Object.setZoom(3f);
+		assertEquals(0, m_Calls.size());
+		Handle.close(handle);
+		assertEquals(Arrays.asList("zoom:1.0->3.0"), m_Calls);
+	}
+	
+	
+	/**
+	 * Test that handler removed during raising is not called for the rest of raising.
+	 */
+	@Test
+	public void removeHandlerDuringRaise()
+	{
+		final RecordingHandler removed = new RecordingHandler("removed");
+		m_Object.addHandler(EVENT_OUTER, new RecordingHandler("first")
+		{
+			@Override
+			public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+			{
+				super.onEventReceived(source, key, e);
+				m_Object.removeHandler(EVENT_OUTER, removed);
+			}
+		});
+		m_Object.addHandler(EVENT_OUTER, removed);
+		m_Object.addHandler(EVENT_OUTER, new RecordingHandler("last"));
+		m_Object.raise(EVENT_OUTER);
+		assertEquals(Arrays.asList("first:Outer", "last:Outer"), m_Calls);
+	}
+	
+	
+	/**
+	 * Test that handler which is being called can remove itself, and the removed handler is skipped by nested raise.
+	 */
+	@Test
+	public void removeHandlerWhileDispatching()
+	{
+		m_Object.addHandler(EVENT_OUTER, new RecordingHandler("self")
+		{
+			@Override
+			public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+			{
+				super.onEventReceived(source, key, e);
+				m_Object.removeHandler(EVENT_OUTER, this);
+				m_Object.raise(EVENT_OUTER);
+			}
+		});
+		m_Object.addHandler(EVENT_OUTER, new RecordingHandler("last"));
+		m_Object.raise(EVENT_OUTER);
+		assertEquals(Arrays.asList("self:Outer", "last:Outer", "last:Outer"), m_Calls);
+		m_Calls.clear();
+		m_Object.raise(EVENT_OUTER);
+		assertEquals(Arrays.asList("last:Outer"), m_Calls);
+	}
+	
+	
+	/**
+	 * Create object to test.
+	 */
+	@Before
+	public void setup()
+	{
+		m_Object = new TestObject();
+	}
+}
@@ -0,0 +1,169 @@
+package com.charles.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link DispatchStatistics}.
+ */
+public class DispatchStatisticsTest
+{
+	// Constants
+	private static final EventKey<EventArgs> EVENT_TEST = new EventKey<>("DispatchStatisticsTest.Event", EventArgs.class, TestObject.class);
+	private static final PropertyKey<String> PROP_TEST = new PropertyKey<>("DispatchStatisticsTest.Property", String.class, TestObject.class, 0, null);
+	
+	
+	// Private fields
+	private TestObject m_Object;
+	
+	
+	// Property changed call-back which does nothing.
+	private static final class EmptyCallback implements PropertyChangedCallback<String>
+	{
+		@Override
+		public void onPropertyChanged(PropertySource source, PropertyKey<String> key, PropertyChangeEventArgs<String> e)
+		{}
+	}
+	
+	
+	// Event handler which does nothing.
+	private static final class EmptyHandler implements EventHandler<EventArgs>
+	{
+		@Override
+		public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+		{}
+	}
+	
+	
+	// Object which exposes raising event and notifying property change.
+	private static final class TestObject extends BasicBaseObject
+	{
+		public void notifyValueChanged(String oldValue, String newValue)
+		{
+			this.notifyPropertyChanged(PROP_TEST, oldValue, newValue);
+		}
+		
+		public void raise()
+		{
+			this.raise(EVENT_TEST, EventArgs.EMPTY);
+		}
+	}
+	
+	
+	/**
+	 * Test that nothing is recorded when statistics is disabled.
+	 */
+	@Test
+	public void disabled()
+	{
+		DispatchStatistics.disable();
+		assertNull(DispatchStatistics.getRecorder(EVENT_TEST));
+		assertNull(DispatchStatistics.getRecorder(PROP_TEST));
+		m_Object.raise();
+		m_Object.notifyValueChanged("A", "B");
+		DispatchStatistics.recordCrossThreadHop(EVENT_TEST);
+		assertNull(findStatistics(EVENT_TEST));
+		assertNull(findStatistics(PROP_TEST));
+	}
+	
+	
+	/**
+	 * Test statistics of raised events.
+	 */
+	@Test
+	public void event()
+	{
+		m_Object.addHandler(EVENT_TEST, new EmptyHandler());
+		m_Object.raise();
+		m_Object.addHandler(EVENT_TEST, new EmptyHandler());
+		m_Object.raise();
+		DispatchStatistics.recordCrossThreadHop(EVENT_TEST);
+		DispatchStatistics.KeyStatistics statistics = findStatistics(EVENT_TEST);
+		assertTrue(statistics.isEvent);
+		assertEquals(2, statistics.dispatchCount);
+		assertEquals(3, statistics.subscriberCallCount);
+		assertEquals(2, statistics.maxSubscriberCount);
+		assertEquals(1, statistics.crossThreadHopCount);
+		assertEquals(1, statistics.subscribers.size());
+		assertEquals(EmptyHandler.class.getName(), statistics.subscribers.get(0).type);
+		assertEquals(3, statistics.subscribers.get(0).callCount);
+		assertTrue(statistics.totalTime >= statistics.maxTime);
+	}
+	
+	
+	// Find statistics of given key in snapshot.
+	private static DispatchStatistics.KeyStatistics findStatistics(Object key)
+	{
+		List<DispatchStatistics.KeyStatistics> snapshot = DispatchStatistics.getSnapshot();
+		for(int i = snapshot.size() - 1 ; i >= 0 ; --i)
+		{
+			if(snapshot.get(i).name.equals(key.toString()))
+				return snapshot.get(i);
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * Test statistics of property changes, including changes without call-backs.
+	 */
+	@Test
+	public void property()
+	{
+		m_Object.notifyValueChanged("A", "B");
+		m_Object.addCallback(PROP_TEST, new EmptyCallback());
+		m_Object.notifyValueChanged("B", "C");
+		m_Object.notifyValueChanged("C", "C");
+		DispatchStatistics.KeyStatistics statistics = findStatistics(PROP_TEST);
+		assertEquals(false, statistics.isEvent);
+		assertEquals(2, statistics.dispatchCount);
+		assertEquals(1, statistics.subscriberCallCount);
+		assertEquals(1, statistics.maxSubscriberCount);
+	}
+	
+	
+	/**
+	 * Test that reset clears statistics and text report contains recorded keys.
+	 */
+	@Test
+	public void resetAndWriteText()
+	{
+		m_Object.raise();
+		StringWriter writer = new StringWriter();
+		DispatchStatistics.writeText(writer);
+		assertTrue(writer.toString().contains("[E] " + EVENT_TEST));
+		DispatchStatistics.reset();
+		assertNull(findStatistics(EVENT_TEST));
+	}
+	
+	
+	/**
+	 * Create object and enable statistics.
+	 */
+	@Before
+	public void setup()
+	{
+		m_Object = new TestObject();
+		DispatchStatistics.reset();
+		DispatchStatistics.enable();
+	}
+	
+	
+	/**
+	 * Disable statistics.
+	 */
+	@After
+	public void tearDown()
+	{
+		DispatchStatistics.disable();
+		DispatchStatistics.reset();
+	}
+}
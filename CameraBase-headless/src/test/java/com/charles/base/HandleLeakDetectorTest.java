@@ -0,0 +1,139 @@
+package com.charles.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link Handle} life-cycle and {@link HandleLeakDetector}.
+ */
+public class HandleLeakDetectorTest
+{
+	// Constants
+	private static final int GC_RETRY_COUNT = 50;
+	
+	
+	// Handle which counts closing.
+	private static final class TestHandle extends Handle
+	{
+		public int closeCount;
+		
+		public TestHandle()
+		{
+			super("Test");
+		}
+		
+		@Override
+		protected void onClose(int flags)
+		{
+			++this.closeCount;
+		}
+	}
+	
+	
+	/**
+	 * Test that closed handle is not reported as leak.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void closedHandle() throws InterruptedException
+	{
+		TestHandle handle = new TestHandle();
+		assertEquals(1, HandleLeakDetector.getTrackedHandleCount());
+		assertNull(Handle.close(handle));
+		assertEquals(0, HandleLeakDetector.getTrackedHandleCount());
+		handle = null;
+		for(int i = 0 ; i < 3 ; ++i)
+		{
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertEquals(0, HandleLeakDetector.checkLeaks());
+		assertTrue(HandleLeakDetector.getLeakCounts().isEmpty());
+	}
+	
+	
+	/**
+	 * Test that handle is closed only once.
+	 */
+	@Test
+	public void closeTwice()
+	{
+		TestHandle handle = new TestHandle();
+		assertTrue(Handle.isValid(handle));
+		Handle.close(handle);
+		Handle.close(handle);
+		assertFalse(Handle.isValid(handle));
+		assertEquals(1, handle.closeCount);
+	}
+	
+	
+	// Create handle and drop it without closing.
+	private static void createLeakedHandle()
+	{
+		new TestHandle();
+	}
+	
+	
+	/**
+	 * Test that unreachable handle which is not closed is reported with its creation site.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void leakedHandle() throws InterruptedException
+	{
+		// leak from the same creation site
+		for(int i = 0 ; i < 2 ; ++i)
+			createLeakedHandle();
+		assertEquals(2, HandleLeakDetector.getTrackedHandleCount());
+		
+		// wait for GC
+		int leakCount = 0;
+		for(int i = 0 ; i < GC_RETRY_COUNT && leakCount < 2 ; ++i)
+		{
+			System.gc();
+			Thread.sleep(10);
+			leakCount += HandleLeakDetector.checkLeaks();
+		}
+		assertEquals(2, leakCount);
+		assertEquals(0, HandleLeakDetector.getTrackedHandleCount());
+		
+		// check creation site
+		Map<String, Integer> leakCounts = HandleLeakDetector.getLeakCounts();
+		assertEquals(1, leakCounts.size());
+		Map.Entry<String, Integer> entry = leakCounts.entrySet().iterator().next();
+		assertTrue(entry.getKey(), entry.getKey().contains("createLeakedHandle"));
+		assertEquals(2, (int)entry.getValue());
+	}
+	
+	
+	/**
+	 * Enable leak detection.
+	 */
+	@Before
+	public void setup()
+	{
+		HandleLeakDetector.checkLeaks();
+		HandleLeakDetector.resetLeakCounts();
+		HandleLeakDetector.enable();
+	}
+	
+	
+	/**
+	 * Disable leak detection.
+	 */
+	@After
+	public void tearDown()
+	{
+		HandleLeakDetector.disable();
+		HandleLeakDetector.checkLeaks();
+		HandleLeakDetector.resetLeakCounts();
+	}
+}
@@ -0,0 +1,285 @@
+package com.charles.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link MirrorMailbox}.
+ */
+public class MirrorMailboxTest
+{
+	// Constants
+	private static final EventKey<SequenceEventArgs> EVENT_SEQUENCE = new EventKey<>("Sequence", SequenceEventArgs.class, BaseObject.class);
+	private static final PropertyKey<Boolean> PROP_FLAG = new PropertyKey<>("Flag", Boolean.class, BaseObject.class, false);
+	private static final PropertyKey<Integer> PROP_LATEST = new PropertyKey<>("Latest", Integer.class, BaseObject.class, 0);
+	private static final PropertyKey<Integer> PROP_STATE = new PropertyKey<>("State", Integer.class, BaseObject.class, 0);
+	private static final int STRESS_COUNT = 200000;
+	
+	
+	// Event data with sequence number.
+	private static final class SequenceEventArgs extends EventArgs
+	{
+		public final int sequence;
+		
+		public SequenceEventArgs(int sequence)
+		{
+			this.sequence = sequence;
+		}
+	}
+	
+	
+	// Mailbox which records delivered entries.
+	private static class RecordingMailbox extends MirrorMailbox
+	{
+		public final AtomicInteger drainRequestCount = new AtomicInteger();
+		public final List<String> records;
+		
+		public RecordingMailbox(List<PropertyKey<?>> coalescedPropertyKeys, int capacity, final List<String> records)
+		{
+			super(coalescedPropertyKeys, capacity, new Receiver()
+			{
+				@Override
+				public void onEventReceived(EventKey<?> key, EventArgs e)
+				{
+					records.add(key.name + ":" + ((SequenceEventArgs)e).sequence);
+				}
+				
+				@Override
+				public void onPropertyChanged(PropertyKey<?> key, PropertyChangeEventArgs<?> e)
+				{
+					records.add(key.name + ":" + e.getOldValue() + "->" + e.getNewValue());
+				}
+			});
+			this.records = records;
+		}
+		
+		@Override
+		protected void onDrainRequested()
+		{
+			this.drainRequestCount.incrementAndGet();
+		}
+	}
+	
+	
+	/**
+	 * Test that changes in batch request single drain after batch ends.
+	 */
+	@Test
+	public void batch()
+	{
+		RecordingMailbox mailbox = new RecordingMailbox(Collections.<PropertyKey<?>>emptyList(), MirrorMailbox.DEFAULT_CAPACITY, new ArrayList<String>());
+		mailbox.beginBatch();
+		mailbox.putProperty(PROP_STATE, 0, 1);
+		mailbox.putProperty(PROP_STATE, 1, 2);
+		assertEquals(0, mailbox.drainRequestCount.get());
+		mailbox.endBatch();
+		assertEquals(1, mailbox.drainRequestCount.get());
+		assertEquals(2, mailbox.drain());
+	}
+	
+	
+	/**
+	 * Test that coalesced property keeps the first old value and the latest new value, and is skipped when value goes back.
+	 */
+	@Test
+	public void coalescedProperty()
+	{
+		List<PropertyKey<?>> coalescedKeys = new ArrayList<>();
+		coalescedKeys.add(PROP_FLAG);
+		coalescedKeys.add(PROP_LATEST);
+		RecordingMailbox mailbox = new RecordingMailbox(coalescedKeys, MirrorMailbox.DEFAULT_CAPACITY, new ArrayList<String>());
+		mailbox.putProperty(PROP_LATEST, 0, 1);
+		mailbox.putProperty(PROP_FLAG, false, true);
+		mailbox.putProperty(PROP_LATEST, 1, 2);
+		mailbox.putProperty(PROP_FLAG, true, false);
+		mailbox.putProperty(PROP_LATEST, 2, 3);
+		assertEquals(1, mailbox.drain());
+		assertEquals(Collections.singletonList("Latest:0->3"), mailbox.records);
+		assertEquals(3, mailbox.getCoalescedPropertyCount());
+		assertEquals(1, mailbox.getSkippedPropertyCount());
+	}
+	
+	
+	/**
+	 * Test that entries are dropped and counted when ring is full, while pending coalesced property change is still merged.
+	 */
+	@Test
+	public void dropWhenFull()
+	{
+		RecordingMailbox mailbox = new RecordingMailbox(Collections.<PropertyKey<?>>singletonList(PROP_LATEST), 4, new ArrayList<String>());
+		List<String> expected = new ArrayList<>();
+		assertTrue(mailbox.putProperty(PROP_LATEST, 0, 1));
+		expected.add("Latest:0->3");
+		for(int i = 0 ; i < 100 ; ++i)
+		{
+			if(i < 3)
+			{
+				assertTrue(mailbox.putEvent(EVENT_SEQUENCE, new SequenceEventArgs(i)));
+				expected.add("Sequence:" + i);
+			}
+			else
+				assertFalse(mailbox.putEvent(EVENT_SEQUENCE, new SequenceEventArgs(i)));
+		}
+		assertFalse(mailbox.putProperty(PROP_STATE, 0, 1));
+		assertTrue(mailbox.putProperty(PROP_LATEST, 1, 3));
+		assertEquals(98, mailbox.getDroppedEntryCount());
+		assertEquals(1, mailbox.getCoalescedPropertyCount());
+		assertEquals(4, mailbox.drain());
+		assertEquals(expected, mailbox.records);
+		assertTrue(mailbox.putEvent(EVENT_SEQUENCE, new SequenceEventArgs(100)));
+		assertEquals(98, mailbox.getDroppedEntryCount());
+		assertEquals(1, mailbox.drain());
+		mailbox.resetStatistics();
+		assertEquals(0, mailbox.getDroppedEntryCount());
+	}
+	
+	
+	/**
+	 * Test that property changes and events are delivered in order they were put.
+	 */
+	@Test
+	public void order()
+	{
+		RecordingMailbox mailbox = new RecordingMailbox(Collections.<PropertyKey<?>>emptyList(), MirrorMailbox.DEFAULT_CAPACITY, new ArrayList<String>());
+		mailbox.putProperty(PROP_STATE, 0, 1);
+		mailbox.putEvent(EVENT_SEQUENCE, new SequenceEventArgs(1));
+		mailbox.putProperty(PROP_STATE, 1, 2);
+		mailbox.putProperty(PROP_STATE, 2, 0);
+		mailbox.putEvent(EVENT_SEQUENCE, new SequenceEventArgs(2));
+		assertEquals(5, mailbox.drain());
+		assertEquals(1, mailbox.drainRequestCount.get());
+		List<String> expected = new ArrayList<>();
+		expected.add("State:0->1");
+		expected.add("Sequence:1");
+		expected.add("State:1->2");
+		expected.add("State:2->0");
+		expected.add("Sequence:2");
+		assertEquals(expected, mailbox.records);
+	}
+	
+	
+	/**
+	 * Test mailbox with producer thread and consumer thread running concurrently, producer retries dropped entries so nothing is lost.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test(timeout = 60000)
+	public void stress() throws InterruptedException
+	{
+		// create mailbox
+		final Semaphore drainRequests = new Semaphore(0);
+		final int[] lastSequence = { -1 };
+		final int[] lastLatest = { 0 };
+		final int[] stateChangeCount = { 0 };
+		final int[] eventCount = { 0 };
+		final String[] error = { null };
+		final MirrorMailbox mailbox = new MirrorMailbox(Collections.<PropertyKey<?>>singletonList(PROP_LATEST), MirrorMailbox.DEFAULT_CAPACITY, new MirrorMailbox.Receiver()
+		{
+			@Override
+			public void onEventReceived(EventKey<?> key, EventArgs e)
+			{
+				this.onSequenceReceived(((SequenceEventArgs)e).sequence);
+				++eventCount[0];
+			}
+			
+			@Override
+			public void onPropertyChanged(PropertyKey<?> key, PropertyChangeEventArgs<?> e)
+			{
+				int oldValue = (Integer)e.getOldValue();
+				int newValue = (Integer)e.getNewValue();
+				if(key == PROP_LATEST)
+				{
+					if(oldValue != lastLatest[0] || newValue <= oldValue)
+						this.onError("Invalid coalesced change " + oldValue + "->" + newValue + ", last value : " + lastLatest[0]);
+					lastLatest[0] = newValue;
+					return;
+				}
+				if(oldValue != lastSequence[0])
+					this.onError("State transition " + oldValue + "->" + newValue + " is lost or reordered, last state : " + lastSequence[0]);
+				this.onSequenceReceived(newValue);
+				++stateChangeCount[0];
+			}
+			
+			private void onError(String message)
+			{
+				if(error[0] == null)
+					error[0] = message;
+			}
+			
+			private void onSequenceReceived(int sequence)
+			{
+				if(sequence != lastSequence[0] + 1)
+					this.onError("Sequence " + sequence + " received after " + lastSequence[0]);
+				lastSequence[0] = sequence;
+			}
+		})
+		{
+			@Override
+			protected void onDrainRequested()
+			{
+				drainRequests.release();
+			}
+		};
+		
+		// start producer
+		final boolean[] isProducerCompleted = { false };
+		Thread producer = new Thread("MirrorMailbox producer")
+		{
+			@Override
+			public void run()
+			{
+				for(int sequence = 0 ; sequence < STRESS_COUNT ; ++sequence)
+				{
+					if((sequence % 3) == 0)
+					{
+						while(!mailbox.putEvent(EVENT_SEQUENCE, new SequenceEventArgs(sequence)))
+							Thread.yield();
+					}
+					else
+					{
+						while(!mailbox.putProperty(PROP_STATE, sequence - 1, sequence))
+							Thread.yield();
+					}
+					while(!mailbox.putProperty(PROP_LATEST, sequence, sequence + 1))
+						Thread.yield();
+				}
+				synchronized(isProducerCompleted)
+				{
+					isProducerCompleted[0] = true;
+				}
+				drainRequests.release();
+			}
+		};
+		producer.start();
+		
+		// drain until producer completes
+		while(true)
+		{
+			drainRequests.acquire();
+			boolean isCompleted;
+			synchronized(isProducerCompleted)
+			{
+				isCompleted = isProducerCompleted[0];
+			}
+			mailbox.drain();
+			if(isCompleted)
+				break;
+		}
+		producer.join();
+		
+		// check
+		assertEquals(null, error[0]);
+		assertEquals(STRESS_COUNT - 1, lastSequence[0]);
+		assertEquals(STRESS_COUNT, lastLatest[0]);
+		assertEquals((STRESS_COUNT + 2) / 3, eventCount[0]);
+		assertEquals(STRESS_COUNT - eventCount[0], stateChangeCount[0]);
+	}
+}
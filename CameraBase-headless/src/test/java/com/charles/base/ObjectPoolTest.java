@@ -0,0 +1,182 @@
+package com.charles.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ObjectPool}.
+ */
+public class ObjectPoolTest
+{
+	// Pooled object.
+	private static final class TestObject implements RecyclableObject
+	{
+		public final TestPool pool;
+		
+		public TestObject(TestPool pool)
+		{
+			this.pool = pool;
+		}
+		
+		@Override
+		public void recycle()
+		{
+			this.pool.release(this);
+		}
+	}
+	
+	
+	// Pool of TestObject.
+	private static final class TestPool extends ObjectPool<TestObject>
+	{
+		public TestPool(int capacity, int localCapacity)
+		{
+			super("Test", capacity, localCapacity);
+		}
+		
+		@Override
+		protected TestObject create()
+		{
+			return new TestObject(this);
+		}
+	}
+	
+	
+	/**
+	 * Test that recycling the same object twice is reported in debug mode.
+	 */
+	@Test
+	public void doubleRecycle()
+	{
+		ObjectPool.setDebugMode(true);
+		TestPool pool = new TestPool(4, 2);
+		TestObject obj = pool.obtain();
+		obj.recycle();
+		try
+		{
+			obj.recycle();
+			fail("Double recycle is not reported");
+		}
+		catch(IllegalStateException ex)
+		{
+			assertEquals(1, pool.getObtainCount());
+		}
+		assertSame(obj, pool.obtain());
+		obj.recycle();
+	}
+	
+	
+	/**
+	 * Test that objects recycled beyond capacity are dropped.
+	 */
+	@Test
+	public void drop()
+	{
+		TestPool pool = new TestPool(2, 1);
+		TestObject[] objects = new TestObject[5];
+		for(int i = 0 ; i < objects.length ; ++i)
+			objects[i] = pool.obtain();
+		for(int i = 0 ; i < objects.length ; ++i)
+			objects[i].recycle();
+		assertEquals(5, pool.getCreateCount());
+		assertEquals(2, pool.getDropCount());
+		for(int i = 0 ; i < 4 ; ++i)
+			pool.obtain();
+		assertEquals(3, pool.getHitCount());
+		assertEquals(1, pool.getLocalHitCount());
+		assertEquals(6, pool.getCreateCount());
+	}
+	
+	
+	/**
+	 * Test that recycled object is obtained again from thread-local stage.
+	 */
+	@Test
+	public void recycle()
+	{
+		TestPool pool = new TestPool(4, 2);
+		TestObject obj = pool.obtain();
+		assertEquals(1, pool.getCreateCount());
+		obj.recycle();
+		assertSame(obj, pool.obtain());
+		assertNotSame(obj, pool.obtain());
+		assertEquals(3, pool.getObtainCount());
+		assertEquals(1, pool.getLocalHitCount());
+		assertEquals(2, pool.getCreateCount());
+		assertEquals(1.0 / 3, pool.getHitRate(), 1e-9);
+		pool.resetStatistics();
+		assertEquals(0, pool.getObtainCount());
+	}
+	
+	
+	/**
+	 * Test that object recycled in another thread is obtained through shared stage.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void recycleInAnotherThread() throws InterruptedException
+	{
+		final TestPool pool = new TestPool(4, 0);
+		final TestObject obj = pool.obtain();
+		Thread thread = new Thread()
+		{
+			@Override
+			public void run()
+			{
+				obj.recycle();
+			}
+		};
+		thread.start();
+		thread.join();
+		assertSame(obj, pool.obtain());
+		assertEquals(0, pool.getLocalHitCount());
+		assertEquals(1, pool.getHitCount());
+	}
+	
+	
+	/**
+	 * Test that objects in thread-local stage of terminated thread are moved to shared stage and its statistics are kept.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void terminatedThread() throws InterruptedException
+	{
+		final TestPool pool = new TestPool(4, 2);
+		final TestObject[] objects = new TestObject[2];
+		Thread thread = new Thread()
+		{
+			@Override
+			public void run()
+			{
+				objects[0] = pool.obtain();
+				objects[1] = pool.obtain();
+				objects[0].recycle();
+				objects[1].recycle();
+			}
+		};
+		thread.start();
+		thread.join();
+		TestObject obj = pool.obtain();
+		assertTrue(obj == objects[0] || obj == objects[1]);
+		assertEquals(3, pool.getObtainCount());
+		assertEquals(2, pool.getCreateCount());
+		assertEquals(1, pool.getHitCount());
+		assertEquals(0, pool.getLocalHitCount());
+	}
+	
+	
+	/**
+	 * Disable debug mode.
+	 */
+	@After
+	public void tearDown()
+	{
+		ObjectPool.setDebugMode(false);
+	}
+}
@@ -0,0 +1,194 @@
+package com.charles.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests of {@link PooledBuffer} and {@link BufferPool}.
+ */
+public class PooledBufferTest
+{
+	// Constants
+	private static final int GC_RETRY_COUNT = 50;
+	private static final long MAX_FREE_SIZE = (1 << 20);
+	
+	
+	/**
+	 * Test that buffers are retained and released concurrently without losing references.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void concurrentRetainRelease() throws InterruptedException
+	{
+		final PooledBuffer buffer = new BufferPool("Test", MAX_FREE_SIZE).obtain(100);
+		Thread[] threads = new Thread[4];
+		for(int i = 0 ; i < threads.length ; ++i)
+		{
+			threads[i] = new Thread()
+			{
+				@Override
+				public void run()
+				{
+					for(int j = 0 ; j < 100000 ; ++j)
+					{
+						buffer.retain();
+						buffer.release();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for(int i = 0 ; i < threads.length ; ++i)
+			threads[i].join();
+		assertEquals(1, buffer.getReferenceCount());
+	}
+	
+	
+	/**
+	 * Test that releasing buffer too many times does not put its array back to pool again.
+	 */
+	@Test
+	public void doubleRelease()
+	{
+		BufferPool pool = new BufferPool("Test", MAX_FREE_SIZE);
+		PooledBuffer buffer = pool.obtain(100);
+		assertFalse(buffer.release());
+		assertFalse(buffer.release());
+		assertEquals(0, buffer.getReferenceCount());
+		assertEquals(0, pool.getOutstandingCount());
+		assertEquals(buffer.getCapacity(), pool.getFreeSize());
+		PooledBuffer buffer1 = pool.obtain(100);
+		PooledBuffer buffer2 = pool.obtain(100);
+		assertNotSame(buffer1.getData(), buffer2.getData());
+		assertEquals(1, pool.getHitCount());
+	}
+	
+	
+	/**
+	 * Test that array of buffer which is not released is reported and put back to pool.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void leakDetection() throws InterruptedException
+	{
+		BufferPool.enableLeakDetection();
+		BufferPool pool = new BufferPool("Test", MAX_FREE_SIZE);
+		pool.obtain(100);
+		int leakCount = 0;
+		for(int i = 0 ; i < GC_RETRY_COUNT && leakCount == 0 ; ++i)
+		{
+			System.gc();
+			Thread.sleep(10);
+			leakCount = BufferPool.checkLeaks();
+		}
+		assertEquals(1, leakCount);
+		assertEquals(1, pool.getLeakCount());
+		assertEquals(0, pool.getOutstandingCount());
+		assertTrue(pool.getFreeSize() > 0);
+	}
+	
+	
+	/**
+	 * Test that free arrays are limited by maximum free size and dropped by trimming.
+	 */
+	@Test
+	public void maxFreeSize()
+	{
+		BufferPool pool = new BufferPool("Test", 4096);
+		PooledBuffer buffer1 = pool.obtain(4096);
+		PooledBuffer buffer2 = pool.obtain(4096);
+		buffer1.release();
+		buffer2.release();
+		assertEquals(4096, pool.getFreeSize());
+		pool.trim();
+		assertEquals(0, pool.getFreeSize());
+		pool.obtain(4096);
+		assertEquals(3, pool.getAllocationCount());
+	}
+	
+	
+	/**
+	 * Test that array is returned to pool only when the last reference is released.
+	 */
+	@Test
+	public void retainRelease()
+	{
+		// obtain
+		BufferPool pool = new BufferPool("Test", MAX_FREE_SIZE);
+		PooledBuffer buffer = pool.obtain(1000);
+		byte[] data = buffer.getData();
+		assertEquals(1000, buffer.getLength());
+		assertTrue(buffer.getCapacity() >= 1000);
+		assertEquals(1, buffer.getReferenceCount());
+		assertEquals(1, pool.getOutstandingCount());
+		
+		// retain and release
+		assertSame(buffer, buffer.retain());
+		assertEquals(2, buffer.getReferenceCount());
+		assertTrue(buffer.release());
+		assertEquals(0, pool.getFreeSize());
+		assertFalse(buffer.release());
+		assertEquals(0, pool.getOutstandingCount());
+		assertEquals(buffer.getCapacity(), pool.getFreeSize());
+		
+		// access released buffer
+		try
+		{
+			buffer.getData();
+			fail("Released buffer is accessed");
+		}
+		catch(IllegalStateException ex)
+		{}
+		try
+		{
+			buffer.retain();
+			fail("Released buffer is retained");
+		}
+		catch(IllegalStateException ex)
+		{}
+		
+		// reuse array
+		PooledBuffer reusedBuffer = pool.obtain(900);
+		assertSame(data, reusedBuffer.getData());
+		assertEquals(900, reusedBuffer.getLength());
+		assertEquals(1, pool.getHitCount());
+		assertEquals(1, pool.getAllocationCount());
+	}
+	
+	
+	/**
+	 * Test that buffers of different size classes do not share arrays.
+	 */
+	@Test
+	public void sizeClasses()
+	{
+		BufferPool pool = new BufferPool("Test", Long.MAX_VALUE);
+		PooledBuffer small = pool.obtain(5000);
+		PooledBuffer large = pool.obtain(50000);
+		assertTrue(small.getCapacity() >= 5000 && small.getCapacity() < 6500);
+		assertTrue(large.getCapacity() >= 50000 && large.getCapacity() < 65000);
+		small.release();
+		large.release();
+		assertEquals(small.getCapacity(), pool.obtain(small.getCapacity()).getCapacity());
+		assertEquals(2, pool.getAllocationCount());
+		assertEquals(1, pool.getHitCount());
+	}
+	
+	
+	/**
+	 * Disable leak detection.
+	 */
+	@After
+	public void tearDown()
+	{
+		BufferPool.disableLeakDetection();
+		BufferPool.checkLeaks();
+	}
+}
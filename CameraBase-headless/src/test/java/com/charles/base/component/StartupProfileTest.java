@@ -0,0 +1,276 @@
+package com.charles.base.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of {@link StartupProfile}.
+ */
+public class StartupProfileTest
+{
+	/**
+	 * Temporary folder for profile files.
+	 */
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	
+	// Builder of component which is created on demand and always used during startup.
+	private static final class OnDemandBuilder extends TestBuilder
+	{
+		public OnDemandBuilder()
+		{
+			super(ComponentCreationPriority.ON_DEMAND);
+		}
+	}
+	
+	
+	// Base class of builders in test.
+	private static abstract class TestBuilder implements ComponentBuilder
+	{
+		private final ComponentCreationPriority m_Priority;
+		
+		protected TestBuilder(ComponentCreationPriority priority)
+		{
+			m_Priority = priority;
+		}
+		
+		@Override
+		public Component create(Object... args)
+		{
+			return createComponent();
+		}
+		
+		@Override
+		public ComponentCreationPriority getPriority()
+		{
+			return m_Priority;
+		}
+		
+		@Override
+		public boolean isComponentTypeSupported(Class<?> componentType)
+		{
+			return false;
+		}
+	}
+	
+	
+	// Builder of component which is created during startup but never used.
+	private static final class UnusedBuilder extends TestBuilder
+	{
+		public UnusedBuilder()
+		{
+			super(ComponentCreationPriority.NORMAL);
+		}
+	}
+	
+	
+	// Builder of component which is created and used during startup.
+	private static final class UsedBuilder extends TestBuilder
+	{
+		public UsedBuilder()
+		{
+			super(ComponentCreationPriority.HIGH);
+		}
+	}
+	
+	
+	/**
+	 * Test that priority is adapted only after enough launches.
+	 * @throws Exception If profile file cannot be created or thread is interrupted.
+	 */
+	@Test
+	public void adaptPriority() throws Exception
+	{
+		File file = new File(this.temporaryFolder.getRoot(), "startup.profile");
+		ComponentBuilder onDemandBuilder = new OnDemandBuilder();
+		ComponentBuilder unusedBuilder = new UnusedBuilder();
+		ComponentBuilder usedBuilder = new UsedBuilder();
+		for(int i = 1 ; i <= StartupProfile.MIN_LAUNCH_COUNT ; ++i)
+		{
+			// check priority before launch
+			StartupProfile profile = StartupProfile.load(file);
+			assertEquals(i - 1, profile.getLaunchCount());
+			assertEquals(ComponentCreationPriority.ON_DEMAND, profile.getAdaptedPriority(onDemandBuilder));
+			assertEquals(ComponentCreationPriority.NORMAL, profile.getAdaptedPriority(unusedBuilder));
+			assertEquals(ComponentCreationPriority.HIGH, profile.getAdaptedPriority(usedBuilder));
+			
+			// launch
+			launch(profile, new ComponentBuilder[]{ onDemandBuilder, usedBuilder }, new ComponentBuilder[]{ unusedBuilder });
+			assertTrue(profile.save());
+		}
+		
+		// check adapted priority
+		StartupProfile profile = StartupProfile.load(file);
+		assertEquals(StartupProfile.MIN_LAUNCH_COUNT, profile.getLaunchCount());
+		assertEquals(ComponentCreationPriority.NORMAL, profile.getAdaptedPriority(onDemandBuilder));
+		assertEquals(ComponentCreationPriority.LOW, profile.getAdaptedPriority(unusedBuilder));
+		assertEquals(ComponentCreationPriority.HIGH, profile.getAdaptedPriority(usedBuilder));
+		assertEquals(3, profile.getEntries().size());
+		
+		// use component once in next launch
+		launch(profile, new ComponentBuilder[]{ onDemandBuilder, usedBuilder, unusedBuilder }, new ComponentBuilder[0]);
+		assertEquals(ComponentCreationPriority.NORMAL, profile.getAdaptedPriority(unusedBuilder));
+	}
+	
+	
+	/**
+	 * Test that recording stops after completing startup.
+	 * @throws InterruptedException If thread is interrupted.
+	 */
+	@Test
+	public void completeStartup() throws InterruptedException
+	{
+		StartupProfile profile = StartupProfile.load(new File(this.temporaryFolder.getRoot(), "none.profile"));
+		assertTrue(profile.isRecording());
+		ComponentBuilder builder = new UsedBuilder();
+		Component component = builder.create();
+		profile.onComponentCreated(builder, component, builder.getPriority(), 0, 1);
+		assertTrue(profile.completeStartup());
+		assertFalse(profile.completeStartup());
+		assertFalse(profile.isRecording());
+		profile.onComponentUsed(component);
+		profile.waitForSaving();
+		StartupProfile.Entry entry = profile.getEntries().get(0);
+		assertTrue(entry.isFound());
+		assertEquals(-1, entry.getFirstUseTime());
+		assertEquals(0, entry.getEarlyUseHistory());
+		assertEquals(1, entry.getLaunchCount());
+	}
+	
+	
+	// Create component which is only used as identity.
+	private static Component createComponent()
+	{
+		return (Component)Proxy.newProxyInstance(Component.class.getClassLoader(), new Class<?>[]{ Component.class }, new InvocationHandler()
+		{
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				if(method.getName().equals("hashCode"))
+					return System.identityHashCode(proxy);
+				if(method.getName().equals("equals"))
+					return (proxy == args[0]);
+				if(method.getName().equals("toString"))
+					return "TestComponent";
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+	
+	
+	/**
+	 * Test that builder of component which is never found is not deferred.
+	 * @throws InterruptedException If thread is interrupted.
+	 */
+	@Test
+	public void eventDrivenComponent() throws InterruptedException
+	{
+		File file = new File(this.temporaryFolder.getRoot(), "event.profile");
+		ComponentBuilder eventDrivenBuilder = new UnusedBuilder();
+		for(int i = 1 ; i <= StartupProfile.MIN_LAUNCH_COUNT ; ++i)
+		{
+			StartupProfile profile = StartupProfile.load(file);
+			Component component = eventDrivenBuilder.create();
+			profile.onComponentCreated(eventDrivenBuilder, component, eventDrivenBuilder.getPriority(), 0, 1);
+			assertTrue(profile.completeStartup());
+			assertTrue(profile.save());
+		}
+		StartupProfile profile = StartupProfile.load(file);
+		StartupProfile.Entry entry = profile.getEntries().get(0);
+		assertTrue(entry.isNeverUsedEarly());
+		assertFalse(entry.isFound());
+		assertEquals(ComponentCreationPriority.NORMAL, profile.getAdaptedPriority(eventDrivenBuilder));
+	}
+	
+	
+	/**
+	 * Test that component found after startup is saved in background.
+	 * @throws InterruptedException If thread is interrupted.
+	 */
+	@Test
+	public void foundAfterStartup() throws InterruptedException
+	{
+		File file = new File(this.temporaryFolder.getRoot(), "late.profile");
+		StartupProfile profile = StartupProfile.load(file);
+		ComponentBuilder builder = new UnusedBuilder();
+		Component component = builder.create();
+		profile.onComponentCreated(builder, component, builder.getPriority(), 0, 1);
+		assertTrue(profile.completeStartup());
+		profile.saveAsync();
+		profile.waitForSaving();
+		assertFalse(StartupProfile.load(file).getEntries().get(0).isFound());
+		profile.onComponentUsed(component);
+		profile.waitForSaving();
+		StartupProfile.Entry entry = StartupProfile.load(file).getEntries().get(0);
+		assertTrue(entry.isFound());
+		assertEquals(0, entry.getEarlyUseHistory());
+	}
+	
+	
+	/**
+	 * Test that invalid profile file is replaced by empty profile.
+	 * @throws IOException If profile file cannot be created.
+	 */
+	@Test
+	public void invalidFile() throws IOException
+	{
+		File file = this.temporaryFolder.newFile("invalid.profile");
+		FileOutputStream stream = new FileOutputStream(file);
+		try
+		{
+			stream.write(new byte[]{ 1, 2, 3, 4, 5, 6, 7, 8 });
+		}
+		finally
+		{
+			stream.close();
+		}
+		StartupProfile profile = StartupProfile.load(file);
+		assertEquals(0, profile.getLaunchCount());
+		assertTrue(profile.getEntries().isEmpty());
+		try
+		{
+			StartupProfile.decode(new ByteArrayInputStream(new byte[]{ 1, 2, 3, 4 }), null);
+			fail("Invalid profile is decoded");
+		}
+		catch(IOException ex)
+		{}
+	}
+	
+	
+	// Simulate single launch, components of unused builders are found after startup.
+	private static void launch(StartupProfile profile, ComponentBuilder[] usedBuilders, ComponentBuilder[] unusedBuilders) throws InterruptedException
+	{
+		for(int i = 0 ; i < usedBuilders.length ; ++i)
+		{
+			Component component = usedBuilders[i].create();
+			profile.onComponentCreated(usedBuilders[i], component, usedBuilders[i].getPriority(), 0, 1);
+			profile.onComponentInitialized(component, 1);
+			profile.onComponentUsed(component);
+		}
+		Component[] unusedComponents = new Component[unusedBuilders.length];
+		for(int i = 0 ; i < unusedBuilders.length ; ++i)
+		{
+			unusedComponents[i] = unusedBuilders[i].create();
+			profile.onComponentCreated(unusedBuilders[i], unusedComponents[i], unusedBuilders[i].getPriority(), 0, 1);
+		}
+		assertTrue(profile.completeStartup());
+		for(int i = 0 ; i < unusedComponents.length ; ++i)
+			profile.onComponentUsed(unusedComponents[i]);
+		profile.waitForSaving();
+	}
+}
@@ -0,0 +1,210 @@
+package com.charles.base.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.SystemClock;
+
+import com.charles.base.BaseThread;
+
+/**
+ * Tests of headless message loop and {@link HeadlessRuntime}.
+ */
+public class HeadlessRuntimeTest
+{
+	// Constants
+	private static final long TIMEOUT = 5000;
+	
+	
+	// Private fields
+	private Handler m_Handler;
+	private HandlerThread m_HandlerThread;
+	private final List<Integer> m_Messages = new ArrayList<>();
+	
+	
+	// Thread to test starting and stopping.
+	private static final class TestThread extends BaseThread
+	{
+		public TestThread()
+		{
+			super("Test thread", null, null);
+		}
+	}
+	
+	
+	/**
+	 * Test calling task on thread of handler.
+	 */
+	@Test
+	public void callSync()
+	{
+		Thread thread = HeadlessRuntime.callSync(m_Handler, new Callable<Thread>()
+		{
+			@Override
+			public Thread call()
+			{
+				return Thread.currentThread();
+			}
+		}, TIMEOUT);
+		assertSame(m_HandlerThread, thread);
+	}
+	
+	
+	/**
+	 * Test that messages are dispatched by time, messages at front of queue first, and removed messages are not dispatched.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void messageOrder() throws InterruptedException
+	{
+		// block looper while sending messages
+		final CountDownLatch blockLatch = new CountDownLatch(1);
+		m_Handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					blockLatch.await();
+				}
+				catch(InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		long time = SystemClock.uptimeMillis();
+		m_Handler.sendEmptyMessageAtTime(4, time + 50);
+		m_Handler.sendEmptyMessage(1);
+		m_Handler.sendEmptyMessage(2);
+		m_Handler.sendEmptyMessage(5);
+		m_Handler.sendMessageAtFrontOfQueue(m_Handler.obtainMessage(3));
+		m_Handler.removeMessages(5);
+		assertTrue(m_Handler.hasMessages(4));
+		assertFalse(m_Handler.hasMessages(5));
+		blockLatch.countDown();
+		
+		// wait for delayed message
+		assertTrue(HeadlessRuntime.waitForIdle(m_Handler, TIMEOUT));
+		Thread.sleep(Math.max(0, time + 50 - SystemClock.uptimeMillis()));
+		assertTrue(HeadlessRuntime.waitForIdle(m_Handler, TIMEOUT));
+		HeadlessRuntime.runSync(m_Handler, new Runnable()
+		{
+			@Override
+			public void run()
+			{}
+		}, TIMEOUT);
+		synchronized(m_Messages)
+		{
+			assertEquals(Arrays.asList(3, 1, 2, 4), m_Messages);
+		}
+	}
+	
+	
+	/**
+	 * Test that quitting safely dispatches due messages only and rejects new messages.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@Test
+	public void quitSafely() throws InterruptedException
+	{
+		final CountDownLatch blockLatch = new CountDownLatch(1);
+		m_Handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					blockLatch.await();
+				}
+				catch(InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		m_Handler.sendEmptyMessage(1);
+		m_Handler.sendEmptyMessageDelayed(2, 60000);
+		assertTrue(m_HandlerThread.quitSafely());
+		blockLatch.countDown();
+		m_HandlerThread.join(TIMEOUT);
+		assertFalse(m_HandlerThread.isAlive());
+		assertFalse(m_Handler.sendEmptyMessage(3));
+		synchronized(m_Messages)
+		{
+			assertEquals(Arrays.asList(1), m_Messages);
+		}
+	}
+	
+	
+	/**
+	 * Start handler thread.
+	 */
+	@Before
+	public void setup()
+	{
+		m_HandlerThread = new HandlerThread("Test looper");
+		m_HandlerThread.start();
+		m_Handler = new Handler(m_HandlerThread.getLooper())
+		{
+			@Override
+			public void handleMessage(Message msg)
+			{
+				synchronized(m_Messages)
+				{
+					m_Messages.add(msg.what);
+				}
+			}
+		};
+	}
+	
+	
+	/**
+	 * Test starting and stopping {@link BaseThread}.
+	 */
+	@Test
+	public void startAndStopThread()
+	{
+		final TestThread thread = HeadlessRuntime.startThread(new TestThread(), TIMEOUT);
+		boolean isDependencyThread = HeadlessRuntime.callSync(thread.getHandler(), new Callable<Boolean>()
+		{
+			@Override
+			public Boolean call()
+			{
+				return thread.isDependencyThread();
+			}
+		}, TIMEOUT);
+		assertTrue(isDependencyThread);
+		assertFalse(thread.isDependencyThread());
+		assertTrue(HeadlessRuntime.stopThread(thread, TIMEOUT));
+	}
+	
+	
+	/**
+	 * Stop handler thread.
+	 * @throws InterruptedException If test is interrupted.
+	 */
+	@After
+	public void tearDown() throws InterruptedException
+	{
+		m_HandlerThread.quit();
+		m_HandlerThread.join(TIMEOUT);
+	}
+}
@@ -5,12 +5,29 @@ package com.charles.base;
  */
 public interface BaseObject extends ThreadDependentObject, PropertySource, EventSource
 {
+	/**
+	 * Raised after notifying all property changes coalesced in a property transaction.
+	 */
+	EventKey<EventArgs> EVENT_PROPERTY_TRANSACTION_COMMITTED = new EventKey<>("PropertyTransactionCommitted", EventArgs.class, BaseObject.class);
+	/**
+	 * Raised before notifying property changes coalesced in a property transaction.
+	 */
+	EventKey<EventArgs> EVENT_PROPERTY_TRANSACTION_COMMITTING = new EventKey<>("PropertyTransactionCommitting", EventArgs.class, BaseObject.class);
+	
+	
 	/**
 	 * Property to indicate whether object has been released or not.
 	 */
 	PropertyKey<Boolean> PROP_IS_RELEASED = new PropertyKey<>("IsReleased", Boolean.class, BaseObject.class, false);
 	
 	
+	/**
+	 * Start property transaction. Property changed call-backs will be deferred until all transactions are closed, changes of each property will be coalesced into single call-back with the first old value and the last new value, and call-backs will be called in order of first change.
+	 * @return Handle to complete the transaction.
+	 */
+	Handle beginPropertyTransaction();
+	
+	
 	/**
 	 * Release this object.
 	 */
@@ -46,6 +46,38 @@ public final class BaseObjectAdapter extends BasicBaseObject
 	}
 	
 	
+	// Notify that value of given boolean property has been changed.
+	@Override
+	public boolean notifyPropertyChanged(BooleanPropertyKey key, boolean oldValue, boolean newValue)
+	{
+		return super.notifyPropertyChanged(key, oldValue, newValue);
+	}
+	
+	
+	// Notify that value of given float property has been changed.
+	@Override
+	public boolean notifyPropertyChanged(FloatPropertyKey key, float oldValue, float newValue)
+	{
+		return super.notifyPropertyChanged(key, oldValue, newValue);
+	}
+	
+	
+	// Notify that value of given int property has been changed.
+	@Override
+	public boolean notifyPropertyChanged(IntPropertyKey key, int oldValue, int newValue)
+	{
+		return super.notifyPropertyChanged(key, oldValue, newValue);
+	}
+	
+	
+	// Notify that value of given long property has been changed.
+	@Override
+	public boolean notifyPropertyChanged(LongPropertyKey key, long oldValue, long newValue)
+	{
+		return super.notifyPropertyChanged(key, oldValue, newValue);
+	}
+	
+	
 	// Raise event.
 	@Override
 	public <TArgs extends EventArgs> void raise(EventKey<TArgs> key, TArgs e)
@@ -62,6 +94,38 @@ public final class BaseObjectAdapter extends BasicBaseObject
 	}
 	
 	
+	// Set read-only boolean property value.
+	@Override
+	public boolean setReadOnlyBoolean(BooleanPropertyKey key, boolean value)
+	{
+		return super.setReadOnlyBoolean(key, value);
+	}
+	
+	
+	// Set read-only float property value.
+	@Override
+	public boolean setReadOnlyFloat(FloatPropertyKey key, float value)
+	{
+		return super.setReadOnlyFloat(key, value);
+	}
+	
+	
+	// Set read-only int property value.
+	@Override
+	public boolean setReadOnlyInt(IntPropertyKey key, int value)
+	{
+		return super.setReadOnlyInt(key, value);
+	}
+	
+	
+	// Set read-only long property value.
+	@Override
+	public boolean setReadOnlyLong(LongPropertyKey key, long value)
+	{
+		return super.setReadOnlyLong(key, value);
+	}
+	
+	
 	// Throws exception if given event key is invalid.
 	@Override
 	protected void verifyEvent(EventKey<?> key)
@@ -80,6 +80,20 @@ public abstract class BaseThread extends Thread implements BaseObject, HandlerOb
 			m_Owner = owner;
 		}
 		
+		@Override
+		public void dispatchMessage(Message msg)
+		{
+			long startTime = ThreadMonitor.onMessageDispatching(msg);
+			try
+			{
+				super.dispatchMessage(msg);
+			}
+			finally
+			{
+				ThreadMonitor.onMessageDispatched(startTime);
+			}
+		}
+		
 		@Override
 		public void handleMessage(Message msg)
 		{
@@ -134,6 +148,42 @@ public abstract class BaseThread extends Thread implements BaseObject, HandlerOb
 	}
 	
 	
+	// Add call-back for boolean property change.
+	@Override
+	public void addCallback(BooleanPropertyKey key, BooleanPropertyChangedCallback callback)
+	{
+		this.verifyAccess();
+		m_BaseObjectAdapter.addCallback(key, callback);
+	}
+	
+	
+	// Add call-back for float property change.
+	@Override
+	public void addCallback(FloatPropertyKey key, FloatPropertyChangedCallback callback)
+	{
+		this.verifyAccess();
+		m_BaseObjectAdapter.addCallback(key, callback);
+	}
+	
+	
+	// Add call-back for int property change.
+	@Override
+	public void addCallback(IntPropertyKey key, IntPropertyChangedCallback callback)
+	{
+		this.verifyAccess();
+		m_BaseObjectAdapter.addCallback(key, callback);
+	}
+	
+	
+	// Add call-back for long property change.
+	@Override
+	public void addCallback(LongPropertyKey key, LongPropertyChangedCallback callback)
+	{
+		this.verifyAccess();
+		m_BaseObjectAdapter.addCallback(key, callback);
+	}
+	
+	
 	// Add handler to event.
 	@Override
 	public <TArgs extends EventArgs> void addHandler(EventKey<TArgs> key, EventHandler<TArgs> handler)
@@ -143,6 +193,15 @@ public abstract class BaseThread extends Thread implements BaseObject, HandlerOb
 	}
 	
 	
+	// Start property transaction.
+	@Override
+	public Handle beginPropertyTransaction()
+	{
+		this.verifyAccess();
+		return m_BaseObjectAdapter.beginPropertyTransaction();
+	}
+	
+	
 	/**
 	 * Disable logs related to given event.
 	 * @param key Event key.
@@ -196,10 +255,55 @@ public abstract class BaseThread extends Thread implements BaseObject, HandlerOb
 			return (TValue)(Boolean)m_IsReleased;
 		if(this.isDependencyThread())
 			return m_BaseObjectAdapter.get(key);
+		DispatchStatistics.recordCrossThreadHop(key);
 		return key.defaultValue;
 	}
 	
 	
+	// Get boolean property value.
+	@Override
+	public boolean getBoolean(BooleanPropertyKey key)
+	{
+		if(this.isDependencyThread())
+			return m_BaseObjectAdapter.getBoolean(key);
+		DispatchStatistics.recordCrossThreadHop(key);
+		return key.defaultBooleanValue;
+	}
+	
+	
+	// Get float property value.
+	@Override
+	public float getFloat(FloatPropertyKey key)
+	{
+		if(this.isDependencyThread())
+			return m_BaseObjectAdapter.getFloat(key);
+		DispatchStatistics.recordCrossThreadHop(key);
+		return key.defaultFloatValue;
+	}
+	
+	
+	// Get int property value.
+	@Override
+	public int getInt(IntPropertyKey key)
+	{
+		if(this.isDependencyThread())
+			return m_BaseObjectAdapter.getInt(key);
+		DispatchStatistics.recordCrossThreadHop(key);
+		return key.defaultIntValue;
+	}
+	
+	
+	// Get long property value.
+	@Override
+	public long getLong(LongPropertyKey key)
+	{
+		if(this.isDependencyThread())
+			return m_BaseObjectAdapter.getLong(key);
+		DispatchStatistics.recordCrossThreadHop(key);
+		return key.defaultLongValue;
+	}
+	
+	
 	// Get handler.
 	@Override
 	public final Handler getHandler()
@@ -246,6 +350,58 @@ public abstract class BaseThread extends Thread implements BaseObject, HandlerOb
 	}
 	
 	
+	/**
+	 * Notify that value of given boolean property has been changed without boxing.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean notifyPropertyChanged(BooleanPropertyKey key, boolean oldValue, boolean newValue)
+	{
+		return m_BaseObjectAdapter.notifyPropertyChanged(key, oldValue, newValue);
+	}
+	
+	
+	/**
+	 * Notify that value of given float property has been changed without boxing.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean notifyPropertyChanged(FloatPropertyKey key, float oldValue, float newValue)
+	{
+		return m_BaseObjectAdapter.notifyPropertyChanged(key, oldValue, newValue);
+	}
+	
+	
+	/**
+	 * Notify that value of given int property has been changed without boxing.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean notifyPropertyChanged(IntPropertyKey key, int oldValue, int newValue)
+	{
+		return m_BaseObjectAdapter.notifyPropertyChanged(key, oldValue, newValue);
+	}
+	
+	
+	/**
+	 * Notify that value of given long property has been changed without boxing.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean notifyPropertyChanged(LongPropertyKey key, long oldValue, long newValue)
+	{
+		return m_BaseObjectAdapter.notifyPropertyChanged(key, oldValue, newValue);
+	}
+	
+	
 	/**
 	 * Called when thread starts.
 	 */
@@ -329,6 +485,42 @@ public abstract class BaseThread extends Thread implements BaseObject, HandlerOb
 	}
 	
 	
+	// Remove boolean property change call-back.
+	@Override
+	public void removeCallback(BooleanPropertyKey key, BooleanPropertyChangedCallback callback)
+	{
+		this.verifyAccess();
+		m_BaseObjectAdapter.removeCallback(key, callback);
+	}
+	
+	
+	// Remove float property change call-back.
+	@Override
+	public void removeCallback(FloatPropertyKey key, FloatPropertyChangedCallback callback)
+	{
+		this.verifyAccess();
+		m_BaseObjectAdapter.removeCallback(key, callback);
+	}
+	
+	
+	// Remove int property change call-back.
+	@Override
+	public void removeCallback(IntPropertyKey key, IntPropertyChangedCallback callback)
+	{
+		this.verifyAccess();
+		m_BaseObjectAdapter.removeCallback(key, callback);
+	}
+	
+	
+	// Remove long property change call-back.
+	@Override
+	public void removeCallback(LongPropertyKey key, LongPropertyChangedCallback callback)
+	{
+		this.verifyAccess();
+		m_BaseObjectAdapter.removeCallback(key, callback);
+	}
+	
+	
 	// Remove handler from event.
 	@Override
 	public <TArgs extends EventArgs> void removeHandler(EventKey<TArgs> key, EventHandler<TArgs> handler)
@@ -405,6 +597,42 @@ public abstract class BaseThread extends Thread implements BaseObject, HandlerOb
 	}
 	
 	
+	// Set boolean property value.
+	@Override
+	public boolean setBoolean(BooleanPropertyKey key, boolean value)
+	{
+		this.verifyAccess();
+		return m_BaseObjectAdapter.setBoolean(key, value);
+	}
+	
+	
+	// Set float property value.
+	@Override
+	public boolean setFloat(FloatPropertyKey key, float value)
+	{
+		this.verifyAccess();
+		return m_BaseObjectAdapter.setFloat(key, value);
+	}
+	
+	
+	// Set int property value.
+	@Override
+	public boolean setInt(IntPropertyKey key, int value)
+	{
+		this.verifyAccess();
+		return m_BaseObjectAdapter.setInt(key, value);
+	}
+	
+	
+	// Set long property value.
+	@Override
+	public boolean setLong(LongPropertyKey key, long value)
+	{
+		this.verifyAccess();
+		return m_BaseObjectAdapter.setLong(key, value);
+	}
+	
+	
 	/**
 	 * Set read-only property.
 	 * @param key Property key.
@@ -417,6 +645,54 @@ public abstract class BaseThread extends Thread implements BaseObject, HandlerOb
 	}
 	
 	
+	/**
+	 * Set read-only boolean property without boxing.
+	 * @param key Property key.
+	 * @param value New value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean setReadOnlyBoolean(BooleanPropertyKey key, boolean value)
+	{
+		return m_BaseObjectAdapter.setReadOnlyBoolean(key, value);
+	}
+	
+	
+	/**
+	 * Set read-only float property without boxing.
+	 * @param key Property key.
+	 * @param value New value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean setReadOnlyFloat(FloatPropertyKey key, float value)
+	{
+		return m_BaseObjectAdapter.setReadOnlyFloat(key, value);
+	}
+	
+	
+	/**
+	 * Set read-only int property without boxing.
+	 * @param key Property key.
+	 * @param value New value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean setReadOnlyInt(IntPropertyKey key, int value)
+	{
+		return m_BaseObjectAdapter.setReadOnlyInt(key, value);
+	}
+	
+	
+	/**
+	 * Set read-only long property without boxing.
+	 * @param key Property key.
+	 * @param value New value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean setReadOnlyLong(LongPropertyKey key, long value)
+	{
+		return m_BaseObjectAdapter.setReadOnlyLong(key, value);
+	}
+	
+	
 	// Start thread.
 	@Override
 	public synchronized void start()
@@ -1,10 +1,8 @@
 package com.charles.base;
 
 import java.util.ArrayList;
-import java.util.List;
 
 import android.util.Log;
-import android.util.SparseArray;
 
 /**
  * Basic implementation of {@link BaseObject} interface.
@@ -37,28 +35,73 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 	public static final int LOG_EVENT_HANDLER = 0x400;
 	
 	
+	// Constants
+	private static final PropertyChangedCallback<?>[] EMPTY_CALLBACKS = new PropertyChangedCallback<?>[0];
+	private static final Event[][] EMPTY_EVENT_TABLES = new Event[0][];
+	private static final EventHandler<?>[] EMPTY_HANDLERS = new EventHandler<?>[0];
+	private static final Object[] EMPTY_PRIMITIVE_CALLBACKS = new Object[0];
+	private static final Property[][] EMPTY_PROPERTY_TABLES = new Property[0][];
+	
+	
 	// Private fields
-	private final SparseArray<Event> m_Events = new SparseArray<>();
+	private volatile Event[][] m_Events = EMPTY_EVENT_TABLES;
 	private volatile boolean m_IsReleased;
-	private final SparseArray<Property> m_Properties = new SparseArray<>();
+	private ArrayList<Property> m_PendingProperties;
+	private volatile Property[][] m_Properties = EMPTY_PROPERTY_TABLES;
+	private ArrayList<Property> m_SparePendingProperties;
+	private int m_TransactionCounter;
 	
 	
 	// Class for property.
 	private final static class Property
 	{
-		public List<PropertyChangedCallback<?>> addingCallbacks;
-		public List<PropertyChangedCallback<?>> callbacks;
+		public volatile long bits;
+		public volatile PropertyChangedCallback<?>[] callbacks = EMPTY_CALLBACKS;
 		public volatile boolean hasValue;
+		public boolean isPending;
 		public final PropertyKey<?> key;
 		public int logFlags;
-		public List<PropertyChangedCallback<?>> removingCallbacks;
-		public int updatingCounter;
+		public long pendingOldBits;
+		public Object pendingOldValue;
+		public volatile Object[] primitiveCallbacks = EMPTY_PRIMITIVE_CALLBACKS;
+		public final PrimitivePropertyKey<?> primitiveKey;
 		public volatile Object value;
 		public int version;
 		
 		public Property(PropertyKey<?> key)
 		{
 			this.key = key;
+			this.primitiveKey = (key.isPrimitive ? (PrimitivePropertyKey<?>)key : null);
+		}
+	}
+	
+	
+	// Handle of property transaction, one instance is created for each transaction.
+	private final class PropertyTransactionHandle extends Handle
+	{
+		public PropertyTransactionHandle()
+		{
+			super("PropertyTransaction");
+		}
+		
+		@Override
+		protected void onClose(int flags)
+		{
+			// handle is already closed, complete transaction on dependency thread to prevent leaving it open
+			if(!isDependencyThread() && BasicBaseObject.this instanceof HandlerObject)
+			{
+				Log.e(TAG, "onClose() - Property transaction is closed from another thread");
+				HandlerUtils.post((HandlerObject)BasicBaseObject.this, new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						endPropertyTransaction();
+					}
+				});
+				return;
+			}
+			endPropertyTransaction();
 		}
 	}
 	
@@ -66,12 +109,9 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 	// Class for event
 	private static final class Event
 	{
-		public List<EventHandler<?>> addingHandlers;
-		public List<EventHandler<?>> handlers;
+		public volatile EventHandler<?>[] handlers = EMPTY_HANDLERS;
 		public final EventKey<?> key;
 		public int logFlags;
-		public int raisingCounter;
-		public List<EventHandler<?>> removingHandlers;
 		
 		public Event(EventKey<?> key)
 		{
@@ -109,36 +149,48 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 			return;
 		
 		// get property
-		Property property = m_Properties.get(key.id);
-		if(property == null)
-		{
-			property = new Property(key);
-			m_Properties.put(key.id, property);
-		}
+		Property property = this.obtainProperty(key);
 		
 		// add call-back
-		if(property.updatingCounter <= 0)
-		{
-			if(property.callbacks == null)
-				property.callbacks = new ArrayList<>();
-			if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
-				this.printPropertyLog(Log.DEBUG, property, "Add call-back [" + property.callbacks.size() + "] " + callback);
-			property.callbacks.add(callback);
-		}
-		else
-		{
-			if(property.removingCallbacks != null && property.removingCallbacks.remove(callback))
-			{
-				if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
-					this.printPropertyLog(Log.DEBUG, property, "Cancel deferred removing call-back " + callback);
-				return;
-			}
-			if(property.addingCallbacks == null)
-				property.addingCallbacks = new ArrayList<>();
-			if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
-				this.printPropertyLog(Log.DEBUG, property, "Create deferred adding call-back " + callback);
-			property.addingCallbacks.add(callback);
-		}
+		PropertyChangedCallback<?>[] callbacks = property.callbacks;
+		if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
+			this.printPropertyLog(Log.DEBUG, property, "Add call-back [" + callbacks.length + "] " + callback);
+		PropertyChangedCallback<?>[] newCallbacks = new PropertyChangedCallback<?>[callbacks.length + 1];
+		System.arraycopy(callbacks, 0, newCallbacks, 0, callbacks.length);
+		newCallbacks[callbacks.length] = callback;
+		property.callbacks = newCallbacks;
+	}
+	
+	
+	// Add boolean property changed call-back.
+	@Override
+	public void addCallback(BooleanPropertyKey key, BooleanPropertyChangedCallback callback)
+	{
+		this.addPrimitiveCallback(key, callback);
+	}
+	
+	
+	// Add float property changed call-back.
+	@Override
+	public void addCallback(FloatPropertyKey key, FloatPropertyChangedCallback callback)
+	{
+		this.addPrimitiveCallback(key, callback);
+	}
+	
+	
+	// Add int property changed call-back.
+	@Override
+	public void addCallback(IntPropertyKey key, IntPropertyChangedCallback callback)
+	{
+		this.addPrimitiveCallback(key, callback);
+	}
+	
+	
+	// Add long property changed call-back.
+	@Override
+	public void addCallback(LongPropertyKey key, LongPropertyChangedCallback callback)
+	{
+		this.addPrimitiveCallback(key, callback);
 	}
 	
 	
@@ -154,36 +206,98 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 			return;
 		
 		// find event
-		Event event = m_Events.get(key.id);
-		if(event == null)
-		{
-			event = new Event(key);
-			m_Events.put(key.id, event);
-		}
+		Event event = this.obtainEvent(key);
 		
 		// add handler
-		if(event.raisingCounter <= 0)
-		{
-			if(event.handlers == null)
-				event.handlers = new ArrayList<>();
-			if((event.logFlags & LOG_EVENT_HANDLER_CHANGE) != 0)
-				this.printEventLog(Log.DEBUG, key, "Add handler [" + event.handlers.size() + "] " + handler);
-			event.handlers.add(handler);
-		}
-		else
+		EventHandler<?>[] handlers = event.handlers;
+		if((event.logFlags & LOG_EVENT_HANDLER_CHANGE) != 0)
+			this.printEventLog(Log.DEBUG, key, "Add handler [" + handlers.length + "] " + handler);
+		EventHandler<?>[] newHandlers = new EventHandler<?>[handlers.length + 1];
+		System.arraycopy(handlers, 0, newHandlers, 0, handlers.length);
+		newHandlers[handlers.length] = handler;
+		event.handlers = newHandlers;
+	}
+	
+	
+	// Start property transaction.
+	@Override
+	public Handle beginPropertyTransaction()
+	{
+		// check state
+		this.verifyAccess();
+		
+		// start transaction
+		++m_TransactionCounter;
+		return new PropertyTransactionHandle();
+	}
+	
+	
+	// Add primitive property changed call-back.
+	private void addPrimitiveCallback(PropertyKey<?> key, Object callback)
+	{
+		// check parameter and state
+		if(callback == null)
+			throw new IllegalArgumentException("No call-back.");
+		this.verifyAccess();
+		if(m_IsReleased)
+			return;
+		
+		// add call-back
+		Property property = this.obtainProperty(key);
+		Object[] callbacks = property.primitiveCallbacks;
+		if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
+			this.printPropertyLog(Log.DEBUG, property, "Add primitive call-back [" + callbacks.length + "] " + callback);
+		Object[] newCallbacks = new Object[callbacks.length + 1];
+		System.arraycopy(callbacks, 0, newCallbacks, 0, callbacks.length);
+		newCallbacks[callbacks.length] = callback;
+		property.primitiveCallbacks = newCallbacks;
+	}
+	
+	
+	// Call property changed call-backs.
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private boolean callCallbacks(Property property, Object oldValue, Object newValue, int version, DispatchStatistics.KeyRecorder recorder)
+	{
+		boolean result = true;
+		PropertyChangedCallback<?>[] callbacks = property.callbacks;
+		if(callbacks.length > 0)
 		{
-			if(event.removingHandlers != null && event.removingHandlers.remove(handler))
+			int logFlags = property.logFlags;
+			PropertyChangeEventArgs<?> e = PropertyChangeEventArgs.obtain(oldValue, newValue);
+			PropertyKey<?> key = property.key;
+			boolean printCallbackLog = ((logFlags & LOG_PROPERTY_CALLBACK) != 0);
+			for(int i = 0 ; i < callbacks.length ; ++i)
 			{
-				if((event.logFlags & LOG_EVENT_HANDLER_CHANGE) != 0)
-					this.printEventLog(Log.DEBUG, key, "Cancel deferred removing handler " + handler);
-				return;
+				// check call-back removed by previous call-back
+				PropertyChangedCallback<?> callback = callbacks[i];
+				PropertyChangedCallback<?>[] currentCallbacks = property.callbacks;
+				if(currentCallbacks != callbacks && indexOf(currentCallbacks, callback) < 0)
+					continue;
+				
+				// call-back
+				if(printCallbackLog)
+					this.printPropertyLog(Log.DEBUG, key, "Call [" + i + "] " + callback);
+				if(recorder != null)
+				{
+					long callbackStartTime = System.nanoTime();
+					callback.onPropertyChanged(this, (PropertyKey)key, (PropertyChangeEventArgs)e);
+					recorder.onSubscriberCalled(callback, System.nanoTime() - callbackStartTime);
+				}
+				else
+					callback.onPropertyChanged(this, (PropertyKey)key, (PropertyChangeEventArgs)e);
+				
+				// check version
+				if(version != property.version)
+				{
+					if((logFlags & LOG_PROPERTY_CHANGE) != 0)
+						this.printPropertyLog(Log.WARN, key, "Value changed after calling call-back [" + i + "] " + callback);
+					result = this.checkValueChanges(oldValue, this.get(key));
+					break;
+				}
 			}
-			if(event.addingHandlers == null)
-				event.addingHandlers = new ArrayList<>();
-			if((event.logFlags & LOG_EVENT_HANDLER_CHANGE) != 0)
-				this.printEventLog(Log.DEBUG, key, "Create deferred adding handler " + handler);
-			event.addingHandlers.add(handler);
+			e.recycle();
 		}
+		return result;
 	}
 	
 	
@@ -196,6 +310,19 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 	}
 	
 	
+	// Check whether property change should be deferred until transaction completes or not.
+	private boolean deferPropertyChange(Property property)
+	{
+		if(property.isPending)
+			return true;
+		if(property.callbacks.length == 0 && property.primitiveCallbacks.length == 0)
+			return false;
+		if(m_PendingProperties == null)
+			m_PendingProperties = new ArrayList<>();
+		return true;
+	}
+	
+	
 	/**
 	 * Disable logs related to given event.
 	 * @param key Event key.
@@ -207,7 +334,7 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 		this.verifyAccess();
 		
 		// enable logs
-		Event event = m_Events.get(key.id);
+		Event event = this.findEvent(key);
 		if(event != null)
 			event.logFlags &= ~logs;
 	}
@@ -224,12 +351,61 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 		this.verifyAccess();
 		
 		// enable logs
-		Property property = m_Properties.get(key.id);
+		Property property = this.findProperty(key);
 		if(property != null)
 			property.logFlags &= ~logs;
 	}
 	
 	
+	// Complete property transaction.
+	private void endPropertyTransaction()
+	{
+		// check state
+		this.verifyAccess();
+		if(m_TransactionCounter <= 0)
+			return;
+		if(--m_TransactionCounter > 0)
+			return;
+		if(m_PendingProperties == null || m_PendingProperties.isEmpty())
+			return;
+		
+		// take pending properties, changes made by call-backs will be collected into spare list
+		ArrayList<Property> properties = m_PendingProperties;
+		m_PendingProperties = m_SparePendingProperties;
+		m_SparePendingProperties = null;
+		
+		// notify property changes
+		if(m_IsReleased)
+		{
+			properties.clear();
+			return;
+		}
+		this.raise(EVENT_PROPERTY_TRANSACTION_COMMITTING, EventArgs.EMPTY);
+		for(int i = 0, count = properties.size() ; i < count ; ++i)
+		{
+			Property property = properties.get(i);
+			if(!property.isPending)
+				continue;
+			property.isPending = false;
+			PropertyKey<?> key = property.key;
+			if(property.primitiveKey != null)
+			{
+				this.notifyPrimitivePropertyChanged(property, property.pendingOldBits, property.primitiveKey.getBits(this));
+			}
+			else
+			{
+				Object oldValue = property.pendingOldValue;
+				property.pendingOldValue = null;
+				this.notifyPropertyChanged(property, oldValue, this.get(key));
+			}
+		}
+		properties.clear();
+		if(m_SparePendingProperties == null)
+			m_SparePendingProperties = properties;
+		this.raise(EVENT_PROPERTY_TRANSACTION_COMMITTED, EventArgs.EMPTY);
+	}
+	
+	
 	/**
 	 * Enable logs related to given event.
 	 * @param key Event key.
@@ -241,12 +417,7 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 		this.verifyAccess();
 		
 		// enable logs
-		Event event = m_Events.get(key.id);
-		if(event == null)
-		{
-			event = new Event(key);
-			m_Events.put(key.id, event);
-		}
+		Event event = this.obtainEvent(key);
 		event.logFlags |= logs;
 	}
 	
@@ -262,16 +433,37 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 		this.verifyAccess();
 		
 		// enable logs
-		Property property = m_Properties.get(key.id);
-		if(property == null)
-		{
-			property = new Property(key);
-			m_Properties.put(key.id, property);
-		}
+		Property property = this.obtainProperty(key);
 		property.logFlags |= logs;
 	}
 	
 	
+	// Find event by key, return null if event is not created yet.
+	private Event findEvent(EventKey<?> key)
+	{
+		Event[][] tables = m_Events;
+		if(key.ownerIndex >= tables.length)
+			return null;
+		Event[] table = tables[key.ownerIndex];
+		if(table == null || key.slot >= table.length)
+			return null;
+		return table[key.slot];
+	}
+	
+	
+	// Find property by key, return null if property is not created yet.
+	private Property findProperty(PropertyKey<?> key)
+	{
+		Property[][] tables = m_Properties;
+		if(key.ownerIndex >= tables.length)
+			return null;
+		Property[] table = tables[key.ownerIndex];
+		if(table == null || key.slot >= table.length)
+			return null;
+		return table[key.slot];
+	}
+	
+	
 	// Get property value.
 	@SuppressWarnings("unchecked")
 	@Override
@@ -281,16 +473,58 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 			return (TValue)(Boolean)m_IsReleased;
 		else
 		{
-			Property property = m_Properties.get(key.id);
-			while(property != null && property.key != key)
-				property = m_Properties.get(key.id);
+			Property property = this.findProperty(key);
 			if(property != null && property.hasValue)
-				return (TValue)property.value;
+				return (TValue)(property.primitiveKey != null ? property.primitiveKey.fromBits(property.bits) : property.value);
 			return key.defaultValue;
 		}
 	}
 	
 	
+	// Get boolean property value.
+	@Override
+	public boolean getBoolean(BooleanPropertyKey key)
+	{
+		Property property = this.findProperty(key);
+		if(property != null && property.hasValue)
+			return BooleanPropertyKey.toBoolean(property.bits);
+		return this.get(key);
+	}
+	
+	
+	// Get float property value.
+	@Override
+	public float getFloat(FloatPropertyKey key)
+	{
+		Property property = this.findProperty(key);
+		if(property != null && property.hasValue)
+			return FloatPropertyKey.toFloat(property.bits);
+		return this.get(key);
+	}
+	
+	
+	// Get int property value.
+	@Override
+	public int getInt(IntPropertyKey key)
+	{
+		Property property = this.findProperty(key);
+		if(property != null && property.hasValue)
+			return IntPropertyKey.toInt(property.bits);
+		return this.get(key);
+	}
+	
+	
+	// Get long property value.
+	@Override
+	public long getLong(LongPropertyKey key)
+	{
+		Property property = this.findProperty(key);
+		if(property != null && property.hasValue)
+			return LongPropertyKey.toLong(property.bits);
+		return this.get(key);
+	}
+	
+	
 	/**
 	 * Notify that value of given property has been changed.
 	 * @param key Property key.
@@ -301,10 +535,119 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 	protected <TValue> boolean notifyPropertyChanged(PropertyKey<TValue> key, TValue oldValue, TValue newValue)
 	{
 		this.verifyAccess();
-		Property property = m_Properties.get(key.id);
+		Property property = this.findProperty(key);
+		if(key.isPrimitive)
+		{
+			PrimitivePropertyKey<TValue> primitiveKey = (PrimitivePropertyKey<TValue>)key;
+			long oldBits = primitiveKey.toBits(oldValue);
+			long newBits = primitiveKey.toBits(newValue);
+			if(property != null)
+				return this.notifyPrimitivePropertyChanged(property, oldBits, newBits);
+			if(oldBits == newBits)
+				return false;
+			FlightRecorder.recordPrimitivePropertyChange(key, newBits);
+			recordUnobservedPropertyChange(key);
+			return true;
+		}
 		if(property != null)
 			return this.notifyPropertyChanged(property, oldValue, newValue);
-		return this.checkValueChanges(oldValue, newValue);
+		if(!this.checkValueChanges(oldValue, newValue))
+			return false;
+		FlightRecorder.recordPropertyChange(key, newValue);
+		recordUnobservedPropertyChange(key);
+		return true;
+	}
+	
+	
+	/**
+	 * Notify that value of given boolean property has been changed without boxing.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean notifyPropertyChanged(BooleanPropertyKey key, boolean oldValue, boolean newValue)
+	{
+		this.verifyAccess();
+		long oldBits = BooleanPropertyKey.toBits(oldValue);
+		long newBits = BooleanPropertyKey.toBits(newValue);
+		Property property = this.findProperty(key);
+		if(property != null)
+			return this.notifyPrimitivePropertyChanged(property, oldBits, newBits);
+		if(oldBits == newBits)
+			return false;
+		FlightRecorder.recordPrimitivePropertyChange(key, newBits);
+		recordUnobservedPropertyChange(key);
+		return true;
+	}
+	
+	
+	/**
+	 * Notify that value of given float property has been changed without boxing.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean notifyPropertyChanged(FloatPropertyKey key, float oldValue, float newValue)
+	{
+		this.verifyAccess();
+		long oldBits = FloatPropertyKey.toBits(oldValue);
+		long newBits = FloatPropertyKey.toBits(newValue);
+		Property property = this.findProperty(key);
+		if(property != null)
+			return this.notifyPrimitivePropertyChanged(property, oldBits, newBits);
+		if(oldBits == newBits)
+			return false;
+		FlightRecorder.recordPrimitivePropertyChange(key, newBits);
+		recordUnobservedPropertyChange(key);
+		return true;
+	}
+	
+	
+	/**
+	 * Notify that value of given int property has been changed without boxing.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean notifyPropertyChanged(IntPropertyKey key, int oldValue, int newValue)
+	{
+		this.verifyAccess();
+		long oldBits = IntPropertyKey.toBits(oldValue);
+		long newBits = IntPropertyKey.toBits(newValue);
+		Property property = this.findProperty(key);
+		if(property != null)
+			return this.notifyPrimitivePropertyChanged(property, oldBits, newBits);
+		if(oldBits == newBits)
+			return false;
+		FlightRecorder.recordPrimitivePropertyChange(key, newBits);
+		recordUnobservedPropertyChange(key);
+		return true;
+	}
+	
+	
+	/**
+	 * Notify that value of given long property has been changed without boxing.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean notifyPropertyChanged(LongPropertyKey key, long oldValue, long newValue)
+	{
+		this.verifyAccess();
+		long oldBits = LongPropertyKey.toBits(oldValue);
+		long newBits = LongPropertyKey.toBits(newValue);
+		Property property = this.findProperty(key);
+		if(property != null)
+			return this.notifyPrimitivePropertyChanged(property, oldBits, newBits);
+		if(oldBits == newBits)
+			return false;
+		FlightRecorder.recordPrimitivePropertyChange(key, newBits);
+		recordUnobservedPropertyChange(key);
+		return true;
 	}
 	
 	
@@ -315,13 +658,8 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 	 */
 	protected boolean hasCallbacks(PropertyKey<?> key)
 	{
-		Property property = m_Properties.get(key.id);
-		while(property != null && property.key != key)
-			property = m_Properties.get(key.id);
-		if(property == null)
-			return false;
-		List<PropertyChangedCallback<?>> callbacks = property.callbacks;
-		return (callbacks != null && !callbacks.isEmpty());
+		Property property = this.findProperty(key);
+		return (property != null && property.callbacks.length > 0);
 	}
 	
 	
@@ -332,116 +670,218 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 	 */
 	protected boolean hasHandlers(EventKey<?> key)
 	{
-		Event event = m_Events.get(key.id);
-		while(event != null && event.key != key)
-			event = m_Events.get(key.id);
-		if(event == null)
-			return false;
-		List<EventHandler<?>> handlers = event.handlers;
-		return (handlers != null && !handlers.isEmpty());
+		Event event = this.findEvent(key);
+		return (event != null && event.handlers.length > 0);
 	}
 	
 	
 	// Notify that value of given property has been changed.
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private boolean notifyPropertyChanged(Property property, Object oldValue, Object newValue)
 	{
 		// check values
 		if(!this.checkValueChanges(oldValue, newValue))
 			return false;
 		
+		// defer until transaction completes
+		if(m_TransactionCounter > 0 && this.deferPropertyChange(property))
+		{
+			if(!property.isPending)
+			{
+				property.isPending = true;
+				property.pendingOldValue = oldValue;
+				m_PendingProperties.add(property);
+			}
+			return true;
+		}
+		
+		// record
+		FlightRecorder.recordPropertyChange(property.key, newValue);
+		
 		// update version
 		++property.version;
 		
-		// call-backs
-		boolean result = true;
+		// print log
 		int logFlags = property.logFlags;
-		boolean printCallbackChangeLog = ((logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0);
-		++property.updatingCounter;
+		if((logFlags & LOG_PROPERTY_CHANGE) != 0)
+			this.printPropertyLog(Log.DEBUG, property, oldValue + " -> " + newValue);
+		
+		// call-back
+		DispatchStatistics.KeyRecorder recorder = DispatchStatistics.getRecorder(property.key);
+		if(recorder == null)
+			return this.callCallbacks(property, oldValue, newValue, property.version, null);
+		int subscriberCount = property.callbacks.length;
+		long startTime = System.nanoTime();
+		boolean result = this.callCallbacks(property, oldValue, newValue, property.version, recorder);
+		recorder.onDispatched(subscriberCount, System.nanoTime() - startTime);
+		return result;
+	}
+	
+	
+	// Notify that value of given primitive property has been changed.
+	private boolean notifyPrimitivePropertyChanged(Property property, long oldBits, long newBits)
+	{
+		// check values
+		if(oldBits == newBits)
+			return false;
+		
+		// defer until transaction completes
+		if(m_TransactionCounter > 0 && this.deferPropertyChange(property))
+		{
+			if(!property.isPending)
+			{
+				property.isPending = true;
+				property.pendingOldBits = oldBits;
+				m_PendingProperties.add(property);
+			}
+			return true;
+		}
+		
+		// record
+		FlightRecorder.recordPrimitivePropertyChange(property.key, newBits);
+		
+		// update version
+		int version = ++property.version;
+		
+		// print log
+		PrimitivePropertyKey<?> key = property.primitiveKey;
+		int logFlags = property.logFlags;
+		if((logFlags & LOG_PROPERTY_CHANGE) != 0)
+			this.printPropertyLog(Log.DEBUG, property, key.fromBits(oldBits) + " -> " + key.fromBits(newBits));
+		
+		// statistics
+		Object[] primitiveCallbacks = property.primitiveCallbacks;
+		DispatchStatistics.KeyRecorder recorder = DispatchStatistics.getRecorder(key);
+		long startTime = (recorder != null ? System.nanoTime() : 0);
 		try
 		{
-			// print log
-			if((logFlags & LOG_PROPERTY_CHANGE) != 0)
-				this.printPropertyLog(Log.DEBUG, property, oldValue + " -> " + newValue);
-			
-			// call-back
-			List<PropertyChangedCallback<?>> callbacks = property.callbacks;
-			if(callbacks != null && !callbacks.isEmpty())
+			// primitive call-backs
+			if(primitiveCallbacks.length > 0)
 			{
-				int version = property.version;
-				PropertyChangeEventArgs<?> e = PropertyChangeEventArgs.obtain(oldValue, newValue);
-				PropertyKey<?> key = property.key;
 				boolean printCallbackLog = ((logFlags & LOG_PROPERTY_CALLBACK) != 0);
-				for(int i = 0, count = callbacks.size() ; i < count ; ++i)
+				for(int i = 0 ; i < primitiveCallbacks.length ; ++i)
 				{
+					// check call-back removed by previous call-back
+					Object callback = primitiveCallbacks[i];
+					Object[] currentCallbacks = property.primitiveCallbacks;
+					if(currentCallbacks != primitiveCallbacks && indexOf(currentCallbacks, callback) < 0)
+						continue;
+					
 					// call-back
-					PropertyChangedCallback<?> callback = callbacks.get(i);
 					if(printCallbackLog)
-						this.printPropertyLog(Log.DEBUG, key, "Call [" + i + "] " + callback);
-					callback.onPropertyChanged(this, (PropertyKey)key, (PropertyChangeEventArgs)e);
+						this.printPropertyLog(Log.DEBUG, key, "Call primitive [" + i + "] " + callback);
+					if(recorder != null)
+					{
+						long callbackStartTime = System.nanoTime();
+						key.callPrimitiveCallback(callback, this, oldBits, newBits);
+						recorder.onSubscriberCalled(callback, System.nanoTime() - callbackStartTime);
+					}
+					else
+						key.callPrimitiveCallback(callback, this, oldBits, newBits);
 					
 					// check version
 					if(version != property.version)
 					{
 						if((logFlags & LOG_PROPERTY_CHANGE) != 0)
-							this.printPropertyLog(Log.WARN, key, "Value changed after calling call-back [" + i + "] " + callback);
-						result = this.checkValueChanges(oldValue, this.get(key));
-						break;
+							this.printPropertyLog(Log.WARN, key, "Value changed after calling primitive call-back [" + i + "] " + callback);
+						return (key.getBits(this) != oldBits);
 					}
 				}
-				e.recycle();
 			}
 			
-			// complete
-			return result;
+			// call-backs, box values only when needed
+			if(property.callbacks.length > 0)
+				return this.callCallbacks(property, key.fromBits(oldBits), key.fromBits(newBits), version, recorder);
+			return true;
 		}
 		finally
 		{
-			// restore state
-			--property.updatingCounter;
-			
-			// add/remove deferred call-backs
-			if(property.updatingCounter <= 0)
+			if(recorder != null)
+				recorder.onDispatched(primitiveCallbacks.length + property.callbacks.length, System.nanoTime() - startTime);
+		}
+	}
+	
+	
+	// Find index of given item in array.
+	private static int indexOf(Object[] array, Object item)
+	{
+		for(int i = 0 ; i < array.length ; ++i)
+		{
+			if(item.equals(array[i]))
+				return i;
+		}
+		return -1;
+	}
+	
+	
+	// Find event by key, create new one if needed.
+	private Event obtainEvent(EventKey<?> key)
+	{
+		// check slot
+		Event[][] tables = m_Events;
+		Event[] table = (key.ownerIndex < tables.length ? tables[key.ownerIndex] : null);
+		if(table != null && key.slot < table.length)
+		{
+			Event event = table[key.slot];
+			if(event != null)
+				return event;
+		}
+		else
+		{
+			// expand tables
+			if(key.ownerIndex >= tables.length)
 			{
-				// remove call-backs
-				if(property.removingCallbacks != null)
-				{
-					if(property.callbacks != null)
-					{
-						for(int i = property.removingCallbacks.size() - 1 ; i >= 0 ; --i)
-						{
-							PropertyChangedCallback<?> callback = property.removingCallbacks.get(i);
-							int index = property.callbacks.indexOf(callback);
-							if(index >= 0)
-							{
-								if(printCallbackChangeLog)
-									this.printPropertyLog(Log.DEBUG, property, "Remove deferred removing call-back [" + index + "] " + callback);
-								property.callbacks.remove(index);
-							}
-						}
-					}
-					property.removingCallbacks = null;
-				}
-				
-				// add call-backs
-				if(property.addingCallbacks != null)
-				{
-					if(!property.addingCallbacks.isEmpty())
-					{
-						if(property.callbacks == null)
-							property.callbacks = new ArrayList<>();
-						for(int i = 0, count = property.addingCallbacks.size() ; i < count ; ++i)
-						{
-							PropertyChangedCallback<?> callback = property.addingCallbacks.get(i);
-							if(printCallbackChangeLog)
-								this.printPropertyLog(Log.DEBUG, property, "Add deferred adding call-back [" + property.callbacks.size() + "] " + callback);
-							property.callbacks.add(callback);
-						}
-					}
-					property.addingCallbacks = null;
-				}
+				Event[][] newTables = new Event[Math.max(key.ownerIndex + 1, KeySlots.getOwnerTypeCount())][];
+				System.arraycopy(tables, 0, newTables, 0, tables.length);
+				tables = newTables;
 			}
+			Event[] newTable = new Event[Math.max(key.slot + 1, KeySlots.getEventSlotCount(key.ownerIndex))];
+			if(table != null)
+				System.arraycopy(table, 0, newTable, 0, table.length);
+			table = newTable;
+			tables[key.ownerIndex] = table;
 		}
+		
+		// create event
+		Event event = new Event(key);
+		table[key.slot] = event;
+		m_Events = tables;
+		return event;
+	}
+	
+	
+	// Find property by key, create new one if needed.
+	private Property obtainProperty(PropertyKey<?> key)
+	{
+		// check slot
+		Property[][] tables = m_Properties;
+		Property[] table = (key.ownerIndex < tables.length ? tables[key.ownerIndex] : null);
+		if(table != null && key.slot < table.length)
+		{
+			Property property = table[key.slot];
+			if(property != null)
+				return property;
+		}
+		else
+		{
+			// expand tables
+			if(key.ownerIndex >= tables.length)
+			{
+				Property[][] newTables = new Property[Math.max(key.ownerIndex + 1, KeySlots.getOwnerTypeCount())][];
+				System.arraycopy(tables, 0, newTables, 0, tables.length);
+				tables = newTables;
+			}
+			Property[] newTable = new Property[Math.max(key.slot + 1, KeySlots.getPropertySlotCount(key.ownerIndex))];
+			if(table != null)
+				System.arraycopy(table, 0, newTable, 0, table.length);
+			table = newTable;
+			tables[key.ownerIndex] = table;
+		}
+		
+		// create property
+		Property property = new Property(key);
+		table[key.slot] = property;
+		m_Properties = tables;
+		return property;
 	}
 	
 	
@@ -486,81 +926,58 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 		if(m_IsReleased)
 			return;
 		
+		// record
+		FlightRecorder.recordEvent(key);
+		
 		// raise event
-		Event event = m_Events.get(key.id);
+		DispatchStatistics.KeyRecorder recorder = DispatchStatistics.getRecorder(key);
+		long startTime = (recorder != null ? System.nanoTime() : 0);
+		Event event = this.findEvent(key);
+		EventHandler<?>[] handlers = (event != null ? event.handlers : EMPTY_HANDLERS);
 		if(event != null)
 		{
-			++event.raisingCounter;
 			int logFlags = event.logFlags;
-			try
+			boolean printRaiseLog = ((logFlags & LOG_EVENT_RAISE) != 0);
+			if(printRaiseLog)
+				this.printEventLog(Log.DEBUG, key, "Raise [start]");
+			if(handlers.length > 0)
 			{
-				boolean printRaiseLog = ((logFlags & LOG_EVENT_RAISE) != 0);
-				List<EventHandler<?>> handlers = event.handlers;
-				if(printRaiseLog)
-					this.printEventLog(Log.DEBUG, key, "Raise [start]");
-				if(handlers != null && !handlers.isEmpty())
+				boolean printHandlerLog = ((logFlags & LOG_EVENT_HANDLER) != 0);
+				for(int i = 0 ; i < handlers.length ; ++i)
 				{
-					boolean printHandlerLog = ((logFlags & LOG_EVENT_HANDLER) != 0);
-					for(int i = 0, count = handlers.size() ; i < count ; ++i)
-					{
-						EventHandler handler = handlers.get(i);
-						if(printHandlerLog)
-							this.printEventLog(Log.DEBUG, key, "Call [" + i + "] " + handler);
-						handler.onEventReceived(this, key, e);
-					}
-				}
-				if(printRaiseLog)
-					this.printEventLog(Log.DEBUG, key, "Raise [end]");
-			}
-			finally
-			{
-				// restore state
-				--event.raisingCounter;
-				
-				// add/remove deferred handlers
-				if(event.raisingCounter <= 0)
-				{
-					// remove handlers
-					boolean printHandlerChangeLog = ((logFlags & LOG_EVENT_HANDLER_CHANGE) != 0);
-					if(event.removingHandlers != null)
-					{
-						if(event.handlers != null)
-						{
-							for(int i = event.removingHandlers.size() - 1 ; i >= 0 ; --i)
-							{
-								EventHandler<?> handler = event.removingHandlers.get(i);
-								int index = event.handlers.indexOf(handler);
-								if(index >= 0)
-								{
-									if(printHandlerChangeLog)
-										this.printEventLog(Log.DEBUG, key, "Remove deferred removing handler [" + index + "] " + handler);
-									event.handlers.remove(index);
-								}
-							}
-						}
-						event.removingHandlers = null;
-					}
+					// check handler removed by previous handler
+					EventHandler handler = handlers[i];
+					EventHandler<?>[] currentHandlers = event.handlers;
+					if(currentHandlers != handlers && indexOf(currentHandlers, handler) < 0)
+						continue;
 					
-					// add handlers
-					if(event.addingHandlers != null)
+					// call handler
+					if(printHandlerLog)
+						this.printEventLog(Log.DEBUG, key, "Call [" + i + "] " + handler);
+					if(recorder != null)
 					{
-						if(!event.addingHandlers.isEmpty())
-						{
-							if(event.handlers == null)
-								event.handlers = new ArrayList<>();
-							for(int i = 0, count = event.addingHandlers.size() ; i < count ; ++i)
-							{
-								EventHandler<?> handler = event.addingHandlers.get(i);
-								if(printHandlerChangeLog)
-									this.printEventLog(Log.DEBUG, key, "Add deferred adding handler [" + event.handlers.size() + "] " + handler);
-								event.handlers.add(handler);
-							}
-						}
-						event.addingHandlers = null;
+						long handlerStartTime = System.nanoTime();
+						handler.onEventReceived(this, key, e);
+						recorder.onSubscriberCalled(handler, System.nanoTime() - handlerStartTime);
 					}
+					else
+						handler.onEventReceived(this, key, e);
 				}
 			}
+			if(printRaiseLog)
+				this.printEventLog(Log.DEBUG, key, "Raise [end]");
 		}
+		if(recorder != null)
+			recorder.onDispatched(handlers.length, System.nanoTime() - startTime);
+	}
+	
+	
+	// Record property change without any call-back.
+	private static void recordUnobservedPropertyChange(PropertyKey<?> key)
+	{
+		DispatchStatistics.KeyRecorder recorder = DispatchStatistics.getRecorder(key);
+		if(recorder != null)
+			recorder.onDispatched(0, 0);
 	}
 	
 	
@@ -577,23 +994,42 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 		this.onRelease();
 		
 		// clear property changed call-backs
-		for(int i = m_Properties.size() - 1 ; i >= 0 ; --i)
+		Property[][] propertyTables = m_Properties;
+		for(int i = propertyTables.length - 1 ; i >= 0 ; --i)
 		{
-			Property property = m_Properties.valueAt(i);
-			property.addingCallbacks = null;
-			property.removingCallbacks = null;
-			property.callbacks = null;
+			Property[] table = propertyTables[i];
+			if(table == null)
+				continue;
+			for(int j = table.length - 1 ; j >= 0 ; --j)
+			{
+				Property property = table[j];
+				if(property == null)
+					continue;
+				property.callbacks = EMPTY_CALLBACKS;
+				property.primitiveCallbacks = EMPTY_PRIMITIVE_CALLBACKS;
+			}
 		}
 		
 		// clear event handlers
-		for(int i = m_Events.size() - 1 ; i >= 0 ; --i)
+		Event[][] eventTables = m_Events;
+		for(int i = eventTables.length - 1 ; i >= 0 ; --i)
 		{
-			Event event = m_Events.valueAt(i);
-			event.addingHandlers = null;
-			event.removingHandlers = null;
-			event.handlers = null;
+			Event[] table = eventTables[i];
+			if(table == null)
+				continue;
+			for(int j = table.length - 1 ; j >= 0 ; --j)
+			{
+				Event event = table[j];
+				if(event == null)
+					continue;
+				event.handlers = EMPTY_HANDLERS;
+			}
 		}
 		
+		// clear pending property changes
+		if(m_PendingProperties != null)
+			m_PendingProperties.clear();
+		
 		// update state
 		m_IsReleased = true;
 	}
@@ -611,38 +1047,58 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 			return;
 		
 		// get property
-		Property property = m_Properties.get(key.id);
+		Property property = this.findProperty(key);
 		if(property == null)
 			return;
 		
 		// remove call-back
-		if(property.updatingCounter <= 0)
+		PropertyChangedCallback<?>[] callbacks = property.callbacks;
+		int index = indexOf(callbacks, callback);
+		if(index < 0)
+			return;
+		if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
+			this.printPropertyLog(Log.DEBUG, property, "Remove call-back [" + index + "] " + callback);
+		if(callbacks.length > 1)
 		{
-			if(property.callbacks != null)
-			{
-				int index = property.callbacks.indexOf(callback);
-				if(index >= 0)
-				{
-					if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
-						this.printPropertyLog(Log.DEBUG, property, "Remove call-back [" + index + "] " + callback);
-					property.callbacks.remove(index);
-				}
-			}
+			PropertyChangedCallback<?>[] newCallbacks = new PropertyChangedCallback<?>[callbacks.length - 1];
+			System.arraycopy(callbacks, 0, newCallbacks, 0, index);
+			System.arraycopy(callbacks, index + 1, newCallbacks, index, newCallbacks.length - index);
+			property.callbacks = newCallbacks;
 		}
 		else
-		{
-			if(property.addingCallbacks != null && property.addingCallbacks.remove(callback))
-			{
-				if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
-					this.printPropertyLog(Log.DEBUG, property, "Cancel deferred adding call-back " + callback);
-				return;
-			}
-			if(property.removingCallbacks == null)
-				property.removingCallbacks = new ArrayList<>();
-			if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
-				this.printPropertyLog(Log.DEBUG, property, "Create deferred removing call-back " + callback);
-			property.removingCallbacks.add(callback);
-		}
+			property.callbacks = EMPTY_CALLBACKS;
+	}
+	
+	
+	// Remove boolean property changed call-back.
+	@Override
+	public void removeCallback(BooleanPropertyKey key, BooleanPropertyChangedCallback callback)
+	{
+		this.removePrimitiveCallback(key, callback);
+	}
+	
+	
+	// Remove float property changed call-back.
+	@Override
+	public void removeCallback(FloatPropertyKey key, FloatPropertyChangedCallback callback)
+	{
+		this.removePrimitiveCallback(key, callback);
+	}
+	
+	
+	// Remove int property changed call-back.
+	@Override
+	public void removeCallback(IntPropertyKey key, IntPropertyChangedCallback callback)
+	{
+		this.removePrimitiveCallback(key, callback);
+	}
+	
+	
+	// Remove long property changed call-back.
+	@Override
+	public void removeCallback(LongPropertyKey key, LongPropertyChangedCallback callback)
+	{
+		this.removePrimitiveCallback(key, callback);
 	}
 	
 	
@@ -656,38 +1112,60 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 			return;
 		
 		// find event
-		Event event = m_Events.get(key.id);
+		Event event = this.findEvent(key);
 		if(event == null)
 			return;
 		
 		// remove handler
-		if(event.raisingCounter <= 0)
+		EventHandler<?>[] handlers = event.handlers;
+		int index = indexOf(handlers, handler);
+		if(index < 0)
+			return;
+		if((event.logFlags & LOG_EVENT_HANDLER_CHANGE) != 0)
+			this.printEventLog(Log.DEBUG, key, "Remove handler [" + index + "] " + handler);
+		if(handlers.length > 1)
 		{
-			if(event.handlers != null)
-			{
-				int index = event.handlers.indexOf(handler);
-				if(index >= 0)
-				{
-					if((event.logFlags & LOG_EVENT_HANDLER_CHANGE) != 0)
-						this.printEventLog(Log.DEBUG, key, "Remove handler [" + index + "] " + handler);
-					event.handlers.remove(index);
-				}
-			}
+			EventHandler<?>[] newHandlers = new EventHandler<?>[handlers.length - 1];
+			System.arraycopy(handlers, 0, newHandlers, 0, index);
+			System.arraycopy(handlers, index + 1, newHandlers, index, newHandlers.length - index);
+			event.handlers = newHandlers;
 		}
 		else
+			event.handlers = EMPTY_HANDLERS;
+	}
+	
+	
+	// Remove primitive property changed call-back.
+	private void removePrimitiveCallback(PropertyKey<?> key, Object callback)
+	{
+		// check parameter and state
+		if(callback == null)
+			return;
+		this.verifyAccess();
+		if(m_IsReleased)
+			return;
+		
+		// get property
+		Property property = this.findProperty(key);
+		if(property == null)
+			return;
+		
+		// remove call-back
+		Object[] callbacks = property.primitiveCallbacks;
+		int index = indexOf(callbacks, callback);
+		if(index < 0)
+			return;
+		if((property.logFlags & LOG_PROPERTY_CALLBACK_CHANGE) != 0)
+			this.printPropertyLog(Log.DEBUG, property, "Remove primitive call-back [" + index + "] " + callback);
+		if(callbacks.length > 1)
 		{
-			if(event.addingHandlers != null && event.addingHandlers.remove(handler))
-			{
-				if((event.logFlags & LOG_EVENT_HANDLER_CHANGE) != 0)
-					this.printEventLog(Log.DEBUG, key, "Cancel deferred adding handler " + handler);
-				return;
-			}
-			if(event.removingHandlers == null)
-				event.removingHandlers = new ArrayList<>();
-			if((event.logFlags & LOG_EVENT_HANDLER_CHANGE) != 0)
-				this.printEventLog(Log.DEBUG, key, "Create deferred removing handler " + handler);
-			event.removingHandlers.add(handler);
+			Object[] newCallbacks = new Object[callbacks.length - 1];
+			System.arraycopy(callbacks, 0, newCallbacks, 0, index);
+			System.arraycopy(callbacks, index + 1, newCallbacks, index, newCallbacks.length - index);
+			property.primitiveCallbacks = newCallbacks;
 		}
+		else
+			property.primitiveCallbacks = EMPTY_PRIMITIVE_CALLBACKS;
 	}
 	
 	
@@ -701,25 +1179,64 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 	}
 	
 	
+	// Set boolean property value.
+	@Override
+	public boolean setBoolean(BooleanPropertyKey key, boolean value)
+	{
+		if(key.isReadOnly())
+			throw new RuntimeException("Property " + key + " is read-only.");
+		return this.setPrimitiveInternal(key, BooleanPropertyKey.toBits(value));
+	}
+	
+	
+	// Set float property value.
+	@Override
+	public boolean setFloat(FloatPropertyKey key, float value)
+	{
+		if(key.isReadOnly())
+			throw new RuntimeException("Property " + key + " is read-only.");
+		return this.setPrimitiveInternal(key, FloatPropertyKey.toBits(value));
+	}
+	
+	
+	// Set int property value.
+	@Override
+	public boolean setInt(IntPropertyKey key, int value)
+	{
+		if(key.isReadOnly())
+			throw new RuntimeException("Property " + key + " is read-only.");
+		return this.setPrimitiveInternal(key, IntPropertyKey.toBits(value));
+	}
+	
+	
+	// Set long property value.
+	@Override
+	public boolean setLong(LongPropertyKey key, long value)
+	{
+		if(key.isReadOnly())
+			throw new RuntimeException("Property " + key + " is read-only.");
+		return this.setPrimitiveInternal(key, LongPropertyKey.toBits(value));
+	}
+	
+	
 	// Set property value
 	@SuppressWarnings("unchecked")
 	private <TValue> boolean setInternal(PropertyKey<TValue> key, TValue value)
 	{
+		// check primitive property
+		if(key.isPrimitive)
+		{
+			PrimitivePropertyKey<TValue> primitiveKey = (PrimitivePropertyKey<TValue>)key;
+			return this.setPrimitiveInternal(primitiveKey, primitiveKey.toBits(value));
+		}
+		
 		// check key
 		this.verifyProperty(key);
 		
 		// find property
 		this.verifyAccess();
-		TValue oldValue;
-		Property property = m_Properties.get(key.id);
-		if(property != null)
-			oldValue = (TValue)(property.hasValue ? property.value : property.key.defaultValue);
-		else
-		{
-			property = new Property(key);
-			m_Properties.put(key.id, property);
-			oldValue = key.defaultValue;
-		}
+		Property property = this.obtainProperty(key);
+		TValue oldValue = (TValue)(property.hasValue ? property.value : key.defaultValue);
 		
 		// set value
 		property.hasValue = true;
@@ -730,6 +1247,26 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 	}
 	
 	
+	// Set primitive property value
+	private boolean setPrimitiveInternal(PrimitivePropertyKey<?> key, long bits)
+	{
+		// check key
+		this.verifyProperty(key);
+		
+		// find property
+		this.verifyAccess();
+		Property property = this.obtainProperty(key);
+		long oldBits = (property.hasValue ? property.bits : key.defaultBits);
+		
+		// set value
+		property.bits = bits;
+		property.hasValue = true;
+		
+		// notify change
+		return this.notifyPrimitivePropertyChanged(property, oldBits, bits);
+	}
+	
+	
 	/**
 	 * Set read-only property value.
 	 * @param key Property key.
@@ -746,6 +1283,62 @@ public abstract class BasicBaseObject extends BasicThreadDependentObject impleme
 	}
 	
 	
+	/**
+	 * Set read-only boolean property value without boxing.
+	 * @param key Property key.
+	 * @param value New value to set.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean setReadOnlyBoolean(BooleanPropertyKey key, boolean value)
+	{
+		if(!key.isReadOnly())
+			return this.setBoolean(key, value);
+		return this.setPrimitiveInternal(key, BooleanPropertyKey.toBits(value));
+	}
+	
+	
+	/**
+	 * Set read-only float property value without boxing.
+	 * @param key Property key.
+	 * @param value New value to set.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean setReadOnlyFloat(FloatPropertyKey key, float value)
+	{
+		if(!key.isReadOnly())
+			return this.setFloat(key, value);
+		return this.setPrimitiveInternal(key, FloatPropertyKey.toBits(value));
+	}
+	
+	
+	/**
+	 * Set read-only int property value without boxing.
+	 * @param key Property key.
+	 * @param value New value to set.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean setReadOnlyInt(IntPropertyKey key, int value)
+	{
+		if(!key.isReadOnly())
+			return this.setInt(key, value);
+		return this.setPrimitiveInternal(key, IntPropertyKey.toBits(value));
+	}
+	
+	
+	/**
+	 * Set read-only long property value without boxing.
+	 * @param key Property key.
+	 * @param value New value to set.
+	 * @return Whether property value changes or not.
+	 */
+	protected boolean setReadOnlyLong(LongPropertyKey key, long value)
+	{
+		if(!key.isReadOnly())
+			return this.setLong(key, value);
+		return this.setPrimitiveInternal(key, LongPropertyKey.toBits(value));
+	}
+	
+	
 	/**
 	 * Throws exception if given event key is invalid.
 	 * @param key Event key to check.
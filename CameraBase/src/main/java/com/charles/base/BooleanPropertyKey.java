@@ -0,0 +1,97 @@
+package com.charles.base;
+
+/**
+ * Key to represent a property with {@code boolean} value which can be accessed without boxing.
+ */
+public final class BooleanPropertyKey extends PrimitivePropertyKey<Boolean>
+{
+	/**
+	 * Default property value.
+	 */
+	public final boolean defaultBooleanValue;
+	
+	
+	/**
+	 * Initialize new BooleanPropertyKey instance with {@link #FLAG_NOT_NULL FLAG_NOT_NULL} | {@link #FLAG_READONLY FLAG_READONLY} flags.
+	 * @param name Property name.
+	 * @param ownerType Type of object owns this property.
+	 * @param defaultValue Default property value.
+	 */
+	public BooleanPropertyKey(String name, Class<? extends PropertySource> ownerType, boolean defaultValue)
+	{
+		this(name, ownerType, FLAG_NOT_NULL | FLAG_READONLY, defaultValue);
+	}
+	
+	
+	/**
+	 * Initialize new BooleanPropertyKey instance.
+	 * @param name Property name.
+	 * @param ownerType Type of object owns this property.
+	 * @param flags Property flags, {@link #FLAG_NOT_NULL FLAG_NOT_NULL} is always applied:
+	 * <ul>
+	 *   <li>{@link #FLAG_READONLY FLAG_READONLY}</li>
+	 * </ul>
+	 * @param defaultValue Default property value.
+	 */
+	public BooleanPropertyKey(String name, Class<? extends PropertySource> ownerType, int flags, boolean defaultValue)
+	{
+		super(name, Boolean.class, ownerType, (flags | FLAG_NOT_NULL), defaultValue, toBits(defaultValue));
+		this.defaultBooleanValue = defaultValue;
+	}
+	
+	
+	// Call primitive call-back.
+	@Override
+	void callPrimitiveCallback(Object callback, PropertySource source, long oldBits, long newBits)
+	{
+		((BooleanPropertyChangedCallback)callback).onPropertyChanged(source, this, (oldBits != 0), (newBits != 0));
+	}
+	
+	
+	// Convert from raw bits to boxed value.
+	@Override
+	Boolean fromBits(long bits)
+	{
+		return (bits != 0);
+	}
+	
+	
+	// Get raw bits of current value.
+	@Override
+	long getBits(PropertySource source)
+	{
+		return toBits(source.getBoolean(this));
+	}
+	
+	
+	// Convert from boxed value to raw bits.
+	@Override
+	long toBits(Object value)
+	{
+		if(value == null)
+			throw new IllegalArgumentException("Property " + this + " cannot be null.");
+		return ((Boolean)value ? 1 : 0);
+	}
+	
+	
+	/**
+	 * Convert from {@code boolean} value to raw bits.
+	 * @param value Value.
+	 * @return Raw bits.
+	 */
+	static long toBits(boolean value)
+	{
+		return (value ? 1 : 0);
+	}
+	
+	
+	/**
+	 * Convert from raw bits to {@code boolean} value.
+	 * @param bits Raw bits.
+	 * @return Value.
+	 */
+	static boolean toBoolean(long bits)
+	{
+		return (bits != 0);
+	}
+}
@@ -0,0 +1,327 @@
+package com.charles.base;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-classed pool of byte arrays leased as reference-counted {@link PooledBuffer}.
+ * Each power of two is divided into 4 size classes, so capacity of obtained buffer is at most 25% larger than requested size, and arrays are kept until total size of free arrays reaches given limit.
+ * Leak detection can be enabled to report buffers which become unreachable without being released and reclaim their arrays.
+ */
+public final class BufferPool
+{
+	// Constants
+	private static final String TAG = "BufferPool";
+	private static final int MIN_CLASS_SHIFT = 12;
+	private static final int MIN_CLASS_SIZE = (1 << MIN_CLASS_SHIFT);
+	private static final int MAX_CLASS_SHIFT = 29;
+	private static final int MAX_CLASS_SIZE = (1 << (MAX_CLASS_SHIFT + 1));
+	private static final int SUB_CLASS_COUNT = 4;
+	private static final int CLASS_COUNT = ((MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1) * SUB_CLASS_COUNT + 1);
+	
+	
+	// Private static fields
+	private static volatile boolean m_IsLeakDetectionEnabled;
+	private static final ReferenceQueue<PooledBuffer> m_LeakReferenceQueue = new ReferenceQueue<>();
+	private static final Set<LeakTracker> m_LeakTrackers = Collections.newSetFromMap(new ConcurrentHashMap<LeakTracker, Boolean>());
+	
+	
+	// Private fields
+	private final AtomicLong m_AllocationCount = new AtomicLong();
+	private final ArrayDeque<byte[]>[] m_FreeArrays;
+	private long m_FreeSize;
+	private final AtomicLong m_HitCount = new AtomicLong();
+	private final AtomicLong m_LeakCount = new AtomicLong();
+	private final long m_MaxFreeSize;
+	private final String m_Name;
+	private final AtomicLong m_OutstandingCount = new AtomicLong();
+	
+	
+	// Class to track buffer which may be leaked.
+	static final class LeakTracker extends WeakReference<PooledBuffer>
+	{
+		public final Throwable creationSite;
+		public final byte[] data;
+		public final BufferPool pool;
+		
+		public LeakTracker(BufferPool pool, PooledBuffer buffer, byte[] data)
+		{
+			super(buffer, m_LeakReferenceQueue);
+			this.pool = pool;
+			this.data = data;
+			this.creationSite = new Throwable();
+		}
+	}
+	
+	
+	/**
+	 * Initialize new BufferPool instance.
+	 * @param name Pool name.
+	 * @param maxFreeSize Maximum total size of free arrays kept in pool, in bytes.
+	 */
+	public BufferPool(String name, long maxFreeSize)
+	{
+		if(maxFreeSize < 0)
+			throw new IllegalArgumentException("Invalid maximum free size : " + maxFreeSize);
+		m_Name = name;
+		m_MaxFreeSize = maxFreeSize;
+		m_FreeArrays = createFreeArrays(CLASS_COUNT);
+	}
+	
+	
+	/**
+	 * Check leaked buffers immediately, report them and put their arrays back to pools.
+	 * @return Number of leaked buffers found by this check.
+	 */
+	public static int checkLeaks()
+	{
+		int count = 0;
+		LeakTracker tracker;
+		while((tracker = (LeakTracker)m_LeakReferenceQueue.poll()) != null)
+		{
+			if(!m_LeakTrackers.remove(tracker))
+				continue;
+			StackTraceElement[] frames = tracker.creationSite.getStackTrace();
+			String site = "unknown";
+			for(int i = 0 ; i < frames.length ; ++i)
+			{
+				String className = frames[i].getClassName();
+				if(!className.startsWith(BufferPool.class.getName()) && !className.equals(PooledBuffer.class.getName()))
+				{
+					site = frames[i].toString();
+					break;
+				}
+			}
+			Log.w(TAG, "Buffer from '" + tracker.pool.m_Name + "' is not released, obtained at " + site);
+			tracker.pool.m_LeakCount.incrementAndGet();
+			tracker.pool.recycle(tracker.data, null);
+			++count;
+		}
+		return count;
+	}
+	
+	
+	// Create array of free array queues, generic array cannot be created directly.
+	@SuppressWarnings("unchecked")
+	private static ArrayDeque<byte[]>[] createFreeArrays(int classCount)
+	{
+		return (ArrayDeque<byte[]>[])new ArrayDeque<?>[classCount];
+	}
+	
+	
+	/**
+	 * Disable leak detection, buffers obtained after calling this method will not be tracked.
+	 */
+	public static void disableLeakDetection()
+	{
+		m_IsLeakDetectionEnabled = false;
+	}
+	
+	
+	/**
+	 * Enable leak detection for buffers obtained after calling this method.
+	 */
+	public static void enableLeakDetection()
+	{
+		m_IsLeakDetectionEnabled = true;
+	}
+	
+	
+	/**
+	 * Get number of arrays allocated because there is no free array in proper size class.
+	 * @return Number of allocations.
+	 */
+	public long getAllocationCount()
+	{
+		return m_AllocationCount.get();
+	}
+	
+	
+	// Get capacity of given size class.
+	private static int getClassCapacity(int sizeClass)
+	{
+		if(sizeClass == 0)
+			return MIN_CLASS_SIZE;
+		int shift = ((sizeClass - 1) / SUB_CLASS_COUNT + MIN_CLASS_SHIFT);
+		int subClass = ((sizeClass - 1) % SUB_CLASS_COUNT);
+		return ((1 << shift) + (subClass + 1) * ((1 << shift) / SUB_CLASS_COUNT));
+	}
+	
+	
+	// Get size class for given size, or -1 if size is too large to be pooled.
+	private static int getSizeClass(int size)
+	{
+		if(size <= MIN_CLASS_SIZE)
+			return 0;
+		if(size > MAX_CLASS_SIZE)
+			return -1;
+		int shift = (31 - Integer.numberOfLeadingZeros(size - 1));
+		int subClass = ((size - 1 - (1 << shift)) / ((1 << shift) / SUB_CLASS_COUNT));
+		return ((shift - MIN_CLASS_SHIFT) * SUB_CLASS_COUNT + subClass + 1);
+	}
+	
+	
+	/**
+	 * Get total size of free arrays kept in pool.
+	 * @return Size in bytes.
+	 */
+	public synchronized long getFreeSize()
+	{
+		return m_FreeSize;
+	}
+	
+	
+	/**
+	 * Get number of buffers obtained by reusing free array.
+	 * @return Number of hits.
+	 */
+	public long getHitCount()
+	{
+		return m_HitCount.get();
+	}
+	
+	
+	/**
+	 * Get number of leaked buffers reported by {@link #checkLeaks()}.
+	 * @return Number of leaked buffers.
+	 */
+	public long getLeakCount()
+	{
+		return m_LeakCount.get();
+	}
+	
+	
+	/**
+	 * Get pool name.
+	 * @return Name.
+	 */
+	public String getName()
+	{
+		return m_Name;
+	}
+	
+	
+	/**
+	 * Get number of buffers which are obtained and not released yet.
+	 * @return Number of buffers.
+	 */
+	public long getOutstandingCount()
+	{
+		return m_OutstandingCount.get();
+	}
+	
+	
+	/**
+	 * Check whether leak detection is enabled or not.
+	 * @return Whether leak detection is enabled or not.
+	 */
+	public static boolean isLeakDetectionEnabled()
+	{
+		return m_IsLeakDetectionEnabled;
+	}
+	
+	
+	/**
+	 * Obtain buffer with at least given size, content of buffer is undefined.
+	 * @param size Size in bytes.
+	 * @return Buffer with one reference and length set to given size.
+	 */
+	public PooledBuffer obtain(int size)
+	{
+		// check parameter
+		if(size < 0)
+			throw new IllegalArgumentException("Invalid size : " + size);
+		
+		// reuse free array
+		byte[] data = null;
+		int sizeClass = getSizeClass(size);
+		if(sizeClass >= 0)
+		{
+			synchronized(this)
+			{
+				ArrayDeque<byte[]> arrays = m_FreeArrays[sizeClass];
+				if(arrays != null)
+				{
+					data = arrays.pollLast();
+					if(data != null)
+						m_FreeSize -= data.length;
+				}
+			}
+		}
+		
+		// allocate new array
+		if(data != null)
+			m_HitCount.incrementAndGet();
+		else
+		{
+			data = new byte[sizeClass >= 0 ? getClassCapacity(sizeClass) : size];
+			m_AllocationCount.incrementAndGet();
+		}
+		
+		// complete
+		m_OutstandingCount.incrementAndGet();
+		return new PooledBuffer(this, data, size);
+	}
+	
+	
+	// Put array back to pool, called when the last reference of buffer is released.
+	void recycle(byte[] data, LeakTracker leakTracker)
+	{
+		// stop tracking
+		if(leakTracker != null)
+		{
+			m_LeakTrackers.remove(leakTracker);
+			leakTracker.clear();
+		}
+		m_OutstandingCount.decrementAndGet();
+		
+		// keep array
+		int sizeClass = getSizeClass(data.length);
+		if(sizeClass < 0 || getClassCapacity(sizeClass) != data.length)
+			return;
+		synchronized(this)
+		{
+			if(m_FreeSize + data.length > m_MaxFreeSize)
+				return;
+			ArrayDeque<byte[]> arrays = m_FreeArrays[sizeClass];
+			if(arrays == null)
+			{
+				arrays = new ArrayDeque<>();
+				m_FreeArrays[sizeClass] = arrays;
+			}
+			arrays.addLast(data);
+			m_FreeSize += data.length;
+		}
+	}
+	
+	
+	/**
+	 * Drop all free arrays kept in pool.
+	 */
+	public synchronized void trim()
+	{
+		for(int i = m_FreeArrays.length - 1 ; i >= 0 ; --i)
+		{
+			if(m_FreeArrays[i] != null)
+				m_FreeArrays[i].clear();
+		}
+		m_FreeSize = 0;
+	}
+	
+	
+	// Start tracking given buffer, called by PooledBuffer.
+	static LeakTracker trackLeak(BufferPool pool, PooledBuffer buffer, byte[] data)
+	{
+		if(!m_IsLeakDetectionEnabled)
+			return null;
+		checkLeaks();
+		LeakTracker tracker = new LeakTracker(pool, buffer, data);
+		m_LeakTrackers.add(tracker);
+		return tracker;
+	}
+}
@@ -0,0 +1,420 @@
+package com.charles.base;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in per-key statistics of event raising and property change dispatching, which can be enabled or disabled at runtime.
+ * Only a volatile read is added to dispatching when statistics is disabled.
+ */
+public final class DispatchStatistics
+{
+	// Private static fields
+	private static volatile KeyRecorder[] m_EventRecorders = new KeyRecorder[0];
+	private static volatile boolean m_IsEnabled;
+	private static volatile KeyRecorder[] m_PropertyRecorders = new KeyRecorder[0];
+	
+	
+	/**
+	 * Recorder of statistics for single key.
+	 */
+	public static final class KeyRecorder
+	{
+		// Private fields
+		private final AtomicLong m_CrossThreadHopCount = new AtomicLong();
+		private final AtomicLong m_DispatchCount = new AtomicLong();
+		private final boolean m_IsEvent;
+		private final Object m_Key;
+		private final AtomicLong m_MaxSubscriberCount = new AtomicLong();
+		private final AtomicLong m_MaxTime = new AtomicLong();
+		private final AtomicLong m_SubscriberCallCount = new AtomicLong();
+		private final ConcurrentHashMap<Class<?>, SubscriberRecorder> m_Subscribers = new ConcurrentHashMap<>();
+		private final AtomicLong m_TotalTime = new AtomicLong();
+		
+		// Constructor
+		private KeyRecorder(Object key, boolean isEvent)
+		{
+			m_Key = key;
+			m_IsEvent = isEvent;
+		}
+		
+		/**
+		 * Called when event or property change crosses thread boundary.
+		 */
+		public void onCrossThreadHop()
+		{
+			m_CrossThreadHopCount.incrementAndGet();
+		}
+		
+		/**
+		 * Called after dispatching event or property change to all subscribers.
+		 * @param subscriberCount Number of subscribers.
+		 * @param elapsedNanos Time spent for dispatching in nanoseconds.
+		 */
+		public void onDispatched(int subscriberCount, long elapsedNanos)
+		{
+			m_DispatchCount.incrementAndGet();
+			m_TotalTime.addAndGet(elapsedNanos);
+			updateMax(m_MaxTime, elapsedNanos);
+			updateMax(m_MaxSubscriberCount, subscriberCount);
+		}
+		
+		/**
+		 * Called after calling single subscriber.
+		 * @param subscriber Event handler or property changed call-back.
+		 * @param elapsedNanos Time spent by subscriber in nanoseconds.
+		 */
+		public void onSubscriberCalled(Object subscriber, long elapsedNanos)
+		{
+			m_SubscriberCallCount.incrementAndGet();
+			Class<?> type = subscriber.getClass();
+			SubscriberRecorder recorder = m_Subscribers.get(type);
+			if(recorder == null)
+			{
+				recorder = new SubscriberRecorder();
+				SubscriberRecorder existingRecorder = m_Subscribers.putIfAbsent(type, recorder);
+				if(existingRecorder != null)
+					recorder = existingRecorder;
+			}
+			recorder.callCount.incrementAndGet();
+			recorder.totalTime.addAndGet(elapsedNanos);
+			updateMax(recorder.maxTime, elapsedNanos);
+		}
+		
+		// Reset all statistics.
+		private void reset()
+		{
+			m_CrossThreadHopCount.set(0);
+			m_DispatchCount.set(0);
+			m_MaxSubscriberCount.set(0);
+			m_MaxTime.set(0);
+			m_SubscriberCallCount.set(0);
+			m_Subscribers.clear();
+			m_TotalTime.set(0);
+		}
+		
+		// Take snapshot.
+		private KeyStatistics snapshot()
+		{
+			List<SubscriberStatistics> subscribers = new ArrayList<>(m_Subscribers.size());
+			for(Map.Entry<Class<?>, SubscriberRecorder> entry : m_Subscribers.entrySet())
+			{
+				SubscriberRecorder recorder = entry.getValue();
+				subscribers.add(new SubscriberStatistics(entry.getKey().getName(), recorder.callCount.get(), recorder.totalTime.get(), recorder.maxTime.get()));
+			}
+			Collections.sort(subscribers, new Comparator<SubscriberStatistics>()
+			{
+				@Override
+				public int compare(SubscriberStatistics lhs, SubscriberStatistics rhs)
+				{
+					return compareTime(rhs.totalTime, lhs.totalTime);
+				}
+			});
+			return new KeyStatistics(m_Key.toString(), m_IsEvent, m_DispatchCount.get(), m_SubscriberCallCount.get(), (int)m_MaxSubscriberCount.get(), m_TotalTime.get(), m_MaxTime.get(), m_CrossThreadHopCount.get(), Collections.unmodifiableList(subscribers));
+		}
+	}
+	
+	
+	/**
+	 * Snapshot of statistics for single key.
+	 */
+	public static final class KeyStatistics
+	{
+		/**
+		 * Number of events or property changes crossed thread boundary.
+		 */
+		public final long crossThreadHopCount;
+		/**
+		 * Number of raised events or dispatched property changes.
+		 */
+		public final long dispatchCount;
+		/**
+		 * Whether key is {@link EventKey} or {@link PropertyKey}.
+		 */
+		public final boolean isEvent;
+		/**
+		 * Maximum number of subscribers while dispatching.
+		 */
+		public final int maxSubscriberCount;
+		/**
+		 * Maximum dispatching time in nanoseconds.
+		 */
+		public final long maxTime;
+		/**
+		 * Name of key.
+		 */
+		public final String name;
+		/**
+		 * Number of calls to subscribers.
+		 */
+		public final long subscriberCallCount;
+		/**
+		 * Statistics of each subscriber type, sorted by total time.
+		 */
+		public final List<SubscriberStatistics> subscribers;
+		/**
+		 * Total dispatching time in nanoseconds.
+		 */
+		public final long totalTime;
+		
+		// Constructor
+		private KeyStatistics(String name, boolean isEvent, long dispatchCount, long subscriberCallCount, int maxSubscriberCount, long totalTime, long maxTime, long crossThreadHopCount, List<SubscriberStatistics> subscribers)
+		{
+			this.name = name;
+			this.isEvent = isEvent;
+			this.dispatchCount = dispatchCount;
+			this.subscriberCallCount = subscriberCallCount;
+			this.maxSubscriberCount = maxSubscriberCount;
+			this.totalTime = totalTime;
+			this.maxTime = maxTime;
+			this.crossThreadHopCount = crossThreadHopCount;
+			this.subscribers = subscribers;
+		}
+	}
+	
+	
+	// Recorder of single subscriber type.
+	private static final class SubscriberRecorder
+	{
+		public final AtomicLong callCount = new AtomicLong();
+		public final AtomicLong maxTime = new AtomicLong();
+		public final AtomicLong totalTime = new AtomicLong();
+	}
+	
+	
+	/**
+	 * Snapshot of statistics for single subscriber type.
+	 */
+	public static final class SubscriberStatistics
+	{
+		/**
+		 * Number of calls.
+		 */
+		public final long callCount;
+		/**
+		 * Maximum time of single call in nanoseconds.
+		 */
+		public final long maxTime;
+		/**
+		 * Total time in nanoseconds.
+		 */
+		public final long totalTime;
+		/**
+		 * Name of subscriber type.
+		 */
+		public final String type;
+		
+		// Constructor
+		private SubscriberStatistics(String type, long callCount, long totalTime, long maxTime)
+		{
+			this.type = type;
+			this.callCount = callCount;
+			this.totalTime = totalTime;
+			this.maxTime = maxTime;
+		}
+	}
+	
+	
+	// Constructor
+	private DispatchStatistics()
+	{}
+	
+	
+	// Compare two time values.
+	private static int compareTime(long lhs, long rhs)
+	{
+		return (lhs < rhs ? -1 : (lhs == rhs ? 0 : 1));
+	}
+	
+	
+	/**
+	 * Disable collecting statistics.
+	 */
+	public static void disable()
+	{
+		m_IsEnabled = false;
+	}
+	
+	
+	/**
+	 * Enable collecting statistics.
+	 */
+	public static void enable()
+	{
+		m_IsEnabled = true;
+	}
+	
+	
+	/**
+	 * Get recorder of given event.
+	 * @param key Event key.
+	 * @return Recorder, or Null if statistics is disabled.
+	 */
+	public static KeyRecorder getRecorder(EventKey<?> key)
+	{
+		if(!m_IsEnabled)
+			return null;
+		KeyRecorder[] recorders = m_EventRecorders;
+		if(key.id < recorders.length && recorders[key.id] != null)
+			return recorders[key.id];
+		return obtainRecorder(key, key.id, true);
+	}
+	
+	
+	/**
+	 * Get recorder of given property.
+	 * @param key Property key.
+	 * @return Recorder, or Null if statistics is disabled.
+	 */
+	public static KeyRecorder getRecorder(PropertyKey<?> key)
+	{
+		if(!m_IsEnabled)
+			return null;
+		KeyRecorder[] recorders = m_PropertyRecorders;
+		if(key.id < recorders.length && recorders[key.id] != null)
+			return recorders[key.id];
+		return obtainRecorder(key, key.id, false);
+	}
+	
+	
+	/**
+	 * Take snapshot of statistics of all keys, sorted by total dispatching time.
+	 * @return Statistics of keys which have been dispatched or crossed thread boundary.
+	 */
+	public static List<KeyStatistics> getSnapshot()
+	{
+		List<KeyStatistics> result = new ArrayList<>();
+		KeyRecorder[][] recorderTables = new KeyRecorder[][]{ m_EventRecorders, m_PropertyRecorders };
+		for(int i = 0 ; i < recorderTables.length ; ++i)
+		{
+			KeyRecorder[] recorders = recorderTables[i];
+			for(int j = 0 ; j < recorders.length ; ++j)
+			{
+				KeyRecorder recorder = recorders[j];
+				if(recorder == null)
+					continue;
+				KeyStatistics statistics = recorder.snapshot();
+				if(statistics.dispatchCount > 0 || statistics.crossThreadHopCount > 0)
+					result.add(statistics);
+			}
+		}
+		Collections.sort(result, new Comparator<KeyStatistics>()
+		{
+			@Override
+			public int compare(KeyStatistics lhs, KeyStatistics rhs)
+			{
+				return compareTime(rhs.totalTime, lhs.totalTime);
+			}
+		});
+		return result;
+	}
+	
+	
+	/**
+	 * Check whether statistics is enabled or not.
+	 * @return Whether statistics is enabled or not.
+	 */
+	public static boolean isEnabled()
+	{
+		return m_IsEnabled;
+	}
+	
+	
+	// Find or create recorder.
+	private static synchronized KeyRecorder obtainRecorder(Object key, int id, boolean isEvent)
+	{
+		KeyRecorder[] recorders = (isEvent ? m_EventRecorders : m_PropertyRecorders);
+		if(id < recorders.length && recorders[id] != null)
+			return recorders[id];
+		KeyRecorder[] newRecorders = new KeyRecorder[Math.max(id + 1, recorders.length * 2)];
+		System.arraycopy(recorders, 0, newRecorders, 0, recorders.length);
+		KeyRecorder recorder = new KeyRecorder(key, isEvent);
+		newRecorders[id] = recorder;
+		if(isEvent)
+			m_EventRecorders = newRecorders;
+		else
+			m_PropertyRecorders = newRecorders;
+		return recorder;
+	}
+	
+	
+	/**
+	 * Record that given event crosses thread boundary.
+	 * @param key Event key.
+	 */
+	public static void recordCrossThreadHop(EventKey<?> key)
+	{
+		KeyRecorder recorder = getRecorder(key);
+		if(recorder != null)
+			recorder.onCrossThreadHop();
+	}
+	
+	
+	/**
+	 * Record that given property change or access crosses thread boundary.
+	 * @param key Property key.
+	 */
+	public static void recordCrossThreadHop(PropertyKey<?> key)
+	{
+		KeyRecorder recorder = getRecorder(key);
+		if(recorder != null)
+			recorder.onCrossThreadHop();
+	}
+	
+	
+	/**
+	 * Clear statistics of all keys.
+	 */
+	public static synchronized void reset()
+	{
+		KeyRecorder[][] recorderTables = new KeyRecorder[][]{ m_EventRecorders, m_PropertyRecorders };
+		for(int i = 0 ; i < recorderTables.length ; ++i)
+		{
+			KeyRecorder[] recorders = recorderTables[i];
+			for(int j = 0 ; j < recorders.length ; ++j)
+			{
+				if(recorders[j] != null)
+					recorders[j].reset();
+			}
+		}
+	}
+	
+	
+	// Update maximum value.
+	private static void updateMax(AtomicLong max, long value)
+	{
+		long current = max.get();
+		while(value > current && !max.compareAndSet(current, value))
+			current = max.get();
+	}
+	
+	
+	/**
+	 * Write statistics of all keys as readable text, sorted by total dispatching time.
+	 * @param writer Writer.
+	 */
+	public static void writeText(Writer writer)
+	{
+		PrintWriter printWriter = new PrintWriter(writer);
+		List<KeyStatistics> snapshot = getSnapshot();
+		printWriter.println(String.format("%-48s %10s %10s %8s %12s %10s %8s", "Key", "Dispatch", "Calls", "MaxSubs", "Total(us)", "Max(us)", "Hops"));
+		for(int i = 0, count = snapshot.size() ; i < count ; ++i)
+		{
+			KeyStatistics statistics = snapshot.get(i);
+			printWriter.println(String.format("%-48s %10d %10d %8d %12d %10d %8d", (statistics.isEvent ? "[E] " : "[P] ") + statistics.name, statistics.dispatchCount, statistics.subscriberCallCount, statistics.maxSubscriberCount, statistics.totalTime / 1000, statistics.maxTime / 1000, statistics.crossThreadHopCount));
+			for(int j = 0, subscriberCount = statistics.subscribers.size() ; j < subscriberCount ; ++j)
+			{
+				SubscriberStatistics subscriber = statistics.subscribers.get(j);
+				printWriter.println(String.format("    %-44s %10s %10d %8s %12d %10d", subscriber.type, "", subscriber.callCount, "", subscriber.totalTime / 1000, subscriber.maxTime / 1000));
+			}
+		}
+		printWriter.flush();
+	}
+}
@@ -28,10 +28,18 @@ public final class EventKey<TArgs extends EventArgs>
 	 * Event name.
 	 */
 	public final String name;
+	/**
+	 * Dense index of {@link #ownerType}.
+	 */
+	final int ownerIndex;
 	/**
 	 * Type of object owns this event.
 	 */
 	public final Class<? extends EventSource> ownerType;
+	/**
+	 * Dense slot of this event among events owned by {@link #ownerType}.
+	 */
+	final int slot;
 	
 	
 	// Private static fields
@@ -75,7 +83,9 @@ public final class EventKey<TArgs extends EventArgs>
 		this.flags = flags;
 		this.id = generateId();
 		this.name = name;
+		this.ownerIndex = KeySlots.getOwnerIndex(ownerType);
 		this.ownerType = ownerType;
+		this.slot = KeySlots.allocateEventSlot(this);
 	}
 	
 	
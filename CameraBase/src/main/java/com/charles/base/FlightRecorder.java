@@ -0,0 +1,391 @@
+package com.charles.base;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size lock-free in-memory recorder of events and property changes, which can be dumped to file in binary format and decoded by {@link FlightRecorderDecoder}.
+ * Recording is disabled by default and should be enabled by {@link #enable()} in debug builds.
+ */
+public final class FlightRecorder
+{
+	/**
+	 * Number of records can be kept in recorder.
+	 */
+	public static final int CAPACITY = 8192;
+	/**
+	 * Magic number of dump file.
+	 */
+	public static final int DUMP_MAGIC = 0x43465231;
+	/**
+	 * Version of dump file format.
+	 */
+	public static final int DUMP_VERSION = 1;
+	/**
+	 * Payload type : no payload.
+	 */
+	public static final int PAYLOAD_NONE = 0;
+	/**
+	 * Payload type : raw bits of primitive property value.
+	 */
+	public static final int PAYLOAD_BITS = 1;
+	/**
+	 * Payload type : ordinal of enum value.
+	 */
+	public static final int PAYLOAD_ORDINAL = 2;
+	/**
+	 * Payload type : value of {@link Number}.
+	 */
+	public static final int PAYLOAD_NUMBER = 3;
+	/**
+	 * Payload type : hash code of value.
+	 */
+	public static final int PAYLOAD_HASH_CODE = 4;
+	/**
+	 * Payload type : Null value.
+	 */
+	public static final int PAYLOAD_NULL = 5;
+	/**
+	 * Payload type : raw bits of double value.
+	 */
+	public static final int PAYLOAD_DOUBLE = 6;
+	/**
+	 * Record type : event raised.
+	 */
+	public static final int RECORD_EVENT = 1;
+	/**
+	 * Record type : property changed.
+	 */
+	public static final int RECORD_PROPERTY = 2;
+	/**
+	 * Record type : custom mark.
+	 */
+	public static final int RECORD_MARK = 3;
+	
+	
+	// Constants
+	private static final String TAG = "FlightRecorder";
+	private static final int RECORD_SIZE = 4;
+	private static final int RECORD_INDEX_MASK = (CAPACITY - 1);
+	
+	
+	// Private static fields
+	private static volatile File m_DumpDirectory;
+	private static volatile boolean m_IsEnabled;
+	private static final AtomicLongArray m_Records = new AtomicLongArray(CAPACITY * RECORD_SIZE);
+	private static final AtomicLong m_Sequence = new AtomicLong();
+	
+	
+	// Constructor
+	private FlightRecorder()
+	{}
+	
+	
+	/**
+	 * Disable recording.
+	 */
+	public static void disable()
+	{
+		m_IsEnabled = false;
+	}
+	
+	
+	/**
+	 * Take recorded data on current thread and write it to new file in dump directory on background thread.
+	 * @param reason Reason of dumping.
+	 * @return Dump file which will be written, or Null if recording is disabled or there is no dump directory.
+	 */
+	public static File dump(final String reason)
+	{
+		// check state
+		if(!m_IsEnabled)
+			return null;
+		File directory = m_DumpDirectory;
+		if(directory == null)
+		{
+			Log.w(TAG, "dump() - No dump directory");
+			return null;
+		}
+		
+		// take records
+		final long[] records = snapshot();
+		final long dumpTime = System.nanoTime();
+		final long dumpWallTime = System.currentTimeMillis();
+		
+		// write to file
+		SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS", Locale.US);
+		final File file = new File(directory, "FlightRecorder_" + dateFormat.format(new Date(dumpWallTime)) + ".cfr");
+		Thread thread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				write(file, reason, records, dumpTime, dumpWallTime);
+			}
+		}, "Flight recorder dump");
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+		return file;
+	}
+	
+	
+	/**
+	 * Write recorded data to given file on current thread.
+	 * @param file File to write.
+	 * @param reason Reason of dumping.
+	 * @return Whether data is written successfully or not.
+	 */
+	public static boolean dump(File file, String reason)
+	{
+		return write(file, reason, snapshot(), System.nanoTime(), System.currentTimeMillis());
+	}
+	
+	
+	/**
+	 * Enable recording.
+	 */
+	public static void enable()
+	{
+		m_IsEnabled = true;
+	}
+	
+	
+	// Encode value to payload.
+	private static long encodePayload(Object value)
+	{
+		if(value == null)
+			return 0;
+		if(value instanceof Enum)
+			return ((Enum<?>)value).ordinal();
+		if(value instanceof Boolean)
+			return ((Boolean)value ? 1 : 0);
+		if(value instanceof Float || value instanceof Double)
+			return Double.doubleToRawLongBits(((Number)value).doubleValue());
+		if(value instanceof Number)
+			return ((Number)value).longValue();
+		return System.identityHashCode(value);
+	}
+	
+	
+	// Get payload type of value.
+	private static int getPayloadType(Object value)
+	{
+		if(value == null)
+			return PAYLOAD_NULL;
+		if(value instanceof Enum)
+			return PAYLOAD_ORDINAL;
+		if(value instanceof Float || value instanceof Double)
+			return PAYLOAD_DOUBLE;
+		if(value instanceof Boolean || value instanceof Number)
+			return PAYLOAD_NUMBER;
+		return PAYLOAD_HASH_CODE;
+	}
+	
+	
+	/**
+	 * Check whether recording is enabled or not.
+	 * @return Whether recording is enabled or not.
+	 */
+	public static boolean isEnabled()
+	{
+		return m_IsEnabled;
+	}
+	
+	
+	/**
+	 * Record custom mark.
+	 * @param id Mark ID defined by caller.
+	 * @param payload Payload.
+	 */
+	public static void mark(int id, long payload)
+	{
+		if(m_IsEnabled)
+			record(RECORD_MARK, PAYLOAD_NUMBER, id, payload);
+	}
+	
+	
+	// Write record.
+	private static void record(int recordType, int payloadType, int id, long payload)
+	{
+		long sequence = m_Sequence.getAndIncrement();
+		int index = (int)(sequence & RECORD_INDEX_MASK) * RECORD_SIZE;
+		long info = ((Thread.currentThread().getId() << 32) | ((long)((payloadType << 4) | recordType) << 24) | (id & 0xFFFFFFL));
+		
+		// invalidate slot, volatile store of timestamp fences the invalidation before all payload stores so reader never takes new payload with old marker
+		m_Records.set(index, 0);
+		m_Records.set(index + 1, System.nanoTime());
+		
+		// write payload and publish
+		m_Records.lazySet(index + 2, info);
+		m_Records.lazySet(index + 3, payload);
+		m_Records.lazySet(index, sequence + 1);
+	}
+	
+	
+	/**
+	 * Record raised event.
+	 * @param key Event key.
+	 */
+	public static void recordEvent(EventKey<?> key)
+	{
+		if(m_IsEnabled)
+			record(RECORD_EVENT, PAYLOAD_NONE, key.id, 0);
+	}
+	
+	
+	/**
+	 * Record property change.
+	 * @param key Property key.
+	 * @param newValue New property value.
+	 */
+	public static void recordPropertyChange(PropertyKey<?> key, Object newValue)
+	{
+		if(m_IsEnabled)
+			record(RECORD_PROPERTY, getPayloadType(newValue), key.id, encodePayload(newValue));
+	}
+	
+	
+	/**
+	 * Record primitive property change.
+	 * @param key Property key.
+	 * @param newBits Raw bits of new property value.
+	 */
+	public static void recordPrimitivePropertyChange(PropertyKey<?> key, long newBits)
+	{
+		if(m_IsEnabled)
+			record(RECORD_PROPERTY, PAYLOAD_BITS, key.id, newBits);
+	}
+	
+	
+	/**
+	 * Set directory to put dump files.
+	 * @param directory Dump directory.
+	 */
+	public static void setDumpDirectory(File directory)
+	{
+		m_DumpDirectory = directory;
+	}
+	
+	
+	// Take consistent records in recording order, each record contains timestamp, info and payload.
+	private static long[] snapshot()
+	{
+		long endSequence = m_Sequence.get();
+		long startSequence = Math.max(0, endSequence - CAPACITY);
+		long[] records = new long[(int)(endSequence - startSequence) * 3];
+		int count = 0;
+		for(long sequence = startSequence ; sequence < endSequence ; ++sequence)
+		{
+			int index = (int)(sequence & RECORD_INDEX_MASK) * RECORD_SIZE;
+			long marker = m_Records.get(index);
+			if(marker != sequence + 1)
+				continue;
+			long timestamp = m_Records.get(index + 1);
+			long info = m_Records.get(index + 2);
+			long payload = m_Records.get(index + 3);
+			if(m_Records.get(index) != marker)
+				continue;
+			records[count++] = timestamp;
+			records[count++] = info;
+			records[count++] = payload;
+		}
+		if(count < records.length)
+		{
+			long[] result = new long[count];
+			System.arraycopy(records, 0, result, 0, count);
+			return result;
+		}
+		return records;
+	}
+	
+	
+	// Write records to file.
+	private static boolean write(File file, String reason, long[] records, long dumpTime, long dumpWallTime)
+	{
+		DataOutputStream stream = null;
+		try
+		{
+			stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			
+			// header
+			stream.writeInt(DUMP_MAGIC);
+			stream.writeInt(DUMP_VERSION);
+			stream.writeLong(dumpWallTime);
+			stream.writeLong(dumpTime);
+			stream.writeUTF(reason != null ? reason : "");
+			
+			// threads
+			Thread[] threads = new Thread[Thread.activeCount() + 8];
+			int threadCount = Thread.enumerate(threads);
+			stream.writeInt(threadCount);
+			for(int i = 0 ; i < threadCount ; ++i)
+			{
+				stream.writeLong(threads[i].getId());
+				stream.writeUTF(threads[i].getName());
+			}
+			
+			// property keys
+			PropertyKey<?>[] propertyKeys = KeySlots.getPropertyKeys();
+			stream.writeInt(propertyKeys.length);
+			for(int i = 0 ; i < propertyKeys.length ; ++i)
+			{
+				PropertyKey<?> key = propertyKeys[i];
+				stream.writeInt(key.id);
+				stream.writeUTF(key.ownerType.getSimpleName() + "." + key.name);
+				stream.writeUTF(key.valueType.getName());
+				Object[] enumValues = key.valueType.getEnumConstants();
+				if(enumValues != null)
+				{
+					stream.writeInt(enumValues.length);
+					for(int j = 0 ; j < enumValues.length ; ++j)
+						stream.writeUTF(enumValues[j].toString());
+				}
+				else
+					stream.writeInt(0);
+			}
+			
+			// event keys
+			EventKey<?>[] eventKeys = KeySlots.getEventKeys();
+			stream.writeInt(eventKeys.length);
+			for(int i = 0 ; i < eventKeys.length ; ++i)
+			{
+				stream.writeInt(eventKeys[i].id);
+				stream.writeUTF(eventKeys[i].ownerType.getSimpleName() + "." + eventKeys[i].name);
+			}
+			
+			// records
+			int recordCount = (records.length / 3);
+			stream.writeInt(recordCount);
+			for(int i = 0 ; i < records.length ; ++i)
+				stream.writeLong(records[i]);
+			stream.flush();
+		}
+		catch(IOException ex)
+		{
+			Log.e(TAG, "write() - Fail to write to " + file, ex);
+			return false;
+		}
+		finally
+		{
+			if(stream != null)
+			{
+				try
+				{
+					stream.close();
+				}
+				catch(IOException ex)
+				{}
+			}
+		}
+		Log.w(TAG, "write() - Write " + (records.length / 3) + " records to " + file + ", reason : " + reason);
+		return true;
+	}
+}
@@ -0,0 +1,357 @@
+package com.charles.base;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Date;
+import java.util.HashMap;
+
+/**
+ * Decoder to render dump file written by {@link FlightRecorder} as readable text or Chrome trace JSON.
+ * Usage : FlightRecorderDecoder [-chrome] dump-file [output-file]
+ */
+public final class FlightRecorderDecoder
+{
+	// Private fields
+	private long m_DumpTime;
+	private long m_DumpWallTime;
+	private final HashMap<Integer, String> m_EventNames = new HashMap<>();
+	private final HashMap<Integer, String[]> m_PropertyEnumNames = new HashMap<>();
+	private final HashMap<Integer, String> m_PropertyNames = new HashMap<>();
+	private final HashMap<Integer, String> m_PropertyValueTypes = new HashMap<>();
+	private String m_Reason;
+	private long[] m_Records;
+	private final HashMap<Long, String> m_ThreadNames = new HashMap<>();
+	
+	
+	// Constructor
+	private FlightRecorderDecoder()
+	{}
+	
+	
+	/**
+	 * Decode dump data.
+	 * @param input Dump data.
+	 * @return Decoder with decoded data.
+	 * @throws IOException If dump data is invalid or cannot be read.
+	 */
+	public static FlightRecorderDecoder decode(InputStream input) throws IOException
+	{
+		DataInputStream stream = new DataInputStream(new BufferedInputStream(input));
+		FlightRecorderDecoder decoder = new FlightRecorderDecoder();
+		
+		// header
+		if(stream.readInt() != FlightRecorder.DUMP_MAGIC)
+			throw new IOException("Invalid dump file");
+		int version = stream.readInt();
+		if(version != FlightRecorder.DUMP_VERSION)
+			throw new IOException("Unsupported dump version : " + version);
+		decoder.m_DumpWallTime = stream.readLong();
+		decoder.m_DumpTime = stream.readLong();
+		decoder.m_Reason = stream.readUTF();
+		
+		// threads
+		for(int i = stream.readInt() ; i > 0 ; --i)
+		{
+			long id = stream.readLong();
+			decoder.m_ThreadNames.put(id, stream.readUTF());
+		}
+		
+		// property keys
+		for(int i = stream.readInt() ; i > 0 ; --i)
+		{
+			int id = stream.readInt();
+			decoder.m_PropertyNames.put(id, stream.readUTF());
+			decoder.m_PropertyValueTypes.put(id, stream.readUTF());
+			int enumCount = stream.readInt();
+			if(enumCount > 0)
+			{
+				String[] enumNames = new String[enumCount];
+				for(int j = 0 ; j < enumCount ; ++j)
+					enumNames[j] = stream.readUTF();
+				decoder.m_PropertyEnumNames.put(id, enumNames);
+			}
+		}
+		
+		// event keys
+		for(int i = stream.readInt() ; i > 0 ; --i)
+		{
+			int id = stream.readInt();
+			decoder.m_EventNames.put(id, stream.readUTF());
+		}
+		
+		// records
+		int recordCount = stream.readInt();
+		decoder.m_Records = new long[recordCount * 3];
+		for(int i = 0 ; i < decoder.m_Records.length ; ++i)
+			decoder.m_Records[i] = stream.readLong();
+		return decoder;
+	}
+	
+	
+	// Escape string for JSON.
+	private static String escapeJson(String str)
+	{
+		StringBuilder buffer = new StringBuilder(str.length() + 8);
+		for(int i = 0, count = str.length() ; i < count ; ++i)
+		{
+			char c = str.charAt(i);
+			switch(c)
+			{
+				case '"':
+					buffer.append("\\\"");
+					break;
+				case '\\':
+					buffer.append("\\\\");
+					break;
+				case '\n':
+					buffer.append("\\n");
+					break;
+				case '\r':
+					buffer.append("\\r");
+					break;
+				case '\t':
+					buffer.append("\\t");
+					break;
+				default:
+					if(c < 0x20)
+						buffer.append(String.format("\\u%04x", (int)c));
+					else
+						buffer.append(c);
+					break;
+			}
+		}
+		return buffer.toString();
+	}
+	
+	
+	// Format payload of record.
+	private String formatPayload(int recordType, int payloadType, int id, long payload)
+	{
+		switch(payloadType)
+		{
+			case FlightRecorder.PAYLOAD_NONE:
+				return null;
+			case FlightRecorder.PAYLOAD_BITS:
+			{
+				String valueType = m_PropertyValueTypes.get(id);
+				if("java.lang.Boolean".equals(valueType))
+					return Boolean.toString(payload != 0);
+				if("java.lang.Float".equals(valueType))
+					return Float.toString(Float.intBitsToFloat((int)payload));
+				if("java.lang.Integer".equals(valueType))
+					return Integer.toString((int)payload);
+				return Long.toString(payload);
+			}
+			case FlightRecorder.PAYLOAD_DOUBLE:
+				return Double.toString(Double.longBitsToDouble(payload));
+			case FlightRecorder.PAYLOAD_ORDINAL:
+			{
+				String[] enumNames = m_PropertyEnumNames.get(id);
+				if(enumNames != null && payload >= 0 && payload < enumNames.length)
+					return enumNames[(int)payload];
+				return ("#" + payload);
+			}
+			case FlightRecorder.PAYLOAD_NUMBER:
+				if("java.lang.Boolean".equals(m_PropertyValueTypes.get(id)) && recordType == FlightRecorder.RECORD_PROPERTY)
+					return Boolean.toString(payload != 0);
+				return Long.toString(payload);
+			case FlightRecorder.PAYLOAD_HASH_CODE:
+				return ("@" + Long.toHexString(payload));
+			case FlightRecorder.PAYLOAD_NULL:
+				return "null";
+			default:
+				return ("?" + payload);
+		}
+	}
+	
+	
+	// Get name of record.
+	private String getRecordName(int recordType, int id)
+	{
+		String name;
+		switch(recordType)
+		{
+			case FlightRecorder.RECORD_EVENT:
+				name = m_EventNames.get(id);
+				return (name != null ? name : ("Event#" + id));
+			case FlightRecorder.RECORD_PROPERTY:
+				name = m_PropertyNames.get(id);
+				return (name != null ? name : ("Property#" + id));
+			case FlightRecorder.RECORD_MARK:
+				return ("Mark#" + id);
+			default:
+				return ("Unknown#" + id);
+		}
+	}
+	
+	
+	// Get name of thread.
+	private String getThreadName(long threadId)
+	{
+		String name = m_ThreadNames.get(threadId);
+		return (name != null ? name : ("Thread-" + threadId));
+	}
+	
+	
+	/**
+	 * Entry point of decoder tool.
+	 * @param args Arguments.
+	 * @throws IOException If fails to read dump file or write output.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		// parse arguments
+		boolean chromeTrace = false;
+		String inputPath = null;
+		String outputPath = null;
+		for(int i = 0 ; i < args.length ; ++i)
+		{
+			if("-chrome".equals(args[i]))
+				chromeTrace = true;
+			else if(inputPath == null)
+				inputPath = args[i];
+			else
+				outputPath = args[i];
+		}
+		if(inputPath == null)
+		{
+			System.err.println("Usage : FlightRecorderDecoder [-chrome] dump-file [output-file]");
+			System.exit(1);
+			return;
+		}
+		
+		// decode
+		FlightRecorderDecoder decoder;
+		InputStream input = new FileInputStream(inputPath);
+		try
+		{
+			decoder = decode(input);
+		}
+		finally
+		{
+			input.close();
+		}
+		
+		// write
+		Writer writer = new OutputStreamWriter(outputPath != null ? new FileOutputStream(outputPath) : System.out, "UTF-8");
+		try
+		{
+			if(chromeTrace)
+				decoder.writeChromeTrace(writer);
+			else
+				decoder.writeText(writer);
+		}
+		finally
+		{
+			writer.flush();
+			if(outputPath != null)
+				writer.close();
+		}
+	}
+	
+	
+	/**
+	 * Write records as Chrome trace JSON which can be loaded by chrome://tracing.
+	 * @param writer Writer.
+	 */
+	public void writeChromeTrace(Writer writer)
+	{
+		PrintWriter printWriter = new PrintWriter(writer);
+		long baseTime = (m_Records.length > 0 ? m_Records[0] : m_DumpTime);
+		printWriter.print("{\"otherData\":{\"reason\":\"");
+		printWriter.print(escapeJson(m_Reason));
+		printWriter.print("\",\"dumpTime\":");
+		printWriter.print(m_DumpWallTime);
+		printWriter.println("},\"traceEvents\":[");
+		boolean isFirst = true;
+		for(Long threadId : m_ThreadNames.keySet())
+		{
+			if(!isFirst)
+				printWriter.println(',');
+			isFirst = false;
+			printWriter.print("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":0,\"tid\":");
+			printWriter.print(threadId);
+			printWriter.print(",\"args\":{\"name\":\"");
+			printWriter.print(escapeJson(m_ThreadNames.get(threadId)));
+			printWriter.print("\"}}");
+		}
+		for(int i = 0 ; i < m_Records.length ; i += 3)
+		{
+			long info = m_Records[i + 1];
+			int recordType = (int)((info >>> 24) & 0xF);
+			int payloadType = (int)((info >>> 28) & 0xF);
+			int id = (int)(info & 0xFFFFFF);
+			String payload = this.formatPayload(recordType, payloadType, id, m_Records[i + 2]);
+			if(!isFirst)
+				printWriter.println(',');
+			isFirst = false;
+			printWriter.print("{\"name\":\"");
+			printWriter.print(escapeJson(this.getRecordName(recordType, id)));
+			printWriter.print("\",\"cat\":\"");
+			printWriter.print(recordType == FlightRecorder.RECORD_EVENT ? "event" : (recordType == FlightRecorder.RECORD_PROPERTY ? "property" : "mark"));
+			printWriter.print("\",\"ph\":\"i\",\"s\":\"t\",\"pid\":0,\"tid\":");
+			printWriter.print(info >>> 32);
+			printWriter.print(",\"ts\":");
+			printWriter.print((m_Records[i] - baseTime) / 1000.0);
+			if(payload != null)
+			{
+				printWriter.print(",\"args\":{\"value\":\"");
+				printWriter.print(escapeJson(payload));
+				printWriter.print("\"}");
+			}
+			printWriter.print('}');
+		}
+		printWriter.println();
+		printWriter.println("]}");
+		printWriter.flush();
+	}
+	
+	
+	/**
+	 * Write records as readable text.
+	 * @param writer Writer.
+	 */
+	public void writeText(Writer writer)
+	{
+		PrintWriter printWriter = new PrintWriter(writer);
+		printWriter.println("Reason : " + m_Reason);
+		printWriter.println("Dump time : " + new Date(m_DumpWallTime));
+		printWriter.println("Records : " + (m_Records.length / 3));
+		for(int i = 0 ; i < m_Records.length ; i += 3)
+		{
+			long info = m_Records[i + 1];
+			int recordType = (int)((info >>> 24) & 0xF);
+			int payloadType = (int)((info >>> 28) & 0xF);
+			int id = (int)(info & 0xFFFFFF);
+			String payload = this.formatPayload(recordType, payloadType, id, m_Records[i + 2]);
+			printWriter.print(String.format("%12.3f ms [%s] ", (m_Records[i] - m_DumpTime) / 1000000.0, this.getThreadName(info >>> 32)));
+			switch(recordType)
+			{
+				case FlightRecorder.RECORD_EVENT:
+					printWriter.print("RAISE ");
+					break;
+				case FlightRecorder.RECORD_PROPERTY:
+					printWriter.print("SET   ");
+					break;
+				default:
+					printWriter.print("MARK  ");
+					break;
+			}
+			printWriter.print(this.getRecordName(recordType, id));
+			if(payload != null)
+			{
+				printWriter.print(" = ");
+				printWriter.print(payload);
+			}
+			printWriter.println();
+		}
+		printWriter.flush();
+	}
+}
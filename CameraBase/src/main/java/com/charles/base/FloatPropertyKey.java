@@ -0,0 +1,97 @@
+package com.charles.base;
+
+/**
+ * Key to represent a property with {@code float} value which can be accessed without boxing.
+ */
+public final class FloatPropertyKey extends PrimitivePropertyKey<Float>
+{
+	/**
+	 * Default property value.
+	 */
+	public final float defaultFloatValue;
+	
+	
+	/**
+	 * Initialize new FloatPropertyKey instance with {@link #FLAG_NOT_NULL FLAG_NOT_NULL} | {@link #FLAG_READONLY FLAG_READONLY} flags.
+	 * @param name Property name.
+	 * @param ownerType Type of object owns this property.
+	 * @param defaultValue Default property value.
+	 */
+	public FloatPropertyKey(String name, Class<? extends PropertySource> ownerType, float defaultValue)
+	{
+		this(name, ownerType, FLAG_NOT_NULL | FLAG_READONLY, defaultValue);
+	}
+	
+	
+	/**
+	 * Initialize new FloatPropertyKey instance.
+	 * @param name Property name.
+	 * @param ownerType Type of object owns this property.
+	 * @param flags Property flags, {@link #FLAG_NOT_NULL FLAG_NOT_NULL} is always applied:
+	 * <ul>
+	 *   <li>{@link #FLAG_READONLY FLAG_READONLY}</li>
+	 * </ul>
+	 * @param defaultValue Default property value.
+	 */
+	public FloatPropertyKey(String name, Class<? extends PropertySource> ownerType, int flags, float defaultValue)
+	{
+		super(name, Float.class, ownerType, (flags | FLAG_NOT_NULL), defaultValue, toBits(defaultValue));
+		this.defaultFloatValue = defaultValue;
+	}
+	
+	
+	// Call primitive call-back.
+	@Override
+	void callPrimitiveCallback(Object callback, PropertySource source, long oldBits, long newBits)
+	{
+		((FloatPropertyChangedCallback)callback).onPropertyChanged(source, this, Float.intBitsToFloat((int)oldBits), Float.intBitsToFloat((int)newBits));
+	}
+	
+	
+	// Convert from raw bits to boxed value.
+	@Override
+	Float fromBits(long bits)
+	{
+		return Float.intBitsToFloat((int)bits);
+	}
+	
+	
+	// Get raw bits of current value.
+	@Override
+	long getBits(PropertySource source)
+	{
+		return toBits(source.getFloat(this));
+	}
+	
+	
+	// Convert from boxed value to raw bits.
+	@Override
+	long toBits(Object value)
+	{
+		if(value == null)
+			throw new IllegalArgumentException("Property " + this + " cannot be null.");
+		return Float.floatToRawIntBits((Float)value);
+	}
+	
+	
+	/**
+	 * Convert from {@code float} value to raw bits.
+	 * @param value Value.
+	 * @return Raw bits.
+	 */
+	static long toBits(float value)
+	{
+		return Float.floatToRawIntBits(value);
+	}
+	
+	
+	/**
+	 * Convert from raw bits to {@code float} value.
+	 * @param bits Raw bits.
+	 * @return Value.
+	 */
+	static float toFloat(long bits)
+	{
+		return Float.intBitsToFloat((int)bits);
+	}
+}
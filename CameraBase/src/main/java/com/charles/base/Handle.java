@@ -1,5 +1,7 @@
 package com.charles.base;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * Object represents an operation.
  */
@@ -11,8 +13,15 @@ public abstract class Handle
 	public final String name;
 	
 	
+	// Constants
+	private static final int STATE_OPENED = 0;
+	private static final int STATE_CLOSED = 1;
+	private static final AtomicIntegerFieldUpdater<Handle> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Handle.class, "m_State");
+	
+	
 	// Private fields
-	private volatile boolean m_IsClosed;
+	private final HandleLeakDetector.Tracker m_LeakTracker;
+	private volatile int m_State = STATE_OPENED;
 	
 	
 	/**
@@ -22,6 +31,7 @@ public abstract class Handle
 	protected Handle(String name)
 	{
 		this.name = name;
+		m_LeakTracker = HandleLeakDetector.track(this);
 	}
 	
 	
@@ -44,17 +54,8 @@ public abstract class Handle
 	 */
 	public static <T extends Handle> T close(T handle, int flags)
 	{
-		if(handle != null)
-		{
-			synchronized(handle)
-			{
-				Handle actualHandle = (Handle)handle;
-				if(actualHandle.m_IsClosed)
-					return null;
-				actualHandle.m_IsClosed = true;
-			}
+		if(handle != null && ((Handle)handle).markClosed())
 			handle.onClose(flags);
-		}
 		return null;
 	}
 	
@@ -64,10 +65,7 @@ public abstract class Handle
 	 */
 	protected final void closeDirectly()
 	{
-		synchronized(this)
-		{
-			m_IsClosed = true;
-		}
+		this.markClosed();
 	}
 	
 	
@@ -78,7 +76,18 @@ public abstract class Handle
 	 */
 	public static boolean isValid(Handle handle)
 	{
-		return (handle != null && !handle.m_IsClosed);
+		return (handle != null && handle.m_State == STATE_OPENED);
+	}
+	
+	
+	// Change state to closed, return False if handle is already closed.
+	private boolean markClosed()
+	{
+		if(!STATE_UPDATER.compareAndSet(this, STATE_OPENED, STATE_CLOSED))
+			return false;
+		if(m_LeakTracker != null)
+			HandleLeakDetector.untrack(m_LeakTracker);
+		return true;
 	}
 	
 	
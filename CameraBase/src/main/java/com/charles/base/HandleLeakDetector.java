@@ -0,0 +1,187 @@
+package com.charles.base;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in detector of {@link Handle} which becomes unreachable without being closed.
+ * Creation site of each handle is recorded while detector is enabled, and leaked handles are reported with counts per creation site.
+ */
+public final class HandleLeakDetector
+{
+	// Constants
+	private static final String TAG = "HandleLeakDetector";
+	private static final int MAX_SITE_FRAMES = 3;
+	
+	
+	// Private static fields
+	private static volatile boolean m_IsEnabled;
+	private static final Map<String, AtomicInteger> m_LeakCounts = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<Handle> m_ReferenceQueue = new ReferenceQueue<>();
+	private static final Set<Tracker> m_Trackers = Collections.newSetFromMap(new ConcurrentHashMap<Tracker, Boolean>());
+	
+	
+	// Class to track state of handle.
+	static final class Tracker extends WeakReference<Handle>
+	{
+		public final String name;
+		public final Throwable creationSite;
+		
+		public Tracker(Handle handle)
+		{
+			super(handle, m_ReferenceQueue);
+			this.name = handle.name;
+			this.creationSite = new Throwable();
+		}
+	}
+	
+	
+	// Constructor
+	private HandleLeakDetector()
+	{}
+	
+	
+	/**
+	 * Check leaked handles immediately and report them.
+	 * @return Number of leaked handles found by this check.
+	 */
+	public static int checkLeaks()
+	{
+		int count = 0;
+		Tracker tracker;
+		while((tracker = (Tracker)m_ReferenceQueue.poll()) != null)
+		{
+			if(!m_Trackers.remove(tracker))
+				continue;
+			String site = getCreationSite(tracker.creationSite);
+			AtomicInteger siteCount = m_LeakCounts.get(site);
+			if(siteCount == null)
+			{
+				synchronized(m_LeakCounts)
+				{
+					siteCount = m_LeakCounts.get(site);
+					if(siteCount == null)
+					{
+						siteCount = new AtomicInteger();
+						m_LeakCounts.put(site, siteCount);
+					}
+				}
+			}
+			Log.w(TAG, "Handle '" + tracker.name + "' is not closed, created at " + site + " (" + siteCount.incrementAndGet() + " leaks)");
+			++count;
+		}
+		return count;
+	}
+	
+	
+	/**
+	 * Disable leak detection, handles created after calling this method will not be tracked.
+	 */
+	public static void disable()
+	{
+		m_IsEnabled = false;
+	}
+	
+	
+	/**
+	 * Enable leak detection for handles created after calling this method.
+	 */
+	public static void enable()
+	{
+		m_IsEnabled = true;
+	}
+	
+	
+	// Get creation site from stack trace.
+	private static String getCreationSite(Throwable creationSite)
+	{
+		StackTraceElement[] frames = creationSite.getStackTrace();
+		StringBuilder site = new StringBuilder();
+		int frameCount = 0;
+		boolean isInConstructor = true;
+		for(int i = 0 ; i < frames.length && frameCount < MAX_SITE_FRAMES ; ++i)
+		{
+			StackTraceElement frame = frames[i];
+			String className = frame.getClassName();
+			if(className.equals(HandleLeakDetector.class.getName()) || className.startsWith(HandleLeakDetector.class.getName() + "$") || className.equals(Handle.class.getName()))
+				continue;
+			if(isInConstructor && "<init>".equals(frame.getMethodName()))
+				continue;
+			isInConstructor = false;
+			if(frameCount > 0)
+				site.append(" <- ");
+			site.append(frame);
+			++frameCount;
+		}
+		return (frameCount > 0 ? site.toString() : "unknown");
+	}
+	
+	
+	/**
+	 * Get number of leaked handles reported for each creation site.
+	 * @return Snapshot of leak counts keyed by creation site.
+	 */
+	public static Map<String, Integer> getLeakCounts()
+	{
+		checkLeaks();
+		Map<String, Integer> result = new HashMap<>();
+		for(Map.Entry<String, AtomicInteger> entry : m_LeakCounts.entrySet())
+			result.put(entry.getKey(), entry.getValue().get());
+		return result;
+	}
+	
+	
+	/**
+	 * Get number of handles which are tracked and not closed yet.
+	 * @return Number of tracked handles.
+	 */
+	public static int getTrackedHandleCount()
+	{
+		return m_Trackers.size();
+	}
+	
+	
+	/**
+	 * Check whether leak detection is enabled or not.
+	 * @return Whether leak detection is enabled or not.
+	 */
+	public static boolean isEnabled()
+	{
+		return m_IsEnabled;
+	}
+	
+	
+	/**
+	 * Clear all reported leak counts.
+	 */
+	public static void resetLeakCounts()
+	{
+		m_LeakCounts.clear();
+	}
+	
+	
+	// Start tracking given handle, called by Handle.
+	static Tracker track(Handle handle)
+	{
+		if(!m_IsEnabled)
+			return null;
+		checkLeaks();
+		Tracker tracker = new Tracker(handle);
+		m_Trackers.add(tracker);
+		return tracker;
+	}
+	
+	
+	// Stop tracking handle, called by Handle when closing.
+	static void untrack(Tracker tracker)
+	{
+		m_Trackers.remove(tracker);
+		tracker.clear();
+	}
+}
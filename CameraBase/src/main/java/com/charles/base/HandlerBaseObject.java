@@ -24,6 +24,20 @@ public abstract class HandlerBaseObject extends BasicBaseObject implements Handl
 			m_Tag = owner.TAG;
 		}
 		
+		@Override
+		public void dispatchMessage(Message msg)
+		{
+			long startTime = ThreadMonitor.onMessageDispatching(msg);
+			try
+			{
+				super.dispatchMessage(msg);
+			}
+			finally
+			{
+				ThreadMonitor.onMessageDispatched(startTime);
+			}
+		}
+		
 		@Override
 		public void handleMessage(Message msg)
 		{
@@ -153,7 +153,7 @@ public final class HandlerUtils
 	 * Send message to given {@link HandlerObject}.
 	 * @param target Target {@link HandlerObject}.
 	 * @param what Message.
-	 * @param uniqueMessage True to remove message before sending.
+	 * @param uniqueMessage True to remove message before sending, which scans whole message queue. Use {@link KeyedScheduler} for frequently sent messages.
 	 * @return Whether message be sent successfully or not.
 	 */
 	public static boolean sendMessage(HandlerObject target, int what, boolean uniqueMessage)
@@ -166,7 +166,7 @@ public final class HandlerUtils
 	 * Send message to given {@link HandlerObject}.
 	 * @param target Target {@link HandlerObject}.
 	 * @param what Message.
-	 * @param uniqueMessage True to remove message before sending.
+	 * @param uniqueMessage True to remove message before sending, which scans whole message queue. Use {@link KeyedScheduler} for frequently sent messages.
 	 * @param delayMillis Delay time in milliseconds.
 	 * @return Whether message be sent successfully or not.
 	 */
@@ -214,7 +214,7 @@ public final class HandlerUtils
 	 * @param arg1 Argument 1.
 	 * @param arg2 Argument 2.
 	 * @param obj Object.
-	 * @param uniqueMessage True to remove message before sending.
+	 * @param uniqueMessage True to remove message before sending, which scans whole message queue. Use {@link KeyedScheduler} for frequently sent messages.
 	 * @return Whether message be sent successfully or not.
 	 */
 	public static boolean sendMessage(HandlerObject target, int what, int arg1, int arg2, Object obj, boolean uniqueMessage)
@@ -230,7 +230,7 @@ public final class HandlerUtils
 	 * @param arg1 Argument 1.
 	 * @param arg2 Argument 2.
 	 * @param obj Object.
-	 * @param uniqueMessage True to remove message before sending.
+	 * @param uniqueMessage True to remove message before sending, which scans whole message queue. Use {@link KeyedScheduler} for frequently sent messages.
 	 * @param delayMillis Delay time in milliseconds.
 	 * @return Whether message be sent successfully or not.
 	 */
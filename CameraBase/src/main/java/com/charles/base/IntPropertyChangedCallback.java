@@ -0,0 +1,16 @@
+package com.charles.base;
+
+/**
+ * Call-back after changing value of property represented by {@link IntPropertyKey}.
+ */
+public interface IntPropertyChangedCallback
+{
+	/**
+	 * Called after changing property value.
+	 * @param source Property source.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 */
+	void onPropertyChanged(PropertySource source, IntPropertyKey key, int oldValue, int newValue);
+}
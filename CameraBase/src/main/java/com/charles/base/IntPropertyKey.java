@@ -0,0 +1,97 @@
+package com.charles.base;
+
+/**
+ * Key to represent a property with {@code int} value which can be accessed without boxing.
+ */
+public final class IntPropertyKey extends PrimitivePropertyKey<Integer>
+{
+	/**
+	 * Default property value.
+	 */
+	public final int defaultIntValue;
+	
+	
+	/**
+	 * Initialize new IntPropertyKey instance with {@link #FLAG_NOT_NULL FLAG_NOT_NULL} | {@link #FLAG_READONLY FLAG_READONLY} flags.
+	 * @param name Property name.
+	 * @param ownerType Type of object owns this property.
+	 * @param defaultValue Default property value.
+	 */
+	public IntPropertyKey(String name, Class<? extends PropertySource> ownerType, int defaultValue)
+	{
+		this(name, ownerType, FLAG_NOT_NULL | FLAG_READONLY, defaultValue);
+	}
+	
+	
+	/**
+	 * Initialize new IntPropertyKey instance.
+	 * @param name Property name.
+	 * @param ownerType Type of object owns this property.
+	 * @param flags Property flags, {@link #FLAG_NOT_NULL FLAG_NOT_NULL} is always applied:
+	 * <ul>
+	 *   <li>{@link #FLAG_READONLY FLAG_READONLY}</li>
+	 * </ul>
+	 * @param defaultValue Default property value.
+	 */
+	public IntPropertyKey(String name, Class<? extends PropertySource> ownerType, int flags, int defaultValue)
+	{
+		super(name, Integer.class, ownerType, (flags | FLAG_NOT_NULL), defaultValue, toBits(defaultValue));
+		this.defaultIntValue = defaultValue;
+	}
+	
+	
+	// Call primitive call-back.
+	@Override
+	void callPrimitiveCallback(Object callback, PropertySource source, long oldBits, long newBits)
+	{
+		((IntPropertyChangedCallback)callback).onPropertyChanged(source, this, (int)oldBits, (int)newBits);
+	}
+	
+	
+	// Convert from raw bits to boxed value.
+	@Override
+	Integer fromBits(long bits)
+	{
+		return (int)bits;
+	}
+	
+	
+	// Get raw bits of current value.
+	@Override
+	long getBits(PropertySource source)
+	{
+		return source.getInt(this);
+	}
+	
+	
+	// Convert from boxed value to raw bits.
+	@Override
+	long toBits(Object value)
+	{
+		if(value == null)
+			throw new IllegalArgumentException("Property " + this + " cannot be null.");
+		return (Integer)value;
+	}
+	
+	
+	/**
+	 * Convert from {@code int} value to raw bits.
+	 * @param value Value.
+	 * @return Raw bits.
+	 */
+	static long toBits(int value)
+	{
+		return value;
+	}
+	
+	
+	/**
+	 * Convert from raw bits to {@code int} value.
+	 * @param bits Raw bits.
+	 * @return Value.
+	 */
+	static int toInt(long bits)
+	{
+		return (int)bits;
+	}
+}
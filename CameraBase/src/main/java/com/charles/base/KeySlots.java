@@ -0,0 +1,125 @@
+package com.charles.base;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Allocator of dense per-owner-type slots for {@link PropertyKey} and {@link EventKey}.
+ */
+final class KeySlots
+{
+	// Private static fields
+	private static final ArrayList<EventKey<?>> m_EventKeys = new ArrayList<>();
+	private static int[] m_EventSlotCounts = new int[16];
+	private static final HashMap<Class<?>, Integer> m_OwnerIndices = new HashMap<>();
+	private static volatile int m_OwnerTypeCount;
+	private static final ArrayList<PropertyKey<?>> m_PropertyKeys = new ArrayList<>();
+	private static int[] m_PropertySlotCounts = new int[16];
+	
+	
+	// Constructor
+	private KeySlots()
+	{}
+	
+	
+	/**
+	 * Allocate new event slot for given key.
+	 * @param key Event key with owner index initialized.
+	 * @return Event slot.
+	 */
+	public static synchronized int allocateEventSlot(EventKey<?> key)
+	{
+		m_EventKeys.add(key);
+		return (m_EventSlotCounts[key.ownerIndex]++);
+	}
+	
+	
+	/**
+	 * Allocate new property slot for given key.
+	 * @param key Property key with owner index initialized.
+	 * @return Property slot.
+	 */
+	public static synchronized int allocatePropertySlot(PropertyKey<?> key)
+	{
+		m_PropertyKeys.add(key);
+		return (m_PropertySlotCounts[key.ownerIndex]++);
+	}
+	
+	
+	/**
+	 * Get all created event keys.
+	 * @return Event keys.
+	 */
+	public static synchronized EventKey<?>[] getEventKeys()
+	{
+		return m_EventKeys.toArray(new EventKey<?>[m_EventKeys.size()]);
+	}
+	
+	
+	/**
+	 * Get number of event slots allocated for given owner type.
+	 * @param ownerIndex Index of owner type.
+	 * @return Number of event slots.
+	 */
+	public static synchronized int getEventSlotCount(int ownerIndex)
+	{
+		return m_EventSlotCounts[ownerIndex];
+	}
+	
+	
+	/**
+	 * Get dense index of given owner type, new index will be allocated if needed.
+	 * @param ownerType Type of object owns properties or events.
+	 * @return Index of owner type.
+	 */
+	public static synchronized int getOwnerIndex(Class<?> ownerType)
+	{
+		Integer index = m_OwnerIndices.get(ownerType);
+		if(index != null)
+			return index;
+		int newIndex = m_OwnerTypeCount;
+		if(newIndex >= m_PropertySlotCounts.length)
+		{
+			int[] propertySlotCounts = new int[newIndex * 2];
+			int[] eventSlotCounts = new int[newIndex * 2];
+			System.arraycopy(m_PropertySlotCounts, 0, propertySlotCounts, 0, newIndex);
+			System.arraycopy(m_EventSlotCounts, 0, eventSlotCounts, 0, newIndex);
+			m_PropertySlotCounts = propertySlotCounts;
+			m_EventSlotCounts = eventSlotCounts;
+		}
+		m_OwnerIndices.put(ownerType, newIndex);
+		m_OwnerTypeCount = (newIndex + 1);
+		return newIndex;
+	}
+	
+	
+	/**
+	 * Get number of owner types.
+	 * @return Number of owner types.
+	 */
+	public static int getOwnerTypeCount()
+	{
+		return m_OwnerTypeCount;
+	}
+	
+	
+	/**
+	 * Get all created property keys.
+	 * @return Property keys.
+	 */
+	public static synchronized PropertyKey<?>[] getPropertyKeys()
+	{
+		return m_PropertyKeys.toArray(new PropertyKey<?>[m_PropertyKeys.size()]);
+	}
+	
+	
+	/**
+	 * Get number of property slots allocated for given owner type.
+	 * @param ownerIndex Index of owner type.
+	 * @return Number of property slots.
+	 */
+	public static synchronized int getPropertySlotCount(int ownerIndex)
+	{
+		return m_PropertySlotCounts[ownerIndex];
+	}
+}
@@ -0,0 +1,290 @@
+package com.charles.base;
+
+import android.os.Handler;
+import android.os.Message;
+import android.os.SystemClock;
+
+/**
+ * Scheduler to send keyed messages to {@link HandlerObject} without scanning message queue.
+ * At most one dispatch is scheduled for each key until it runs, arguments of the latest request are used, and dispatches of each key can be rate limited by minimum interval.
+ * Messages are delivered to {@link Handler#dispatchMessage(Message)} of target with key as {@link Message#what}.
+ * State of each key is changed atomically under lock of its entry, and messages are dispatched outside the lock.
+ */
+public final class KeyedScheduler
+{
+	// Constants
+	private static final String TAG = "KeyedScheduler";
+	
+	
+	// Private fields
+	private volatile Entry[] m_Entries = new Entry[0];
+	private final HandlerObject m_Target;
+	
+	
+	// Class for scheduled key, fields except key and minInterval are guarded by lock of entry.
+	private final class Entry implements Runnable
+	{
+		public long args;
+		public volatile boolean isPending;
+		public final int key;
+		public long lastDispatchTime;
+		public volatile long minInterval;
+		public Object obj;
+		public Handler scheduledHandler;
+		
+		public Entry(int key)
+		{
+			this.key = key;
+		}
+		
+		@Override
+		public void run()
+		{
+			// take latest arguments and complete pending dispatch atomically
+			Handler handler;
+			long args;
+			Object obj;
+			synchronized(this)
+			{
+				handler = this.scheduledHandler;
+				if(handler == null || !this.isPending)
+					return;
+				args = this.args;
+				obj = this.obj;
+				this.obj = null;
+				this.scheduledHandler = null;
+				this.isPending = false;
+				this.lastDispatchTime = SystemClock.uptimeMillis();
+			}
+			
+			// dispatch
+			Message msg = Message.obtain(handler, this.key, (int)(args >> 32), (int)args, obj);
+			try
+			{
+				handler.dispatchMessage(msg);
+			}
+			finally
+			{
+				msg.recycle();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Initialize new KeyedScheduler instance.
+	 * @param target Target to receive messages.
+	 */
+	public KeyedScheduler(HandlerObject target)
+	{
+		if(target == null)
+			throw new IllegalArgumentException("No target");
+		m_Target = target;
+	}
+	
+	
+	/**
+	 * Cancel pending dispatch of given key.
+	 * @param key Key.
+	 */
+	public void cancel(int key)
+	{
+		Entry entry = this.findEntry(key);
+		if(entry == null)
+			return;
+		synchronized(entry)
+		{
+			if(!entry.isPending)
+				return;
+			Handler handler = entry.scheduledHandler;
+			if(handler != null)
+				handler.removeCallbacks(entry);
+			entry.scheduledHandler = null;
+			entry.obj = null;
+			entry.isPending = false;
+		}
+	}
+	
+	
+	// Find entry of given key.
+	private Entry findEntry(int key)
+	{
+		Entry[] entries = m_Entries;
+		for(int i = entries.length - 1 ; i >= 0 ; --i)
+		{
+			if(entries[i].key == key)
+				return entries[i];
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * Check whether dispatch of given key is pending or not.
+	 * @param key Key.
+	 * @return Whether dispatch is pending or not.
+	 */
+	public boolean isPending(int key)
+	{
+		Entry entry = this.findEntry(key);
+		return (entry != null && entry.isPending);
+	}
+	
+	
+	// Find or create entry of given key.
+	private Entry obtainEntry(int key)
+	{
+		Entry entry = this.findEntry(key);
+		if(entry != null)
+			return entry;
+		synchronized(this)
+		{
+			entry = this.findEntry(key);
+			if(entry == null)
+			{
+				Entry[] entries = m_Entries;
+				Entry[] newEntries = new Entry[entries.length + 1];
+				System.arraycopy(entries, 0, newEntries, 0, entries.length);
+				entry = new Entry(key);
+				newEntries[entries.length] = entry;
+				m_Entries = newEntries;
+			}
+			return entry;
+		}
+	}
+	
+	
+	// Post entry to handler, should be called with lock of entry held.
+	private boolean post(Entry entry, long delayMillis)
+	{
+		// check handler
+		Handler handler = m_Target.getHandler();
+		if(handler == null)
+		{
+			Log.e(TAG, "post() - No Handler to send " + entry.key);
+			entry.isPending = false;
+			return false;
+		}
+		
+		// apply minimum interval
+		long minInterval = entry.minInterval;
+		if(minInterval > 0)
+		{
+			long intervalDelay = (entry.lastDispatchTime + minInterval - SystemClock.uptimeMillis());
+			if(intervalDelay > delayMillis)
+				delayMillis = intervalDelay;
+		}
+		
+		// post
+		entry.scheduledHandler = handler;
+		boolean result = (delayMillis > 0 ? handler.postDelayed(entry, delayMillis) : handler.post(entry));
+		if(!result)
+		{
+			entry.scheduledHandler = null;
+			entry.isPending = false;
+		}
+		return result;
+	}
+	
+	
+	/**
+	 * Schedule dispatch of given key, or replace pending dispatch with new arguments and delay.
+	 * @param key Key.
+	 * @param arg1 Argument 1.
+	 * @param arg2 Argument 2.
+	 * @param obj Object.
+	 * @param delayMillis Delay time in milliseconds, counted from now.
+	 * @return Whether dispatch is scheduled successfully or not.
+	 */
+	public boolean reschedule(int key, int arg1, int arg2, Object obj, long delayMillis)
+	{
+		Entry entry = this.obtainEntry(key);
+		synchronized(entry)
+		{
+			if(entry.isPending)
+			{
+				Handler handler = entry.scheduledHandler;
+				if(handler != null)
+					handler.removeCallbacks(entry);
+			}
+			entry.args = (((long)arg1 << 32) | (arg2 & 0xFFFFFFFFL));
+			entry.obj = obj;
+			entry.isPending = true;
+			return this.post(entry, delayMillis);
+		}
+	}
+	
+	
+	/**
+	 * Schedule dispatch of given key, or replace pending dispatch with new delay.
+	 * @param key Key.
+	 * @param delayMillis Delay time in milliseconds, counted from now.
+	 * @return Whether dispatch is scheduled successfully or not.
+	 */
+	public boolean reschedule(int key, long delayMillis)
+	{
+		return this.reschedule(key, 0, 0, null, delayMillis);
+	}
+	
+	
+	/**
+	 * Schedule dispatch of given key if there is no pending one.
+	 * @param key Key.
+	 * @return Whether dispatch is scheduled or pending.
+	 */
+	public boolean schedule(int key)
+	{
+		return this.schedule(key, 0, 0, null, 0);
+	}
+	
+	
+	/**
+	 * Schedule dispatch of given key if there is no pending one, arguments of pending dispatch will be replaced.
+	 * @param key Key.
+	 * @param arg1 Argument 1.
+	 * @param arg2 Argument 2.
+	 * @param obj Object.
+	 * @return Whether dispatch is scheduled or pending.
+	 */
+	public boolean schedule(int key, int arg1, int arg2, Object obj)
+	{
+		return this.schedule(key, arg1, arg2, obj, 0);
+	}
+	
+	
+	/**
+	 * Schedule dispatch of given key if there is no pending one, arguments of pending dispatch will be replaced.
+	 * @param key Key.
+	 * @param arg1 Argument 1.
+	 * @param arg2 Argument 2.
+	 * @param obj Object.
+	 * @param delayMillis Delay time in milliseconds, ignored if dispatch is already pending.
+	 * @return Whether dispatch is scheduled or pending.
+	 */
+	public boolean schedule(int key, int arg1, int arg2, Object obj, long delayMillis)
+	{
+		Entry entry = this.obtainEntry(key);
+		synchronized(entry)
+		{
+			entry.args = (((long)arg1 << 32) | (arg2 & 0xFFFFFFFFL));
+			entry.obj = obj;
+			if(entry.isPending)
+				return true;
+			entry.isPending = true;
+			return this.post(entry, delayMillis);
+		}
+	}
+	
+	
+	/**
+	 * Set minimum interval between dispatches of given key.
+	 * @param key Key.
+	 * @param interval Minimum interval in milliseconds, 0 to disable rate limiting.
+	 */
+	public void setMinInterval(int key, long interval)
+	{
+		if(interval < 0)
+			throw new IllegalArgumentException("Invalid interval : " + interval);
+		this.obtainEntry(key).minInterval = interval;
+	}
+}
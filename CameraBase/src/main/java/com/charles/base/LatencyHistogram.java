@@ -0,0 +1,105 @@
+package com.charles.base;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-memory log-linear histogram of latencies in microseconds, each power of 2 range is divided into 16 linear buckets.
+ * Values should be recorded by single thread, but can be read by any thread. Histogram cannot be cleared, replace it with new instance instead.
+ */
+public final class LatencyHistogram
+{
+	// Constants
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_COUNT = (1 << SUB_BUCKET_BITS);
+	private static final int MAX_MSB = 36;
+	private static final int BUCKET_COUNT = ((MAX_MSB - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT);
+	
+	
+	// Private fields
+	private final AtomicIntegerArray m_Counts = new AtomicIntegerArray(BUCKET_COUNT);
+	private volatile long m_MaxValue;
+	private volatile long m_TotalCount;
+	
+	
+	// Get bucket index of given value.
+	private static int getBucketIndex(long value)
+	{
+		if(value < SUB_BUCKET_COUNT)
+			return (value > 0 ? (int)value : 0);
+		int msb = (63 - Long.numberOfLeadingZeros(value));
+		if(msb > MAX_MSB)
+			return (BUCKET_COUNT - 1);
+		return ((msb - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + (int)((value >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1)));
+	}
+	
+	
+	// Get upper bound (exclusive) of values in given bucket.
+	private static long getBucketUpperBound(int index)
+	{
+		if(index < SUB_BUCKET_COUNT)
+			return (index + 1);
+		int msb = (index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1);
+		long subBucket = (index % SUB_BUCKET_COUNT);
+		return ((SUB_BUCKET_COUNT + subBucket + 1) << (msb - SUB_BUCKET_BITS));
+	}
+	
+	
+	/**
+	 * Get maximum recorded value.
+	 * @return Maximum value in microseconds.
+	 */
+	public long getMaxValue()
+	{
+		return m_MaxValue;
+	}
+	
+	
+	/**
+	 * Get value at given percentile.
+	 * @param percentile Percentile, from 0 to 100.
+	 * @return Upper bound of value at given percentile in microseconds, or 0 if there is no recorded value.
+	 */
+	public long getPercentile(double percentile)
+	{
+		long totalCount = 0;
+		for(int i = 0 ; i < BUCKET_COUNT ; ++i)
+			totalCount += m_Counts.get(i);
+		if(totalCount <= 0)
+			return 0;
+		long targetCount = (long)Math.ceil(totalCount * Math.max(0, Math.min(100, percentile)) / 100);
+		if(targetCount <= 0)
+			targetCount = 1;
+		long count = 0;
+		for(int i = 0 ; i < BUCKET_COUNT ; ++i)
+		{
+			count += m_Counts.get(i);
+			if(count >= targetCount)
+				return Math.min(getBucketUpperBound(i) - 1, m_MaxValue);
+		}
+		return m_MaxValue;
+	}
+	
+	
+	/**
+	 * Get number of recorded values.
+	 * @return Number of values.
+	 */
+	public long getTotalCount()
+	{
+		return m_TotalCount;
+	}
+	
+	
+	/**
+	 * Record value, should be called by single thread.
+	 * @param value Value in microseconds.
+	 */
+	public void record(long value)
+	{
+		int index = getBucketIndex(value);
+		m_Counts.lazySet(index, m_Counts.get(index) + 1);
+		m_TotalCount = (m_TotalCount + 1);
+		if(value > m_MaxValue)
+			m_MaxValue = value;
+	}
+}
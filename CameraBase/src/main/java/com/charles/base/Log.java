@@ -5,11 +5,41 @@ package com.charles.base;
  */
 public final class Log
 {
+	/**
+	 * Whether debug logs are built or not, calls to print debug logs will be removed by compiler if this is False.
+	 */
+	public static final boolean BUILD_DEBUG_LOGS = true;
+	/**
+	 * Whether verbose logs are built or not, calls to print verbose logs will be removed by compiler if this is False.
+	 */
+	public static final boolean BUILD_VERBOSE_LOGS = true;
+	
+	
+	// Constants
+	private static final int MAX_BUFFER_CAPACITY = 4096;
+	
+	
 	// Private static fields
+	private static final ThreadLocal<FormatBuffer> m_Buffer = new ThreadLocal<FormatBuffer>()
+	{
+		@Override
+		protected FormatBuffer initialValue()
+		{
+			return new FormatBuffer();
+		}
+	};
 	private static volatile boolean m_PrintDebugLogs = true;
 	private static volatile boolean m_PrintVerboseLogs = true;
 	
 	
+	// Thread-local buffer to format message.
+	private static final class FormatBuffer
+	{
+		public StringBuilder builder = new StringBuilder(256);
+		public int depth;
+	}
+	
+	
 	// Constructor
 	private Log()
 	{}
@@ -22,11 +52,203 @@ public final class Log
 	 */
 	public static void d(String tag, String message)
 	{
-		if(m_PrintDebugLogs)
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
 			android.util.Log.d(tag, message);
 	}
 	
 	
+	/**
+	 * Print debug log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 */
+	public static void d(String tag, String message, boolean arg1)
+	{
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print debug log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 */
+	public static void d(String tag, String message, float arg1)
+	{
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print debug log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 */
+	public static void d(String tag, String message, int arg1)
+	{
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print debug log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 */
+	public static void d(String tag, String message, long arg1)
+	{
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print debug log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 * @param message2 2nd message append to message.
+	 * @param arg2 2nd value append to message.
+	 */
+	public static void d(String tag, String message, int arg1, String message2, int arg2)
+	{
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).append(message2).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print debug log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 * @param message2 2nd message append to message.
+	 * @param arg2 2nd value append to message.
+	 */
+	public static void d(String tag, String message, long arg1, String message2, long arg2)
+	{
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).append(message2).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print debug log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 * @param message2 2nd message append to message.
+	 * @param arg2 2nd object append to message.
+	 */
+	public static void d(String tag, String message, long arg1, String message2, Object arg2)
+	{
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).append(message2).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print debug log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 * @param message2 2nd message append to message.
+	 * @param arg2 2nd value append to message.
+	 */
+	public static void d(String tag, String message, long arg1, String message2, float arg2)
+	{
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).append(message2).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
 	/**
 	 * Print debug log.
 	 * @param tag Tag.
@@ -35,8 +257,18 @@ public final class Log
 	 */
 	public static void d(String tag, String message, Object arg1)
 	{
-		if(m_PrintDebugLogs)
-			android.util.Log.d(tag, message + arg1);
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -49,8 +281,18 @@ public final class Log
 	 */
 	public static void d(String tag, String message, Object arg1, Object arg2)
 	{
-		if(m_PrintDebugLogs)
-			android.util.Log.d(tag, message + arg1 + arg2 );
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -64,8 +306,18 @@ public final class Log
 	 */
 	public static void d(String tag, String message, Object arg1, Object arg2, Object arg3)
 	{
-		if(m_PrintDebugLogs)
-			android.util.Log.d(tag, message + arg1 + arg2 + arg3);
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).append(arg2).append(arg3).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -80,8 +332,18 @@ public final class Log
 	 */
 	public static void d(String tag, String message, Object arg1, Object arg2, Object arg3, Object arg4)
 	{
-		if(m_PrintDebugLogs)
-			android.util.Log.d(tag, message + arg1 + arg2 + arg3 + arg4);
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).append(arg2).append(arg3).append(arg4).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -97,8 +359,18 @@ public final class Log
 	 */
 	public static void d(String tag, String message, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5)
 	{
-		if(m_PrintDebugLogs)
-			android.util.Log.d(tag, message + arg1 + arg2 + arg3 + arg4 + arg5);
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.d(tag, buffer.append(arg1).append(arg2).append(arg3).append(arg4).append(arg5).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -110,12 +382,19 @@ public final class Log
 	 */
 	public static void d(String tag, String message, Object... args)
 	{
-		if(m_PrintDebugLogs)
+		if(BUILD_DEBUG_LOGS && m_PrintDebugLogs)
 		{
-			StringBuilder buffer = new StringBuilder(message);
-			for(int i = 0 ; i < args.length ; ++i)
-				buffer.append(args[i]);
-			android.util.Log.d(tag, buffer.toString());
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				for(int i = 0 ; i < args.length ; ++i)
+					buffer.append(args[i]);
+				android.util.Log.d(tag, buffer.toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
 		}
 	}
 	
@@ -215,6 +494,44 @@ public final class Log
 	}
 	
 	
+	/**
+	 * Check whether debug logs will be printed or not.
+	 * @return Whether debug logs will be printed or not.
+	 */
+	public static boolean isDebugLogsEnabled()
+	{
+		return (BUILD_DEBUG_LOGS && m_PrintDebugLogs);
+	}
+	
+	
+	/**
+	 * Check whether verbose logs will be printed or not.
+	 * @return Whether verbose logs will be printed or not.
+	 */
+	public static boolean isVerboseLogsEnabled()
+	{
+		return (BUILD_VERBOSE_LOGS && m_PrintVerboseLogs);
+	}
+	
+	
+	// Get thread-local buffer to format message, or new buffer if toString() of object being formatted prints log.
+	private static StringBuilder obtainBuffer(String message)
+	{
+		FormatBuffer buffer = m_Buffer.get();
+		if(buffer.depth++ > 0)
+			return new StringBuilder(256).append(message);
+		StringBuilder builder = buffer.builder;
+		if(builder.capacity() > MAX_BUFFER_CAPACITY)
+		{
+			builder = new StringBuilder(256);
+			buffer.builder = builder;
+		}
+		else
+			builder.setLength(0);
+		return builder.append(message);
+	}
+	
+	
 	/**
 	 * Print stack trace of current thread.
 	 * @param tag Log tag.
@@ -247,6 +564,13 @@ public final class Log
 	}
 	
 	
+	// Return buffer obtained by obtainBuffer(), must be called in finally block so buffer is returned even if toString() of object being formatted throws exception.
+	private static void releaseBuffer()
+	{
+		--m_Buffer.get().depth;
+	}
+	
+	
 	/**
 	 * Print verbose log.
 	 * @param tag Tag.
@@ -254,11 +578,203 @@ public final class Log
 	 */
 	public static void v(String tag, String message)
 	{
-		if(m_PrintVerboseLogs)
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
 			android.util.Log.v(tag, message);
 	}
 	
 	
+	/**
+	 * Print verbose log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 */
+	public static void v(String tag, String message, boolean arg1)
+	{
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print verbose log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 */
+	public static void v(String tag, String message, float arg1)
+	{
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print verbose log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 */
+	public static void v(String tag, String message, int arg1)
+	{
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print verbose log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 */
+	public static void v(String tag, String message, long arg1)
+	{
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print verbose log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 * @param message2 2nd message append to message.
+	 * @param arg2 2nd value append to message.
+	 */
+	public static void v(String tag, String message, int arg1, String message2, int arg2)
+	{
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).append(message2).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print verbose log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 * @param message2 2nd message append to message.
+	 * @param arg2 2nd value append to message.
+	 */
+	public static void v(String tag, String message, long arg1, String message2, long arg2)
+	{
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).append(message2).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print verbose log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 * @param message2 2nd message append to message.
+	 * @param arg2 2nd object append to message.
+	 */
+	public static void v(String tag, String message, long arg1, String message2, Object arg2)
+	{
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).append(message2).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print verbose log.
+	 * @param tag Tag.
+	 * @param message Message.
+	 * @param arg1 1st value append to message.
+	 * @param message2 2nd message append to message.
+	 * @param arg2 2nd value append to message.
+	 */
+	public static void v(String tag, String message, long arg1, String message2, float arg2)
+	{
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).append(message2).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
+	}
+	
+	
 	/**
 	 * Print verbose log.
 	 * @param tag Tag.
@@ -267,8 +783,18 @@ public final class Log
 	 */
 	public static void v(String tag, String message, Object arg1)
 	{
-		if(m_PrintVerboseLogs)
-			android.util.Log.v(tag, message + arg1);
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -281,8 +807,18 @@ public final class Log
 	 */
 	public static void v(String tag, String message, Object arg1, Object arg2)
 	{
-		if(m_PrintVerboseLogs)
-			android.util.Log.v(tag, message + arg1 + arg2 );
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).append(arg2).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -296,8 +832,18 @@ public final class Log
 	 */
 	public static void v(String tag, String message, Object arg1, Object arg2, Object arg3)
 	{
-		if(m_PrintVerboseLogs)
-			android.util.Log.v(tag, message + arg1 + arg2 + arg3);
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).append(arg2).append(arg3).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -312,8 +858,18 @@ public final class Log
 	 */
 	public static void v(String tag, String message, Object arg1, Object arg2, Object arg3, Object arg4)
 	{
-		if(m_PrintVerboseLogs)
-			android.util.Log.v(tag, message + arg1 + arg2 + arg3 + arg4);
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).append(arg2).append(arg3).append(arg4).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -329,8 +885,18 @@ public final class Log
 	 */
 	public static void v(String tag, String message, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5)
 	{
-		if(m_PrintVerboseLogs)
-			android.util.Log.v(tag, message + arg1 + arg2 + arg3 + arg4 + arg5);
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
+		{
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				android.util.Log.v(tag, buffer.append(arg1).append(arg2).append(arg3).append(arg4).append(arg5).toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
+		}
 	}
 	
 	
@@ -342,12 +908,19 @@ public final class Log
 	 */
 	public static void v(String tag, String message, Object... args)
 	{
-		if(m_PrintVerboseLogs)
+		if(BUILD_VERBOSE_LOGS && m_PrintVerboseLogs)
 		{
-			StringBuilder buffer = new StringBuilder(message);
-			for(int i = 0 ; i < args.length ; ++i)
-				buffer.append(args[i]);
-			android.util.Log.v(tag, buffer.toString());
+			StringBuilder buffer = obtainBuffer(message);
+			try
+			{
+				for(int i = 0 ; i < args.length ; ++i)
+					buffer.append(args[i]);
+				android.util.Log.v(tag, buffer.toString());
+			}
+			finally
+			{
+				releaseBuffer();
+			}
 		}
 	}
 	
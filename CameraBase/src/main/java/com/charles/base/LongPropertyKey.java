@@ -0,0 +1,97 @@
+package com.charles.base;
+
+/**
+ * Key to represent a property with {@code long} value which can be accessed without boxing.
+ */
+public final class LongPropertyKey extends PrimitivePropertyKey<Long>
+{
+	/**
+	 * Default property value.
+	 */
+	public final long defaultLongValue;
+	
+	
+	/**
+	 * Initialize new LongPropertyKey instance with {@link #FLAG_NOT_NULL FLAG_NOT_NULL} | {@link #FLAG_READONLY FLAG_READONLY} flags.
+	 * @param name Property name.
+	 * @param ownerType Type of object owns this property.
+	 * @param defaultValue Default property value.
+	 */
+	public LongPropertyKey(String name, Class<? extends PropertySource> ownerType, long defaultValue)
+	{
+		this(name, ownerType, FLAG_NOT_NULL | FLAG_READONLY, defaultValue);
+	}
+	
+	
+	/**
+	 * Initialize new LongPropertyKey instance.
+	 * @param name Property name.
+	 * @param ownerType Type of object owns this property.
+	 * @param flags Property flags, {@link #FLAG_NOT_NULL FLAG_NOT_NULL} is always applied:
+	 * <ul>
+	 *   <li>{@link #FLAG_READONLY FLAG_READONLY}</li>
+	 * </ul>
+	 * @param defaultValue Default property value.
+	 */
+	public LongPropertyKey(String name, Class<? extends PropertySource> ownerType, int flags, long defaultValue)
+	{
+		super(name, Long.class, ownerType, (flags | FLAG_NOT_NULL), defaultValue, toBits(defaultValue));
+		this.defaultLongValue = defaultValue;
+	}
+	
+	
+	// Call primitive call-back.
+	@Override
+	void callPrimitiveCallback(Object callback, PropertySource source, long oldBits, long newBits)
+	{
+		((LongPropertyChangedCallback)callback).onPropertyChanged(source, this, oldBits, newBits);
+	}
+	
+	
+	// Convert from raw bits to boxed value.
+	@Override
+	Long fromBits(long bits)
+	{
+		return bits;
+	}
+	
+	
+	// Get raw bits of current value.
+	@Override
+	long getBits(PropertySource source)
+	{
+		return source.getLong(this);
+	}
+	
+	
+	// Convert from boxed value to raw bits.
+	@Override
+	long toBits(Object value)
+	{
+		if(value == null)
+			throw new IllegalArgumentException("Property " + this + " cannot be null.");
+		return (Long)value;
+	}
+	
+	
+	/**
+	 * Convert from {@code long} value to raw bits.
+	 * @param value Value.
+	 * @return Raw bits.
+	 */
+	static long toBits(long value)
+	{
+		return value;
+	}
+	
+	
+	/**
+	 * Convert from raw bits to {@code long} value.
+	 * @param bits Raw bits.
+	 * @return Value.
+	 */
+	static long toLong(long bits)
+	{
+		return bits;
+	}
+}
@@ -0,0 +1,353 @@
+package com.charles.base;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free mailbox to mirror property changes and events from one producer thread to one consumer thread.
+ * Property changes and events are delivered in single stream with the same order as they were put. Changes of coalesced properties are merged into single slot which keeps the first old value and the latest new value, and is delivered at position of its first pending change. Other property changes, including state machine properties, are delivered one by one.
+ * Entries are queued into bounded ring of reusable entries. When ring is full, new entry is dropped and counted, pending change of coalesced property is still merged.
+ */
+public abstract class MirrorMailbox
+{
+	/**
+	 * Default capacity of ring.
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+	
+	
+	// Constants
+	private static final Object NO_CHANGE = new Object();
+	private static final int NO_SLOT = -1;
+	private static final String TAG = "MirrorMailbox";
+	
+	
+	// Private fields
+	private int m_BatchCounter;
+	private volatile long m_CoalescedPropertyCount;
+	private final HashMap<PropertyKey<?>, Integer> m_CoalescedPropertyIndices = new HashMap<>();
+	private final PropertyKey<?>[] m_CoalescedPropertyKeys;
+	private final Object[] m_CoalescedPropertyOldValues;
+	private final AtomicReferenceArray<Object> m_CoalescedPropertyValues;
+	private volatile long m_DrainCount;
+	private volatile long m_DroppedEntryCount;
+	private final Object[] m_EntryKeys;
+	private final Object[] m_EntryOldValues;
+	private final int[] m_EntrySlots;
+	private final Object[] m_EntryValues;
+	private boolean m_IsBatchDrainNeeded;
+	private final AtomicBoolean m_IsDrainRequested = new AtomicBoolean();
+	private volatile long m_ReadIndex;
+	private final Receiver m_Receiver;
+	private long m_ReportedDroppedEntryCount;
+	private final int m_RingMask;
+	private volatile long m_SkippedPropertyCount;
+	private volatile long m_WriteIndex;
+	
+	
+	/**
+	 * Receiver of mirrored changes, called in consumer thread.
+	 */
+	public interface Receiver
+	{
+		/**
+		 * Called when receiving event.
+		 * @param key Event key.
+		 * @param e Event data.
+		 */
+		void onEventReceived(EventKey<?> key, EventArgs e);
+		
+		/**
+		 * Called when receiving property change.
+		 * @param key Property key.
+		 * @param e Event data.
+		 */
+		void onPropertyChanged(PropertyKey<?> key, PropertyChangeEventArgs<?> e);
+	}
+	
+	
+	/**
+	 * Initialize new MirrorMailbox instance.
+	 * @param coalescedPropertyKeys Keys of properties whose pending changes can be merged. Never put state machine properties here since intermediate states will be lost.
+	 * @param capacity Capacity of ring, will be rounded up to power of 2.
+	 * @param receiver Receiver of mirrored changes.
+	 */
+	protected MirrorMailbox(List<PropertyKey<?>> coalescedPropertyKeys, int capacity, Receiver receiver)
+	{
+		if(receiver == null)
+			throw new IllegalArgumentException("No receiver");
+		if(capacity <= 0)
+			throw new IllegalArgumentException("Invalid capacity : " + capacity);
+		int ringSize = 1;
+		while(ringSize < capacity)
+			ringSize <<= 1;
+		m_EntryKeys = new Object[ringSize];
+		m_EntryOldValues = new Object[ringSize];
+		m_EntrySlots = new int[ringSize];
+		m_EntryValues = new Object[ringSize];
+		m_RingMask = (ringSize - 1);
+		m_CoalescedPropertyKeys = coalescedPropertyKeys.toArray(new PropertyKey<?>[coalescedPropertyKeys.size()]);
+		for(int i = 0 ; i < m_CoalescedPropertyKeys.length ; ++i)
+			m_CoalescedPropertyIndices.put(m_CoalescedPropertyKeys[i], i);
+		m_CoalescedPropertyOldValues = new Object[m_CoalescedPropertyKeys.length];
+		m_CoalescedPropertyValues = new AtomicReferenceArray<>(m_CoalescedPropertyKeys.length);
+		for(int i = 0 ; i < m_CoalescedPropertyKeys.length ; ++i)
+			m_CoalescedPropertyValues.set(i, NO_CHANGE);
+		m_Receiver = receiver;
+	}
+	
+	
+	/**
+	 * Start batch, drain will not be requested until batch ends. Should be called in producer thread.
+	 */
+	public final void beginBatch()
+	{
+		++m_BatchCounter;
+	}
+	
+	
+	// Deliver single entry.
+	private int deliver(Object key, Object oldValue, Object value, int slot)
+	{
+		// deliver event
+		if(key instanceof EventKey<?>)
+		{
+			m_Receiver.onEventReceived((EventKey<?>)key, (EventArgs)value);
+			return 1;
+		}
+		
+		// take coalesced property change, old value is changed by producer only after slot is emptied
+		if(slot != NO_SLOT)
+		{
+			oldValue = m_CoalescedPropertyOldValues[slot];
+			m_CoalescedPropertyOldValues[slot] = null;
+			do
+			{
+				value = m_CoalescedPropertyValues.get(slot);
+				if(value == NO_CHANGE)
+					return 0;
+			}
+			while(!m_CoalescedPropertyValues.compareAndSet(slot, value, NO_CHANGE));
+			if(oldValue == null ? value == null : oldValue.equals(value))
+			{
+				++m_SkippedPropertyCount;
+				return 0;
+			}
+		}
+		
+		// deliver property change
+		PropertyChangeEventArgs<?> e = PropertyChangeEventArgs.obtain(oldValue, value);
+		try
+		{
+			m_Receiver.onPropertyChanged((PropertyKey<?>)key, e);
+		}
+		finally
+		{
+			e.recycle();
+		}
+		return 1;
+	}
+	
+	
+	/**
+	 * Deliver all pending property changes and events to receiver, should be called in consumer thread.
+	 * @return Number of delivered property changes and events.
+	 */
+	public final int drain()
+	{
+		// clear request first so changes put during drain will request another one
+		m_IsDrainRequested.set(false);
+		++m_DrainCount;
+		int count = 0;
+		
+		// report dropped entries
+		long droppedEntryCount = m_DroppedEntryCount;
+		if(droppedEntryCount > m_ReportedDroppedEntryCount)
+			Log.w(TAG, "drain() - " + (droppedEntryCount - m_ReportedDroppedEntryCount) + " entries dropped because ring is full");
+		m_ReportedDroppedEntryCount = droppedEntryCount;
+		
+		// deliver entries in order, entry is released to producer before delivering
+		long readIndex = m_ReadIndex;
+		while(readIndex < m_WriteIndex)
+		{
+			int index = (int)(readIndex & m_RingMask);
+			Object key = m_EntryKeys[index];
+			Object oldValue = m_EntryOldValues[index];
+			Object value = m_EntryValues[index];
+			int slot = m_EntrySlots[index];
+			m_EntryKeys[index] = null;
+			m_EntryOldValues[index] = null;
+			m_EntryValues[index] = null;
+			m_ReadIndex = ++readIndex;
+			count += this.deliver(key, oldValue, value, slot);
+		}
+		return count;
+	}
+	
+	
+	/**
+	 * End batch started by {@link #beginBatch()}, should be called in producer thread.
+	 */
+	public final void endBatch()
+	{
+		if(m_BatchCounter <= 0)
+			return;
+		if(--m_BatchCounter == 0 && m_IsBatchDrainNeeded)
+		{
+			m_IsBatchDrainNeeded = false;
+			this.requestDrain();
+		}
+	}
+	
+	
+	// Put entry into ring, return False if ring is full.
+	private boolean enqueue(Object key, Object oldValue, Object value, int slot)
+	{
+		// put into ring
+		long writeIndex = m_WriteIndex;
+		if(writeIndex - m_ReadIndex >= m_EntryKeys.length)
+		{
+			++m_DroppedEntryCount;
+			return false;
+		}
+		int index = (int)(writeIndex & m_RingMask);
+		m_EntryKeys[index] = key;
+		m_EntryOldValues[index] = oldValue;
+		m_EntryValues[index] = value;
+		m_EntrySlots[index] = slot;
+		m_WriteIndex = (writeIndex + 1);
+		
+		// request drain
+		this.requestDrain();
+		return true;
+	}
+	
+	
+	/**
+	 * Get number of property changes which were merged into pending ones.
+	 * @return Number of coalesced property changes.
+	 */
+	public final long getCoalescedPropertyCount()
+	{
+		return m_CoalescedPropertyCount;
+	}
+	
+	
+	/**
+	 * Get number of performed drains.
+	 * @return Number of drains.
+	 */
+	public final long getDrainCount()
+	{
+		return m_DrainCount;
+	}
+	
+	
+	/**
+	 * Get number of property changes and events which were dropped because ring is full. Can be called in any thread.
+	 * @return Number of dropped entries.
+	 */
+	public final long getDroppedEntryCount()
+	{
+		return m_DroppedEntryCount;
+	}
+	
+	
+	/**
+	 * Get number of coalesced property changes which were not delivered because new value equals to old value.
+	 * @return Number of skipped property changes.
+	 */
+	public final long getSkippedPropertyCount()
+	{
+		return m_SkippedPropertyCount;
+	}
+	
+	
+	/**
+	 * Called when drain is needed, implementation should call {@link #drain()} in consumer thread later. Only one request will be made until next drain starts.
+	 */
+	protected abstract void onDrainRequested();
+	
+	
+	/**
+	 * Put event, should be called in producer thread.
+	 * @param key Event key.
+	 * @param e Event data, will be cloned.
+	 * @return Whether event is queued or not, False if event is dropped because ring is full.
+	 */
+	public final boolean putEvent(EventKey<?> key, EventArgs e)
+	{
+		DispatchStatistics.recordCrossThreadHop(key);
+		
+		// drop before cloning event data
+		if(m_WriteIndex - m_ReadIndex >= m_EntryKeys.length)
+		{
+			++m_DroppedEntryCount;
+			return false;
+		}
+		return this.enqueue(key, null, e.clone(), NO_SLOT);
+	}
+	
+	
+	/**
+	 * Put property change, should be called in producer thread.
+	 * @param key Property key.
+	 * @param oldValue Old property value.
+	 * @param newValue New property value.
+	 * @return Whether property change is queued or merged into pending change, False if change is dropped because ring is full.
+	 */
+	public final boolean putProperty(PropertyKey<?> key, Object oldValue, Object newValue)
+	{
+		// put change directly
+		DispatchStatistics.recordCrossThreadHop(key);
+		Integer index = m_CoalescedPropertyIndices.get(key);
+		if(index == null)
+			return this.enqueue(key, oldValue, newValue, NO_SLOT);
+		
+		// merge into pending change, fail only if consumer takes it at the same time
+		int slot = index;
+		Object pendingValue = m_CoalescedPropertyValues.get(slot);
+		if(pendingValue != NO_CHANGE && m_CoalescedPropertyValues.compareAndSet(slot, pendingValue, newValue))
+		{
+			++m_CoalescedPropertyCount;
+			return true;
+		}
+		
+		// queue slot, each slot is queued at most once until consumer takes it, only producer fills empty slot
+		if(m_WriteIndex - m_ReadIndex >= m_EntryKeys.length)
+		{
+			++m_DroppedEntryCount;
+			return false;
+		}
+		m_CoalescedPropertyOldValues[slot] = oldValue;
+		m_CoalescedPropertyValues.set(slot, newValue);
+		return this.enqueue(key, null, null, slot);
+	}
+	
+	
+	// Request drain if needed.
+	private void requestDrain()
+	{
+		if(m_BatchCounter > 0)
+		{
+			m_IsBatchDrainNeeded = true;
+			return;
+		}
+		if(m_IsDrainRequested.compareAndSet(false, true))
+			this.onDrainRequested();
+	}
+	
+	
+	/**
+	 * Reset statistics.
+	 */
+	public final void resetStatistics()
+	{
+		m_CoalescedPropertyCount = 0;
+		m_DrainCount = 0;
+		m_DroppedEntryCount = 0;
+		m_SkippedPropertyCount = 0;
+	}
+}
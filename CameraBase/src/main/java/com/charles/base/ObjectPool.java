@@ -0,0 +1,427 @@
+package com.charles.base;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pool of {@link RecyclableObject} with thread-local stage for fast path and shared stage for objects overflowed from thread-local stages.
+ * Thread-local stage of terminated thread is removed when another thread starts using the pool, its objects are moved to shared stage and its statistics are kept.
+ * In debug mode, pool records where each object is recycled to report double recycling and accessing recycled objects.
+ * @param <T> Type of pooled object.
+ */
+public abstract class ObjectPool<T extends RecyclableObject>
+{
+	/**
+	 * Default capacity of thread-local stage.
+	 */
+	public static final int DEFAULT_LOCAL_CAPACITY = 8;
+	
+	
+	// Private static fields
+	private static volatile boolean m_IsDebugMode;
+	private static final List<ObjectPool<?>> m_Pools = new CopyOnWriteArrayList<>();
+	
+	
+	// Private fields
+	private final int m_Capacity;
+	private final int m_LocalCapacity;
+	private final ThreadLocal<LocalStage> m_LocalStage = new ThreadLocal<LocalStage>()
+	{
+		@Override
+		protected LocalStage initialValue()
+		{
+			LocalStage stage = new LocalStage(m_LocalCapacity, Thread.currentThread());
+			removeTerminatedLocalStages();
+			m_LocalStages.add(stage);
+			return stage;
+		}
+	};
+	private final List<LocalStage> m_LocalStages = new CopyOnWriteArrayList<>();
+	private final String m_Name;
+	private final Map<Object, Throwable> m_RecycleSites = new WeakHashMap<>();
+	private final LocalStage m_RemovedLocalStage = new LocalStage(0, null);
+	private final ArrayDeque<T> m_SharedStage;
+	
+	
+	// Thread-local stage, counters are written by owner thread only, or by thread which removes stages of terminated threads if there is no owner.
+	private static final class LocalStage
+	{
+		public volatile long createCount;
+		public int count;
+		public volatile long dropCount;
+		public volatile long localHitCount;
+		public final Object[] objects;
+		public volatile long obtainCount;
+		public final WeakReference<Thread> owner;
+		public volatile long sharedHitCount;
+		
+		public LocalStage(int capacity, Thread owner)
+		{
+			this.objects = new Object[capacity];
+			this.owner = (owner != null ? new WeakReference<>(owner) : null);
+		}
+		
+		public boolean isTerminated()
+		{
+			if(this.owner == null)
+				return false;
+			Thread thread = this.owner.get();
+			return (thread == null || !thread.isAlive());
+		}
+	}
+	
+	
+	/**
+	 * Initialize new ObjectPool instance with default thread-local stage capacity.
+	 * @param name Pool name.
+	 * @param capacity Capacity of shared stage.
+	 */
+	protected ObjectPool(String name, int capacity)
+	{
+		this(name, capacity, Math.min(capacity, DEFAULT_LOCAL_CAPACITY));
+	}
+	
+	
+	/**
+	 * Initialize new ObjectPool instance.
+	 * @param name Pool name.
+	 * @param capacity Capacity of shared stage.
+	 * @param localCapacity Capacity of thread-local stage for each thread.
+	 */
+	protected ObjectPool(String name, int capacity, int localCapacity)
+	{
+		if(capacity < 0)
+			throw new IllegalArgumentException("Invalid capacity : " + capacity);
+		if(localCapacity < 0)
+			throw new IllegalArgumentException("Invalid local capacity : " + localCapacity);
+		m_Name = name;
+		m_Capacity = capacity;
+		m_LocalCapacity = localCapacity;
+		m_SharedStage = new ArrayDeque<>(Math.max(1, capacity));
+		m_LocalStages.add(m_RemovedLocalStage);
+		m_Pools.add(this);
+	}
+	
+	
+	/**
+	 * Create new object when there is no object in pool.
+	 * @return New object.
+	 */
+	protected abstract T create();
+	
+	
+	/**
+	 * Get capacity of shared stage.
+	 * @return Capacity.
+	 */
+	public final int getCapacity()
+	{
+		return m_Capacity;
+	}
+	
+	
+	/**
+	 * Get number of objects created because pool is empty.
+	 * @return Number of created objects.
+	 */
+	public final long getCreateCount()
+	{
+		long count = 0;
+		for(LocalStage stage : m_LocalStages)
+			count += stage.createCount;
+		return count;
+	}
+	
+	
+	/**
+	 * Get number of recycled objects which are dropped because pool is full.
+	 * @return Number of dropped objects.
+	 */
+	public final long getDropCount()
+	{
+		long count = 0;
+		for(LocalStage stage : m_LocalStages)
+			count += stage.dropCount;
+		return count;
+	}
+	
+	
+	/**
+	 * Get number of objects obtained from pool instead of creating new one.
+	 * @return Number of hits.
+	 */
+	public final long getHitCount()
+	{
+		long count = 0;
+		for(LocalStage stage : m_LocalStages)
+			count += (stage.localHitCount + stage.sharedHitCount);
+		return count;
+	}
+	
+	
+	/**
+	 * Get ratio of obtained objects which are taken from pool.
+	 * @return Hit rate from 0 to 1, or 0 if no object is obtained.
+	 */
+	public final double getHitRate()
+	{
+		long obtainCount = this.getObtainCount();
+		if(obtainCount <= 0)
+			return 0;
+		return ((double)this.getHitCount() / obtainCount);
+	}
+	
+	
+	/**
+	 * Get number of objects obtained from thread-local stage.
+	 * @return Number of hits on thread-local stage.
+	 */
+	public final long getLocalHitCount()
+	{
+		long count = 0;
+		for(LocalStage stage : m_LocalStages)
+			count += stage.localHitCount;
+		return count;
+	}
+	
+	
+	/**
+	 * Get pool name.
+	 * @return Pool name.
+	 */
+	public final String getName()
+	{
+		return m_Name;
+	}
+	
+	
+	/**
+	 * Get number of calls to {@link #obtain()}.
+	 * @return Number of obtained objects.
+	 */
+	public final long getObtainCount()
+	{
+		long count = 0;
+		for(LocalStage stage : m_LocalStages)
+			count += stage.obtainCount;
+		return count;
+	}
+	
+	
+	/**
+	 * Get all created pools.
+	 * @return List of pools.
+	 */
+	public static List<ObjectPool<?>> getPools()
+	{
+		return new ArrayList<>(m_Pools);
+	}
+	
+	
+	/**
+	 * Check whether debug mode is enabled or not.
+	 * @return Whether debug mode is enabled or not.
+	 */
+	public static boolean isDebugMode()
+	{
+		return m_IsDebugMode;
+	}
+	
+	
+	// Create exception with site where object was recycled.
+	private IllegalStateException newRecycledObjectException(String message, Object obj)
+	{
+		Throwable recycleSite;
+		synchronized(m_RecycleSites)
+		{
+			recycleSite = m_RecycleSites.get(obj);
+		}
+		return new IllegalStateException(message + " : " + obj, recycleSite);
+	}
+	
+	
+	/**
+	 * Obtain object from pool, or create new one if pool is empty.
+	 * @return Object.
+	 */
+	@SuppressWarnings("unchecked")
+	public final T obtain()
+	{
+		// obtain from thread-local stage
+		LocalStage stage = m_LocalStage.get();
+		++stage.obtainCount;
+		T obj = null;
+		if(stage.count > 0)
+		{
+			obj = (T)stage.objects[--stage.count];
+			stage.objects[stage.count] = null;
+			++stage.localHitCount;
+		}
+		
+		// obtain from shared stage
+		if(obj == null)
+		{
+			synchronized(m_SharedStage)
+			{
+				obj = m_SharedStage.pollLast();
+			}
+			if(obj != null)
+				++stage.sharedHitCount;
+			else
+			{
+				++stage.createCount;
+				return this.create();
+			}
+		}
+		
+		// clear recycle site
+		if(m_IsDebugMode)
+		{
+			synchronized(m_RecycleSites)
+			{
+				m_RecycleSites.remove(obj);
+			}
+		}
+		return obj;
+	}
+	
+	
+	/**
+	 * Put recycled object back to pool, object will be dropped if pool is full.
+	 * @param obj Recycled object.
+	 */
+	public final void release(T obj)
+	{
+		// check state
+		if(obj == null)
+			return;
+		if(m_IsDebugMode)
+		{
+			synchronized(m_RecycleSites)
+			{
+				if(m_RecycleSites.containsKey(obj))
+					throw this.newRecycledObjectException("Object is recycled twice", obj);
+				m_RecycleSites.put(obj, new Throwable("Recycled by " + Thread.currentThread().getName()));
+			}
+		}
+		
+		// put to thread-local stage
+		LocalStage stage = m_LocalStage.get();
+		if(stage.count < stage.objects.length)
+		{
+			stage.objects[stage.count++] = obj;
+			return;
+		}
+		
+		// put to shared stage
+		synchronized(m_SharedStage)
+		{
+			if(m_SharedStage.size() < m_Capacity)
+			{
+				m_SharedStage.addLast(obj);
+				return;
+			}
+		}
+		++stage.dropCount;
+	}
+	
+	
+	// Remove thread-local stages of terminated threads, move their objects to shared stage and keep their statistics.
+	@SuppressWarnings("unchecked")
+	private void removeTerminatedLocalStages()
+	{
+		synchronized(m_RemovedLocalStage)
+		{
+			for(LocalStage stage : m_LocalStages)
+			{
+				// check owner
+				if(!stage.isTerminated())
+					continue;
+				m_LocalStages.remove(stage);
+				
+				// move objects to shared stage
+				long dropCount = 0;
+				synchronized(m_SharedStage)
+				{
+					for(int i = stage.count - 1 ; i >= 0 ; --i)
+					{
+						if(m_SharedStage.size() < m_Capacity)
+							m_SharedStage.addLast((T)stage.objects[i]);
+						else
+							++dropCount;
+						stage.objects[i] = null;
+					}
+					stage.count = 0;
+				}
+				
+				// keep statistics
+				m_RemovedLocalStage.createCount += stage.createCount;
+				m_RemovedLocalStage.dropCount += (stage.dropCount + dropCount);
+				m_RemovedLocalStage.localHitCount += stage.localHitCount;
+				m_RemovedLocalStage.obtainCount += stage.obtainCount;
+				m_RemovedLocalStage.sharedHitCount += stage.sharedHitCount;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Report that recycled object is recycled again, {@link IllegalStateException} will be thrown in debug mode.
+	 * @param obj Recycled object.
+	 */
+	public final void reportDoubleRecycle(T obj)
+	{
+		if(m_IsDebugMode)
+			throw this.newRecycledObjectException("Object is recycled twice", obj);
+	}
+	
+	
+	/**
+	 * Report that recycled object is accessed, {@link IllegalStateException} will be thrown in debug mode.
+	 * @param obj Recycled object.
+	 */
+	public final void reportUseAfterRecycle(T obj)
+	{
+		if(m_IsDebugMode)
+			throw this.newRecycledObjectException("Access recycled object", obj);
+	}
+	
+	
+	/**
+	 * Reset all statistics of this pool.
+	 */
+	public final void resetStatistics()
+	{
+		for(LocalStage stage : m_LocalStages)
+		{
+			stage.createCount = 0;
+			stage.dropCount = 0;
+			stage.localHitCount = 0;
+			stage.obtainCount = 0;
+			stage.sharedHitCount = 0;
+		}
+	}
+	
+	
+	/**
+	 * Enable or disable debug mode for all pools.
+	 * @param isDebugMode Whether debug mode is enabled or not.
+	 */
+	public static void setDebugMode(boolean isDebugMode)
+	{
+		m_IsDebugMode = isDebugMode;
+	}
+	
+	
+	// Get string represents this pool.
+	@Override
+	public String toString()
+	{
+		return String.format("%s [obtain: %d, hit: %.1f%%, local hit: %d, create: %d, drop: %d]", m_Name, this.getObtainCount(), this.getHitRate() * 100, this.getLocalHitCount(), this.getCreateCount(), this.getDropCount());
+	}
+}
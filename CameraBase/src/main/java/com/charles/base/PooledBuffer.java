@@ -0,0 +1,126 @@
+package com.charles.base;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference-counted lease of byte array obtained from {@link BufferPool}.
+ * Buffer is created with one reference, each consumer which keeps buffer should call {@link #retain()} and {@link #release()} when it finishes using buffer, and array is returned to pool when the last reference is released.
+ */
+public final class PooledBuffer
+{
+	// Private fields
+	private final byte[] m_Data;
+	private final BufferPool.LeakTracker m_LeakTracker;
+	private volatile int m_Length;
+	private final BufferPool m_Pool;
+	private final AtomicInteger m_ReferenceCount = new AtomicInteger(1);
+	
+	
+	// Constructor
+	PooledBuffer(BufferPool pool, byte[] data, int length)
+	{
+		m_Pool = pool;
+		m_Data = data;
+		m_Length = length;
+		m_LeakTracker = BufferPool.trackLeak(pool, this, data);
+	}
+	
+	
+	/**
+	 * Get capacity of buffer.
+	 * @return Capacity in bytes, may be larger than requested size.
+	 */
+	public int getCapacity()
+	{
+		return m_Data.length;
+	}
+	
+	
+	/**
+	 * Get underlying array, only first {@link #getLength()} bytes are valid.
+	 * @return Array.
+	 */
+	public byte[] getData()
+	{
+		if(m_ReferenceCount.get() <= 0)
+			throw new IllegalStateException("Buffer is already released");
+		return m_Data;
+	}
+	
+	
+	/**
+	 * Get length of valid data.
+	 * @return Length in bytes.
+	 */
+	public int getLength()
+	{
+		return m_Length;
+	}
+	
+	
+	/**
+	 * Get number of references.
+	 * @return Number of references, 0 if buffer is released.
+	 */
+	public int getReferenceCount()
+	{
+		return m_ReferenceCount.get();
+	}
+	
+	
+	/**
+	 * Release one reference, array is returned to pool when the last reference is released.
+	 * @return Whether buffer is still referenced by others or not.
+	 */
+	public boolean release()
+	{
+		int count = m_ReferenceCount.decrementAndGet();
+		if(count > 0)
+			return true;
+		if(count < 0)
+		{
+			m_ReferenceCount.incrementAndGet();
+			Log.e(m_Pool.getName(), "release() - Buffer is released too many times", new IllegalStateException());
+			return false;
+		}
+		m_Pool.recycle(m_Data, m_LeakTracker);
+		return false;
+	}
+	
+	
+	/**
+	 * Add one reference.
+	 * @return This buffer.
+	 */
+	public PooledBuffer retain()
+	{
+		while(true)
+		{
+			int count = m_ReferenceCount.get();
+			if(count <= 0)
+				throw new IllegalStateException("Buffer is already released");
+			if(m_ReferenceCount.compareAndSet(count, count + 1))
+				return this;
+		}
+	}
+	
+	
+	/**
+	 * Set length of valid data.
+	 * @param length Length in bytes.
+	 */
+	public void setLength(int length)
+	{
+		if(length < 0 || length > m_Data.length)
+			throw new IllegalArgumentException("Invalid length : " + length);
+		m_Length = length;
+	}
+	
+	
+	// Get string represents this buffer.
+	@Override
+	public String toString()
+	{
+		return "PooledBuffer(" + m_Length + "/" + m_Data.length + ")";
+	}
+}
@@ -0,0 +1,56 @@
+package com.charles.base;
+
+/**
+ * Base class of keys to represent properties whose values are stored as raw bits and can be accessed without boxing.
+ * Only {@link BooleanPropertyKey}, {@link FloatPropertyKey}, {@link IntPropertyKey} and {@link LongPropertyKey} are available.
+ * @param <TValue> Type of boxed property value.
+ */
+public abstract class PrimitivePropertyKey<TValue> extends PropertyKey<TValue>
+{
+	/**
+	 * Raw bits of default value.
+	 */
+	final long defaultBits;
+	
+	
+	// Constructor.
+	PrimitivePropertyKey(String name, Class<TValue> valueType, Class<? extends PropertySource> ownerType, int flags, TValue defaultValue, long defaultBits)
+	{
+		super(name, valueType, ownerType, flags, defaultValue);
+		this.defaultBits = defaultBits;
+	}
+	
+	
+	/**
+	 * Call primitive property changed call-back.
+	 * @param callback Primitive call-back.
+	 * @param source Property source.
+	 * @param oldBits Raw bits of old value.
+	 * @param newBits Raw bits of new value.
+	 */
+	abstract void callPrimitiveCallback(Object callback, PropertySource source, long oldBits, long newBits);
+	
+	
+	/**
+	 * Convert from raw bits to boxed value.
+	 * @param bits Raw bits.
+	 * @return Boxed value.
+	 */
+	abstract TValue fromBits(long bits);
+	
+	
+	/**
+	 * Get raw bits of current value through primitive getter of given source, so that getter overridden by source is respected.
+	 * @param source Property source.
+	 * @return Raw bits of current value.
+	 */
+	abstract long getBits(PropertySource source);
+	
+	
+	/**
+	 * Convert from boxed value to raw bits.
+	 * @param value Boxed value.
+	 * @return Raw bits.
+	 */
+	abstract long toBits(Object value);
+}
@@ -1,7 +1,5 @@
 package com.charles.base;
 
-import java.util.ArrayDeque;
-
 /**
  * Event data for property changing.
  */
@@ -12,7 +10,14 @@ public class PropertyChangeEventArgs<TValue> extends EventArgs implements Recycl
 	
 	
 	// Private static fields
-	private static final ArrayDeque<PropertyChangeEventArgs<?>> m_Pool = new ArrayDeque<>(POOL_CAPACITY);
+	private static final ObjectPool<PropertyChangeEventArgs<?>> m_Pool = new ObjectPool<PropertyChangeEventArgs<?>>("PropertyChangeEventArgs", POOL_CAPACITY)
+	{
+		@Override
+		protected PropertyChangeEventArgs<?> create()
+		{
+			return new PropertyChangeEventArgs<Object>(null, null);
+		}
+	};
 	
 	
 	// Private fields
@@ -36,17 +41,12 @@ public class PropertyChangeEventArgs<TValue> extends EventArgs implements Recycl
 	 * @return {@link PropertyChangeEventArgs} instance.
 	 */
 	@SuppressWarnings("unchecked")
-	public static synchronized <TValue> PropertyChangeEventArgs<TValue> obtain(TValue oldValue, TValue newValue)
+	public static <TValue> PropertyChangeEventArgs<TValue> obtain(TValue oldValue, TValue newValue)
 	{
-		PropertyChangeEventArgs<TValue> e = (PropertyChangeEventArgs<TValue>)m_Pool.pollLast();
-		if(e != null)
-		{
-			e.m_OldValue = oldValue;
-			e.m_NewValue = newValue;
-			e.m_IsAvailable = false;
-		}
-		else
-			e = new PropertyChangeEventArgs<TValue>(oldValue, newValue);
+		PropertyChangeEventArgs<TValue> e = (PropertyChangeEventArgs<TValue>)m_Pool.obtain();
+		e.m_OldValue = oldValue;
+		e.m_NewValue = newValue;
+		e.m_IsAvailable = false;
 		return e;
 	}
 	
@@ -58,7 +58,7 @@ public class PropertyChangeEventArgs<TValue> extends EventArgs implements Recycl
 	public final TValue getNewValue()
 	{
 		if(m_IsAvailable)
-			throw new IllegalStateException();
+			this.onRecycledInstanceAccessed();
 		return m_NewValue;
 	}
 	
@@ -70,30 +70,33 @@ public class PropertyChangeEventArgs<TValue> extends EventArgs implements Recycl
 	public final TValue getOldValue()
 	{
 		if(m_IsAvailable)
-			throw new IllegalStateException();
+			this.onRecycledInstanceAccessed();
 		return m_OldValue;
 	}
 	
 	
-	/**
-	 * Put instance back to pool.
-	 */
-	public final void recycle()
+	// Called when accessing recycled instance.
+	private void onRecycledInstanceAccessed()
 	{
-		recycle(this);
+		m_Pool.reportUseAfterRecycle(this);
+		throw new IllegalStateException();
 	}
 	
 	
-	// Put instance back to pool.
-	private static synchronized void recycle(PropertyChangeEventArgs<?> e)
+	/**
+	 * Put instance back to pool.
+	 */
+	public final void recycle()
 	{
-		if(e.m_IsAvailable)
+		if(m_IsAvailable)
+		{
+			m_Pool.reportDoubleRecycle(this);
 			return;
-		if(m_Pool.size() < POOL_CAPACITY)
-			m_Pool.push(e);
-		e.m_OldValue = null;
-		e.m_NewValue = null;
-		e.m_IsAvailable = true;
-		e.clearHandledState();
+		}
+		m_OldValue = null;
+		m_NewValue = null;
+		m_IsAvailable = true;
+		this.clearHandledState();
+		m_Pool.release(this);
 	}
 }
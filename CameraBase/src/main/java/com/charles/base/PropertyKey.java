@@ -2,9 +2,10 @@ package com.charles.base;
 
 /**
  * Key to represent a property.
+ * This class cannot be extended except by {@link PrimitivePropertyKey}.
  * @param <TValue> Type of property value.
  */
-public final class PropertyKey<TValue>
+public class PropertyKey<TValue>
 {
 	/**
 	 * Flag to indicate that property is read-only.
@@ -28,14 +29,26 @@ public final class PropertyKey<TValue>
 	 * Unique property ID.
 	 */
 	public final int id;
+	/**
+	 * Whether this is {@link PrimitivePropertyKey} or not.
+	 */
+	final boolean isPrimitive;
 	/**
 	 * Property name.
 	 */
 	public final String name;
+	/**
+	 * Dense index of {@link #ownerType}.
+	 */
+	final int ownerIndex;
 	/**
 	 * Type of object owns this property.
 	 */
 	public final Class<? extends PropertySource> ownerType;
+	/**
+	 * Dense slot of this property among properties owned by {@link #ownerType}.
+	 */
+	final int slot;
 	/**
 	 * Type of property value.
 	 */
@@ -73,6 +86,11 @@ public final class PropertyKey<TValue>
 	 */
 	public PropertyKey(String name, Class<TValue> valueType, Class<? extends PropertySource> ownerType, int flags, TValue defaultValue)
 	{
+		// check type
+		this.isPrimitive = (this instanceof PrimitivePropertyKey);
+		if(!this.isPrimitive && this.getClass() != PropertyKey.class)
+			throw new IllegalStateException("Cannot extend PropertyKey.");
+		
 		// check parameter
 		if(name == null)
 			throw new IllegalArgumentException("No property name.");
@@ -88,7 +106,9 @@ public final class PropertyKey<TValue>
 		this.flags = flags;
 		this.id = generateId();
 		this.name = name;
+		this.ownerIndex = KeySlots.getOwnerIndex(ownerType);
 		this.ownerType = ownerType;
+		this.slot = KeySlots.allocatePropertySlot(this);
 		this.valueType = valueType;
 	}
 	
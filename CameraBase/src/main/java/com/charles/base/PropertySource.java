@@ -12,6 +12,34 @@ public interface PropertySource extends ThreadDependentObject
 	 */
 	<TValue> void addCallback(PropertyKey<TValue> key, PropertyChangedCallback<TValue> callback);
 	
+	/**
+	 * Add call-back for boolean property change.
+	 * @param key Property key.
+	 * @param callback Call-back to add.
+	 */
+	void addCallback(BooleanPropertyKey key, BooleanPropertyChangedCallback callback);
+	
+	/**
+	 * Add call-back for float property change.
+	 * @param key Property key.
+	 * @param callback Call-back to add.
+	 */
+	void addCallback(FloatPropertyKey key, FloatPropertyChangedCallback callback);
+	
+	/**
+	 * Add call-back for int property change.
+	 * @param key Property key.
+	 * @param callback Call-back to add.
+	 */
+	void addCallback(IntPropertyKey key, IntPropertyChangedCallback callback);
+	
+	/**
+	 * Add call-back for long property change.
+	 * @param key Property key.
+	 * @param callback Call-back to add.
+	 */
+	void addCallback(LongPropertyKey key, LongPropertyChangedCallback callback);
+	
 	/**
 	 * Get property value.
 	 * @param key Property key.
@@ -19,6 +47,34 @@ public interface PropertySource extends ThreadDependentObject
 	 */
 	<TValue> TValue get(PropertyKey<TValue> key);
 	
+	/**
+	 * Get boolean property value without boxing.
+	 * @param key Property key.
+	 * @return Property value.
+	 */
+	boolean getBoolean(BooleanPropertyKey key);
+	
+	/**
+	 * Get float property value without boxing.
+	 * @param key Property key.
+	 * @return Property value.
+	 */
+	float getFloat(FloatPropertyKey key);
+	
+	/**
+	 * Get int property value without boxing.
+	 * @param key Property key.
+	 * @return Property value.
+	 */
+	int getInt(IntPropertyKey key);
+	
+	/**
+	 * Get long property value without boxing.
+	 * @param key Property key.
+	 * @return Property value.
+	 */
+	long getLong(LongPropertyKey key);
+	
 	/**
 	 * Remove property change call-back.
 	 * @param key Property key.
@@ -26,6 +82,34 @@ public interface PropertySource extends ThreadDependentObject
 	 */
 	<TValue> void removeCallback(PropertyKey<TValue> key, PropertyChangedCallback<TValue> callback);
 	
+	/**
+	 * Remove boolean property change call-back.
+	 * @param key Property key.
+	 * @param callback Call-back to remove.
+	 */
+	void removeCallback(BooleanPropertyKey key, BooleanPropertyChangedCallback callback);
+	
+	/**
+	 * Remove float property change call-back.
+	 * @param key Property key.
+	 * @param callback Call-back to remove.
+	 */
+	void removeCallback(FloatPropertyKey key, FloatPropertyChangedCallback callback);
+	
+	/**
+	 * Remove int property change call-back.
+	 * @param key Property key.
+	 * @param callback Call-back to remove.
+	 */
+	void removeCallback(IntPropertyKey key, IntPropertyChangedCallback callback);
+	
+	/**
+	 * Remove long property change call-back.
+	 * @param key Property key.
+	 * @param callback Call-back to remove.
+	 */
+	void removeCallback(LongPropertyKey key, LongPropertyChangedCallback callback);
+	
 	/**
 	 * Set property value.
 	 * @param key Property key.
@@ -33,4 +117,36 @@ public interface PropertySource extends ThreadDependentObject
 	 * @return Whether property value changes or not.
 	 */
 	<TValue> boolean set(PropertyKey<TValue> key, TValue value);
+	
+	/**
+	 * Set boolean property value without boxing.
+	 * @param key Property key.
+	 * @param value New value to set.
+	 * @return Whether property value changes or not.
+	 */
+	boolean setBoolean(BooleanPropertyKey key, boolean value);
+	
+	/**
+	 * Set float property value without boxing.
+	 * @param key Property key.
+	 * @param value New value to set.
+	 * @return Whether property value changes or not.
+	 */
+	boolean setFloat(FloatPropertyKey key, float value);
+	
+	/**
+	 * Set int property value without boxing.
+	 * @param key Property key.
+	 * @param value New value to set.
+	 * @return Whether property value changes or not.
+	 */
+	boolean setInt(IntPropertyKey key, int value);
+	
+	/**
+	 * Set long property value without boxing.
+	 * @param key Property key.
+	 * @param value New value to set.
+	 * @return Whether property value changes or not.
+	 */
+	boolean setLong(LongPropertyKey key, long value);
 }
@@ -0,0 +1,144 @@
+package com.charles.base;
+
+import android.os.Message;
+
+/**
+ * Periodically publishes message latency percentiles of thread monitored by {@link ThreadMonitor} as properties.
+ */
+public class ThreadLatencyStatistics extends HandlerBaseObject
+{
+	/**
+	 * Read-only property for 50th percentile of message execution time in microseconds.
+	 */
+	public static final LongPropertyKey PROP_EXECUTION_TIME_P50 = new LongPropertyKey("ExecutionTimeP50", ThreadLatencyStatistics.class, 0L);
+	/**
+	 * Read-only property for 90th percentile of message execution time in microseconds.
+	 */
+	public static final LongPropertyKey PROP_EXECUTION_TIME_P90 = new LongPropertyKey("ExecutionTimeP90", ThreadLatencyStatistics.class, 0L);
+	/**
+	 * Read-only property for 99th percentile of message execution time in microseconds.
+	 */
+	public static final LongPropertyKey PROP_EXECUTION_TIME_P99 = new LongPropertyKey("ExecutionTimeP99", ThreadLatencyStatistics.class, 0L);
+	/**
+	 * Read-only property for description of last message which execution time exceeds threshold.
+	 */
+	public static final PropertyKey<String> PROP_LAST_SLOW_MESSAGE = new PropertyKey<>("LastSlowMessage", String.class, ThreadLatencyStatistics.class, PropertyKey.FLAG_READONLY, null);
+	/**
+	 * Read-only property for maximum message execution time in microseconds.
+	 */
+	public static final LongPropertyKey PROP_MAX_EXECUTION_TIME = new LongPropertyKey("MaxExecutionTime", ThreadLatencyStatistics.class, 0L);
+	/**
+	 * Read-only property for number of dispatched messages.
+	 */
+	public static final LongPropertyKey PROP_MESSAGE_COUNT = new LongPropertyKey("MessageCount", ThreadLatencyStatistics.class, 0L);
+	/**
+	 * Read-only property for 50th percentile of message queue waiting time in microseconds.
+	 */
+	public static final LongPropertyKey PROP_QUEUE_WAIT_TIME_P50 = new LongPropertyKey("QueueWaitTimeP50", ThreadLatencyStatistics.class, 0L);
+	/**
+	 * Read-only property for 90th percentile of message queue waiting time in microseconds.
+	 */
+	public static final LongPropertyKey PROP_QUEUE_WAIT_TIME_P90 = new LongPropertyKey("QueueWaitTimeP90", ThreadLatencyStatistics.class, 0L);
+	/**
+	 * Read-only property for 99th percentile of message queue waiting time in microseconds.
+	 */
+	public static final LongPropertyKey PROP_QUEUE_WAIT_TIME_P99 = new LongPropertyKey("QueueWaitTimeP99", ThreadLatencyStatistics.class, 0L);
+	/**
+	 * Read-only property for number of messages which execution time exceeds threshold.
+	 */
+	public static final LongPropertyKey PROP_SLOW_MESSAGE_COUNT = new LongPropertyKey("SlowMessageCount", ThreadLatencyStatistics.class, 0L);
+	
+	
+	// Constants
+	private static final int MSG_UPDATE = 10000;
+	
+	
+	// Private fields
+	private final Thread m_Thread;
+	private final long m_UpdateInterval;
+	
+	
+	/**
+	 * Initialize new ThreadLatencyStatistics instance.
+	 * @param thread Thread to collect statistics, it should be monitored by {@link ThreadMonitor}.
+	 * @param updateInterval Interval to update properties in milliseconds.
+	 */
+	public ThreadLatencyStatistics(Thread thread, long updateInterval)
+	{
+		super(true, "ThreadLatencyStatistics(" + thread.getName() + ")");
+		if(updateInterval <= 0)
+			throw new IllegalArgumentException("Invalid update interval : " + updateInterval);
+		m_Thread = thread;
+		m_UpdateInterval = updateInterval;
+		this.update();
+	}
+	
+	
+	/**
+	 * Get thread to collect statistics.
+	 * @return Thread.
+	 */
+	public final Thread getThread()
+	{
+		return m_Thread;
+	}
+	
+	
+	// Handle message.
+	@Override
+	protected void handleMessage(Message msg)
+	{
+		switch(msg.what)
+		{
+			case MSG_UPDATE:
+				this.update();
+				break;
+			
+			default:
+				super.handleMessage(msg);
+				break;
+		}
+	}
+	
+	
+	// Called when releasing.
+	@Override
+	protected void onRelease()
+	{
+		HandlerUtils.removeMessages(this, MSG_UPDATE);
+		super.onRelease();
+	}
+	
+	
+	/**
+	 * Update properties immediately.
+	 */
+	public void update()
+	{
+		// check state
+		this.verifyAccess();
+		if(this.get(PROP_IS_RELEASED))
+			return;
+		
+		// update properties
+		LatencyHistogram executionHistogram = ThreadMonitor.getExecutionHistogram(m_Thread);
+		LatencyHistogram queueWaitHistogram = ThreadMonitor.getQueueWaitHistogram(m_Thread);
+		if(executionHistogram != null && queueWaitHistogram != null)
+		{
+			this.setReadOnlyLong(PROP_EXECUTION_TIME_P50, executionHistogram.getPercentile(50));
+			this.setReadOnlyLong(PROP_EXECUTION_TIME_P90, executionHistogram.getPercentile(90));
+			this.setReadOnlyLong(PROP_EXECUTION_TIME_P99, executionHistogram.getPercentile(99));
+			this.setReadOnlyLong(PROP_MAX_EXECUTION_TIME, executionHistogram.getMaxValue());
+			this.setReadOnlyLong(PROP_MESSAGE_COUNT, executionHistogram.getTotalCount());
+			this.setReadOnlyLong(PROP_QUEUE_WAIT_TIME_P50, queueWaitHistogram.getPercentile(50));
+			this.setReadOnlyLong(PROP_QUEUE_WAIT_TIME_P90, queueWaitHistogram.getPercentile(90));
+			this.setReadOnlyLong(PROP_QUEUE_WAIT_TIME_P99, queueWaitHistogram.getPercentile(99));
+			this.setReadOnlyLong(PROP_SLOW_MESSAGE_COUNT, ThreadMonitor.getSlowMessageCount(m_Thread));
+			this.setReadOnly(PROP_LAST_SLOW_MESSAGE, ThreadMonitor.getLastSlowMessage(m_Thread));
+		}
+		
+		// schedule next update
+		HandlerUtils.removeMessages(this, MSG_UPDATE);
+		HandlerUtils.sendMessage(this, MSG_UPDATE, m_UpdateInterval);
+	}
+}
@@ -1,16 +1,26 @@
 package com.charles.base;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.concurrent.locks.LockSupport;
 
 import android.os.Handler;
+import android.os.Message;
 import android.os.Process;
 import android.os.SystemClock;
 
 /**
  * Thread monitor.
+ * Monitor thread wakes up when message which is dispatching reaches slow message threshold, and every 3 seconds to check responses of monitored threads. When no message needs to be sampled, first message dispatched after that wakes up monitor thread. Stack traces are sampled without holding lock of monitor.
  */
 public final class ThreadMonitor
 {
+	/**
+	 * Default threshold of message execution time to sample stack trace, in milliseconds.
+	 */
+	public static final long DEFAULT_SLOW_MESSAGE_THRESHOLD = 100;
+	
+	
 	// Constants
 	private static final String TAG = "ThreadMonitor";
 	private static final long THREAD_CHECK_INTERVAL = 3000;
@@ -19,17 +29,29 @@ public final class ThreadMonitor
 	// Private static fields
 	private static final LinkedList<ThreadInfo> m_AllThreadInfos = new LinkedList<>();
 	private static final ThreadLocal<ThreadInfo> m_CurrentThreadInfo = new ThreadLocal<>();
+	private static volatile boolean m_IsMonitorIdle;
 	private static volatile boolean m_IsPrepared;
 	private static volatile Thread m_MonitorThread;
+	private static volatile long m_SlowMessageThreshold = DEFAULT_SLOW_MESSAGE_THRESHOLD;
 	
 	
 	// Class for monitored thread info
 	private static final class ThreadInfo
 	{
+		public volatile Runnable dispatchingCallback;
+		public volatile long dispatchingStartTime;
+		public volatile Handler dispatchingTarget;
+		public volatile int dispatchingWhat;
+		public volatile LatencyHistogram executionHistogram = new LatencyHistogram();
 		public final Handler handler;
 		public volatile long lastResponseTime;
+		public volatile String lastSlowMessage;
+		public volatile StackTraceElement[] lastSlowMessageStackTrace;
 		public volatile boolean notResponding;
 		public volatile int pendingResponseCount;
+		public volatile LatencyHistogram queueWaitHistogram = new LatencyHistogram();
+		public long sampledStartTime;
+		public volatile long slowMessageCount;
 		public final Thread thread;
 		public final int threadId;
 		
@@ -70,6 +92,192 @@ public final class ThreadMonitor
 	{}
 	
 	
+	// Find info of given thread.
+	private static ThreadInfo findThreadInfo(Thread thread)
+	{
+		for(int i = m_AllThreadInfos.size() - 1 ; i >= 0 ; --i)
+		{
+			ThreadInfo threadInfo = m_AllThreadInfos.get(i);
+			if(threadInfo.thread == thread)
+				return threadInfo;
+		}
+		return null;
+	}
+	
+	
+	// Get description of message which is dispatching.
+	private static String getDispatchingMessageDescription(ThreadInfo threadInfo)
+	{
+		StringBuilder buffer = new StringBuilder("{ what : ");
+		buffer.append(threadInfo.dispatchingWhat);
+		Handler target = threadInfo.dispatchingTarget;
+		if(target != null)
+		{
+			buffer.append(", target : ");
+			buffer.append(target.getClass().getName());
+		}
+		Runnable callback = threadInfo.dispatchingCallback;
+		if(callback != null)
+		{
+			buffer.append(", callback : ");
+			buffer.append(callback.getClass().getName());
+		}
+		buffer.append(" }");
+		return buffer.toString();
+	}
+	
+	
+	// Get time in nanoseconds until message which is dispatching reaches slow message threshold, or given delay if there is no message to sample.
+	private static long getSampleDelay(ArrayList<ThreadInfo> threadInfos, long delay)
+	{
+		long threshold = (m_SlowMessageThreshold * 1000000);
+		long time = System.nanoTime();
+		for(int i = threadInfos.size() - 1 ; i >= 0 ; --i)
+		{
+			ThreadInfo threadInfo = threadInfos.get(i);
+			long startTime = threadInfo.dispatchingStartTime;
+			if(startTime != 0 && startTime != threadInfo.sampledStartTime)
+				delay = Math.min(delay, startTime + threshold - time);
+		}
+		return delay;
+	}
+	
+	
+	/**
+	 * Get message execution time histogram of given thread.
+	 * @param thread Monitored thread.
+	 * @return Histogram of execution time in microseconds, or Null if thread is not monitored.
+	 */
+	public static synchronized LatencyHistogram getExecutionHistogram(Thread thread)
+	{
+		ThreadInfo threadInfo = findThreadInfo(thread);
+		return (threadInfo != null ? threadInfo.executionHistogram : null);
+	}
+	
+	
+	/**
+	 * Get description of last slow message of given thread.
+	 * @param thread Monitored thread.
+	 * @return Description of message, or Null if there is no slow message.
+	 */
+	public static synchronized String getLastSlowMessage(Thread thread)
+	{
+		ThreadInfo threadInfo = findThreadInfo(thread);
+		return (threadInfo != null ? threadInfo.lastSlowMessage : null);
+	}
+	
+	
+	/**
+	 * Get stack trace sampled when last slow message of given thread was executing.
+	 * @param thread Monitored thread.
+	 * @return Stack trace, or Null if there is no slow message.
+	 */
+	public static synchronized StackTraceElement[] getLastSlowMessageStackTrace(Thread thread)
+	{
+		ThreadInfo threadInfo = findThreadInfo(thread);
+		return (threadInfo != null ? threadInfo.lastSlowMessageStackTrace : null);
+	}
+	
+	
+	/**
+	 * Get message queue waiting time histogram of given thread.
+	 * @param thread Monitored thread.
+	 * @return Histogram of queue waiting time in microseconds, or Null if thread is not monitored.
+	 */
+	public static synchronized LatencyHistogram getQueueWaitHistogram(Thread thread)
+	{
+		ThreadInfo threadInfo = findThreadInfo(thread);
+		return (threadInfo != null ? threadInfo.queueWaitHistogram : null);
+	}
+	
+	
+	/**
+	 * Get number of messages which execution time exceeds threshold in given thread.
+	 * @param thread Monitored thread.
+	 * @return Number of slow messages.
+	 */
+	public static synchronized long getSlowMessageCount(Thread thread)
+	{
+		ThreadInfo threadInfo = findThreadInfo(thread);
+		return (threadInfo != null ? threadInfo.slowMessageCount : 0);
+	}
+	
+	
+	/**
+	 * Called after dispatching message in current thread.
+	 * @param startTime Value returned from {@link #onMessageDispatching(Message)}.
+	 */
+	public static void onMessageDispatched(long startTime)
+	{
+		// check state
+		if(startTime == 0)
+			return;
+		ThreadInfo threadInfo = m_CurrentThreadInfo.get();
+		if(threadInfo == null)
+			return;
+		
+		// record execution time
+		long executionTime = (System.nanoTime() - startTime);
+		threadInfo.executionHistogram.record(executionTime / 1000);
+		if(executionTime >= m_SlowMessageThreshold * 1000000)
+			++threadInfo.slowMessageCount;
+		
+		// clear state
+		threadInfo.dispatchingStartTime = 0;
+		threadInfo.dispatchingCallback = null;
+		threadInfo.dispatchingTarget = null;
+	}
+	
+	
+	/**
+	 * Called before dispatching message in current thread.
+	 * @param msg Message to dispatch.
+	 * @return Start time to pass to {@link #onMessageDispatched(long)}.
+	 */
+	public static long onMessageDispatching(Message msg)
+	{
+		// check state
+		ThreadInfo threadInfo = m_CurrentThreadInfo.get();
+		if(threadInfo == null || threadInfo.dispatchingStartTime != 0)
+			return 0;
+		
+		// record queue waiting time
+		long when = msg.getWhen();
+		if(when > 0)
+		{
+			long waitingTime = (SystemClock.uptimeMillis() - when);
+			threadInfo.queueWaitHistogram.record(waitingTime > 0 ? waitingTime * 1000 : 0);
+		}
+		
+		// update state
+		long startTime = System.nanoTime();
+		threadInfo.dispatchingWhat = msg.what;
+		threadInfo.dispatchingCallback = msg.getCallback();
+		threadInfo.dispatchingTarget = msg.getTarget();
+		threadInfo.dispatchingStartTime = startTime;
+		
+		// wake up monitor thread to sample this message
+		if(m_IsMonitorIdle)
+		{
+			m_IsMonitorIdle = false;
+			Thread monitorThread = m_MonitorThread;
+			if(monitorThread != null)
+				LockSupport.unpark(monitorThread);
+		}
+		return startTime;
+	}
+	
+	
+	/**
+	 * Check whether thread monitor is prepared or not.
+	 * @return Whether thread monitor is prepared or not.
+	 */
+	public static boolean isPrepared()
+	{
+		return m_IsPrepared;
+	}
+	
+	
 	/**
 	 * Prepare thread monitor in order to monitor threads.
 	 */
@@ -136,6 +344,60 @@ public final class ThreadMonitor
 	}
 	
 	
+	/**
+	 * Reset latency histograms of all monitored threads. Histograms returned before resetting will not be updated anymore.
+	 */
+	public static synchronized void resetLatencyStatistics()
+	{
+		for(int i = m_AllThreadInfos.size() - 1 ; i >= 0 ; --i)
+		{
+			// replace histograms since they are recorded by monitored thread without lock
+			ThreadInfo threadInfo = m_AllThreadInfos.get(i);
+			threadInfo.executionHistogram = new LatencyHistogram();
+			threadInfo.queueWaitHistogram = new LatencyHistogram();
+			threadInfo.slowMessageCount = 0;
+		}
+	}
+	
+	
+	// Sample stack trace of thread which is executing slow message.
+	private static void sampleSlowMessage(ThreadInfo threadInfo)
+	{
+		// check execution time
+		long startTime = threadInfo.dispatchingStartTime;
+		if(startTime == 0 || startTime == threadInfo.sampledStartTime)
+			return;
+		long executionTime = (System.nanoTime() - startTime);
+		if(executionTime < m_SlowMessageThreshold * 1000000)
+			return;
+		threadInfo.sampledStartTime = startTime;
+		
+		// sample
+		String message = getDispatchingMessageDescription(threadInfo);
+		StackTraceElement[] stackTrace = threadInfo.thread.getStackTrace();
+		if(threadInfo.dispatchingStartTime != startTime)
+			return;
+		threadInfo.lastSlowMessage = message;
+		threadInfo.lastSlowMessageStackTrace = stackTrace;
+		
+		// print logs
+		Log.w(TAG, String.format("Thread '%s' (%d) takes more than %d ms to handle message %s. Stack trace :", threadInfo.thread.getName(), threadInfo.threadId, (executionTime / 1000000), message));
+		Log.printStackTrace(TAG, stackTrace);
+	}
+	
+	
+	/**
+	 * Set threshold of message execution time to sample stack trace.
+	 * @param threshold Threshold in milliseconds.
+	 */
+	public static void setSlowMessageThreshold(long threshold)
+	{
+		if(threshold <= 0)
+			throw new IllegalArgumentException("Invalid threshold : " + threshold);
+		m_SlowMessageThreshold = threshold;
+	}
+	
+	
 	/**
 	 * Start monitoring current thread.
 	 */
@@ -151,6 +413,7 @@ public final class ThreadMonitor
 		// create thread info
 		threadInfo = new ThreadInfo();
 		m_AllThreadInfos.add(threadInfo);
+		ThreadMonitor.class.notifyAll();
 		
 		Log.w(TAG, "Start monitor '" + threadInfo.thread.getName() + "' (" + threadInfo.threadId + ")");
 	}
@@ -181,27 +444,69 @@ public final class ThreadMonitor
 		Log.w(TAG, "***** Monitor thread start *****");
 		try
 		{
+			ArrayList<ThreadInfo> threadInfos = new ArrayList<>();
+			long nextCheckTime = 0;
 			while(true)
 			{
+				// take monitored threads, wait until any thread is monitored
 				synchronized(ThreadMonitor.class)
 				{
+					while(m_AllThreadInfos.isEmpty())
+						ThreadMonitor.class.wait();
+					threadInfos.clear();
 					for(int i = m_AllThreadInfos.size() - 1 ; i >= 0 ; --i)
+						threadInfos.add(m_AllThreadInfos.get(i));
+				}
+				
+				// sample slow messages
+				for(int i = threadInfos.size() - 1 ; i >= 0 ; --i)
+					sampleSlowMessage(threadInfos.get(i));
+				
+				// check responses
+				long time = SystemClock.elapsedRealtime();
+				if(time >= nextCheckTime)
+				{
+					nextCheckTime = (time + THREAD_CHECK_INTERVAL);
+					for(int i = threadInfos.size() - 1 ; i >= 0 ; --i)
 					{
 						// check response
-						ThreadInfo threadInfo = m_AllThreadInfos.get(i);
-						if(threadInfo.pendingResponseCount > 0)
+						ThreadInfo threadInfo = threadInfos.get(i);
+						boolean notResponding;
+						synchronized(threadInfo)
+						{
+							notResponding = (threadInfo.pendingResponseCount > 0);
+							if(notResponding)
+								threadInfo.notResponding = true;
+							else
+								++threadInfo.pendingResponseCount;
+						}
+						if(notResponding)
 						{
-							threadInfo.notResponding = true;
 							printThreadBlockedLogs(threadInfo);
 							continue;
 						}
 						
 						// request response
 						threadInfo.handler.post(m_ResponseCallback);
-						++threadInfo.pendingResponseCount;
 					}
 				}
-				Thread.sleep(THREAD_CHECK_INTERVAL);
+				
+				// wait until next message becomes slow or next response check, let next dispatched message wake up monitor thread if no message needs to be sampled
+				long checkDelay = ((nextCheckTime - time) * 1000000);
+				long delay = getSampleDelay(threadInfos, checkDelay);
+				if(delay >= checkDelay)
+				{
+					m_IsMonitorIdle = true;
+					delay = getSampleDelay(threadInfos, checkDelay);
+					if(delay < checkDelay)
+						m_IsMonitorIdle = false;
+				}
+				threadInfos.clear();
+				if(delay > 0)
+					LockSupport.parkNanos(delay);
+				m_IsMonitorIdle = false;
+				if(Thread.interrupted())
+					break;
 			}
 		}
 		catch(InterruptedException ex)
@@ -1,8 +1,21 @@
 package com.charles.base.component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.os.SystemClock;
 
 import com.charles.base.BaseObject;
 import com.charles.base.EventKey;
@@ -11,6 +24,9 @@ import com.charles.base.Log;
 
 /**
  * Component manager to host components and builders.
+ * Components and on-demand builders are indexed by requested type, so running components can be found without locking.
+ * When creating components with specific priority, preparation of {@link PreparableComponentBuilder} is performed on worker threads in dependency order.
+ * If {@link StartupProfile} is set, creation and usage of components are recorded and creation priority of builders added later is adapted by the profile.
  */
 public class ComponentManager extends HandlerBaseObject
 {
@@ -26,10 +42,110 @@ public class ComponentManager extends HandlerBaseObject
 	public static final EventKey<ComponentEventArgs<Component>> EVENT_COMPONENT_REMOVED = new EventKey<>("ComponentRemoved", (Class)ComponentEventArgs.class, ComponentManager.class);
 	
 	
+	// Constants
+	private static final Component[] EMPTY_COMPONENTS = new Component[0];
+	private static final ComponentBuilder[] EMPTY_BUILDERS = new ComponentBuilder[0];
+	private static final long PREPARATION_THREAD_KEEP_ALIVE_TIME = 3000;
+	
+	
+	// Private static fields
+	private static Executor m_PreparationExecutor;
+	
+	
 	// Private fields
+	private final Map<ComponentBuilder, ComponentCreationPriority> m_AdaptedPriorities = new HashMap<>();
+	private final List<ComponentBuilder> m_Builders = new ArrayList<>();
 	private final List<Component> m_Components = new ArrayList<>();
+	private final Map<ComponentBuilder, CreationNode> m_EarlyPreparations = new HashMap<>();
 	private final HashSet<ComponentCreationPriority> m_CreatePriorities = new HashSet<>();
-	private final List<ComponentBuilder> m_Builders = new ArrayList<>();
+	private volatile StartupProfile m_StartupProfile;
+	private final Map<Class<?>, TypeIndex> m_TypeIndices = new ConcurrentHashMap<>();
+	
+	
+	// Components and on-demand builders for specific type, newest first. Arrays are replaced instead of being modified.
+	private static final class TypeIndex
+	{
+		public volatile ComponentBuilder[] builders = EMPTY_BUILDERS;
+		public volatile Component[] components = EMPTY_COMPONENTS;
+		public final Class<?> type;
+		
+		public TypeIndex(Class<?> type)
+		{
+			this.type = type;
+		}
+	}
+	
+	
+	// Creation state of builder when creating components with specific priority.
+	private static final class CreationNode implements Runnable
+	{
+		public final Object[] args;
+		public final ComponentBuilder builder;
+		public final Class<?>[] dependencies;
+		public final List<CreationNode> dependents = new ArrayList<>();
+		public final CreationNode earlyPreparation;
+		public Throwable error;
+		public boolean isCompleted;
+		public boolean isDiscarded;
+		public volatile boolean isPrepared;
+		public final boolean isPreparedInBackground;
+		public final AtomicInteger pendingDependencyCount = new AtomicInteger();
+		public volatile Object preparedData;
+		
+		public CreationNode(ComponentBuilder builder, Object[] args, CreationNode earlyPreparation)
+		{
+			this.builder = builder;
+			this.args = args;
+			this.earlyPreparation = earlyPreparation;
+			if(builder instanceof PreparableComponentBuilder)
+			{
+				PreparableComponentBuilder preparableBuilder = (PreparableComponentBuilder)builder;
+				Class<?>[] dependencies = preparableBuilder.getDependencies();
+				this.dependencies = (dependencies != null ? dependencies : new Class<?>[0]);
+				this.isPreparedInBackground = preparableBuilder.isPreparationThreadIndependent();
+			}
+			else
+			{
+				this.dependencies = new Class<?>[0];
+				this.isPreparedInBackground = false;
+			}
+		}
+		
+		public boolean dependsOn(CreationNode node)
+		{
+			for(int i = this.dependencies.length - 1 ; i >= 0 ; --i)
+			{
+				if(node.builder.isComponentTypeSupported(this.dependencies[i]))
+					return true;
+			}
+			return false;
+		}
+		
+		@Override
+		public void run()
+		{
+			try
+			{
+				if(this.earlyPreparation != null)
+				{
+					waitForCompletion(this.earlyPreparation);
+					this.error = this.earlyPreparation.error;
+					this.preparedData = this.earlyPreparation.preparedData;
+					this.isPrepared = this.earlyPreparation.isPrepared;
+				}
+				else
+				{
+					this.preparedData = ((PreparableComponentBuilder)this.builder).prepare(this.args);
+					this.isPrepared = true;
+				}
+			}
+			catch(Throwable ex)
+			{
+				this.error = ex;
+			}
+			complete(this);
+		}
+	}
 	
 	
 	/**
@@ -52,11 +168,43 @@ public class ComponentManager extends HandlerBaseObject
 		this.verifyAccess();
 		this.verifyReleaseState();
 		
+		// adapt priority
+		ComponentCreationPriority priority = builder.getPriority();
+		StartupProfile profile = m_StartupProfile;
+		if(profile != null)
+		{
+			ComponentCreationPriority adaptedPriority = profile.getAdaptedPriority(builder);
+			if(adaptedPriority != priority)
+			{
+				Log.w(TAG, "addComponentBuilder() - Change priority of " + builder + " from " + priority + " to " + adaptedPriority);
+				m_AdaptedPriorities.put(builder, adaptedPriority);
+				priority = adaptedPriority;
+			}
+		}
+		
 		// create component
-		if(m_CreatePriorities.contains(builder.getPriority()))
-			this.createComponent(builder, true, args);
+		if(m_CreatePriorities.contains(priority))
+			this.createComponent(builder, null, true, args);
 		else
-			m_Builders.add(builder);
+		{
+			this.addBuilderInternal(builder);
+			if(builder.getPriority() == ComponentCreationPriority.ON_DEMAND && priority != ComponentCreationPriority.ON_DEMAND)
+				this.startEarlyPreparation(builder, args);
+		}
+	}
+	
+	
+	// Add builder to table and indices.
+	private void addBuilderInternal(ComponentBuilder builder)
+	{
+		m_Builders.add(builder);
+		if(!this.isOnDemandBuilder(builder))
+			return;
+		for(TypeIndex index : m_TypeIndices.values())
+		{
+			if(builder.isComponentTypeSupported(index.type))
+				index.builders = prepend(index.builders, builder);
+		}
 	}
 	
 	
@@ -72,14 +220,67 @@ public class ComponentManager extends HandlerBaseObject
 	}
 	
 	
+	// Add component to table and indices.
+	private void addComponentInternal(Component component)
+	{
+		m_Components.add(component);
+		Class<?>[] types = ComponentUtils.getAssignableTypes(component.getClass());
+		for(int i = types.length - 1 ; i >= 0 ; --i)
+		{
+			TypeIndex index = m_TypeIndices.get(types[i]);
+			if(index != null)
+				index.components = prepend(index.components, component);
+		}
+	}
+	
+	
+	// Complete preparation or creation of given node, and start preparing dependents which are ready.
+	private static void complete(CreationNode node)
+	{
+		boolean isDiscarded;
+		synchronized(node)
+		{
+			node.isCompleted = true;
+			node.notifyAll();
+			isDiscarded = node.isDiscarded;
+		}
+		if(isDiscarded)
+			discardPreparedData(node);
+		for(int i = 0, count = node.dependents.size() ; i < count ; ++i)
+		{
+			CreationNode dependent = node.dependents.get(i);
+			if(dependent.pendingDependencyCount.decrementAndGet() == 0 && dependent.isPreparedInBackground)
+				startPreparation(dependent);
+		}
+	}
+	
+	
 	// Use given builder to create component.
-	private Component createComponent(ComponentBuilder builder, boolean needInit, Object... args)
+	private Component createComponent(ComponentBuilder builder, CreationNode node, boolean needInit, Object... args)
 	{
 		Component component = null;
 		try
 		{
 			// create component
-			component = builder.create(args);
+			long startTime = SystemClock.elapsedRealtime();
+			if(builder instanceof PreparableComponentBuilder)
+			{
+				PreparableComponentBuilder preparableBuilder = (PreparableComponentBuilder)builder;
+				if(node == null)
+				{
+					node = m_EarlyPreparations.remove(builder);
+					if(node != null)
+					{
+						waitForCompletion(node);
+						if(node.error != null)
+							Log.e(TAG, "createComponent() - Fail to prepare component by builder " + builder + " in advance", node.error);
+					}
+				}
+				Object preparedData = ((node != null && node.isPrepared) ? node.preparedData : preparableBuilder.prepare(args));
+				component = preparableBuilder.createPrepared(preparedData, args);
+			}
+			else
+				component = builder.create(args);
 			if(component == null)
 			{
 				Log.w(TAG, "createComponent() - Component is unsupported, builder : " + builder);
@@ -88,16 +289,28 @@ public class ComponentManager extends HandlerBaseObject
 			
 			Log.d(TAG, "createComponent() - Component : " + component);
 			
+			// record construction
+			StartupProfile profile = m_StartupProfile;
+			if(profile != null)
+				profile.onComponentCreated(builder, component, this.getPriority(builder), startTime, SystemClock.elapsedRealtime() - startTime);
+			
 			// initialize
-			if(needInit && !component.initialize())
+			if(needInit)
 			{
-				Log.w(TAG, "createComponent() - Release " + component);
-				component.release();
-				return null;
+				startTime = SystemClock.elapsedRealtime();
+				boolean isInitialized = component.initialize();
+				if(profile != null)
+					profile.onComponentInitialized(component, SystemClock.elapsedRealtime() - startTime);
+				if(!isInitialized)
+				{
+					Log.w(TAG, "createComponent() - Release " + component);
+					component.release();
+					return null;
+				}
 			}
 			
 			// complete
-			m_Components.add(component);
+			this.addComponentInternal(component);
 			return component;
 		}
 		catch(Throwable ex)
@@ -148,20 +361,49 @@ public class ComponentManager extends HandlerBaseObject
 				throw new IllegalArgumentException("Cannot create on-demand components.");
 		}
 		
-		// create components
+		// sort builders by dependencies
+		long startTime = SystemClock.elapsedRealtime();
 		m_CreatePriorities.add(priority);
-		ArrayList<Component> newComponents = new ArrayList<>();
+		List<CreationNode> nodes = new ArrayList<>();
 		for(int i = m_Builders.size() - 1 ; i >= 0 ; --i)
 		{
 			ComponentBuilder builder = m_Builders.get(i);
-			if(builder.getPriority() == priority)
+			if(this.getPriority(builder) == priority)
+				nodes.add(new CreationNode(builder, args, m_EarlyPreparations.remove(builder)));
+		}
+		nodes = this.sortCreationNodes(nodes);
+		
+		// start preparation in background
+		for(int i = nodes.size() - 1 ; i >= 0 ; --i)
+		{
+			CreationNode node = nodes.get(i);
+			if(node.isPreparedInBackground && node.pendingDependencyCount.get() == 0)
+				startPreparation(node);
+		}
+		
+		// create components
+		ArrayList<Component> newComponents = new ArrayList<>();
+		for(int i = 0, count = nodes.size() ; i < count ; ++i)
+		{
+			CreationNode node = nodes.get(i);
+			Component component = null;
+			if(node.isPreparedInBackground)
 			{
-				Component component = this.createComponent(builder, false, args);
-				if(component != null)
-				{
-					newComponents.add(component);
-					m_Builders.remove(i);
-				}
+				waitForCompletion(node);
+				if(node.error != null)
+					Log.e(TAG, "createComponents() - Fail to prepare component by builder " + node.builder, node.error);
+				else
+					component = this.createComponent(node.builder, node, false, args);
+			}
+			else
+			{
+				component = this.createComponent(node.builder, node, false, args);
+				complete(node);
+			}
+			if(component != null)
+			{
+				newComponents.add(component);
+				this.removeBuilderInternal(m_Builders.lastIndexOf(node.builder));
 			}
 		}
 		
@@ -171,13 +413,39 @@ public class ComponentManager extends HandlerBaseObject
 			Component component = newComponents.get(i);
 			if(!this.initializeComponent(component))
 			{
-				m_Components.remove(component);
+				this.removeComponentFromTable(component);
 				Log.w(TAG, "createComponents() - Release " + component);
 				component.release();
 			}
 		}
 		
-		Log.w(TAG, "createComponents(" + priority + ") - End");
+		Log.w(TAG, "createComponents(" + priority + ") - End, duration : " + (SystemClock.elapsedRealtime() - startTime) + " ms");
+	}
+	
+	
+	// Discard data prepared by given node which will not be used to create component.
+	private static void discardPreparedData(CreationNode node)
+	{
+		if(!node.isPrepared)
+			return;
+		try
+		{
+			((PreparableComponentBuilder)node.builder).discardPrepared(node.preparedData, node.args);
+		}
+		catch(Throwable ex)
+		{
+			Log.e("ComponentManager", "discardPreparedData() - Fail to discard prepared data of builder " + node.builder, ex);
+		}
+	}
+	
+	
+	/**
+	 * Get startup profile to record creation and usage of components.
+	 * @return Startup profile, or Null if there is no profile.
+	 */
+	public final StartupProfile getStartupProfile()
+	{
+		return m_StartupProfile;
 	}
 	
 	
@@ -188,37 +456,55 @@ public class ComponentManager extends HandlerBaseObject
 	 * @return Found component, or Null if no component extends or implements given type.
 	 */
 	@SuppressWarnings("unchecked")
-	public final synchronized <TComponent extends Component> TComponent findComponent(Class<TComponent> componentType, Object... args)
+	public final <TComponent extends Component> TComponent findComponent(Class<TComponent> componentType, Object... args)
 	{
-		// search created components
-		for(int i = m_Components.size() - 1 ; i >= 0 ; --i)
+		// search running components without locking
+		TypeIndex index = m_TypeIndices.get(componentType);
+		if(index != null)
 		{
-			Component component = m_Components.get(i);
-			if(componentType.isAssignableFrom(component.getClass()) && this.initializeComponent(component))
-				return (TComponent)component;
+			Component[] components = index.components;
+			if(components.length > 0)
+			{
+				if(isRunningOrInitializing(components[0]))
+					return (TComponent)this.onComponentUsed(components[0]);
+			}
+			else if(index.builders.length == 0 || !this.isDependencyThread())
+				return null;
 		}
 		
-		// check thread
-		if(!this.isDependencyThread())
-			return null;
-		
-		// create on-demand component
-		for(int i = m_Builders.size() - 1 ; i >= 0 ; --i)
+		// search with lock
+		synchronized(this)
 		{
-			ComponentBuilder builder = m_Builders.get(i);
-			if(builder.getPriority() == ComponentCreationPriority.ON_DEMAND && builder.isComponentTypeSupported(componentType))
+			// search created components
+			index = this.obtainTypeIndex(componentType);
+			Component[] components = index.components;
+			for(int i = 0 ; i < components.length ; ++i)
 			{
-				Component component = this.createComponent(builder, true, args);
+				Component component = components[i];
+				if(this.initializeComponent(component))
+					return (TComponent)this.onComponentUsed(component);
+			}
+			
+			// check thread
+			if(!this.isDependencyThread())
+				return null;
+			
+			// create on-demand component
+			ComponentBuilder[] builders = index.builders;
+			for(int i = 0 ; i < builders.length ; ++i)
+			{
+				ComponentBuilder builder = builders[i];
+				Component component = this.createComponent(builder, null, true, args);
 				if(component != null)
 				{
-					m_Builders.remove(i);
-					return (TComponent)component;
+					this.removeBuilderInternal(m_Builders.lastIndexOf(builder));
+					return (TComponent)this.onComponentUsed(component);
 				}
 			}
+			
+			// fail
+			return null;
 		}
-		
-		// fail
-		return null;
 	}
 	
 	
@@ -229,49 +515,112 @@ public class ComponentManager extends HandlerBaseObject
 	 * @return All matched components, or Null if no component extend or implement given type.
 	 */
 	@SuppressWarnings("unchecked")
-	public final synchronized <TComponent extends Component> TComponent[] findComponents(Class<TComponent> componentType, Object... args)
+	public final <TComponent extends Component> TComponent[] findComponents(Class<TComponent> componentType, Object... args)
 	{
-		// search created components
-		List<Component> foundComponents = null;
-		for(int i = m_Components.size() - 1 ; i >= 0 ; --i)
+		// search running components without locking
+		TypeIndex index = m_TypeIndices.get(componentType);
+		if(index != null && (index.builders.length == 0 || !this.isDependencyThread()))
 		{
-			Component component = m_Components.get(i);
-			if(componentType.isAssignableFrom(component.getClass()) && this.initializeComponent(component))
+			Component[] components = index.components;
+			boolean isAllRunning = true;
+			for(int i = components.length - 1 ; i >= 0 ; --i)
+			{
+				if(!isRunningOrInitializing(components[i]))
+				{
+					isAllRunning = false;
+					break;
+				}
+			}
+			if(isAllRunning)
 			{
-				if(foundComponents == null)
-					foundComponents = new ArrayList<>();
-				foundComponents.add((TComponent)component);
+				TComponent[] array = (TComponent[])new Component[components.length];
+				System.arraycopy(components, 0, array, 0, components.length);
+				for(int i = components.length - 1 ; i >= 0 ; --i)
+					this.onComponentUsed(components[i]);
+				return array;
 			}
 		}
 		
-		// create on-demand component
-		if(this.isDependencyThread())
+		// search with lock
+		synchronized(this)
 		{
-			for(int i = m_Builders.size() - 1 ; i >= 0 ; --i)
+			// search created components
+			index = this.obtainTypeIndex(componentType);
+			List<Component> foundComponents = null;
+			Component[] components = index.components;
+			for(int i = 0 ; i < components.length ; ++i)
 			{
-				ComponentBuilder builder = m_Builders.get(i);
-				if(builder.getPriority() == ComponentCreationPriority.ON_DEMAND && builder.isComponentTypeSupported(componentType))
+				Component component = components[i];
+				if(this.initializeComponent(component))
 				{
-					Component component = this.createComponent(builder, true, args);
+					if(foundComponents == null)
+						foundComponents = new ArrayList<>();
+					foundComponents.add((TComponent)component);
+				}
+			}
+			
+			// create on-demand component
+			if(this.isDependencyThread())
+			{
+				ComponentBuilder[] builders = index.builders;
+				for(int i = 0 ; i < builders.length ; ++i)
+				{
+					ComponentBuilder builder = builders[i];
+					Component component = this.createComponent(builder, null, true, args);
 					if(component != null)
 					{
-						m_Builders.remove(i);
+						this.removeBuilderInternal(m_Builders.lastIndexOf(builder));
 						if(foundComponents == null)
 							foundComponents = new ArrayList<>();
 						foundComponents.add((TComponent)component);
 					}
 				}
 			}
+			
+			// complete
+			if(foundComponents != null)
+			{
+				TComponent[] array = (TComponent[])new Component[foundComponents.size()];
+				foundComponents.toArray(array);
+				for(int i = array.length - 1 ; i >= 0 ; --i)
+					this.onComponentUsed(array[i]);
+				return array;
+			}
+			return (TComponent[])new Component[0];
 		}
-		
-		// complete
-		if(foundComponents != null)
+	}
+	
+	
+	// Get creation priority of given builder.
+	private ComponentCreationPriority getPriority(ComponentBuilder builder)
+	{
+		ComponentCreationPriority priority = m_AdaptedPriorities.get(builder);
+		return (priority != null ? priority : builder.getPriority());
+	}
+	
+	
+	// Get executor to prepare components in background.
+	private static synchronized Executor getPreparationExecutor()
+	{
+		if(m_PreparationExecutor == null)
 		{
-			TComponent[] array = (TComponent[])new Component[foundComponents.size()];
-			foundComponents.toArray(array);
-			return array;
+			int threadCount = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, PREPARATION_THREAD_KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+			{
+				private final AtomicInteger m_ThreadCount = new AtomicInteger();
+				
+				@Override
+				public Thread newThread(Runnable r)
+				{
+					Thread thread = new Thread(r, "Component preparation " + m_ThreadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			executor.allowCoreThreadTimeOut(true);
+			m_PreparationExecutor = executor;
 		}
-		return (TComponent[])new Component[0];
+		return m_PreparationExecutor;
 	}
 	
 	
@@ -296,7 +645,11 @@ public class ComponentManager extends HandlerBaseObject
 		boolean result;
 		try
 		{
+			long startTime = SystemClock.elapsedRealtime();
 			result = component.initialize();
+			StartupProfile profile = m_StartupProfile;
+			if(profile != null)
+				profile.onComponentInitialized(component, SystemClock.elapsedRealtime() - startTime);
 			if(!result)
 				Log.e(TAG, "initializeComponent() - Fail to initialize " + component);
 			this.raise(EVENT_COMPONENT_ADDED, new ComponentEventArgs<Component>(component));
@@ -310,6 +663,229 @@ public class ComponentManager extends HandlerBaseObject
 	}
 	
 	
+	// Check whether component of given builder can be created when finding component, builders with adapted priority are kept available in case of the profile is out of date.
+	private boolean isOnDemandBuilder(ComponentBuilder builder)
+	{
+		return (builder.getPriority() == ComponentCreationPriority.ON_DEMAND || m_AdaptedPriorities.containsKey(builder));
+	}
+	
+	
+	// Check whether given component is running or initializing.
+	private static boolean isRunningOrInitializing(Component component)
+	{
+		switch(component.get(Component.PROP_STATE))
+		{
+			case INITIALIZING:
+			case RUNNING:
+				return true;
+			default:
+				return false;
+		}
+	}
+	
+	
+	// Get or create index of given type.
+	private TypeIndex obtainTypeIndex(Class<?> type)
+	{
+		// check existent index
+		TypeIndex index = m_TypeIndices.get(type);
+		if(index != null)
+			return index;
+		
+		// create index
+		index = new TypeIndex(type);
+		List<Component> components = null;
+		for(int i = m_Components.size() - 1 ; i >= 0 ; --i)
+		{
+			Component component = m_Components.get(i);
+			if(type.isAssignableFrom(component.getClass()))
+			{
+				if(components == null)
+					components = new ArrayList<>();
+				components.add(component);
+			}
+		}
+		if(components != null)
+			index.components = components.toArray(new Component[components.size()]);
+		List<ComponentBuilder> builders = null;
+		for(int i = m_Builders.size() - 1 ; i >= 0 ; --i)
+		{
+			ComponentBuilder builder = m_Builders.get(i);
+			if(this.isOnDemandBuilder(builder) && builder.isComponentTypeSupported(type))
+			{
+				if(builders == null)
+					builders = new ArrayList<>();
+				builders.add(builder);
+			}
+		}
+		if(builders != null)
+			index.builders = builders.toArray(new ComponentBuilder[builders.size()]);
+		m_TypeIndices.put(type, index);
+		return index;
+	}
+	
+	
+	// Record usage of given component.
+	private Component onComponentUsed(Component component)
+	{
+		StartupProfile profile = m_StartupProfile;
+		if(profile != null)
+			profile.onComponentUsed(component);
+		return component;
+	}
+	
+	
+	// Create new array with given element at first position.
+	private static <T> T[] prepend(T[] array, T element)
+	{
+		T[] newArray = Arrays.copyOf(array, array.length + 1);
+		System.arraycopy(array, 0, newArray, 1, array.length);
+		newArray[0] = element;
+		return newArray;
+	}
+	
+	
+	// Create new array without given element.
+	private static <T> T[] remove(T[] array, T element)
+	{
+		for(int i = array.length - 1 ; i >= 0 ; --i)
+		{
+			if(array[i] == element)
+			{
+				T[] newArray = Arrays.copyOf(array, array.length - 1);
+				System.arraycopy(array, i + 1, newArray, i, array.length - i - 1);
+				return newArray;
+			}
+		}
+		return array;
+	}
+	
+	
+	// Remove builder at given position from table and indices.
+	private void removeBuilderInternal(int position)
+	{
+		ComponentBuilder builder = m_Builders.get(position);
+		boolean isOnDemand = this.isOnDemandBuilder(builder);
+		m_Builders.remove(position);
+		m_AdaptedPriorities.remove(builder);
+		if(!isOnDemand)
+			return;
+		for(TypeIndex index : m_TypeIndices.values())
+			index.builders = remove(index.builders, builder);
+	}
+	
+	
+	// Sort nodes so that dependencies are placed before dependents, original order is kept as much as possible.
+	private List<CreationNode> sortCreationNodes(List<CreationNode> nodes)
+	{
+		// sort
+		List<CreationNode> remainingNodes = new ArrayList<>(nodes);
+		List<CreationNode> sortedNodes = new ArrayList<>(nodes.size());
+		while(!remainingNodes.isEmpty())
+		{
+			int index = -1;
+			for(int i = 0, count = remainingNodes.size() ; i < count && index < 0 ; ++i)
+			{
+				CreationNode node = remainingNodes.get(i);
+				index = i;
+				for(int j = count - 1 ; j >= 0 ; --j)
+				{
+					if(j != i && node.dependsOn(remainingNodes.get(j)))
+					{
+						index = -1;
+						break;
+					}
+				}
+			}
+			if(index < 0)
+			{
+				Log.w(TAG, "sortCreationNodes() - Circular dependency found, builder : " + remainingNodes.get(0).builder);
+				index = 0;
+			}
+			sortedNodes.add(remainingNodes.remove(index));
+		}
+		
+		// link dependents, dependencies placed after dependent are ignored
+		for(int i = sortedNodes.size() - 1 ; i > 0 ; --i)
+		{
+			CreationNode node = sortedNodes.get(i);
+			for(int j = i - 1 ; j >= 0 ; --j)
+			{
+				CreationNode dependency = sortedNodes.get(j);
+				if(node.dependsOn(dependency))
+				{
+					dependency.dependents.add(node);
+					node.pendingDependencyCount.incrementAndGet();
+				}
+			}
+		}
+		return sortedNodes;
+	}
+	
+	
+	// Start preparing given node in background.
+	private static void startPreparation(CreationNode node)
+	{
+		try
+		{
+			getPreparationExecutor().execute(node);
+		}
+		catch(RejectedExecutionException ex)
+		{
+			// prepare in current thread
+			node.run();
+		}
+	}
+	
+	
+	// Start preparing component of on-demand builder which is expected to be used during startup, so that component can be created with prepared data when it is found.
+	private void startEarlyPreparation(ComponentBuilder builder, Object[] args)
+	{
+		if(!(builder instanceof PreparableComponentBuilder))
+			return;
+		CreationNode node = new CreationNode(builder, args, null);
+		if(!node.isPreparedInBackground || node.dependencies.length > 0)
+			return;
+		Log.d(TAG, "startEarlyPreparation() - Builder : " + builder);
+		m_EarlyPreparations.put(builder, node);
+		startPreparation(node);
+	}
+	
+	
+	// Wait for completion of given node.
+	private static void waitForCompletion(CreationNode node)
+	{
+		boolean isInterrupted = false;
+		synchronized(node)
+		{
+			while(!node.isCompleted)
+			{
+				try
+				{
+					node.wait();
+				}
+				catch(InterruptedException ex)
+				{
+					isInterrupted = true;
+				}
+			}
+		}
+		if(isInterrupted)
+			Thread.currentThread().interrupt();
+	}
+	
+	
+	/**
+	 * Set startup profile to record creation and usage of components, and adapt creation priority of builders added later.
+	 * @param profile Startup profile, or Null to stop recording.
+	 */
+	public final synchronized void setStartupProfile(StartupProfile profile)
+	{
+		this.verifyAccess();
+		m_StartupProfile = profile;
+	}
+	
+	
 	/**
 	 * Release and remove given component.
 	 * @param component Component to remove.
@@ -327,6 +903,24 @@ public class ComponentManager extends HandlerBaseObject
 	{
 		// release all builders
 		m_Builders.clear();
+		m_AdaptedPriorities.clear();
+		for(TypeIndex index : m_TypeIndices.values())
+			index.builders = EMPTY_BUILDERS;
+		
+		// discard early preparations
+		for(CreationNode node : m_EarlyPreparations.values())
+		{
+			synchronized(node)
+			{
+				if(!node.isCompleted)
+				{
+					node.isDiscarded = true;
+					continue;
+				}
+			}
+			discardPreparedData(node);
+		}
+		m_EarlyPreparations.clear();
 		
 		// release all components
 		Component[] components = new Component[m_Components.size()];
@@ -347,7 +941,7 @@ public class ComponentManager extends HandlerBaseObject
 			return;
 		
 		// remove from table
-		if(!m_Components.remove(component))
+		if(!this.removeComponentFromTable(component))
 			return;
 		
 		Log.w(TAG, "removeComponentInternal() - Component : " + component);
@@ -358,4 +952,23 @@ public class ComponentManager extends HandlerBaseObject
 		// release component
 		component.release();
 	}
+	
+	
+	// Remove component from table and indices.
+	private boolean removeComponentFromTable(Component component)
+	{
+		if(!m_Components.remove(component))
+			return false;
+		StartupProfile profile = m_StartupProfile;
+		if(profile != null)
+			profile.onComponentRemoved(component);
+		Class<?>[] types = ComponentUtils.getAssignableTypes(component.getClass());
+		for(int i = types.length - 1 ; i >= 0 ; --i)
+		{
+			TypeIndex index = m_TypeIndices.get(types[i]);
+			if(index != null)
+				index.components = remove(index.components, component);
+		}
+		return true;
+	}
 }
@@ -1,5 +1,15 @@
 package com.charles.base.component;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.charles.base.EventHandler;
 import com.charles.base.EventKey;
 import com.charles.base.HandlerUtils;
@@ -16,6 +26,68 @@ public final class ComponentUtils
 	private static final String TAG = "ComponentUtils";
 	
 	
+	// Private static fields
+	private static final Map<Class<?>, Class<?>[]> m_AssignableTypes = new ConcurrentHashMap<>();
+	private static final Map<ComponentOwner, WeakReference<PendingSearches>> m_PendingSearches = new WeakHashMap<>();
+	
+	
+	// Pending component search.
+	private static final class PendingSearch
+	{
+		public final ComponentSearchCallback<?> callback;
+		public final HandlerObject callbackTarget;
+		
+		public PendingSearch(HandlerObject callbackTarget, ComponentSearchCallback<?> callback)
+		{
+			this.callbackTarget = callbackTarget;
+			this.callback = callback;
+		}
+	}
+	
+	
+	// Pending component searches of an owner indexed by component type, accessed in owner thread only.
+	private static final class PendingSearches implements EventHandler<ComponentEventArgs<Component>>
+	{
+		public final ComponentOwner owner;
+		public final Map<Class<?>, List<PendingSearch>> searches = new HashMap<>();
+		
+		public PendingSearches(ComponentOwner owner)
+		{
+			this.owner = owner;
+		}
+		
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		@Override
+		public void onEventReceived(EventSource source, EventKey<ComponentEventArgs<Component>> key, ComponentEventArgs<Component> e)
+		{
+			// complete searches
+			Component newComponent = e.getComponent();
+			Class<?>[] types = getAssignableTypes(newComponent.getClass());
+			for(int i = 0 ; i < types.length && !this.searches.isEmpty() ; ++i)
+			{
+				List<PendingSearch> searches = this.searches.remove(types[i]);
+				if(searches == null)
+					continue;
+				for(int j = 0, count = searches.size() ; j < count ; ++j)
+				{
+					PendingSearch search = searches.get(j);
+					callComponentSearchCallback(search.callbackTarget, (ComponentSearchCallback)search.callback, newComponent);
+				}
+			}
+			
+			// stop listening
+			if(this.searches.isEmpty())
+			{
+				this.owner.removeHandler(ComponentOwner.EVENT_COMPONENT_ADDED, this);
+				synchronized(m_PendingSearches)
+				{
+					m_PendingSearches.remove(this.owner);
+				}
+			}
+		}
+	}
+	
+	
 	// Constructor
 	private ComponentUtils()
 	{}
@@ -43,6 +115,33 @@ public final class ComponentUtils
 	}
 	
 	
+	// Get all classes and interfaces which are assignable from given type.
+	static Class<?>[] getAssignableTypes(Class<?> type)
+	{
+		Class<?>[] types = m_AssignableTypes.get(type);
+		if(types == null)
+		{
+			Set<Class<?>> typeSet = new LinkedHashSet<>();
+			collectAssignableTypes(type, typeSet);
+			types = typeSet.toArray(new Class<?>[typeSet.size()]);
+			m_AssignableTypes.put(type, types);
+		}
+		return types;
+	}
+	
+	
+	// Collect given type, its super classes and all implemented interfaces.
+	private static void collectAssignableTypes(Class<?> type, Set<Class<?>> result)
+	{
+		if(type == null || !result.add(type))
+			return;
+		collectAssignableTypes(type.getSuperclass(), result);
+		Class<?>[] interfaces = type.getInterfaces();
+		for(int i = 0 ; i < interfaces.length ; ++i)
+			collectAssignableTypes(interfaces[i], result);
+	}
+	
+	
 	/**
 	 * Find component in given owner, and call-back to given Handler.
 	 * @param owner Component owner.
@@ -65,23 +164,28 @@ public final class ComponentUtils
 		if(callback == null)
 			return false;
 		
-		// add event handler
+		// add pending search
 		if(owner.isDependencyThread())
 		{
-			owner.addHandler(ComponentOwner.EVENT_COMPONENT_ADDED, new EventHandler<ComponentEventArgs<Component>>()
+			PendingSearches pendingSearches;
+			synchronized(m_PendingSearches)
 			{
-				@SuppressWarnings("unchecked")
-				@Override
-				public void onEventReceived(EventSource source, EventKey<ComponentEventArgs<Component>> key, ComponentEventArgs<Component> e)
+				WeakReference<PendingSearches> reference = m_PendingSearches.get(owner);
+				pendingSearches = (reference != null ? reference.get() : null);
+				if(pendingSearches == null)
 				{
-					Component newComponent = e.getComponent();
-					if(componentType.isAssignableFrom(newComponent.getClass()))
-					{
-						owner.removeHandler(ComponentOwner.EVENT_COMPONENT_ADDED, this);
-						callComponentSearchCallback(callbackTarget, callback, (TComponent)newComponent);
-					}
+					pendingSearches = new PendingSearches(owner);
+					m_PendingSearches.put(owner, new WeakReference<>(pendingSearches));
+					owner.addHandler(ComponentOwner.EVENT_COMPONENT_ADDED, pendingSearches);
 				}
-			});
+			}
+			List<PendingSearch> searches = pendingSearches.searches.get(componentType);
+			if(searches == null)
+			{
+				searches = new ArrayList<>();
+				pendingSearches.searches.put(componentType, searches);
+			}
+			searches.add(new PendingSearch(callbackTarget, callback));
 		}
 		else if(!HandlerUtils.post(owner, new Runnable()
 		{
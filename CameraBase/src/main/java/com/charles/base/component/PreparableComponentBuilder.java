@@ -0,0 +1,43 @@
+package com.charles.base.component;
+
+/**
+ * Component builder which declares dependencies and prepares data for component before creating it.
+ * When creating components with specific {@link ComponentCreationPriority priority}, preparation of builders which are thread independent is performed on worker threads in dependency order, and components are still created and initialized on owner thread.
+ * On-demand builders which are thread independent and have no dependency are prepared as soon as they are added if {@link StartupProfile} expects their components to be used during startup.
+ */
+public interface PreparableComponentBuilder extends ComponentBuilder
+{
+	/**
+	 * Create component with prepared data, called on owner thread.
+	 * @param preparedData Data returned from {@link #prepare(Object...)}.
+	 * @param args Creation arguments.
+	 * @return Created component, or Null if component is unsupported in current state, resources held by prepared data should be released in this case.
+	 */
+	Component createPrepared(Object preparedData, Object... args);
+	
+	/**
+	 * Release resources held by prepared data which will not be passed to {@link #createPrepared(Object, Object...)}, this method may be called on worker thread.
+	 * @param preparedData Data returned from {@link #prepare(Object...)}.
+	 * @param args Creation arguments.
+	 */
+	void discardPrepared(Object preparedData, Object... args);
+	
+	/**
+	 * Get types of components which should be prepared or created before this builder.
+	 * @return Component types, or Null if there is no dependency.
+	 */
+	Class<?>[] getDependencies();
+	
+	/**
+	 * Check whether {@link #prepare(Object...)} can be called on thread other than owner thread or not.
+	 * @return Whether preparation is thread independent or not.
+	 */
+	boolean isPreparationThreadIndependent();
+	
+	/**
+	 * Prepare data to create component, this method may be called on worker thread.
+	 * @param args Creation arguments.
+	 * @return Prepared data.
+	 */
+	Object prepare(Object... args);
+}
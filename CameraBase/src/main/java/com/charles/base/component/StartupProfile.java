@@ -0,0 +1,582 @@
+package com.charles.base.component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.os.SystemClock;
+
+import com.charles.base.Log;
+
+/**
+ * Persisted profile of component creation during startup, which is used by {@link ComponentManager} to adapt creation priority of builders.
+ * Construction and initialization time, and the first time each component is used are recorded until {@link #completeStartup()} is called.
+ * Builders of components which are never used during startup in recent launches are deferred to {@link ComponentCreationPriority#LOW LOW} priority, and on-demand builders of components which are always used during startup are created with {@link ComponentCreationPriority#NORMAL NORMAL} priority.
+ * Use of component is recorded when it is found through {@link ComponentManager}, components which are never found are driven by events only, so their builders are never deferred.
+ * Profile file can be rendered by {@link StartupProfileReport}.
+ */
+public final class StartupProfile
+{
+	/**
+	 * Magic number of profile file.
+	 */
+	public static final int FILE_MAGIC = 0x43535031;
+	/**
+	 * Version of profile file format.
+	 */
+	public static final int FILE_VERSION = 2;
+	/**
+	 * Number of recent launches kept in profile.
+	 */
+	public static final int HISTORY_SIZE = 8;
+	/**
+	 * Minimum number of launches in profile to adapt creation priority.
+	 */
+	public static final int MIN_LAUNCH_COUNT = 3;
+	
+	
+	// Constants
+	private static final String TAG = "StartupProfile";
+	
+	
+	// Private fields
+	private final Map<Component, Entry> m_ComponentEntries = new ConcurrentHashMap<>();
+	private final Map<String, Entry> m_Entries = new ConcurrentHashMap<>();
+	private final File m_File;
+	private volatile boolean m_IsRecording;
+	private final AtomicBoolean m_IsSavePending = new AtomicBoolean();
+	private volatile Thread m_SaveThread;
+	private int m_LaunchCount;
+	private long m_StartTime;
+	private long m_StartupDuration = -1;
+	
+	
+	/**
+	 * Profile of single component builder.
+	 */
+	public static final class Entry
+	{
+		// Private fields
+		private volatile long m_ConstructionDuration = -1;
+		private volatile long m_CreationTime = -1;
+		private int m_EarlyUseHistory;
+		private volatile long m_FirstUseTime = -1;
+		private volatile long m_InitializationDuration = -1;
+		private volatile boolean m_IsCreated;
+		private volatile boolean m_IsFound;
+		private final String m_Key;
+		private int m_LaunchCount;
+		private volatile ComponentCreationPriority m_Priority;
+		
+		// Constructor
+		Entry(String key)
+		{
+			m_Key = key;
+		}
+		
+		/**
+		 * Get duration of construction in last launch.
+		 * @return Duration in milliseconds, or -1 if component is not created.
+		 */
+		public long getConstructionDuration()
+		{
+			return m_ConstructionDuration;
+		}
+		
+		/**
+		 * Get time when component is created in last launch, relative to start of launch.
+		 * @return Time in milliseconds, or -1 if component is not created.
+		 */
+		public long getCreationTime()
+		{
+			return m_CreationTime;
+		}
+		
+		/**
+		 * Get bit flags of recent launches which component is used during startup, bit 0 represents the last launch.
+		 * @return Bit flags.
+		 */
+		public int getEarlyUseHistory()
+		{
+			return m_EarlyUseHistory;
+		}
+		
+		/**
+		 * Get time when component is used first in last launch, relative to start of launch.
+		 * @return Time in milliseconds, or -1 if component is not used during startup.
+		 */
+		public long getFirstUseTime()
+		{
+			return m_FirstUseTime;
+		}
+		
+		/**
+		 * Get duration of initialization in last launch.
+		 * @return Duration in milliseconds, or -1 if component is not initialized.
+		 */
+		public long getInitializationDuration()
+		{
+			return m_InitializationDuration;
+		}
+		
+		/**
+		 * Get key of entry, which is class name of builder.
+		 * @return Key.
+		 */
+		public String getKey()
+		{
+			return m_Key;
+		}
+		
+		/**
+		 * Get number of launches recorded for this entry.
+		 * @return Number of launches.
+		 */
+		public int getLaunchCount()
+		{
+			return m_LaunchCount;
+		}
+		
+		/**
+		 * Get creation priority used in last launch.
+		 * @return Creation priority, or Null if unknown.
+		 */
+		public ComponentCreationPriority getPriority()
+		{
+			return m_Priority;
+		}
+		
+		/**
+		 * Check whether component is used during startup in all recent launches or not.
+		 * @return Whether component is always used or not.
+		 */
+		public boolean isAlwaysUsedEarly()
+		{
+			int mask = this.getHistoryMask();
+			return (mask != 0 && (m_EarlyUseHistory & mask) == mask);
+		}
+		
+		/**
+		 * Check whether component has been found through {@link ComponentManager} in any launch or not.
+		 * @return Whether component is found or not.
+		 */
+		public boolean isFound()
+		{
+			return m_IsFound;
+		}
+		
+		/**
+		 * Check whether component is not used during startup in all recent launches or not.
+		 * @return Whether component is never used or not.
+		 */
+		public boolean isNeverUsedEarly()
+		{
+			int mask = this.getHistoryMask();
+			return (mask != 0 && (m_EarlyUseHistory & mask) == 0);
+		}
+		
+		// Get mask of recent launches, or 0 if there is not enough launches.
+		private int getHistoryMask()
+		{
+			if(m_LaunchCount < MIN_LAUNCH_COUNT)
+				return 0;
+			return ((1 << Math.min(m_LaunchCount, HISTORY_SIZE)) - 1);
+		}
+	}
+	
+	
+	// Constructor
+	private StartupProfile(File file)
+	{
+		m_File = file;
+	}
+	
+	
+	/**
+	 * Stop recording and update history of all entries.
+	 * @return Whether startup is completed by this call or not.
+	 */
+	public boolean completeStartup()
+	{
+		// check state
+		if(!m_IsRecording)
+			return false;
+		m_IsRecording = false;
+		m_StartupDuration = (SystemClock.elapsedRealtime() - m_StartTime);
+		
+		// update history
+		++m_LaunchCount;
+		for(Entry entry : m_Entries.values())
+		{
+			if(!entry.m_IsCreated)
+			{
+				entry.m_CreationTime = -1;
+				entry.m_ConstructionDuration = -1;
+				entry.m_InitializationDuration = -1;
+				entry.m_FirstUseTime = -1;
+			}
+			entry.m_EarlyUseHistory = ((entry.m_EarlyUseHistory << 1) | (entry.m_FirstUseTime >= 0 ? 1 : 0)) & ((1 << HISTORY_SIZE) - 1);
+			++entry.m_LaunchCount;
+		}
+		
+		// keep components which are not found yet to record use after startup
+		for(Iterator<Entry> iterator = m_ComponentEntries.values().iterator() ; iterator.hasNext() ; )
+		{
+			if(iterator.next().m_IsFound)
+				iterator.remove();
+		}
+		
+		Log.w(TAG, "completeStartup() - Startup duration : " + m_StartupDuration + " ms");
+		
+		// complete
+		return true;
+	}
+	
+	
+	/**
+	 * Decode profile data.
+	 * @param input Profile data.
+	 * @param file File to save profile, or Null.
+	 * @return Decoded profile.
+	 * @throws IOException If profile data is invalid or cannot be read.
+	 */
+	public static StartupProfile decode(InputStream input, File file) throws IOException
+	{
+		DataInputStream stream = new DataInputStream(new BufferedInputStream(input));
+		StartupProfile profile = new StartupProfile(file);
+		
+		// header
+		if(stream.readInt() != FILE_MAGIC)
+			throw new IOException("Invalid profile file");
+		int version = stream.readInt();
+		if(version != FILE_VERSION)
+			throw new IOException("Unsupported profile version : " + version);
+		profile.m_LaunchCount = stream.readInt();
+		profile.m_StartupDuration = stream.readLong();
+		
+		// entries
+		ComponentCreationPriority[] priorities = ComponentCreationPriority.values();
+		for(int i = stream.readInt() ; i > 0 ; --i)
+		{
+			Entry entry = new Entry(stream.readUTF());
+			entry.m_LaunchCount = stream.readInt();
+			entry.m_EarlyUseHistory = stream.readInt();
+			int priority = stream.readInt();
+			entry.m_Priority = (priority >= 0 && priority < priorities.length ? priorities[priority] : null);
+			entry.m_CreationTime = stream.readLong();
+			entry.m_ConstructionDuration = stream.readLong();
+			entry.m_InitializationDuration = stream.readLong();
+			entry.m_FirstUseTime = stream.readLong();
+			entry.m_IsFound = stream.readBoolean();
+			profile.m_Entries.put(entry.m_Key, entry);
+		}
+		return profile;
+	}
+	
+	
+	/**
+	 * Get adapted creation priority of given builder.
+	 * @param builder Component builder.
+	 * @return Adapted creation priority.
+	 */
+	public ComponentCreationPriority getAdaptedPriority(ComponentBuilder builder)
+	{
+		ComponentCreationPriority priority = builder.getPriority();
+		Entry entry = m_Entries.get(getKey(builder));
+		if(entry == null)
+			return priority;
+		switch(priority)
+		{
+			case LAUNCH:
+			case HIGH:
+			case NORMAL:
+				if(entry.isNeverUsedEarly() && entry.isFound())
+					return ComponentCreationPriority.LOW;
+				break;
+			case ON_DEMAND:
+				if(entry.isAlwaysUsedEarly())
+					return ComponentCreationPriority.NORMAL;
+				break;
+			default:
+				break;
+		}
+		return priority;
+	}
+	
+	
+	/**
+	 * Get all entries sorted by creation time in last launch, entries which are not created are placed at last.
+	 * @return List of entries.
+	 */
+	public List<Entry> getEntries()
+	{
+		List<Entry> entries = new ArrayList<>(m_Entries.values());
+		Collections.sort(entries, new Comparator<Entry>()
+		{
+			@Override
+			public int compare(Entry lhs, Entry rhs)
+			{
+				long lhsTime = (lhs.m_CreationTime >= 0 ? lhs.m_CreationTime : Long.MAX_VALUE);
+				long rhsTime = (rhs.m_CreationTime >= 0 ? rhs.m_CreationTime : Long.MAX_VALUE);
+				if(lhsTime != rhsTime)
+					return (lhsTime < rhsTime ? -1 : 1);
+				return lhs.m_Key.compareTo(rhs.m_Key);
+			}
+		});
+		return entries;
+	}
+	
+	
+	// Get key of given builder.
+	private static String getKey(ComponentBuilder builder)
+	{
+		return builder.getClass().getName();
+	}
+	
+	
+	/**
+	 * Get number of recorded launches.
+	 * @return Number of launches.
+	 */
+	public int getLaunchCount()
+	{
+		return m_LaunchCount;
+	}
+	
+	
+	/**
+	 * Get startup duration of last launch.
+	 * @return Duration in milliseconds, or -1 if unknown.
+	 */
+	public long getStartupDuration()
+	{
+		return m_StartupDuration;
+	}
+	
+	
+	/**
+	 * Check whether profile is recording or not.
+	 * @return Whether profile is recording or not.
+	 */
+	public boolean isRecording()
+	{
+		return m_IsRecording;
+	}
+	
+	
+	/**
+	 * Load profile from given file and start recording, empty profile will be created if file is not found or invalid.
+	 * @param file Profile file.
+	 * @return Loaded profile.
+	 */
+	public static StartupProfile load(File file)
+	{
+		// load
+		long startTime = SystemClock.elapsedRealtime();
+		StartupProfile profile = null;
+		if(file.exists())
+		{
+			InputStream input = null;
+			try
+			{
+				input = new FileInputStream(file);
+				profile = decode(input, file);
+			}
+			catch(Throwable ex)
+			{
+				Log.e(TAG, "load() - Fail to load profile from " + file, ex);
+			}
+			finally
+			{
+				if(input != null)
+				{
+					try
+					{
+						input.close();
+					}
+					catch(IOException ex)
+					{}
+				}
+			}
+		}
+		if(profile == null)
+			profile = new StartupProfile(file);
+		
+		// start recording
+		profile.m_StartTime = startTime;
+		profile.m_IsRecording = true;
+		return profile;
+	}
+	
+	
+	// Called when component is created by given builder.
+	void onComponentCreated(ComponentBuilder builder, Component component, ComponentCreationPriority priority, long startTime, long duration)
+	{
+		if(!m_IsRecording)
+			return;
+		String key = getKey(builder);
+		Entry entry = m_Entries.get(key);
+		if(entry == null)
+		{
+			entry = new Entry(key);
+			m_Entries.put(key, entry);
+		}
+		entry.m_IsCreated = true;
+		entry.m_Priority = priority;
+		entry.m_CreationTime = (startTime - m_StartTime);
+		entry.m_ConstructionDuration = duration;
+		entry.m_InitializationDuration = -1;
+		entry.m_FirstUseTime = -1;
+		m_ComponentEntries.put(component, entry);
+	}
+	
+	
+	// Called when component is initialized.
+	void onComponentInitialized(Component component, long duration)
+	{
+		if(!m_IsRecording)
+			return;
+		Entry entry = m_ComponentEntries.get(component);
+		if(entry != null)
+			entry.m_InitializationDuration = duration;
+	}
+	
+	
+	// Called when component is removed.
+	void onComponentRemoved(Component component)
+	{
+		m_ComponentEntries.remove(component);
+	}
+	
+	
+	// Called when component is found or used, profile is saved again if component is found for the first time after startup.
+	void onComponentUsed(Component component)
+	{
+		// find entry
+		Entry entry = m_ComponentEntries.get(component);
+		if(entry == null)
+			return;
+		
+		// record use during startup
+		if(m_IsRecording)
+		{
+			entry.m_IsFound = true;
+			if(entry.m_FirstUseTime < 0)
+				entry.m_FirstUseTime = (SystemClock.elapsedRealtime() - m_StartTime);
+			return;
+		}
+		
+		// record use after startup
+		m_ComponentEntries.remove(component);
+		if(!entry.m_IsFound)
+		{
+			entry.m_IsFound = true;
+			this.saveAsync();
+		}
+	}
+	
+	
+	/**
+	 * Save profile to file.
+	 * @return Whether profile is saved successfully or not.
+	 */
+	public synchronized boolean save()
+	{
+		if(m_File == null)
+		{
+			Log.w(TAG, "save() - No profile file");
+			return false;
+		}
+		DataOutputStream stream = null;
+		try
+		{
+			stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(m_File)));
+			
+			// header
+			stream.writeInt(FILE_MAGIC);
+			stream.writeInt(FILE_VERSION);
+			stream.writeInt(m_LaunchCount);
+			stream.writeLong(m_StartupDuration);
+			
+			// entries
+			List<Entry> entries = this.getEntries();
+			stream.writeInt(entries.size());
+			for(int i = 0, count = entries.size() ; i < count ; ++i)
+			{
+				Entry entry = entries.get(i);
+				stream.writeUTF(entry.m_Key);
+				stream.writeInt(entry.m_LaunchCount);
+				stream.writeInt(entry.m_EarlyUseHistory);
+				stream.writeInt(entry.m_Priority != null ? entry.m_Priority.ordinal() : -1);
+				stream.writeLong(entry.m_CreationTime);
+				stream.writeLong(entry.m_ConstructionDuration);
+				stream.writeLong(entry.m_InitializationDuration);
+				stream.writeLong(entry.m_FirstUseTime);
+				stream.writeBoolean(entry.m_IsFound);
+			}
+			return true;
+		}
+		catch(Throwable ex)
+		{
+			Log.e(TAG, "save() - Fail to save profile to " + m_File, ex);
+			return false;
+		}
+		finally
+		{
+			if(stream != null)
+			{
+				try
+				{
+					stream.close();
+				}
+				catch(IOException ex)
+				{}
+			}
+		}
+	}
+	
+	
+	/**
+	 * Save profile to file on background thread, requests are merged until saving starts.
+	 */
+	public void saveAsync()
+	{
+		if(!m_IsSavePending.compareAndSet(false, true))
+			return;
+		Thread thread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				m_IsSavePending.set(false);
+				save();
+			}
+		}, "Startup profile save");
+		thread.setPriority(Thread.MIN_PRIORITY);
+		m_SaveThread = thread;
+		thread.start();
+	}
+	
+	
+	// Wait for the last saving started by saveAsync().
+	void waitForSaving() throws InterruptedException
+	{
+		Thread thread = m_SaveThread;
+		if(thread != null)
+			thread.join();
+	}
+}
@@ -0,0 +1,138 @@
+package com.charles.base.component;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tool to print critical path of startup from profile file written by {@link StartupProfile}.
+ * Components are created sequentially on owner thread, so all components created before startup completes are on the critical path, and the ones which are not used during startup can be deferred.
+ * Usage : StartupProfileReport profile-file...
+ */
+public final class StartupProfileReport
+{
+	// Constructor
+	private StartupProfileReport()
+	{}
+	
+	
+	// Format duration.
+	private static String formatDuration(long duration)
+	{
+		return (duration >= 0 ? (duration + " ms") : "-");
+	}
+	
+	
+	// Format history of early use, the last launch is placed at last.
+	private static String formatHistory(StartupProfile.Entry entry)
+	{
+		int count = Math.min(entry.getLaunchCount(), StartupProfile.HISTORY_SIZE);
+		StringBuilder buffer = new StringBuilder(StartupProfile.HISTORY_SIZE);
+		for(int i = count - 1 ; i >= 0 ; --i)
+			buffer.append((entry.getEarlyUseHistory() & (1 << i)) != 0 ? 'U' : '.');
+		return buffer.toString();
+	}
+	
+	
+	/**
+	 * Entry point of report tool.
+	 * @param args Arguments.
+	 * @throws IOException If fails to read profile file.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		// check arguments
+		if(args.length == 0)
+		{
+			System.err.println("Usage : StartupProfileReport profile-file...");
+			System.exit(1);
+			return;
+		}
+		
+		// write reports
+		Writer writer = new OutputStreamWriter(System.out, "UTF-8");
+		for(int i = 0 ; i < args.length ; ++i)
+		{
+			StartupProfile profile;
+			InputStream input = new FileInputStream(args[i]);
+			try
+			{
+				profile = StartupProfile.decode(input, new File(args[i]));
+			}
+			finally
+			{
+				input.close();
+			}
+			writeReport(profile, args[i], writer);
+		}
+		writer.flush();
+	}
+	
+	
+	/**
+	 * Write critical path of last launch and adaptation state of all entries as readable text.
+	 * @param profile Profile.
+	 * @param name Name of profile.
+	 * @param writer Writer.
+	 */
+	public static void writeReport(StartupProfile profile, String name, Writer writer)
+	{
+		PrintWriter printWriter = new PrintWriter(writer);
+		long startupDuration = profile.getStartupDuration();
+		List<StartupProfile.Entry> entries = profile.getEntries();
+		printWriter.println("Profile : " + name);
+		printWriter.println("Launches : " + profile.getLaunchCount());
+		printWriter.println("Startup duration : " + formatDuration(startupDuration));
+		
+		// critical path
+		long blockingDuration = 0;
+		long deferrableDuration = 0;
+		printWriter.println();
+		printWriter.println("Critical path :");
+		printWriter.println(String.format(Locale.US, "%8s %10s %10s %10s  %-9s %s", "Start", "Construct", "Initialize", "First use", "Priority", "Builder"));
+		for(int i = 0, count = entries.size() ; i < count ; ++i)
+		{
+			StartupProfile.Entry entry = entries.get(i);
+			long creationTime = entry.getCreationTime();
+			if(creationTime < 0 || (startupDuration >= 0 && creationTime > startupDuration))
+				continue;
+			long duration = (Math.max(0, entry.getConstructionDuration()) + Math.max(0, entry.getInitializationDuration()));
+			blockingDuration += duration;
+			if(entry.getFirstUseTime() < 0)
+				deferrableDuration += duration;
+			printWriter.println(String.format(Locale.US, "%8s %10s %10s %10s  %-9s %s%s",
+					formatDuration(creationTime),
+					formatDuration(entry.getConstructionDuration()),
+					formatDuration(entry.getInitializationDuration()),
+					formatDuration(entry.getFirstUseTime()),
+					entry.getPriority(),
+					entry.getKey(),
+					(entry.getFirstUseTime() < 0 ? " (not used)" : "")));
+		}
+		printWriter.println("Time spent by components : " + formatDuration(blockingDuration) + ", not used during startup : " + formatDuration(deferrableDuration));
+		
+		// adaptation
+		printWriter.println();
+		printWriter.println("Early use history (U = used during startup, last launch at right, unfound = never found and never deferred) :");
+		for(int i = 0, count = entries.size() ; i < count ; ++i)
+		{
+			StartupProfile.Entry entry = entries.get(i);
+			String state;
+			if(entry.isNeverUsedEarly())
+				state = (entry.isFound() ? "never" : "unfound");
+			else if(entry.isAlwaysUsedEarly())
+				state = "always";
+			else
+				state = "";
+			printWriter.println(String.format(Locale.US, "%-8s %-8s %s", formatHistory(entry), state, entry.getKey()));
+		}
+		printWriter.println();
+		printWriter.flush();
+	}
+}
@@ -0,0 +1,83 @@
+package com.charles.camera;
+
+/**
+ * Downscaled luminance plane of preview frame, shared by all {@link FrameAnalyzer} with the same input size.
+ */
+public final class AnalysisFrame
+{
+	// Private fields
+	private final byte[] m_Data;
+	private final int m_Height;
+	private final long m_Sequence;
+	private final long m_Timestamp;
+	private final int m_Width;
+	
+	
+	// Constructor
+	AnalysisFrame(byte[] data, int width, int height, long sequence, long timestamp)
+	{
+		m_Data = data;
+		m_Width = width;
+		m_Height = height;
+		m_Sequence = sequence;
+		m_Timestamp = timestamp;
+	}
+	
+	
+	/**
+	 * Get luminance data, one byte per pixel with row stride equals to {@link #getWidth()}, array may be larger than frame.
+	 * @return Luminance data.
+	 */
+	public byte[] getData()
+	{
+		return m_Data;
+	}
+	
+	
+	/**
+	 * Get frame height.
+	 * @return Height in pixels.
+	 */
+	public int getHeight()
+	{
+		return m_Height;
+	}
+	
+	
+	/**
+	 * Get sequence number of source frame.
+	 * @return Sequence number.
+	 */
+	public long getSequence()
+	{
+		return m_Sequence;
+	}
+	
+	
+	/**
+	 * Get timestamp of source frame.
+	 * @return Timestamp in nanoseconds.
+	 */
+	public long getTimestamp()
+	{
+		return m_Timestamp;
+	}
+	
+	
+	/**
+	 * Get frame width.
+	 * @return Width in pixels.
+	 */
+	public int getWidth()
+	{
+		return m_Width;
+	}
+	
+	
+	// Get string represents this frame.
+	@Override
+	public String toString()
+	{
+		return "AnalysisFrame #" + m_Sequence + " (" + m_Width + "x" + m_Height + ")";
+	}
+}
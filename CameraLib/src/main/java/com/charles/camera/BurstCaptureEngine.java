@@ -0,0 +1,462 @@
+package com.charles.camera;
+
+import com.charles.base.Log;
+
+/**
+ * Engine to perform sustained burst capture at target rate.
+ * Frames are requested from camera in short chunks paced by current capture rate, number of frames which are requested but not saved yet is limited by both frame count and memory budget, and capture rate is decreased when save queue grows and recovered when save queue drains.
+ * This class is not thread-safe, all methods must be called on the same thread with time in milliseconds from the same monotonic clock.
+ */
+public final class BurstCaptureEngine
+{
+	/**
+	 * Backend to access camera and environment.
+	 */
+	public interface Backend
+	{
+		/**
+		 * Get size of memory which can still be allocated.
+		 * @return Size in bytes.
+		 */
+		long getAvailableMemory();
+		
+		/**
+		 * Get number of media waiting to be saved, including frames from other sources.
+		 * @return Number of media.
+		 */
+		int getSaveQueueDepth();
+		
+		/**
+		 * Called when all requested frames are captured and no more frames will be requested.
+		 */
+		void onCaptureStopped();
+		
+		/**
+		 * Called when burst statistics changed.
+		 * @param stats Current statistics.
+		 */
+		void onStatsUpdated(BurstCaptureStats stats);
+		
+		/**
+		 * Start capturing given number of frames, {@link BurstCaptureEngine#onCaptureCompleted(long)} should be called after capture completes.
+		 * @param frameCount Number of frames to capture.
+		 * @return Whether capture starts successfully or not.
+		 */
+		boolean requestFrames(int frameCount);
+		
+		/**
+		 * Schedule calling {@link BurstCaptureEngine#update(long)}, previously scheduled call should be cancelled.
+		 * @param delay Delay in milliseconds.
+		 */
+		void scheduleUpdate(long delay);
+	}
+	
+	
+	// Constants
+	private static final String TAG = "BurstCaptureEngine";
+	private static final float FREE_MEMORY_USAGE_RATIO = 0.5f;
+	private static final float MIN_CAPTURE_RATE = 0.5f;
+	private static final float RATE_DECREASE_RATIO = 0.7f;
+	private static final long RATE_ADJUST_INTERVAL = 200;
+	private static final float RATE_INCREASE_RATIO = 0.1f;
+	
+	
+	// Private fields
+	private final Backend m_Backend;
+	private float m_CaptureRate;
+	private long m_FirstCaptureTime;
+	private float m_FrameCredit;
+	private int m_FramesCaptured;
+	private int m_FramesDropped;
+	private final int m_FramesInFlightLimit;
+	private int m_FramesRequested;
+	private int m_FramesSaved;
+	private boolean m_IsCameraBusy;
+	private boolean m_IsCaptureStopped;
+	private boolean m_IsRunning;
+	private boolean m_IsStarted;
+	private boolean m_IsStatsChanged;
+	private long m_LastCaptureTime;
+	private long m_LastRateAdjustTime;
+	private long m_LastUpdateTime;
+	private final long m_MemoryBudget;
+	private int m_PeakFramesInFlight;
+	private int m_PendingCaptureCount;
+	private int m_PendingSaveCount;
+	private long m_PictureSize;
+	private long m_StartTime;
+	private BurstCaptureStats m_Stats;
+	private int m_TargetFrameCount;
+	private final float m_TargetRate;
+	
+	
+	/**
+	 * Initialize new BurstCaptureEngine instance.
+	 * @param backend Backend to access camera and environment.
+	 * @param targetRate Target capture rate in frames per second.
+	 * @param framesInFlightLimit Maximum number of frames which are requested but not saved yet.
+	 * @param memoryBudget Maximum size of memory used by frames which are requested but not saved yet, in bytes.
+	 */
+	public BurstCaptureEngine(Backend backend, float targetRate, int framesInFlightLimit, long memoryBudget)
+	{
+		if(backend == null)
+			throw new IllegalArgumentException("No backend");
+		if(!(targetRate > 0))
+			throw new IllegalArgumentException("Invalid target rate : " + targetRate);
+		if(framesInFlightLimit <= 0)
+			throw new IllegalArgumentException("Invalid frames in flight limit : " + framesInFlightLimit);
+		if(memoryBudget <= 0)
+			throw new IllegalArgumentException("Invalid memory budget : " + memoryBudget);
+		m_Backend = backend;
+		m_TargetRate = targetRate;
+		m_FramesInFlightLimit = framesInFlightLimit;
+		m_MemoryBudget = memoryBudget;
+	}
+	
+	
+	// Adjust capture rate according to save queue depth.
+	private void adjustCaptureRate(long time)
+	{
+		if((time - m_LastRateAdjustTime) < RATE_ADJUST_INTERVAL)
+			return;
+		m_LastRateAdjustTime = time;
+		int highWatermark = Math.max(1, m_FramesInFlightLimit / 2);
+		int saveQueueDepth = m_Backend.getSaveQueueDepth();
+		float rate = m_CaptureRate;
+		if(saveQueueDepth > highWatermark)
+			rate = Math.max(MIN_CAPTURE_RATE, rate * RATE_DECREASE_RATIO);
+		else if(saveQueueDepth <= highWatermark / 2)
+			rate = Math.min(m_TargetRate, rate + m_TargetRate * RATE_INCREASE_RATIO);
+		if(rate != m_CaptureRate)
+		{
+			Log.v(TAG, "adjustCaptureRate() - Save queue depth : ", saveQueueDepth, ", rate : ", rate);
+			m_CaptureRate = rate;
+			m_IsStatsChanged = true;
+		}
+	}
+	
+	
+	// Check whether capture or whole burst is completed.
+	private void checkCompletion()
+	{
+		if(m_IsRunning || m_IsCameraBusy)
+			return;
+		if(!m_IsCaptureStopped)
+		{
+			Log.v(TAG, "checkCompletion() - Capture stopped");
+			m_IsCaptureStopped = true;
+			m_Backend.onCaptureStopped();
+		}
+		if(m_PendingSaveCount == 0 && m_IsStarted)
+		{
+			m_IsStarted = false;
+			m_IsStatsChanged = true;
+		}
+	}
+	
+	
+	/**
+	 * Get current capture rate after adaptation.
+	 * @return Capture rate in frames per second.
+	 */
+	public float getCaptureRate()
+	{
+		return m_CaptureRate;
+	}
+	
+	
+	/**
+	 * Get number of frames which are requested but not saved yet.
+	 * @return Number of frames.
+	 */
+	public int getFramesInFlight()
+	{
+		return (m_PendingCaptureCount + m_PendingSaveCount);
+	}
+	
+	
+	/**
+	 * Get statistics of current or last burst.
+	 * @return Statistics, or Null if no burst has been started.
+	 */
+	public BurstCaptureStats getStats()
+	{
+		return m_Stats;
+	}
+	
+	
+	/**
+	 * Check whether frames are still being requested from camera or not.
+	 * @return Whether burst capture is running or not.
+	 */
+	public boolean isCapturing()
+	{
+		return (m_IsStarted && !m_IsCaptureStopped);
+	}
+	
+	
+	/**
+	 * Check whether burst is started and not all frames are saved or dropped yet.
+	 * @return Whether burst is started or not.
+	 */
+	public boolean isStarted()
+	{
+		return m_IsStarted;
+	}
+	
+	
+	/**
+	 * Called when capture started by {@link Backend#requestFrames(int)} completes, frames which are not received will be treated as dropped.
+	 * @param time Current time.
+	 */
+	public void onCaptureCompleted(long time)
+	{
+		if(!m_IsCameraBusy)
+			return;
+		m_IsCameraBusy = false;
+		if(m_PendingCaptureCount > 0)
+		{
+			Log.w(TAG, "onCaptureCompleted() - " + m_PendingCaptureCount + " frame(s) not received");
+			m_FramesDropped += m_PendingCaptureCount;
+			m_PendingCaptureCount = 0;
+			m_IsStatsChanged = true;
+		}
+		if(m_TargetFrameCount > 0 && m_FramesRequested >= m_TargetFrameCount)
+			m_IsRunning = false;
+		this.update(time);
+	}
+	
+	
+	/**
+	 * Called when picture is captured.
+	 * @param pictureSize Picture size in bytes.
+	 * @param time Current time.
+	 */
+	public void onFrameCaptured(long pictureSize, long time)
+	{
+		if(m_PendingCaptureCount <= 0)
+		{
+			Log.w(TAG, "onFrameCaptured() - Unexpected frame");
+			return;
+		}
+		--m_PendingCaptureCount;
+		++m_PendingSaveCount;
+		if(m_FramesCaptured++ == 0)
+			m_FirstCaptureTime = time;
+		m_LastCaptureTime = time;
+		if(pictureSize > 0)
+			m_PictureSize = (m_PictureSize > 0 ? (m_PictureSize * 3 + pictureSize) / 4 : pictureSize);
+		m_IsStatsChanged = true;
+		this.update(time);
+	}
+	
+	
+	/**
+	 * Called when frame is failed to capture.
+	 * @param time Current time.
+	 */
+	public void onFrameFailed(long time)
+	{
+		if(m_PendingCaptureCount <= 0)
+		{
+			Log.w(TAG, "onFrameFailed() - Unexpected frame");
+			return;
+		}
+		--m_PendingCaptureCount;
+		++m_FramesDropped;
+		m_IsStatsChanged = true;
+		this.update(time);
+	}
+	
+	
+	/**
+	 * Called when captured picture is saved.
+	 * @param time Current time.
+	 */
+	public void onFrameSaved(long time)
+	{
+		if(m_PendingSaveCount <= 0)
+		{
+			Log.w(TAG, "onFrameSaved() - Unexpected frame");
+			return;
+		}
+		--m_PendingSaveCount;
+		++m_FramesSaved;
+		m_IsStatsChanged = true;
+		this.update(time);
+	}
+	
+	
+	/**
+	 * Called when captured picture is failed to save.
+	 * @param time Current time.
+	 */
+	public void onFrameSaveFailed(long time)
+	{
+		if(m_PendingSaveCount <= 0)
+		{
+			Log.w(TAG, "onFrameSaveFailed() - Unexpected frame");
+			return;
+		}
+		--m_PendingSaveCount;
+		++m_FramesDropped;
+		m_IsStatsChanged = true;
+		this.update(time);
+	}
+	
+	
+	// Notify statistics changes.
+	private void publishStats(long time)
+	{
+		if(!m_IsStatsChanged)
+			return;
+		m_IsStatsChanged = false;
+		float sustainedFps = 0;
+		if(m_FramesCaptured > 1 && m_LastCaptureTime > m_FirstCaptureTime)
+			sustainedFps = ((m_FramesCaptured - 1) * 1000f / (m_LastCaptureTime - m_FirstCaptureTime));
+		m_Stats = new BurstCaptureStats(m_FramesRequested, m_FramesCaptured, m_FramesSaved, m_FramesDropped, sustainedFps, m_CaptureRate, m_PeakFramesInFlight, (time - m_StartTime), !m_IsStarted);
+		m_Backend.onStatsUpdated(m_Stats);
+	}
+	
+	
+	// Request frames from camera if allowed by capture rate, frames in flight limit and memory budget.
+	private void requestFrames()
+	{
+		// check frames in flight
+		int framesInFlight = this.getFramesInFlight();
+		int framesInFlightLimit = m_FramesInFlightLimit;
+		if(m_PictureSize > 0)
+		{
+			long memoryLimit = Math.min(m_MemoryBudget, framesInFlight * m_PictureSize + (long)(m_Backend.getAvailableMemory() * FREE_MEMORY_USAGE_RATIO));
+			framesInFlightLimit = (int)Math.min(framesInFlightLimit, memoryLimit / m_PictureSize);
+		}
+		else
+			framesInFlightLimit = 1;
+		
+		// calculate frame count
+		int frameCount = Math.min((int)m_FrameCredit, framesInFlightLimit - framesInFlight);
+		if(m_TargetFrameCount > 0)
+			frameCount = Math.min(frameCount, m_TargetFrameCount - m_FramesRequested);
+		if(frameCount <= 0)
+			return;
+		
+		// request
+		if(!m_Backend.requestFrames(frameCount))
+		{
+			Log.w(TAG, "requestFrames() - Fail to request " + frameCount + " frame(s)");
+			return;
+		}
+		m_IsCameraBusy = true;
+		m_FrameCredit -= frameCount;
+		m_FramesRequested += frameCount;
+		m_PendingCaptureCount += frameCount;
+		m_PeakFramesInFlight = Math.max(m_PeakFramesInFlight, this.getFramesInFlight());
+		m_IsStatsChanged = true;
+	}
+	
+	
+	/**
+	 * Start burst capture.
+	 * @param frameCount Target frame count, positive integer for limited burst; negative for unlimited burst.
+	 * @param time Current time.
+	 * @return Whether burst capture starts successfully or not.
+	 */
+	public boolean start(int frameCount, long time)
+	{
+		// check state
+		if(frameCount == 0)
+			throw new IllegalArgumentException("Invalid frame count : " + frameCount);
+		if(this.isCapturing())
+		{
+			Log.e(TAG, "start() - Burst capture is already running");
+			return false;
+		}
+		
+		Log.v(TAG, "start() - Frame count : ", frameCount, ", target rate : ", m_TargetRate);
+		
+		// reset state
+		m_TargetFrameCount = frameCount;
+		m_CaptureRate = m_TargetRate;
+		m_FrameCredit = 1;
+		m_FramesCaptured = 0;
+		m_FramesDropped = 0;
+		m_FramesRequested = 0;
+		m_FramesSaved = 0;
+		m_IsCameraBusy = false;
+		m_IsCaptureStopped = false;
+		m_PeakFramesInFlight = 0;
+		m_PendingCaptureCount = 0;
+		m_PendingSaveCount = 0;
+		m_StartTime = time;
+		m_LastRateAdjustTime = time;
+		m_LastUpdateTime = time;
+		m_IsRunning = true;
+		m_IsStarted = true;
+		m_IsStatsChanged = true;
+		
+		// request first frame
+		this.requestFrames();
+		if(!m_IsCameraBusy)
+		{
+			Log.e(TAG, "start() - Fail to request first frame");
+			m_IsRunning = false;
+			m_IsStarted = false;
+			m_IsCaptureStopped = true;
+			return false;
+		}
+		this.update(time);
+		return true;
+	}
+	
+	
+	/**
+	 * Stop requesting frames, frames which are already requested will still be captured and saved.
+	 * @param time Current time.
+	 */
+	public void stop(long time)
+	{
+		if(!m_IsRunning)
+			return;
+		Log.v(TAG, "stop()");
+		m_IsRunning = false;
+		this.update(time);
+	}
+	
+	
+	/**
+	 * Update capture rate and request frames if needed, called by owner or when call scheduled by {@link Backend#scheduleUpdate(long)} is due.
+	 * @param time Current time.
+	 */
+	public void update(long time)
+	{
+		// check state
+		if(!m_IsStarted)
+			return;
+		
+		// request frames
+		if(m_IsRunning)
+		{
+			float maxFrameCredit = Math.max(1, m_FramesInFlightLimit / 2);
+			m_FrameCredit = Math.min(maxFrameCredit, m_FrameCredit + m_CaptureRate * (time - m_LastUpdateTime) / 1000);
+			m_LastUpdateTime = time;
+			this.adjustCaptureRate(time);
+			if(!m_IsCameraBusy)
+				this.requestFrames();
+		}
+		
+		// check completion
+		this.checkCompletion();
+		this.publishStats(time);
+		
+		// schedule next update
+		if(m_IsRunning && !m_IsCameraBusy)
+		{
+			long delay;
+			if(m_FrameCredit < 1)
+				delay = Math.max(1, (long)Math.ceil((1 - m_FrameCredit) * 1000 / m_CaptureRate));
+			else
+				delay = RATE_ADJUST_INTERVAL;
+			m_Backend.scheduleUpdate(delay);
+		}
+	}
+}
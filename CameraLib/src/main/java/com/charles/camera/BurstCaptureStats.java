@@ -0,0 +1,150 @@
+package com.charles.camera;
+
+/**
+ * Immutable statistics of single burst capture performed by {@link BurstCaptureEngine}.
+ */
+public final class BurstCaptureStats
+{
+	// Private fields
+	private final float m_CaptureRate;
+	private final long m_Duration;
+	private final int m_FramesCaptured;
+	private final int m_FramesDropped;
+	private final int m_FramesRequested;
+	private final int m_FramesSaved;
+	private final boolean m_IsCompleted;
+	private final int m_PeakFramesInFlight;
+	private final float m_SustainedFps;
+	
+	
+	/**
+	 * Initialize new BurstCaptureStats instance.
+	 * @param framesRequested Number of frames requested from camera.
+	 * @param framesCaptured Number of captured pictures.
+	 * @param framesSaved Number of saved pictures.
+	 * @param framesDropped Number of frames which are failed to capture or save.
+	 * @param sustainedFps Average captured frames per second.
+	 * @param captureRate Current capture rate after adaptation, in frames per second.
+	 * @param peakFramesInFlight Peak number of frames which are requested but not saved yet.
+	 * @param duration Burst duration in milliseconds.
+	 * @param isCompleted Whether all frames of burst are saved or dropped or not.
+	 */
+	public BurstCaptureStats(int framesRequested, int framesCaptured, int framesSaved, int framesDropped, float sustainedFps, float captureRate, int peakFramesInFlight, long duration, boolean isCompleted)
+	{
+		m_FramesRequested = framesRequested;
+		m_FramesCaptured = framesCaptured;
+		m_FramesSaved = framesSaved;
+		m_FramesDropped = framesDropped;
+		m_SustainedFps = sustainedFps;
+		m_CaptureRate = captureRate;
+		m_PeakFramesInFlight = peakFramesInFlight;
+		m_Duration = duration;
+		m_IsCompleted = isCompleted;
+	}
+	
+	
+	/**
+	 * Get current capture rate after adaptation.
+	 * @return Capture rate in frames per second.
+	 */
+	public float getCaptureRate()
+	{
+		return m_CaptureRate;
+	}
+	
+	
+	/**
+	 * Get burst duration.
+	 * @return Duration in milliseconds.
+	 */
+	public long getDuration()
+	{
+		return m_Duration;
+	}
+	
+	
+	/**
+	 * Get number of captured pictures.
+	 * @return Number of frames.
+	 */
+	public int getFramesCaptured()
+	{
+		return m_FramesCaptured;
+	}
+	
+	
+	/**
+	 * Get number of frames which are failed to capture or save.
+	 * @return Number of frames.
+	 */
+	public int getFramesDropped()
+	{
+		return m_FramesDropped;
+	}
+	
+	
+	/**
+	 * Get number of frames requested from camera.
+	 * @return Number of frames.
+	 */
+	public int getFramesRequested()
+	{
+		return m_FramesRequested;
+	}
+	
+	
+	/**
+	 * Get number of saved pictures.
+	 * @return Number of frames.
+	 */
+	public int getFramesSaved()
+	{
+		return m_FramesSaved;
+	}
+	
+	
+	/**
+	 * Get peak number of frames which are requested but not saved yet.
+	 * @return Number of frames.
+	 */
+	public int getPeakFramesInFlight()
+	{
+		return m_PeakFramesInFlight;
+	}
+	
+	
+	/**
+	 * Get average captured frames per second.
+	 * @return Frames per second.
+	 */
+	public float getSustainedFps()
+	{
+		return m_SustainedFps;
+	}
+	
+	
+	/**
+	 * Check whether all frames of burst are saved or dropped or not.
+	 * @return Whether burst is completed or not.
+	 */
+	public boolean isCompleted()
+	{
+		return m_IsCompleted;
+	}
+	
+	
+	// Get string represents this statistics.
+	@Override
+	public String toString()
+	{
+		return "[Requested=" + m_FramesRequested
+				+ ", Captured=" + m_FramesCaptured
+				+ ", Saved=" + m_FramesSaved
+				+ ", Dropped=" + m_FramesDropped
+				+ ", SustainedFps=" + m_SustainedFps
+				+ ", CaptureRate=" + m_CaptureRate
+				+ ", PeakInFlight=" + m_PeakFramesInFlight
+				+ ", Duration=" + m_Duration
+				+ (m_IsCompleted ? ", Completed]" : "]");
+	}
+}
@@ -13,6 +13,7 @@ import android.util.Size;
 import android.view.Surface;
 
 import com.charles.base.BaseObject;
+import com.charles.base.BooleanPropertyKey;
 import com.charles.base.EventArgs;
 import com.charles.base.EventKey;
 import com.charles.base.Handle;
@@ -97,7 +98,7 @@ public interface Camera extends BaseObject, HandlerObject
 	/**
 	 * Read-only property to check whether first preview frame is received or not.
 	 */
-	PropertyKey<Boolean> PROP_IS_PREVIEW_RECEIVED = new PropertyKey<>("IsPreviewReceived", Boolean.class, Camera.class, false);
+	BooleanPropertyKey PROP_IS_PREVIEW_RECEIVED = new BooleanPropertyKey("IsPreviewReceived", Camera.class, false);
 	/**
 	 * Property to get or set whether camera is in recording mode or not.
 	 */
@@ -149,6 +150,10 @@ public interface Camera extends BaseObject, HandlerObject
 	 */
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	PropertyKey<Range<Integer>> PROP_PREVIEW_FPS_RANGE = new PropertyKey<>("PreviewFpsRange", (Class)Range.class, Camera.class, 0, null);
+	/**
+	 * Read-only property to get ring of preview frames, add consumer to the ring to receive preview frames on other threads.
+	 */
+	PropertyKey<PreviewFrameRing> PROP_PREVIEW_FRAME_RING = new PropertyKey<>("PreviewFrameRing", PreviewFrameRing.class, Camera.class, PropertyKey.FLAG_READONLY, null);
 	/**
 	 * Property to get or set preview receiver.
 	 */
@@ -1,5 +1,6 @@
 package com.charles.camera;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -8,19 +9,26 @@ import java.util.List;
 
 import com.charles.base.BaseActivity;
 import com.charles.base.BaseThread;
+import com.charles.base.BooleanPropertyKey;
 import com.charles.base.EventArgs;
 import com.charles.base.EventHandler;
 import com.charles.base.EventKey;
 import com.charles.base.EventSource;
+import com.charles.base.FlightRecorder;
 import com.charles.base.Handle;
 import com.charles.base.HandlerUtils;
+import com.charles.base.IntPropertyKey;
 import com.charles.base.Log;
+import com.charles.base.LongPropertyChangedCallback;
+import com.charles.base.LongPropertyKey;
+import com.charles.base.MirrorMailbox;
 import com.charles.base.PropertyChangeEventArgs;
 import com.charles.base.PropertyChangedCallback;
 import com.charles.base.PropertyKey;
 import com.charles.base.PropertySource;
 import com.charles.base.Rotation;
 import com.charles.base.ScreenSize;
+import com.charles.base.ThreadLatencyStatistics;
 import com.charles.base.ThreadMonitor;
 import com.charles.base.component.Component;
 import com.charles.base.component.ComponentBuilder;
@@ -28,6 +36,7 @@ import com.charles.base.component.ComponentCreationPriority;
 import com.charles.base.component.ComponentEventArgs;
 import com.charles.base.component.ComponentManager;
 import com.charles.base.component.ComponentOwner;
+import com.charles.base.component.StartupProfile;
 import com.charles.camera.Camera.LensFacing;
 import com.charles.camera.media.MediaType;
 import com.charles.camera.media.Resolution;
@@ -109,11 +118,11 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	/**
 	 * Read-only property for current device orientation.
 	 */
-	public static final PropertyKey<Integer> PROP_DEVICE_ORIENTATION = new PropertyKey<>("DeviceOrientation", Integer.class, CameraActivity.class, 0);
+	public static final IntPropertyKey PROP_DEVICE_ORIENTATION = new IntPropertyKey("DeviceOrientation", CameraActivity.class, 0);
 	/**
 	 * Read-only property to get elapsed recording time in seconds.
 	 */
-	public static final PropertyKey<Long> PROP_ELAPSED_RECORDING_SECONDS = new PropertyKey<>("ElapsedRecordingSeconds", Long.class, CameraActivity.class, 0L);
+	public static final LongPropertyKey PROP_ELAPSED_RECORDING_SECONDS = new LongPropertyKey("ElapsedRecordingSeconds", CameraActivity.class, 0L);
 	/**
 	 * Read-only property to check whether camera is locked (cannot to be switched) or not.
 	 */
@@ -121,7 +130,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	/**
 	 * Read-only property to check whether first camera preview frame is received or not.
 	 */
-	public static final PropertyKey<Boolean> PROP_IS_CAMERA_PREVIEW_RECEIVED = new PropertyKey<>("IsCameraPreviewReceived", Boolean.class, CameraActivity.class, false);
+	public static final BooleanPropertyKey PROP_IS_CAMERA_PREVIEW_RECEIVED = new BooleanPropertyKey("IsCameraPreviewReceived", CameraActivity.class, false);
 	/**
 	 * Read-only property to check whether camera thread is started or not.
 	 */
@@ -129,11 +138,11 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	/**
 	 * Read-only property to check whether capture UI is enabled or not.
 	 */
-	public static final PropertyKey<Boolean> PROP_IS_CAPTURE_UI_ENABLED = new PropertyKey<>("IsCaptureUIEnabled", Boolean.class, CameraActivity.class, true);
+	public static final BooleanPropertyKey PROP_IS_CAPTURE_UI_ENABLED = new BooleanPropertyKey("IsCaptureUIEnabled", CameraActivity.class, true);
 	/**
 	 * Read-only property to check whether photo or video capture state is READY or not.
 	 */
-	public static final PropertyKey<Boolean> PROP_IS_READY_TO_CAPTURE = new PropertyKey<>("IsReadyToCapture", Boolean.class, CameraActivity.class, false);
+	public static final BooleanPropertyKey PROP_IS_READY_TO_CAPTURE = new BooleanPropertyKey("IsReadyToCapture", CameraActivity.class, false);
 	/**
 	 * Read-only property to check whether self timer is started or not.
 	 */
@@ -141,7 +150,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	/**
 	 * Read-only property to check whether user is touching on screen or not.
 	 */
-	public static final PropertyKey<Boolean> PROP_IS_TOUCHING_ON_SCREEN = new PropertyKey<>("IsTouchingOnScreen", Boolean.class, CameraActivity.class, false);
+	public static final BooleanPropertyKey PROP_IS_TOUCHING_ON_SCREEN = new BooleanPropertyKey("IsTouchingOnScreen", CameraActivity.class, false);
 	/**
 	 * Read-only property to check whether video snapshot is enabled or not.
 	 */
@@ -206,8 +215,10 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	private static final String SETTINGS_KEY_CAMERA_LENS_FACING = "CameraLensFacing";
 	private static final String SETTINGS_KEY_SELF_TIMER_INTERVAL_BACK = "SelfTimer.Back";
 	private static final String SETTINGS_KEY_SELF_TIMER_INTERVAL_FRONT = "SelfTimer.Front";
-	private static final int MSG_CAMERA_THREAD_EVENT_RAISED = -1;
-	private static final int MSG_CAMERA_THREAD_PROP_CHANGED = -2;
+	private static final long CAMERA_THREAD_MAILBOX_DRAIN_INTERVAL = 16;
+	private static final long LATENCY_STATISTICS_UPDATE_INTERVAL = 5000;
+	private static final String STARTUP_PROFILE_FILE_NAME = "CameraActivity.startup_profile";
+	private static final int MSG_DRAIN_CAMERA_THREAD_MAILBOX = -1;
 	private static final int MSG_CAMERA_PREVIEW_START_FAILED = -10;
 	private static final int MSG_CAMERA_PREVIEW_STARTED = -11;
 	private static final int MSG_PHOTO_CAPTURE_FAILED = -20;
@@ -215,6 +226,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	private static final int MSG_VIDEO_CAPTURE_FAILED = -30;
 	private static final int MSG_VIDEO_CAPTURE_STARTED = -31;
 	private static final int MSG_UPDATE_ELAPSED_RECORDING_TIME = -40;
+	private static final int MSG_CREATE_LOW_PRIORITY_COMPONENTS = -50;
 	
 	
 	// Private fields
@@ -225,9 +237,13 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	private Handle m_CameraPreviewStartCUDHandle;
 	private OperationState m_CameraPreviewState = OperationState.STOPPED;
 	private CameraThread m_CameraThread;
+	private ThreadLatencyStatistics m_CameraThreadLatencyStatistics;
+	private volatile MirrorMailbox m_CameraThreadMailbox;
+	private volatile long m_CameraThreadMailboxDrainTime;
 	private final LinkedList<UIDisableHandle> m_CaptureUIDisableHandles = new LinkedList<>();
 	private ComponentManager m_ComponentManager;
 	private CountDownTimer m_CountDownTimer;
+	private long m_CreationTime;
 	private final List<ComponentBuilder> m_InitialComponentBuilders = new ArrayList<>();
 	private boolean m_IsAccelerometerStarted;
 	private boolean m_IsCameraPreviewReceiverReady;
@@ -243,6 +259,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	private Handle m_SelfTimerHandle;
 	private SensorManager m_SensorManager;
 	private final List<SettingsHandle> m_SettingsHandles = new ArrayList<>();
+	private ThreadLatencyStatistics m_UIThreadLatencyStatistics;
 	private Handle m_VideoCaptureCUDHandle;
 	private CaptureHandleImpl m_VideoCaptureHandle;
 	private Handle m_VideoRotationLockHandle;
@@ -437,6 +454,36 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	{
 		Log.v(TAG, "bindToCameraThread()");
 		
+		// create mailbox, capture states are never coalesced so that every state transition reaches UI thread
+		List<PropertyKey<?>> coalescedPropKeys = new ArrayList<>();
+		if(propKeys.contains(CameraThread.PROP_AVAILABLE_CAMERAS))
+			coalescedPropKeys.add(CameraThread.PROP_AVAILABLE_CAMERAS);
+		if(propKeys.contains(CameraThread.PROP_IS_VIDEO_SNAPSHOT_ENABLED))
+			coalescedPropKeys.add(CameraThread.PROP_IS_VIDEO_SNAPSHOT_ENABLED);
+		final MirrorMailbox mailbox = new MirrorMailbox(coalescedPropKeys, MirrorMailbox.DEFAULT_CAPACITY, new MirrorMailbox.Receiver()
+		{
+			@Override
+			public void onEventReceived(EventKey<?> key, EventArgs e)
+			{
+				onCameraThreadEventReceived(key, e);
+			}
+			
+			@Override
+			public void onPropertyChanged(PropertyKey<?> key, PropertyChangeEventArgs<?> e)
+			{
+				onCameraThreadPropertyChanged(key, e);
+			}
+		})
+		{
+			@Override
+			protected void onDrainRequested()
+			{
+				long delay = (m_CameraThreadMailboxDrainTime + CAMERA_THREAD_MAILBOX_DRAIN_INTERVAL - SystemClock.uptimeMillis());
+				HandlerUtils.sendMessage(CameraActivity.this, MSG_DRAIN_CAMERA_THREAD_MAILBOX, Math.max(0, delay));
+			}
+		};
+		m_CameraThreadMailbox = mailbox;
+		
 		// add event handlers
 		if(!eventKeys.isEmpty())
 		{
@@ -445,7 +492,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 				@Override
 				public void onEventReceived(EventSource source, EventKey key, EventArgs e)
 				{
-					HandlerUtils.sendMessage(CameraActivity.this, MSG_CAMERA_THREAD_EVENT_RAISED, 0, 0, new Object[]{ key, e.clone() });
+					mailbox.putEvent(key, e);
 				}
 			};
 			for(int i = eventKeys.size() - 1 ; i >= 0 ; --i)
@@ -460,13 +507,31 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 				@Override
 				public void onPropertyChanged(PropertySource source, PropertyKey key, PropertyChangeEventArgs e)
 				{
-					HandlerUtils.sendMessage(CameraActivity.this, MSG_CAMERA_THREAD_PROP_CHANGED, 0, 0, new Object[]{ key, e.clone() });
+					mailbox.putProperty(key, e.getOldValue(), e.getNewValue());
 				}
 			};
 			for(int i = propKeys.size() - 1 ; i >= 0 ; --i)
 				m_CameraThread.addCallback(propKeys.get(i), callback);
 		}
 		
+		// deliver changes in property transaction by single drain
+		m_CameraThread.addHandler(CameraThread.EVENT_PROPERTY_TRANSACTION_COMMITTING, new EventHandler<EventArgs>()
+		{
+			@Override
+			public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+			{
+				mailbox.beginBatch();
+			}
+		});
+		m_CameraThread.addHandler(CameraThread.EVENT_PROPERTY_TRANSACTION_COMMITTED, new EventHandler<EventArgs>()
+		{
+			@Override
+			public void onEventReceived(EventSource source, EventKey<EventArgs> key, EventArgs e)
+			{
+				mailbox.endBatch();
+			}
+		});
+		
 		// set initial media type
 		if(!m_CameraThread.setMediaType(initialMediaType))
 			Log.e(TAG, "bindToCameraThread() - Fail to set initial media type to " + initialMediaType);
@@ -880,7 +945,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		switch(this.get(PROP_PHOTO_CAPTURE_STATE))
 		{
 			case READY:
-				this.setReadOnly(PROP_IS_READY_TO_CAPTURE, true);
+				this.setReadOnlyBoolean(PROP_IS_READY_TO_CAPTURE, true);
 				return;
 			case STARTING:
 			{
@@ -897,7 +962,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 					break;
 				
 				// can capture now
-				this.setReadOnly(PROP_IS_READY_TO_CAPTURE, true);
+				this.setReadOnlyBoolean(PROP_IS_READY_TO_CAPTURE, true);
 				return;
 			}
 			default:
@@ -907,12 +972,12 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		// check video capture state
 		if(this.get(PROP_VIDEO_CAPTURE_STATE) == VideoCaptureState.READY)
 		{
-			this.setReadOnly(PROP_IS_READY_TO_CAPTURE, true);
+			this.setReadOnlyBoolean(PROP_IS_READY_TO_CAPTURE, true);
 			return;
 		}
 		
 		// cannot capture now
-		this.setReadOnly(PROP_IS_READY_TO_CAPTURE, false);
+		this.setReadOnlyBoolean(PROP_IS_READY_TO_CAPTURE, false);
 	}
 	
 	
@@ -1014,6 +1079,30 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	}
 	
 	
+	// Create latency statistics of given thread which prints summary when slow messages are found.
+	private ThreadLatencyStatistics createThreadLatencyStatistics(final Thread thread)
+	{
+		final ThreadLatencyStatistics statistics = new ThreadLatencyStatistics(thread, LATENCY_STATISTICS_UPDATE_INTERVAL);
+		statistics.addCallback(ThreadLatencyStatistics.PROP_SLOW_MESSAGE_COUNT, new LongPropertyChangedCallback()
+		{
+			@Override
+			public void onPropertyChanged(PropertySource source, LongPropertyKey key, long oldValue, long newValue)
+			{
+				if(newValue <= oldValue)
+					return;
+				Log.w(TAG, "Thread '" + thread.getName() + "' has " + newValue + " slow messages, execution time (us) p50/p90/p99/max : "
+						+ statistics.getLong(ThreadLatencyStatistics.PROP_EXECUTION_TIME_P50) + "/"
+						+ statistics.getLong(ThreadLatencyStatistics.PROP_EXECUTION_TIME_P90) + "/"
+						+ statistics.getLong(ThreadLatencyStatistics.PROP_EXECUTION_TIME_P99) + "/"
+						+ statistics.getLong(ThreadLatencyStatistics.PROP_MAX_EXECUTION_TIME) + ", queue waiting time (us) p99 : "
+						+ statistics.getLong(ThreadLatencyStatistics.PROP_QUEUE_WAIT_TIME_P99) + ", last slow message : "
+						+ statistics.get(ThreadLatencyStatistics.PROP_LAST_SLOW_MESSAGE));
+			}
+		});
+		return statistics;
+	}
+	
+	
 	/**
 	 * Disable capture UI.
 	 * @return Handle to capture UI disable.
@@ -1059,7 +1148,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		
 		// disable capture UI
 		if(m_CaptureUIDisableHandles.size() == 1)
-			this.setReadOnly(PROP_IS_CAPTURE_UI_ENABLED, false);
+			this.setReadOnlyBoolean(PROP_IS_CAPTURE_UI_ENABLED, false);
 		
 		// complete
 		return handle;
@@ -1073,7 +1162,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		// check ACTION_DOWN
 		int action = ev.getAction();
 		if(action == MotionEvent.ACTION_DOWN)
-			this.setReadOnly(PROP_IS_TOUCHING_ON_SCREEN, true);
+			this.setReadOnlyBoolean(PROP_IS_TOUCHING_ON_SCREEN, true);
 		
 		// dispatch touch event
 		boolean result;
@@ -1089,7 +1178,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		
 		// check ACTION_DOWN
 		if(action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)
-			this.setReadOnly(PROP_IS_TOUCHING_ON_SCREEN, false);
+			this.setReadOnlyBoolean(PROP_IS_TOUCHING_ON_SCREEN, false);
 		
 		// complete
 		return result;
@@ -1104,7 +1193,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 			return;
 		Log.w(TAG, "enableCaptureUI() - Handle : " + handle + ", handle count : " + m_CaptureUIDisableHandles.size());
 		if(m_CaptureUIDisableHandles.isEmpty())
-			this.setReadOnly(PROP_IS_CAPTURE_UI_ENABLED, true);
+			this.setReadOnlyBoolean(PROP_IS_CAPTURE_UI_ENABLED, true);
 	}
 	
 	
@@ -1240,17 +1329,19 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 				this.onCameraPreviewStarted((Camera)msg.obj);
 				break;
 			
-			case MSG_CAMERA_THREAD_EVENT_RAISED:
-			{
-				Object[] array = (Object[])msg.obj;
-				this.onCameraThreadEventReceived((EventKey<?>)array[0], (EventArgs)array[1]);
+			case MSG_CREATE_LOW_PRIORITY_COMPONENTS:
+				if(!this.get(PROP_IS_LAUNCHING))
+					m_ComponentManager.createComponents(ComponentCreationPriority.LOW, this);
 				break;
-			}
 			
-			case MSG_CAMERA_THREAD_PROP_CHANGED:
+			case MSG_DRAIN_CAMERA_THREAD_MAILBOX:
 			{
-				Object[] array = (Object[])msg.obj;
-				this.onCameraThreadPropertyChanged((PropertyKey<?>)array[0], (PropertyChangeEventArgs<?>)array[1]);
+				MirrorMailbox mailbox = m_CameraThreadMailbox;
+				if(mailbox != null)
+				{
+					m_CameraThreadMailboxDrainTime = SystemClock.uptimeMillis();
+					mailbox.drain();
+				}
 				break;
 			}
 			
@@ -1662,7 +1753,11 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		if(key == CameraThread.PROP_AVAILABLE_CAMERAS)
 			this.onAvailableCamerasChanged((List<Camera>)e.getNewValue());
 		else if(key == CameraThread.PROP_IS_CAMERA_PREVIEW_RECEIVED)
+		{
+			if((Boolean)e.getNewValue())
+				this.onStartupCompleted();
 			this.setReadOnly(PROP_IS_CAMERA_PREVIEW_RECEIVED, (Boolean)e.getNewValue());
+		}
 		else if(key == CameraThread.PROP_IS_VIDEO_SNAPSHOT_ENABLED)
 			this.setReadOnly(PROP_IS_VIDEO_SNAPSHOT_ENABLED, (Boolean)e.getNewValue());
 		else if(key == CameraThread.PROP_PHOTO_CAPTURE_STATE)
@@ -1781,7 +1876,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 			case VIDEO:
 			{
 				// reset states
-				this.setReadOnly(PROP_ELAPSED_RECORDING_SECONDS, 0L);
+				this.setReadOnlyLong(PROP_ELAPSED_RECORDING_SECONDS, 0L);
 				m_VideoCaptureCUDHandle = Handle.close(m_VideoCaptureCUDHandle);
 				
 				// restart preview
@@ -1903,9 +1998,16 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		// start monitor thread
 		ThreadMonitor.startMonitorCurrentThread();
 		
+		// keep creation time to measure cold start
+		m_CreationTime = SystemClock.elapsedRealtime();
+		
 		// call super
 		super.onCreate(savedInstanceState);
 		
+		// set flight recorder dump directory
+		File dumpDirectory = this.getExternalFilesDir(null);
+		FlightRecorder.setDumpDirectory(dumpDirectory != null ? dumpDirectory : this.getCacheDir());
+		
 		// enable logs
 		this.enablePropertyLogs(PROP_CAMERA_PREVIEW_SIZE, LOG_PROPERTY_CHANGE);
 		this.enablePropertyLogs(PROP_CAMERA_PREVIEW_STATE, LOG_PROPERTY_CHANGE);
@@ -1955,6 +2057,13 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 			}
 		}, this.getHandler());
 		
+		// collect message latency statistics of UI and camera thread
+		if(ThreadMonitor.isPrepared())
+		{
+			m_UIThreadLatencyStatistics = this.createThreadLatencyStatistics(Thread.currentThread());
+			m_CameraThreadLatencyStatistics = this.createThreadLatencyStatistics(m_CameraThread);
+		}
+		
 		// update screen size
 		this.updateScreenSize();
 		
@@ -1963,6 +2072,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		
 		// create component manager
 		m_ComponentManager = new ComponentManager();
+		m_ComponentManager.setStartupProfile(StartupProfile.load(new File(this.getFilesDir(), STARTUP_PROFILE_FILE_NAME)));
 		m_ComponentManager.addComponentBuilders(DEFAULT_COMPONENT_BUILDERS, this);
 		m_ComponentManager.addHandler(ComponentManager.EVENT_COMPONENT_ADDED, new EventHandler<ComponentEventArgs<Component>>()
 		{
@@ -2049,6 +2159,18 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		// release components
 		m_ComponentManager.release();
 		
+		// release latency statistics
+		if(m_UIThreadLatencyStatistics != null)
+		{
+			m_UIThreadLatencyStatistics.release();
+			m_UIThreadLatencyStatistics = null;
+		}
+		if(m_CameraThreadLatencyStatistics != null)
+		{
+			m_CameraThreadLatencyStatistics.release();
+			m_CameraThreadLatencyStatistics = null;
+		}
+		
 		// call super
 		super.onDestroy();
 		
@@ -2069,7 +2191,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 			Log.w(TAG, "onDeviceOrientationChanged() - Unknown orientation");
 			return;
 		}
-		this.setReadOnly(PROP_DEVICE_ORIENTATION, orientation);
+		this.setReadOnlyInt(PROP_DEVICE_ORIENTATION, orientation);
 		
 		// check rotation lock
 		if(!m_RotationLockHandles.isEmpty())
@@ -2131,7 +2253,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 			}
 			Log.w(TAG, "onPause() - Capture UI disable handle count : " + m_CaptureUIDisableHandles.size());
 			if(m_CaptureUIDisableHandles.isEmpty())
-				this.setReadOnly(PROP_IS_CAPTURE_UI_ENABLED, true);
+				this.setReadOnlyBoolean(PROP_IS_CAPTURE_UI_ENABLED, true);
 		}
 	}
 	
@@ -2273,6 +2395,26 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 	}
 	
 	
+	// Called when first camera preview frame received.
+	private void onStartupCompleted()
+	{
+		// check state
+		if(m_CreationTime <= 0)
+			return;
+		Log.w(TAG, "onStartupCompleted() - Cold start duration : " + (SystemClock.elapsedRealtime() - m_CreationTime) + " ms");
+		m_CreationTime = 0;
+		
+		// complete startup profile
+		StartupProfile profile = m_ComponentManager.getStartupProfile();
+		if(profile == null || !profile.completeStartup())
+			return;
+		profile.saveAsync();
+		
+		// create components with LOW priority later
+		HandlerUtils.sendMessage(this, MSG_CREATE_LOW_PRIORITY_COMPONENTS);
+	}
+	
+	
 	// Handle touch event
 	@Override
 	public boolean onTouchEvent(MotionEvent event)
@@ -3309,7 +3451,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		if(m_RotationLockHandles.isEmpty())
 		{
 			Log.w(TAG, "unlockRotation()");
-			this.onDeviceOrientationChanged(this.get(PROP_DEVICE_ORIENTATION));
+			this.onDeviceOrientationChanged(this.getInt(PROP_DEVICE_ORIENTATION));
 		}
 	}
 	
@@ -3320,7 +3462,7 @@ public abstract class CameraActivity extends BaseActivity implements ComponentOw
 		// update elapsed time
 		long checkTime = SystemClock.elapsedRealtime();
 		++seconds;
-		this.setReadOnly(PROP_ELAPSED_RECORDING_SECONDS, seconds);
+		this.setReadOnlyLong(PROP_ELAPSED_RECORDING_SECONDS, seconds);
 		
 		// check time later
 		long interval;
@@ -0,0 +1,389 @@
+package com.charles.camera;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.params.StreamConfigurationMap;
+import android.media.MediaRecorder;
+import android.os.Build;
+import android.util.Range;
+import android.util.Rational;
+import android.util.Size;
+import android.view.SurfaceHolder;
+
+import com.charles.base.Log;
+
+/**
+ * Compact copy of camera characteristics used by {@link CameraImpl}, which can be persisted to create cameras without querying camera service when launching.
+ */
+final class CameraCapabilitySnapshot
+{
+	// Constants
+	private static final String TAG = "CameraCapabilitySnapshot";
+	private static final int FILE_MAGIC = 0x43435331;
+	private static final int FILE_VERSION = 1;
+	private static final int[] EMPTY_INT_ARRAY = new int[0];
+	private static final Size[] EMPTY_SIZE_ARRAY = new Size[0];
+	
+	
+	// Public fields
+	public final int[] afModes;
+	public final int aeCompensationMax;
+	public final int aeCompensationMin;
+	public final float aeCompensationStep;
+	public final int[] capabilities;
+	public final int[] fpsRanges;
+	public final boolean hasFlash;
+	public final String id;
+	public final int lensFacing;
+	public final int maxAeRegionCount;
+	public final int maxAfRegionCount;
+	public final float maxDigitalZoom;
+	public final Size[] pictureSizes;
+	public final Size[] previewSizes;
+	public final int[] sceneModes;
+	public final int sensorHeight;
+	public final int sensorOrientation;
+	public final int sensorWidth;
+	public final Size[] videoSizes;
+	
+	
+	// Constructor
+	private CameraCapabilitySnapshot(String id, int lensFacing, int[] capabilities, int sensorWidth, int sensorHeight, Size[] previewSizes, Size[] pictureSizes, Size[] videoSizes, int sensorOrientation, boolean hasFlash, int maxAeRegionCount, int maxAfRegionCount, int[] afModes, int[] sceneModes, int[] fpsRanges, float aeCompensationStep, int aeCompensationMin, int aeCompensationMax, float maxDigitalZoom)
+	{
+		this.id = id;
+		this.lensFacing = lensFacing;
+		this.capabilities = capabilities;
+		this.sensorWidth = sensorWidth;
+		this.sensorHeight = sensorHeight;
+		this.previewSizes = previewSizes;
+		this.pictureSizes = pictureSizes;
+		this.videoSizes = videoSizes;
+		this.sensorOrientation = sensorOrientation;
+		this.hasFlash = hasFlash;
+		this.maxAeRegionCount = maxAeRegionCount;
+		this.maxAfRegionCount = maxAfRegionCount;
+		this.afModes = afModes;
+		this.sceneModes = sceneModes;
+		this.fpsRanges = fpsRanges;
+		this.aeCompensationStep = aeCompensationStep;
+		this.aeCompensationMin = aeCompensationMin;
+		this.aeCompensationMax = aeCompensationMax;
+		this.maxDigitalZoom = maxDigitalZoom;
+	}
+	
+	
+	/**
+	 * Create snapshot from camera characteristics.
+	 * @param id Camera ID.
+	 * @param cameraChar Camera characteristics.
+	 * @return Snapshot.
+	 */
+	public static CameraCapabilitySnapshot create(String id, CameraCharacteristics cameraChar)
+	{
+		// sensor size
+		Rect sensorRect = cameraChar.get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE);
+		
+		// output sizes
+		StreamConfigurationMap streamConfigMap = cameraChar.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+		Size[] previewSizes = streamConfigMap.getOutputSizes(SurfaceHolder.class);
+		Size[] pictureSizes = streamConfigMap.getOutputSizes(ImageFormat.JPEG);
+		Size[] videoSizes = streamConfigMap.getOutputSizes(MediaRecorder.class);
+		
+		// FPS ranges
+		Range<Integer>[] ranges = cameraChar.get(CameraCharacteristics.CONTROL_AE_AVAILABLE_TARGET_FPS_RANGES);
+		int[] fpsRanges;
+		if(ranges != null)
+		{
+			fpsRanges = new int[ranges.length * 2];
+			for(int i = ranges.length - 1 ; i >= 0 ; --i)
+			{
+				fpsRanges[i * 2] = ranges[i].getLower();
+				fpsRanges[i * 2 + 1] = ranges[i].getUpper();
+			}
+		}
+		else
+			fpsRanges = EMPTY_INT_ARRAY;
+		
+		// exposure compensation
+		Rational aeCompensationStep = cameraChar.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_STEP);
+		Range<Integer> aeCompensationRange = cameraChar.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_RANGE);
+		
+		// create snapshot
+		Boolean hasFlash = cameraChar.get(CameraCharacteristics.FLASH_INFO_AVAILABLE);
+		Integer maxAeRegionCount = cameraChar.get(CameraCharacteristics.CONTROL_MAX_REGIONS_AE);
+		Integer maxAfRegionCount = cameraChar.get(CameraCharacteristics.CONTROL_MAX_REGIONS_AF);
+		Float maxDigitalZoom = cameraChar.get(CameraCharacteristics.SCALER_AVAILABLE_MAX_DIGITAL_ZOOM);
+		return new CameraCapabilitySnapshot(
+				id,
+				cameraChar.get(CameraCharacteristics.LENS_FACING),
+				nonNull(cameraChar.get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES)),
+				sensorRect.width(),
+				sensorRect.height(),
+				(previewSizes != null ? previewSizes : EMPTY_SIZE_ARRAY),
+				(pictureSizes != null ? pictureSizes : EMPTY_SIZE_ARRAY),
+				(videoSizes != null ? videoSizes : EMPTY_SIZE_ARRAY),
+				cameraChar.get(CameraCharacteristics.SENSOR_ORIENTATION),
+				(hasFlash != null && hasFlash),
+				(maxAeRegionCount != null ? maxAeRegionCount : 0),
+				(maxAfRegionCount != null ? maxAfRegionCount : 0),
+				nonNull(cameraChar.get(CameraCharacteristics.CONTROL_AF_AVAILABLE_MODES)),
+				nonNull(cameraChar.get(CameraCharacteristics.CONTROL_AVAILABLE_SCENE_MODES)),
+				fpsRanges,
+				(aeCompensationStep != null ? aeCompensationStep.floatValue() : 0),
+				(aeCompensationRange != null ? aeCompensationRange.getLower() : 0),
+				(aeCompensationRange != null ? aeCompensationRange.getUpper() : 0),
+				(maxDigitalZoom != null ? maxDigitalZoom : 1));
+	}
+	
+	
+	// Check equality.
+	@Override
+	public boolean equals(Object obj)
+	{
+		if(obj == this)
+			return true;
+		if(!(obj instanceof CameraCapabilitySnapshot))
+			return false;
+		CameraCapabilitySnapshot snapshot = (CameraCapabilitySnapshot)obj;
+		return (this.id.equals(snapshot.id)
+				&& this.lensFacing == snapshot.lensFacing
+				&& Arrays.equals(this.capabilities, snapshot.capabilities)
+				&& this.sensorWidth == snapshot.sensorWidth
+				&& this.sensorHeight == snapshot.sensorHeight
+				&& Arrays.equals(this.previewSizes, snapshot.previewSizes)
+				&& Arrays.equals(this.pictureSizes, snapshot.pictureSizes)
+				&& Arrays.equals(this.videoSizes, snapshot.videoSizes)
+				&& this.sensorOrientation == snapshot.sensorOrientation
+				&& this.hasFlash == snapshot.hasFlash
+				&& this.maxAeRegionCount == snapshot.maxAeRegionCount
+				&& this.maxAfRegionCount == snapshot.maxAfRegionCount
+				&& Arrays.equals(this.afModes, snapshot.afModes)
+				&& Arrays.equals(this.sceneModes, snapshot.sceneModes)
+				&& Arrays.equals(this.fpsRanges, snapshot.fpsRanges)
+				&& Float.compare(this.aeCompensationStep, snapshot.aeCompensationStep) == 0
+				&& this.aeCompensationMin == snapshot.aeCompensationMin
+				&& this.aeCompensationMax == snapshot.aeCompensationMax
+				&& Float.compare(this.maxDigitalZoom, snapshot.maxDigitalZoom) == 0);
+	}
+	
+	
+	// Get hash code.
+	@Override
+	public int hashCode()
+	{
+		return ((this.id.hashCode() * 31 + this.lensFacing) * 31 + Arrays.hashCode(this.pictureSizes));
+	}
+	
+	
+	/**
+	 * Load snapshots from given file.
+	 * @param file Snapshot file.
+	 * @return Loaded snapshots, or Null if file is not found, invalid, or written by other system build.
+	 */
+	public static List<CameraCapabilitySnapshot> load(File file)
+	{
+		if(!file.exists())
+			return null;
+		DataInputStream stream = null;
+		try
+		{
+			stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			
+			// header
+			if(stream.readInt() != FILE_MAGIC || stream.readInt() != FILE_VERSION)
+			{
+				Log.w(TAG, "load() - Unsupported snapshot file");
+				return null;
+			}
+			if(!Build.FINGERPRINT.equals(stream.readUTF()))
+			{
+				Log.w(TAG, "load() - Snapshot is created by other system build");
+				return null;
+			}
+			
+			// snapshots
+			int count = stream.readInt();
+			List<CameraCapabilitySnapshot> snapshots = new ArrayList<>(count);
+			for(int i = 0 ; i < count ; ++i)
+				snapshots.add(read(stream));
+			return snapshots;
+		}
+		catch(Throwable ex)
+		{
+			Log.e(TAG, "load() - Fail to load snapshot from " + file, ex);
+			return null;
+		}
+		finally
+		{
+			if(stream != null)
+			{
+				try
+				{
+					stream.close();
+				}
+				catch(IOException ex)
+				{}
+			}
+		}
+	}
+	
+	
+	// Get non-null int array.
+	private static int[] nonNull(int[] array)
+	{
+		return (array != null ? array : EMPTY_INT_ARRAY);
+	}
+	
+	
+	// Read snapshot.
+	private static CameraCapabilitySnapshot read(DataInputStream stream) throws IOException
+	{
+		return new CameraCapabilitySnapshot(
+				stream.readUTF(),
+				stream.readInt(),
+				readIntArray(stream),
+				stream.readInt(),
+				stream.readInt(),
+				readSizeArray(stream),
+				readSizeArray(stream),
+				readSizeArray(stream),
+				stream.readInt(),
+				stream.readBoolean(),
+				stream.readInt(),
+				stream.readInt(),
+				readIntArray(stream),
+				readIntArray(stream),
+				readIntArray(stream),
+				stream.readFloat(),
+				stream.readInt(),
+				stream.readInt(),
+				stream.readFloat());
+	}
+	
+	
+	// Read int array.
+	private static int[] readIntArray(DataInputStream stream) throws IOException
+	{
+		int[] array = new int[stream.readUnsignedShort()];
+		for(int i = 0 ; i < array.length ; ++i)
+			array[i] = stream.readInt();
+		return array;
+	}
+	
+	
+	// Read size array.
+	private static Size[] readSizeArray(DataInputStream stream) throws IOException
+	{
+		Size[] array = new Size[stream.readUnsignedShort()];
+		for(int i = 0 ; i < array.length ; ++i)
+			array[i] = new Size(stream.readUnsignedShort(), stream.readUnsignedShort());
+		return array;
+	}
+	
+	
+	/**
+	 * Save snapshots to given file.
+	 * @param file Snapshot file.
+	 * @param snapshots Snapshots to save.
+	 * @return Whether snapshots are saved successfully or not.
+	 */
+	public static boolean save(File file, List<CameraCapabilitySnapshot> snapshots)
+	{
+		DataOutputStream stream = null;
+		try
+		{
+			stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			stream.writeInt(FILE_MAGIC);
+			stream.writeInt(FILE_VERSION);
+			stream.writeUTF(Build.FINGERPRINT);
+			stream.writeInt(snapshots.size());
+			for(int i = 0, count = snapshots.size() ; i < count ; ++i)
+				snapshots.get(i).write(stream);
+			return true;
+		}
+		catch(Throwable ex)
+		{
+			Log.e(TAG, "save() - Fail to save snapshot to " + file, ex);
+			return false;
+		}
+		finally
+		{
+			if(stream != null)
+			{
+				try
+				{
+					stream.close();
+				}
+				catch(IOException ex)
+				{}
+			}
+		}
+	}
+	
+	
+	// Get string representation.
+	@Override
+	public String toString()
+	{
+		return ("Camera " + this.id);
+	}
+	
+	
+	// Write snapshot.
+	private void write(DataOutputStream stream) throws IOException
+	{
+		stream.writeUTF(this.id);
+		stream.writeInt(this.lensFacing);
+		writeIntArray(stream, this.capabilities);
+		stream.writeInt(this.sensorWidth);
+		stream.writeInt(this.sensorHeight);
+		writeSizeArray(stream, this.previewSizes);
+		writeSizeArray(stream, this.pictureSizes);
+		writeSizeArray(stream, this.videoSizes);
+		stream.writeInt(this.sensorOrientation);
+		stream.writeBoolean(this.hasFlash);
+		stream.writeInt(this.maxAeRegionCount);
+		stream.writeInt(this.maxAfRegionCount);
+		writeIntArray(stream, this.afModes);
+		writeIntArray(stream, this.sceneModes);
+		writeIntArray(stream, this.fpsRanges);
+		stream.writeFloat(this.aeCompensationStep);
+		stream.writeInt(this.aeCompensationMin);
+		stream.writeInt(this.aeCompensationMax);
+		stream.writeFloat(this.maxDigitalZoom);
+	}
+	
+	
+	// Write int array.
+	private static void writeIntArray(DataOutputStream stream, int[] array) throws IOException
+	{
+		stream.writeShort(array.length);
+		for(int i = 0 ; i < array.length ; ++i)
+			stream.writeInt(array[i]);
+	}
+	
+	
+	// Write size array.
+	private static void writeSizeArray(DataOutputStream stream, Size[] array) throws IOException
+	{
+		stream.writeShort(array.length);
+		for(int i = 0 ; i < array.length ; ++i)
+		{
+			stream.writeShort(array[i].getWidth());
+			stream.writeShort(array[i].getHeight());
+		}
+	}
+}
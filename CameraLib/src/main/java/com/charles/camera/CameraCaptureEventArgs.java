@@ -1,7 +1,6 @@
 package com.charles.camera;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.Arrays;
 
 import android.graphics.ImageFormat;
 import android.hardware.camera2.CaptureResult;
@@ -9,18 +8,28 @@ import android.util.Size;
 
 import com.charles.base.EventArgs;
 import com.charles.base.Handle;
+import com.charles.base.ObjectPool;
+import com.charles.base.PooledBuffer;
+import com.charles.base.RecyclableObject;
 
 /**
  * Data for capture related events.
  */
-public class CameraCaptureEventArgs extends EventArgs
+public class CameraCaptureEventArgs extends EventArgs implements RecyclableObject
 {
 	// Constants
 	private static final int POOL_SIZE = 8;
 	
 	
 	// Static fields
-	private static final Queue<CameraCaptureEventArgs> POOL = new ArrayDeque<>(POOL_SIZE);
+	private static final ObjectPool<CameraCaptureEventArgs> POOL = new ObjectPool<CameraCaptureEventArgs>("CameraCaptureEventArgs", POOL_SIZE)
+	{
+		@Override
+		protected CameraCaptureEventArgs create()
+		{
+			return new CameraCaptureEventArgs();
+		}
+	};
 	
 	
 	// Private fields
@@ -29,6 +38,7 @@ public class CameraCaptureEventArgs extends EventArgs
 	private volatile Handle m_Handle;
 	private volatile boolean m_IsFreeInstance;
 	private volatile byte[] m_Picture;
+	private volatile PooledBuffer m_PictureBuffer;
 	private volatile int m_PictureFormat;
 	private volatile Size m_PictureSize;
 	
@@ -38,12 +48,29 @@ public class CameraCaptureEventArgs extends EventArgs
 	{}
 	
 	
+	/**
+	 * Clone this event data, cloned instance keeps its own reference to picture buffer and should be recycled after use.
+	 */
+	@Override
+	public CameraCaptureEventArgs clone()
+	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
+		CameraCaptureEventArgs e = (CameraCaptureEventArgs)super.clone();
+		if(e.m_PictureBuffer != null)
+			e.m_PictureBuffer.retain();
+		return e;
+	}
+	
+	
 	/**
 	 * Get capture result.
 	 * @return Capture result.
 	 */
 	public final CaptureResult getCaptureResult()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_CaptureResult;
 	}
 	
@@ -54,6 +81,8 @@ public class CameraCaptureEventArgs extends EventArgs
 	 */
 	public final int getFrameIndex()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_FrameIndex;
 	}
 	
@@ -64,26 +93,50 @@ public class CameraCaptureEventArgs extends EventArgs
 	 */
 	public final Handle getHandle()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_Handle;
 	}
 	
 	
 	/**
-	 * Get related picture buffer.
-	 * @return Picture buffer, or Null if there is no related picture.
+	 * Get related picture data. If picture is carried by pooled buffer, a trimmed copy will be returned when buffer capacity is larger than picture, use {@link #getPictureBuffer()} instead to prevent copying.
+	 * @return Picture data, or Null if there is no related picture.
 	 */
 	public final byte[] getPicture()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
+		PooledBuffer buffer = m_PictureBuffer;
+		if(buffer != null)
+		{
+			byte[] data = buffer.getData();
+			return (data.length == buffer.getLength() ? data : Arrays.copyOf(data, buffer.getLength()));
+		}
 		return m_Picture;
 	}
 	
 	
+	/**
+	 * Get related pooled picture buffer, which is valid until this instance is recycled. Call {@link PooledBuffer#retain()} to keep buffer longer.
+	 * @return Picture buffer, or Null if there is no related picture or picture is not carried by pooled buffer.
+	 */
+	public final PooledBuffer getPictureBuffer()
+	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
+		return m_PictureBuffer;
+	}
+	
+	
 	/**
 	 * Get related picture format defined in {@link ImageFormat}.
 	 * @return Picture format, or 0 if there is no related picture.
 	 */
 	public final int getPictureFormat()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_PictureFormat;
 	}
 	
@@ -94,6 +147,8 @@ public class CameraCaptureEventArgs extends EventArgs
 	 */
 	public final Size getPictureSize()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_PictureSize;
 	}
 	
@@ -105,9 +160,9 @@ public class CameraCaptureEventArgs extends EventArgs
 	 * @param result Capture result.
 	 * @return CameraCaptureEventArgs instance.
 	 */
-	public static synchronized CameraCaptureEventArgs obtain(Handle handle, int frameIndex, CaptureResult result)
+	public static CameraCaptureEventArgs obtain(Handle handle, int frameIndex, CaptureResult result)
 	{
-		return obtain(handle, frameIndex, result, null, 0, null);
+		return obtain(handle, frameIndex, result, (byte[])null, 0, null);
 	}
 	
 	
@@ -121,13 +176,10 @@ public class CameraCaptureEventArgs extends EventArgs
 	 * @param pictureSize Picture size, or Null if there is no related picture.
 	 * @return CameraCaptureEventArgs instance.
 	 */
-	public static synchronized CameraCaptureEventArgs obtain(Handle handle, int frameIndex, CaptureResult result, byte[] picture, int pictureFormat, Size pictureSize)
+	public static CameraCaptureEventArgs obtain(Handle handle, int frameIndex, CaptureResult result, byte[] picture, int pictureFormat, Size pictureSize)
 	{
-		CameraCaptureEventArgs e = POOL.poll();
-		if(e != null)
-			e.m_IsFreeInstance = false;
-		else
-			e = new CameraCaptureEventArgs();
+		CameraCaptureEventArgs e = POOL.obtain();
+		e.m_IsFreeInstance = false;
 		e.m_Handle = handle;
 		e.m_FrameIndex = frameIndex;
 		e.m_CaptureResult = result;
@@ -138,24 +190,48 @@ public class CameraCaptureEventArgs extends EventArgs
 	}
 	
 	
+	/**
+	 * Get an available CameraCaptureEventArgs instance with pooled picture buffer.
+	 * @param handle Handle returned from {@link Camera#capture(int, int)}.
+	 * @param frameIndex Zero-based frame index.
+	 * @param result Capture result.
+	 * @param picture Pooled picture buffer, the instance keeps its own reference and releases it when recycling.
+	 * @param pictureFormat Picture format.
+	 * @param pictureSize Picture size.
+	 * @return CameraCaptureEventArgs instance.
+	 */
+	public static CameraCaptureEventArgs obtain(Handle handle, int frameIndex, CaptureResult result, PooledBuffer picture, int pictureFormat, Size pictureSize)
+	{
+		CameraCaptureEventArgs e = obtain(handle, frameIndex, result, (byte[])null, pictureFormat, pictureSize);
+		if(picture != null)
+			e.m_PictureBuffer = picture.retain();
+		return e;
+	}
+	
+	
 	/**
 	 * Put instance back to pool.
 	 */
 	public void recycle()
 	{
-		synchronized(CameraCaptureEventArgs.class)
+		if(m_IsFreeInstance)
+		{
+			POOL.reportDoubleRecycle(this);
+			return;
+		}
+		m_Handle = null;
+		m_FrameIndex = -1;
+		m_CaptureResult = null;
+		m_Picture = null;
+		if(m_PictureBuffer != null)
 		{
-			if(!m_IsFreeInstance && POOL.size() < POOL_SIZE)
-			{
-				m_Handle = null;
-				m_FrameIndex = -1;
-				m_CaptureResult = null;
-				m_Picture = null;
-				m_PictureFormat = 0;
-				m_PictureSize = null;
-				m_IsFreeInstance = true;
-				POOL.add(this);
-			}
+			m_PictureBuffer.release();
+			m_PictureBuffer = null;
 		}
+		m_PictureFormat = 0;
+		m_PictureSize = null;
+		m_IsFreeInstance = true;
+		this.clearHandledState();
+		POOL.release(this);
 	}
 }
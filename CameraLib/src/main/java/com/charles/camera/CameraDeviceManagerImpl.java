@@ -1,20 +1,30 @@
 package com.charles.camera;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import com.charles.base.HandlerUtils;
 import com.charles.base.Log;
 import com.charles.base.component.ComponentCreationPriority;
 
 import android.content.Context;
 import android.hardware.camera2.CameraManager;
+import android.os.Message;
 import android.os.SystemClock;
 
 final class CameraDeviceManagerImpl extends CameraThreadComponent implements CameraDeviceManager
 {
+	// Constants
+	private static final int MSG_CAPABILITIES_CHANGED = 10000;
+	private static final String SNAPSHOT_FILE_NAME = "CameraCapabilities.snapshot";
+	
+	
 	// Private fields
 	private CameraManager m_CameraManager;
+	private File m_SnapshotFile;
 	
 	
 	// Constructor
@@ -24,6 +34,36 @@ final class CameraDeviceManagerImpl extends CameraThreadComponent implements Cam
 	}
 	
 	
+	// Create capability snapshots of all cameras.
+	private static List<CameraCapabilitySnapshot> createSnapshots(CameraManager cameraManager) throws Exception
+	{
+		String[] cameraIdList = cameraManager.getCameraIdList();
+		List<CameraCapabilitySnapshot> snapshots = new ArrayList<>(cameraIdList.length);
+		for(int i = 0 ; i < cameraIdList.length ; ++i)
+			snapshots.add(CameraCapabilitySnapshot.create(cameraIdList[i], cameraManager.getCameraCharacteristics(cameraIdList[i])));
+		return snapshots;
+	}
+	
+	
+	// Handle message.
+	@SuppressWarnings("unchecked")
+	@Override
+	protected void handleMessage(Message msg)
+	{
+		switch(msg.what)
+		{
+			case MSG_CAPABILITIES_CHANGED:
+				if(this.isRunningOrInitializing(true))
+					this.updateCameraList((List<CameraCapabilitySnapshot>)msg.obj);
+				break;
+			
+			default:
+				super.handleMessage(msg);
+				break;
+		}
+	}
+	
+	
 	// Deinitialize.
 	@Override
 	protected void onDeinitialize()
@@ -45,9 +85,20 @@ final class CameraDeviceManagerImpl extends CameraThreadComponent implements Cam
 		
 		// get camera manager
 		m_CameraManager = (CameraManager)this.getContext().getSystemService(Context.CAMERA_SERVICE);
+		m_SnapshotFile = new File(this.getContext().getFilesDir(), SNAPSHOT_FILE_NAME);
 		
-		// refresh list
-		this.refreshCameraList();
+		// create cameras from persisted snapshot, or refresh list synchronously
+		long time = SystemClock.elapsedRealtime();
+		List<CameraCapabilitySnapshot> snapshots = CameraCapabilitySnapshot.load(m_SnapshotFile);
+		if(snapshots != null)
+		{
+			this.updateCameraList(snapshots);
+			time = (SystemClock.elapsedRealtime() - time);
+			Log.v(TAG, "onInitialize() - Takes ", time, "ms to create list from snapshot, cameras : ", this.get(PROP_AVAILABLE_CAMERAS));
+			this.verifySnapshots(snapshots);
+		}
+		else
+			this.refreshCameraList();
 	}
 	
 	
@@ -62,50 +113,115 @@ final class CameraDeviceManagerImpl extends CameraThreadComponent implements Cam
 			return;
 		}
 		
+		// query capabilities
+		long time = SystemClock.elapsedRealtime();
+		List<CameraCapabilitySnapshot> snapshots;
+		try
+		{
+			snapshots = createSnapshots(m_CameraManager);
+		}
+		catch (Throwable ex)
+		{
+			Log.e(TAG, "refreshCameraList() - Fail to get camera capabilities", ex);
+			this.setReadOnly(PROP_AVAILABLE_CAMERAS, (List<Camera>)Collections.EMPTY_LIST);
+			return;
+		}
+		
+		// create new list
+		this.updateCameraList(snapshots);
+		
+		// check time
+		time = (SystemClock.elapsedRealtime() - time);
+		Log.v(TAG, "refreshCameraList() - Takes ", time, "ms to refresh list, cameras : ", this.get(PROP_AVAILABLE_CAMERAS));
+		
+		// save snapshot for next launch
+		CameraCapabilitySnapshot.save(m_SnapshotFile, snapshots);
+	}
+	
+	
+	// Update camera list by given capabilities.
+	@SuppressWarnings("unchecked")
+	private void updateCameraList(List<CameraCapabilitySnapshot> snapshots)
+	{
 		// get current list
 		List<Camera> currentList = this.get(PROP_AVAILABLE_CAMERAS);
 		
 		// create new list
-		long time = SystemClock.elapsedRealtime();
 		List<Camera> newList;
 		try
 		{
 			Context context = this.getContext();
-			String[] cameraIdList = m_CameraManager.getCameraIdList();
-			Camera[] cameras = new Camera[cameraIdList.length];
-			for(int i = cameraIdList.length - 1 ; i >= 0 ; --i)
+			Camera[] cameras = new Camera[snapshots.size()];
+			for(int i = cameras.length - 1 ; i >= 0 ; --i)
 			{
-				String id = cameraIdList[i];
+				CameraCapabilitySnapshot snapshot = snapshots.get(i);
 				if(currentList != null)
 				{
 					for(int j = currentList.size() - 1 ; j >= 0 ; --j)
 					{
 						Camera camera = currentList.get(j);
-						if(camera.get(Camera.PROP_ID).equals(id))
+						if(!camera.get(Camera.PROP_ID).equals(snapshot.id))
+							continue;
+						if(!(camera instanceof CameraImpl) || snapshot.equals(((CameraImpl)camera).getCapabilities()))
+							cameras[i] = camera;
+						else if(camera.get(Camera.PROP_STATE) != Camera.State.CLOSED)
 						{
+							Log.w(TAG, "updateCameraList() - Capabilities of " + camera + " changed while it is in use, keep current instance");
 							cameras[i] = camera;
-							break;
 						}
+						break;
 					}
 				}
 				if(cameras[i] == null)
-					cameras[i] = new CameraImpl(context, m_CameraManager, id, m_CameraManager.getCameraCharacteristics(id));
+					cameras[i] = new CameraImpl(context, m_CameraManager, snapshot);
 			}
 			newList = Arrays.asList(cameras);
-		} 
+		}
 		catch (Throwable ex)
 		{
-			Log.e(TAG, "refreshCameraList() - Fail to create camera list", ex);
+			Log.e(TAG, "updateCameraList() - Fail to create camera list", ex);
 			newList = (List<Camera>)Collections.EMPTY_LIST;
 		}
 		
-		// check time
-		time = (SystemClock.elapsedRealtime() - time);
-		Log.v(TAG, "refreshCameraList() - Takes ", time, "ms to refresh list, cameras : ", newList);
-		
 		// update property
 		this.setReadOnly(PROP_AVAILABLE_CAMERAS, newList);
 	}
+	
+	
+	// Compare persisted snapshots with camera service in background and update list if capabilities changed.
+	private void verifySnapshots(final List<CameraCapabilitySnapshot> snapshots)
+	{
+		final CameraManager cameraManager = m_CameraManager;
+		final File snapshotFile = m_SnapshotFile;
+		Thread thread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				// query capabilities
+				List<CameraCapabilitySnapshot> newSnapshots;
+				try
+				{
+					newSnapshots = createSnapshots(cameraManager);
+				}
+				catch(Throwable ex)
+				{
+					Log.e(TAG, "verifySnapshots() - Fail to get camera capabilities", ex);
+					return;
+				}
+				
+				// compare
+				if(newSnapshots.equals(snapshots))
+					return;
+				Log.w(TAG, "verifySnapshots() - Camera capabilities changed, update list");
+				CameraCapabilitySnapshot.save(snapshotFile, newSnapshots);
+				HandlerUtils.sendMessage(CameraDeviceManagerImpl.this, MSG_CAPABILITIES_CHANGED, 0, 0, newSnapshots);
+			}
+		});
+		thread.setName("Camera capability verification");
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
 }
 
 class CameraDeviceManagerBuilder extends CameraThreadComponentBuilder
@@ -114,7 +230,7 @@ class CameraDeviceManagerBuilder extends CameraThreadComponentBuilder
 	{
 		super(ComponentCreationPriority.LAUNCH, CameraDeviceManagerImpl.class);
 	}
-
+	
 	@Override
 	protected CameraThreadComponent create(CameraThread cameraThread)
 	{
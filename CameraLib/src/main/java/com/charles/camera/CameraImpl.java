@@ -4,9 +4,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
 import android.content.Context;
 import android.graphics.ImageFormat;
@@ -21,12 +19,11 @@ import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.CaptureResult;
 import android.hardware.camera2.TotalCaptureResult;
 import android.hardware.camera2.params.MeteringRectangle;
-import android.hardware.camera2.params.StreamConfigurationMap;
 import android.location.Location;
 import android.media.Image;
 import android.media.ImageReader;
-import android.media.MediaRecorder;
 import android.os.Message;
+import android.os.SystemClock;
 import android.renderscript.Allocation;
 import android.renderscript.Element;
 import android.renderscript.RenderScript;
@@ -36,13 +33,16 @@ import android.util.Size;
 import android.view.Surface;
 import android.view.SurfaceHolder;
 
+import com.charles.base.BufferPool;
 import com.charles.base.EventArgs;
 import com.charles.base.EventHandler;
 import com.charles.base.EventKey;
+import com.charles.base.FlightRecorder;
 import com.charles.base.Handle;
 import com.charles.base.HandlerBaseObject;
-import com.charles.base.HandlerUtils;
+import com.charles.base.KeyedScheduler;
 import com.charles.base.Log;
+import com.charles.base.PooledBuffer;
 import com.charles.base.PropertyKey;
 import com.charles.renderscript.RenderScriptManager;
 import com.charles.util.AspectRatio;
@@ -54,11 +54,20 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	private static final long TIMEOUT_AF_START = 5000;
 	private static final long TIMEOUT_AF_COMPLETE = 5000;
 	private static final long TIMEOUT_CAPTURE_SESSION_CLOSED = 5000;
+	private static final long TIMEOUT_CAPTURE_FRAME = 3000;
 	private static final int MSG_PREVIEW_FRAME_RECEIVED = 10000;
+	private static final int MSG_PREVIEW_CONSUMERS_CHANGED = 10001;
 	private static final int MSG_START_AF = 10010;
 	private static final int MSG_AF_START_TIMEOUT = 10011;
 	private static final int MSG_AF_COMPLETE_TIMEOUT = 10012;
 	private static final int MSG_CAPTURE_SESSION_CLOSE_TIMEOUT = 10020;
+	private static final int MSG_CAPTURE_FRAME_TIMEOUT = 10021;
+	private static final long MAX_FREE_PICTURE_BUFFER_SIZE = (48 * 1024 * 1024);
+	private static final int MAX_PENDING_CAPTURE_FRAMES = 16;
+	
+	
+	// Private static fields
+	private static final BufferPool m_PictureBufferPool = new BufferPool("Picture buffer pool", MAX_FREE_PICTURE_BUFFER_SIZE);
 	
 	
 	// Private fields
@@ -66,6 +75,31 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	private List<MeteringRect> m_AeRegions = Collections.EMPTY_LIST;
 	@SuppressWarnings("unchecked")
 	private List<MeteringRect> m_AfRegions = Collections.EMPTY_LIST;
+	private final CaptureFrameMatcher<CaptureResult, PooledBuffer> m_CaptureFrameMatcher = new CaptureFrameMatcher<CaptureResult, PooledBuffer>(MAX_PENDING_CAPTURE_FRAMES, TIMEOUT_CAPTURE_FRAME, new CaptureFrameMatcher.Callback<CaptureResult, PooledBuffer>()
+	{
+		@Override
+		public void onFrameFailed(int index, long frameNumber, CaptureResult result, PooledBuffer picture)
+		{
+			Log.e(TAG, "onFrameFailed() - Frame " + frameNumber + " of capture " + index + " failed or timed out");
+			if(picture != null)
+				picture.release();
+			onPictureReceived(index, result, null);
+		}
+		
+		@Override
+		public void onFrameMatched(int index, long frameNumber, CaptureResult result, PooledBuffer picture)
+		{
+			onPictureReceived(index, result, picture);
+		}
+		
+		@Override
+		public void onOrphanDropped(CaptureResult result, PooledBuffer picture)
+		{
+			Log.w(TAG, "onOrphanDropped() - Drop capture result " + result + " and picture " + picture + " which do not belong to any capture");
+			if(picture != null)
+				picture.release();
+		}
+	});
 	private Handle m_CaptureHandle;
 	private CameraCaptureSession m_CaptureSession;
 	private final CameraCaptureSession.StateCallback m_CaptureSessionCallback = new CameraCaptureSession.StateCallback()
@@ -88,8 +122,9 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		}
 	};
 	private OperationState m_CaptureSessionState = OperationState.STOPPED;
-	private final CameraCharacteristics m_Characteristics;
 	private final CameraManager m_CameraManager;
+	private final CameraCapabilitySnapshot m_Capabilities;
+	private int m_CompletedCaptureFrameCount;
 	private Context m_Context;
 	private Range<Integer> m_DefaultPreviewFpsRange;
 	private CameraDevice m_Device;
@@ -121,9 +156,12 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	private boolean m_IsAutoFocusStarting;
 	private boolean m_IsAutoFocusTimeout;
 	private boolean m_IsCaptureSequenceCompleted;
+	private boolean m_IsPreviewCallbackSurfaceAdded;
 	private volatile boolean m_IsPreviewReceived;
 	private boolean m_IsRecordingMode;
+	private CaptureResult m_LastPreviewCaptureResult;
 	private final LensFacing m_LensFacing;
+	private final KeyedScheduler m_MessageScheduler = new KeyedScheduler(this);
 	private final ImageReader.OnImageAvailableListener m_PictureAvailableListener = new ImageReader.OnImageAvailableListener()
 	{
 		@Override
@@ -186,10 +224,9 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		@Override
 		public void onBufferAvailable(Allocation a)
 		{
-			HandlerUtils.sendMessage(CameraImpl.this, MSG_PREVIEW_FRAME_RECEIVED);
+			m_MessageScheduler.schedule(MSG_PREVIEW_FRAME_RECEIVED);
 		}
 	};
-	private byte[] m_PreviewCallbackData;
 	private Surface m_PreviewCallbackSurface;
 	private final CameraCaptureSession.CaptureCallback m_PreviewCaptureCallback = new CameraCaptureSession.CaptureCallback()
 	{
@@ -199,15 +236,11 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		}
 	};
 	private Range<Integer> m_PreviewFpsRange;
+	private final PreviewFrameRing m_PreviewFrameRing;
 	private CaptureRequest.Builder m_PreviewRequestBuilder;
 	private Size m_PreviewSize = new Size(0, 0);
 	private Surface m_PreviewSurface;
-	private int m_ReceivedCaptureCompletedCount;
-	private final Queue<CaptureResult> m_ReceivedCaptureCompletedResults = new LinkedList<>();
 	private int m_ReceivedCaptureStartedCount;
-	private final Queue<CaptureResult> m_ReceivedCaptureStartedResults = new LinkedList<>();
-	private int m_ReceivedPictureCount;
-	private final Queue<byte[]> m_ReceivedPictures = new LinkedList<>();
 	private RenderScript m_RenderScript;
 	private Handle m_RenderScriptHandle;
 	private int m_SceneMode = CaptureRequest.CONTROL_SCENE_MODE_DISABLED;
@@ -225,6 +258,13 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	
 	// Constructor
 	public CameraImpl(Context context, CameraManager cameraManager, String id, CameraCharacteristics cameraChar)
+	{
+		this(context, cameraManager, CameraCapabilitySnapshot.create(id, cameraChar));
+	}
+	
+	
+	// Constructor
+	CameraImpl(Context context, CameraManager cameraManager, CameraCapabilitySnapshot capabilities)
 	{
 		// call super
 		super(true);
@@ -232,11 +272,11 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		// save info
 		m_Context = context;
 		m_CameraManager = cameraManager;
-		m_Characteristics = cameraChar;
-		m_Id = id;
+		m_Capabilities = capabilities;
+		m_Id = capabilities.id;
 		
 		// get facing
-		switch(cameraChar.get(CameraCharacteristics.LENS_FACING))
+		switch(capabilities.lensFacing)
 		{
 			case CameraCharacteristics.LENS_FACING_BACK:
 				m_LensFacing = LensFacing.BACK;
@@ -245,15 +285,14 @@ class CameraImpl extends HandlerBaseObject implements Camera
 				m_LensFacing = LensFacing.FRONT;
 				break;
 			default:
-				throw new RuntimeException("Unknown lens facing : " + cameraChar.get(CameraCharacteristics.LENS_FACING));
+				throw new RuntimeException("Unknown lens facing : " + capabilities.lensFacing);
 		}
 		
 		// check capabilities
 		boolean isManualSupported = false;
-		int[] capabilities = cameraChar.get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES);
-		for(int i = capabilities.length - 1 ; i >= 0 ; --i)
+		for(int i = capabilities.capabilities.length - 1 ; i >= 0 ; --i)
 		{
-			switch(capabilities[i])
+			switch(capabilities.capabilities[i])
 			{
 				case CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_MANUAL_SENSOR:
 					isManualSupported = true;
@@ -267,36 +306,34 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		this.setReadOnly(PROP_IS_BURST_CAPTURE_SUPPORTED, true);
 		
 		// get sensor size
-		Rect sensorRect = cameraChar.get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE);
-		m_SensorSize = new Size(sensorRect.width(), sensorRect.height());
+		m_SensorSize = new Size(capabilities.sensorWidth, capabilities.sensorHeight);
 		
-		// get preview sizes
-		StreamConfigurationMap streamConfigMap = cameraChar.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
-		this.setReadOnly(PROP_PREVIEW_SIZES, Arrays.asList(streamConfigMap.getOutputSizes(SurfaceHolder.class)));
+		// get preview sizes (copy because lists may be sorted in place by others)
+		this.setReadOnly(PROP_PREVIEW_SIZES, Arrays.asList(capabilities.previewSizes.clone()));
 		
 		// get picture sizes
-		List<Size> pictureSizes = Arrays.asList(streamConfigMap.getOutputSizes(ImageFormat.JPEG));
+		List<Size> pictureSizes = Arrays.asList(capabilities.pictureSizes.clone());
 		this.setReadOnly(PROP_PICTURE_SIZES, pictureSizes);
 		if(!pictureSizes.isEmpty())
 			m_PictureSize = pictureSizes.get(0);
 		
 		// get video sizes
-		this.setReadOnly(PROP_VIDEO_SIZES, Arrays.asList(streamConfigMap.getOutputSizes(MediaRecorder.class)));
+		this.setReadOnly(PROP_VIDEO_SIZES, Arrays.asList(capabilities.videoSizes.clone()));
 		
 		// get sensor orientation
-		m_SensorOrientation = cameraChar.get(CameraCharacteristics.SENSOR_ORIENTATION);
+		m_SensorOrientation = capabilities.sensorOrientation;
 		
 		// check flash
-		this.setReadOnly(PROP_HAS_FLASH, cameraChar.get(CameraCharacteristics.FLASH_INFO_AVAILABLE));
+		this.setReadOnly(PROP_HAS_FLASH, capabilities.hasFlash);
 		
 		// check AE region count
-		this.setReadOnly(PROP_MAX_AE_REGION_COUNT, cameraChar.get(CameraCharacteristics.CONTROL_MAX_REGIONS_AE));
+		this.setReadOnly(PROP_MAX_AE_REGION_COUNT, capabilities.maxAeRegionCount);
 		
 		// check AF region count
-		this.setReadOnly(PROP_MAX_AF_REGION_COUNT, cameraChar.get(CameraCharacteristics.CONTROL_MAX_REGIONS_AF));
+		this.setReadOnly(PROP_MAX_AF_REGION_COUNT, capabilities.maxAfRegionCount);
 		
 		// check focus modes
-		int[] afModes = cameraChar.get(CameraCharacteristics.CONTROL_AF_AVAILABLE_MODES);
+		int[] afModes = capabilities.afModes;
 		List<FocusMode> focusModes = new ArrayList<>();
 		for(int i = afModes.length - 1 ; i >= 0 ; --i)
 		{
@@ -323,24 +360,36 @@ class CameraImpl extends HandlerBaseObject implements Camera
 			m_FocusMode = FocusMode.NORMAL_AF;
 		
 		// check scene modes
-		m_SceneModes = ListUtils.asList(cameraChar.get(CameraCharacteristics.CONTROL_AVAILABLE_SCENE_MODES));
+		m_SceneModes = ListUtils.asList(capabilities.sceneModes);
 		this.setReadOnly(PROP_SCENE_MODES, m_SceneModes);
 		
 		// check preview FPS ranges
-		Range<Integer>[] fpsRanges = cameraChar.get(CameraCharacteristics.CONTROL_AE_AVAILABLE_TARGET_FPS_RANGES);
-		this.setReadOnly(PROP_PREVIEW_FPS_RANGES, Arrays.asList(fpsRanges));
+		List<Range<Integer>> fpsRanges = new ArrayList<>(capabilities.fpsRanges.length / 2);
+		for(int i = 0 ; i + 1 < capabilities.fpsRanges.length ; i += 2)
+			fpsRanges.add(new Range<Integer>(capabilities.fpsRanges[i], capabilities.fpsRanges[i + 1]));
+		this.setReadOnly(PROP_PREVIEW_FPS_RANGES, fpsRanges);
 		
 		// check exposure compensation state
-		float evStep = cameraChar.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_STEP).floatValue();
-		Range<Integer> exposureCompRange = cameraChar.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_RANGE);
-		this.setReadOnly(PROP_EXPOSURE_COMPENSATION_RANGE, new Range<Float>(exposureCompRange.getLower() * evStep, exposureCompRange.getUpper() * evStep));
-		this.setReadOnly(PROP_EXPOSURE_COMPENSATION_STEP, cameraChar.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_STEP).floatValue());
+		float evStep = capabilities.aeCompensationStep;
+		this.setReadOnly(PROP_EXPOSURE_COMPENSATION_RANGE, new Range<Float>(capabilities.aeCompensationMin * evStep, capabilities.aeCompensationMax * evStep));
+		this.setReadOnly(PROP_EXPOSURE_COMPENSATION_STEP, evStep);
 		
 		// check zooming state
-		float minCropRatio = cameraChar.get(CameraCharacteristics.SCALER_AVAILABLE_MAX_DIGITAL_ZOOM);
+		float minCropRatio = capabilities.maxDigitalZoom;
 		Size minCropSize = new Size((int)(m_SensorSize.getWidth() / minCropRatio), (int)(m_SensorSize.getHeight() / minCropRatio));
 		this.setReadOnly(PROP_MIN_SCALER_CROP_SIZE, minCropSize);
 		
+		// create preview frame ring
+		m_PreviewFrameRing = new PreviewFrameRing("Camera " + m_Id, PreviewFrameRing.DEFAULT_SLOT_COUNT);
+		m_PreviewFrameRing.setConsumersChangedCallback(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				getHandler().sendEmptyMessage(MSG_PREVIEW_CONSUMERS_CHANGED);
+			}
+		});
+		
 		// enable logs
 		this.enablePropertyLogs(PROP_CAPTURE_STATE, LOG_PROPERTY_CHANGE);
 		this.enablePropertyLogs(PROP_FOCUS_STATE, LOG_PROPERTY_CHANGE);
@@ -366,13 +415,8 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	{
 		boolean isFirstHandler = !this.hasHandlers(EVENT_PREVIEW_RECEIVED);
 		super.addHandler(EVENT_PREVIEW_RECEIVED, handler);
-		if(isFirstHandler && m_PreviewRequestBuilder != null && m_PreviewCallbackSurface != null)
-		{
-			Log.v(TAG, "addPreviewReceivedHandler() - Add preview call-back surface");
-			m_PreviewRequestBuilder.addTarget(m_PreviewCallbackSurface);
-			if(this.get(PROP_PREVIEW_STATE) == OperationState.STARTED)
-				this.startPreviewRequestDirectly();
-		}
+		if(isFirstHandler)
+			this.updatePreviewCallbackSurface();
 	}
 	
 	
@@ -811,6 +855,9 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		m_RenderScriptHandle = Handle.close(m_RenderScriptHandle);
 		m_RenderScript = null;
 		
+		// drop free picture buffers
+		m_PictureBufferPool.trim();
+		
 		// change state
 		this.changeState(State.CLOSED);
 	}
@@ -838,14 +885,15 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	}
 	
 	
-	// Copy image to byte array.
-	private byte[] copyImage(Image image)
+	// Copy image to pooled buffer.
+	private PooledBuffer copyImage(Image image)
 	{
 		if(image == null)
 		{
 			Log.e(TAG, "copyImage() - No image");
-			return new byte[0];
+			return null;
 		}
+		PooledBuffer picture = null;
 		try
 		{
 			switch(image.getFormat())
@@ -854,9 +902,9 @@ class CameraImpl extends HandlerBaseObject implements Camera
 				case ImageFormat.RAW_SENSOR:
 				{
 					ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-					byte[] array = new byte[buffer.capacity()];
-					buffer.get(array);
-					return array;
+					picture = m_PictureBufferPool.obtain(buffer.remaining());
+					buffer.get(picture.getData(), 0, picture.getLength());
+					return picture;
 				}
 				case ImageFormat.NV21:
 				{
@@ -864,23 +912,26 @@ class CameraImpl extends HandlerBaseObject implements Camera
 					int height = image.getHeight();
 					int sizeY = (width * height);
 					int sizeU = (sizeY / 4);
-					byte[] array = new byte[sizeY + sizeU + sizeU];
+					picture = m_PictureBufferPool.obtain(sizeY + sizeU + sizeU);
+					byte[] array = picture.getData();
 					image.getPlanes()[0].getBuffer().get(array, 0, sizeY);
 					image.getPlanes()[1].getBuffer().get(array, sizeY, sizeU);
 					image.getPlanes()[2].getBuffer().get(array, sizeY + sizeU, sizeU);
-					return array;
+					return picture;
 				}
 				default:
 				{
 					Log.e(TAG, "copyImage() - Unknown format : " + image.getFormat());
-					return new byte[0];
+					return null;
 				}
 			}
 		}
 		catch(Throwable ex)
 		{
 			Log.e(TAG, "copyImage() - Fail to copy image", ex);
-			return new byte[0];
+			if(picture != null)
+				picture.release();
+			return null;
 		}
 	}
 	
@@ -926,6 +977,8 @@ class CameraImpl extends HandlerBaseObject implements Camera
 			return (TValue)m_PictureSize;
 		if(key == PROP_PREVIEW_FPS_RANGE)
 			return (TValue)m_PreviewFpsRange;
+		if(key == PROP_PREVIEW_FRAME_RING)
+			return (TValue)m_PreviewFrameRing;
 		if(key == PROP_PREVIEW_SIZE)
 			return (TValue)m_PreviewSize;
 		if(key == PROP_SCENE_MODE)
@@ -944,6 +997,13 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	}
 	
 	
+	// Get capabilities which camera is created with.
+	CameraCapabilitySnapshot getCapabilities()
+	{
+		return m_Capabilities;
+	}
+	
+	
 	// Handle message.
 	@Override
 	protected void handleMessage(Message msg)
@@ -958,11 +1018,19 @@ class CameraImpl extends HandlerBaseObject implements Camera
 				this.onAutoFocusStartTimeout();
 				break;
 				
+			case MSG_CAPTURE_FRAME_TIMEOUT:
+				this.onCaptureFrameTimeout();
+				break;
+				
 			case MSG_CAPTURE_SESSION_CLOSE_TIMEOUT:
 				Log.e(TAG, "handleMessage() - Capture session close timeout");
 				this.onCaptureSessionClosed(m_CaptureSession);
 				break;
 				
+			case MSG_PREVIEW_CONSUMERS_CHANGED:
+				this.updatePreviewCallbackSurface();
+				break;
+				
 			case MSG_PREVIEW_FRAME_RECEIVED:
 				this.onPreviewFrameReceived();
 				break;
@@ -1031,53 +1099,33 @@ class CameraImpl extends HandlerBaseObject implements Camera
 			return;
 		}
 		
-		// update index
-		++m_ReceivedCaptureCompletedCount;
-		
-		// print logs
-		Log.v(TAG, "onCaptureCompleted() - Index : ", (m_ReceivedCaptureCompletedCount - 1));
-		boolean success = (failure == null);
-		if(!success && this.get(PROP_CAPTURE_STATE) != OperationState.STOPPING)
-			Log.e(TAG, "onCaptureCompleted() - Capture failed");
-		
-		// check index
-		if(m_TargetCapturedFrameCount > 0 && m_ReceivedCaptureCompletedCount > m_TargetCapturedFrameCount)
+		// join with picture
+		long time = SystemClock.elapsedRealtime();
+		if(failure == null)
 		{
-			Log.w(TAG, "onCaptureCompleted() - Unexpected call-back, drop");
-			return;
+			Long timestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+			Log.v(TAG, "onCaptureCompleted() - Frame number : ", result.getFrameNumber());
+			m_CaptureFrameMatcher.onCaptureResult(result.getFrameNumber(), (timestamp != null ? timestamp : -1), result, time);
 		}
-		
-		// check picture
-		byte[] picture;
-		if(success)
+		else
 		{
-			picture = m_ReceivedPictures.poll();
-			if(picture == null)
-			{
-				Log.w(TAG, "onCaptureCompleted() - Wait for picture");
-				m_ReceivedCaptureCompletedResults.add(result);
-				return;
-			}
+			if(captureState != OperationState.STOPPING)
+				Log.e(TAG, "onCaptureCompleted() - Capture failed, frame number : " + failure.getFrameNumber());
+			m_CaptureFrameMatcher.onCaptureFailed(failure.getFrameNumber(), time);
 		}
-		else
-			picture = null;
-		
-		// handle result
-		this.onPictureReceived(result, picture);
+		this.scheduleCaptureFrameTimeout();
 	}
 	private void onCaptureCompleted(boolean continueCaptureSession)
 	{
 		Log.w(TAG, "onCaptureCompleted()");
 		
-		// clear result queues
-		m_ReceivedCaptureStartedResults.clear();
-		m_ReceivedCaptureCompletedResults.clear();
-		m_ReceivedPictures.clear();
+		// drop pending frames
+		m_CaptureFrameMatcher.clear();
+		this.getHandler().removeMessages(MSG_CAPTURE_FRAME_TIMEOUT);
 		
 		// reset state
 		m_ReceivedCaptureStartedCount = 0;
-		m_ReceivedCaptureCompletedCount = 0;
-		m_ReceivedPictureCount = 0;
+		m_CompletedCaptureFrameCount = 0;
 		m_CaptureHandle = null;
 		m_TargetCapturedFrameCount = 0;
 		m_IsCaptureSequenceCompleted = false;
@@ -1098,6 +1146,16 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	}
 	
 	
+	// Called when frames of capture are not completed within timeout.
+	private void onCaptureFrameTimeout()
+	{
+		int count = m_CaptureFrameMatcher.expire(SystemClock.elapsedRealtime());
+		if(count > 0)
+			Log.w(TAG, "onCaptureFrameTimeout() - Drop " + count + " incomplete frame(s)");
+		this.scheduleCaptureFrameTimeout();
+	}
+	
+	
 	// Called when capture completes on driver side.
 	private void onCaptureSequenceCompleted()
 	{
@@ -1155,7 +1213,7 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		m_CaptureSession = null;
 		m_CaptureSessionState = OperationState.STOPPED;
 		m_IsAutoFocusTimeout = false;
-		m_PreviewCallbackData = null;
+		m_LastPreviewCaptureResult = null;
 		if(m_IsPreviewReceived)
 		{
 			m_IsPreviewReceived = false;
@@ -1164,6 +1222,7 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		
 		// clear request builders
 		m_PreviewRequestBuilder = null;
+		m_IsPreviewCallbackSurfaceAdded = false;
 		
 		// release preview call-back buffer
 		if(m_PreviewCallbackSurface != null)
@@ -1281,7 +1340,8 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		}
 		
 		// update index
-		Log.v(TAG, "onCaptureStarted() - Index : ", m_ReceivedCaptureStartedCount);
+		int index = m_ReceivedCaptureStartedCount;
+		Log.v(TAG, "onCaptureStarted() - Index : ", index, ", frame number : ", frameNumber);
 		++m_ReceivedCaptureStartedCount;
 		
 		// check index
@@ -1292,7 +1352,16 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		}
 		
 		// raise event
-		this.raise(EVENT_SHUTTER, CameraCaptureEventArgs.obtain(m_CaptureHandle, m_ReceivedCaptureStartedCount - 1, null));
+		CameraCaptureEventArgs e = CameraCaptureEventArgs.obtain(m_CaptureHandle, index, null);
+		this.raise(EVENT_SHUTTER, e);
+		e.recycle();
+		
+		// join with result and picture
+		if(m_CaptureHandle != null)
+		{
+			m_CaptureFrameMatcher.onCaptureStarted(index, frameNumber, timestamp, SystemClock.elapsedRealtime());
+			this.scheduleCaptureFrameTimeout();
+		}
 	}
 	
 	
@@ -1339,6 +1408,9 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		else
 			Log.e(TAG, "onDeviceError() - Fail to open camera '" + m_Id + "', error : " + error);
 		
+		// dump recent history
+		FlightRecorder.dump("Camera '" + m_Id + "' device error " + error + (disconnected ? " (disconnected)" : ""));
+		
 		// cancel starting preview
 		if(this.get(PROP_PREVIEW_STATE) == OperationState.STARTING)
 		{
@@ -1416,40 +1488,32 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		}
 		
 		// copy image
-		byte[] picture = this.copyImage(image);
+		long timestamp = image.getTimestamp();
+		PooledBuffer picture = this.copyImage(image);
+		Log.v(TAG, "onPictureReceived() - Timestamp : ", timestamp, ", picture buffer : ", picture);
 		
-		// update index
-		++m_ReceivedPictureCount;
-		Log.v(TAG, "onPictureReceived() - Index : ", (m_ReceivedPictureCount - 1), ", picture buffer size : ", picture.length);
-		
-		// check index
-		if(m_TargetCapturedFrameCount > 0 && m_ReceivedPictureCount > m_TargetCapturedFrameCount)
-		{
-			Log.w(TAG, "onPictureReceived() - Unexpected picture, drop");
-			return;
-		}
-		
-		// check capture result
-		CaptureResult captureResult = m_ReceivedCaptureCompletedResults.poll();
-		if(captureResult == null)
-		{
-			m_ReceivedPictures.add(picture);
-			Log.w(TAG, "onPictureReceived() - Received picture before capture completed");
-			return;
-		}
-		
-		// handle received picture
-		this.onPictureReceived(captureResult, picture);
+		// join with capture result
+		m_CaptureFrameMatcher.onPictureReceived(timestamp, picture, SystemClock.elapsedRealtime());
+		this.scheduleCaptureFrameTimeout();
 	}
 	
 	
-	// Called when both picture and capture result are received.
-	private void onPictureReceived(CaptureResult result, byte[] picture)
+	// Called when both picture and capture result of a frame are joined, reference of picture buffer is released after raising event.
+	private void onPictureReceived(int index, CaptureResult result, PooledBuffer picture)
 	{
+		// check state
+		if(m_CaptureHandle == null)
+		{
+			if(picture != null)
+				picture.release();
+			return;
+		}
+		
 		// prepare completing capture
+		++m_CompletedCaptureFrameCount;
 		OperationState captureState = this.get(PROP_CAPTURE_STATE);
-		boolean failed = (picture == null || picture.length == 0);
-		boolean frameCountReached = (m_TargetCapturedFrameCount > 0 && m_ReceivedPictureCount >= m_TargetCapturedFrameCount);
+		boolean failed = (picture == null || picture.getLength() == 0);
+		boolean frameCountReached = (m_TargetCapturedFrameCount > 0 && m_CompletedCaptureFrameCount >= m_TargetCapturedFrameCount);
 		if(captureState == OperationState.STARTED)
 		{
 			if(frameCountReached || failed)
@@ -1468,10 +1532,18 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		{
 			int pictureFormat = this.get(PROP_PICTURE_FORMAT);
 			Size pictureSize = this.get(PROP_PICTURE_SIZE);
-			this.raise(EVENT_PICTURE_RECEIVED, CameraCaptureEventArgs.obtain(m_CaptureHandle, (m_ReceivedPictureCount - 1), result, picture, pictureFormat, pictureSize));
+			CameraCaptureEventArgs e = CameraCaptureEventArgs.obtain(m_CaptureHandle, index, result, picture, pictureFormat, pictureSize);
+			this.raise(EVENT_PICTURE_RECEIVED, e);
+			e.recycle();
 		}
 		else
-			this.raise(EVENT_CAPTURE_FAILED, CameraCaptureEventArgs.obtain(m_CaptureHandle, (m_ReceivedPictureCount - 1), result));
+		{
+			CameraCaptureEventArgs e = CameraCaptureEventArgs.obtain(m_CaptureHandle, index, result);
+			this.raise(EVENT_CAPTURE_FAILED, e);
+			e.recycle();
+		}
+		if(picture != null)
+			picture.release();
 		
 		// complete capture
 		if((frameCountReached || failed) && captureState == OperationState.STOPPING && m_IsCaptureSequenceCompleted)
@@ -1482,6 +1554,9 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	// Called when preview capture completed.
 	private void onPreviewCaptureCompleted(CaptureResult result)
 	{
+		// keep result for next preview frame
+		m_LastPreviewCaptureResult = result;
+		
 		// check focus state
 		int afState = result.get(CaptureResult.CONTROL_AF_STATE);
 		//Log.v(TAG, "CONTROL_AF_STATE = ", afState);
@@ -1515,7 +1590,7 @@ class CameraImpl extends HandlerBaseObject implements Camera
 				if(m_IsAutoFocusStarting)
 				{
 					m_IsAutoFocusStarting = false;
-					this.getHandler().removeMessages(MSG_AF_START_TIMEOUT);
+					m_MessageScheduler.cancel(MSG_AF_START_TIMEOUT);
 				}
 				if(!m_IsAutoFocusTimeout && this.setReadOnly(PROP_FOCUS_STATE, FocusState.SCANNING))
 					this.getHandler().sendEmptyMessageDelayed(MSG_AF_COMPLETE_TIMEOUT, TIMEOUT_AF_COMPLETE);
@@ -1526,7 +1601,7 @@ class CameraImpl extends HandlerBaseObject implements Camera
 				if(m_IsAutoFocusStarting)
 				{
 					m_IsAutoFocusStarting = false;
-					this.getHandler().removeMessages(MSG_AF_START_TIMEOUT);
+					m_MessageScheduler.cancel(MSG_AF_START_TIMEOUT);
 				}
 				this.getHandler().removeMessages(MSG_AF_COMPLETE_TIMEOUT);
 				this.setReadOnly(PROP_FOCUS_STATE, FocusState.INACTIVE);
@@ -1554,13 +1629,9 @@ class CameraImpl extends HandlerBaseObject implements Camera
 		// remove surface
 		boolean isPreviewStarted = (this.get(PROP_PREVIEW_STATE) == OperationState.STARTED);
 		boolean hasHandlers = this.hasHandlers(EVENT_PREVIEW_RECEIVED);
-		if(!hasHandlers && m_PreviewRequestBuilder != null && m_PreviewCallbackSurface != null)
-		{
-			Log.v(TAG, "onPreviewFrameReceived() - Remove preview call-back surface");
-			m_PreviewRequestBuilder.removeTarget(m_PreviewCallbackSurface);
-			if(isPreviewStarted)
-				this.startPreviewRequestDirectly();
-		}
+		boolean hasConsumers = (m_PreviewFrameRing.getConsumerCount() > 0);
+		if(!hasHandlers && !hasConsumers)
+			this.updatePreviewCallbackSurface();
 		
 		// check state
 		if(!isPreviewStarted)
@@ -1574,14 +1645,48 @@ class CameraImpl extends HandlerBaseObject implements Camera
 			this.notifyPropertyChanged(PROP_IS_PREVIEW_RECEIVED, false, true);
 		}
 		
+		// check frame
+		if((!hasHandlers && !hasConsumers) || m_PreviewCallbackAllocation == null)
+			return;
+		
+		// copy frame into ring
+		PreviewFrame frame = m_PreviewFrameRing.beginWrite();
+		if(frame == null)
+		{
+			Log.w(TAG, "onPreviewFrameReceived() - All preview frame slots are in use, drop frame");
+			return;
+		}
+		int dataSize = (m_PreviewSize.getWidth() * m_PreviewSize.getHeight() * 3 / 2);
+		try
+		{
+			if(frame.m_Data == null || frame.m_Data.length != dataSize)
+				frame.m_Data = new byte[dataSize];
+			m_PreviewCallbackAllocation.copyTo(frame.m_Data);
+		}
+		catch(Throwable ex)
+		{
+			Log.e(TAG, "onPreviewFrameReceived() - Fail to copy preview frame", ex);
+			m_PreviewFrameRing.cancelWrite(frame);
+			return;
+		}
+		long sequence = m_PreviewFrameRing.publish(frame, dataSize, ImageFormat.YUV_420_888, m_PreviewSize, SystemClock.elapsedRealtimeNanos(), m_LastPreviewCaptureResult);
+		
 		// raise event
-		if(hasHandlers && m_PreviewCallbackAllocation != null)
+		if(hasHandlers)
 		{
-			int dataSize = (m_PreviewSize.getWidth() * m_PreviewSize.getHeight() * 3 / 2);
-			if(m_PreviewCallbackData == null || m_PreviewCallbackData.length != dataSize)
-				m_PreviewCallbackData = new byte[dataSize];
-			m_PreviewCallbackAllocation.copyTo(m_PreviewCallbackData);
-			this.raise(EVENT_PREVIEW_RECEIVED, CameraCaptureEventArgs.obtain(null, -1, null, m_PreviewCallbackData, ImageFormat.YUV_420_888, m_PreviewSize));
+			frame = m_PreviewFrameRing.acquire(sequence);
+			if(frame == null)
+				return;
+			try
+			{
+				CameraCaptureEventArgs e = CameraCaptureEventArgs.obtain(null, -1, null, frame.m_Data, ImageFormat.YUV_420_888, m_PreviewSize);
+				this.raise(EVENT_PREVIEW_RECEIVED, e);
+				e.recycle();
+			}
+			finally
+			{
+				m_PreviewFrameRing.release(frame);
+			}
 		}
 	}
 	
@@ -1729,13 +1834,16 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	private void removePreviewReceivedHandler(EventHandler<CameraCaptureEventArgs> handler)
 	{
 		super.removeHandler(EVENT_PREVIEW_RECEIVED, handler);
-		if(!this.hasHandlers(EVENT_PREVIEW_RECEIVED) && m_PreviewRequestBuilder != null && m_PreviewCallbackSurface != null)
-		{
-			Log.v(TAG, "removePreviewReceivedHandler() - Remove preview call-back surface");
-			m_PreviewRequestBuilder.removeTarget(m_PreviewCallbackSurface);
-			if(this.get(PROP_PREVIEW_STATE) == OperationState.STARTED)
-				this.startPreviewRequestDirectly();
-		}
+		if(!this.hasHandlers(EVENT_PREVIEW_RECEIVED))
+			this.updatePreviewCallbackSurface();
+	}
+	
+	
+	// Schedule checking incomplete capture frames if there are frames waiting for other parts.
+	private void scheduleCaptureFrameTimeout()
+	{
+		if(m_CaptureFrameMatcher.getPendingCount() > 0 && !this.getHandler().hasMessages(MSG_CAPTURE_FRAME_TIMEOUT))
+			this.getHandler().sendEmptyMessageDelayed(MSG_CAPTURE_FRAME_TIMEOUT, TIMEOUT_CAPTURE_FRAME);
 	}
 	
 	
@@ -2347,7 +2455,7 @@ class CameraImpl extends HandlerBaseObject implements Camera
 				this.startPreviewRequestDirectly();
 				m_PreviewRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER, CaptureRequest.CONTROL_AF_TRIGGER_IDLE);
 				m_IsAutoFocusStarting = true;
-				HandlerUtils.sendMessage(this, MSG_AF_START_TIMEOUT, true, TIMEOUT_AF_START);
+				m_MessageScheduler.reschedule(MSG_AF_START_TIMEOUT, TIMEOUT_AF_START);
 				if(this.get(PROP_FOCUS_STATE) == FocusState.SCANNING)
 				{
 					this.setReadOnly(PROP_FOCUS_STATE, FocusState.INACTIVE);
@@ -2483,6 +2591,7 @@ class CameraImpl extends HandlerBaseObject implements Camera
 			{
 				Log.v(TAG, "startCaptureSession() - Add preview call-back surface");
 				m_PreviewRequestBuilder.addTarget(m_PreviewCallbackSurface);
+				m_IsPreviewCallbackSurfaceAdded = true;
 			}
 			
 			// setup parameters
@@ -2829,4 +2938,28 @@ class CameraImpl extends HandlerBaseObject implements Camera
 	{
 		return ("Camera2[ID=" + m_Id + ", Facing=" + m_LensFacing + "]");
 	}
+	
+	
+	// Add or remove preview call-back surface according to preview event handlers and frame ring consumers.
+	private void updatePreviewCallbackSurface()
+	{
+		if(m_PreviewRequestBuilder == null || m_PreviewCallbackSurface == null)
+			return;
+		boolean isNeeded = (this.hasHandlers(EVENT_PREVIEW_RECEIVED) || m_PreviewFrameRing.getConsumerCount() > 0);
+		if(isNeeded == m_IsPreviewCallbackSurfaceAdded)
+			return;
+		if(isNeeded)
+		{
+			Log.v(TAG, "updatePreviewCallbackSurface() - Add preview call-back surface");
+			m_PreviewRequestBuilder.addTarget(m_PreviewCallbackSurface);
+		}
+		else
+		{
+			Log.v(TAG, "updatePreviewCallbackSurface() - Remove preview call-back surface");
+			m_PreviewRequestBuilder.removeTarget(m_PreviewCallbackSurface);
+		}
+		m_IsPreviewCallbackSurfaceAdded = isNeeded;
+		if(this.get(PROP_PREVIEW_STATE) == OperationState.STARTED)
+			this.startPreviewRequestDirectly();
+	}
 }
@@ -18,13 +18,16 @@ import android.os.SystemClock;
 import android.util.Size;
 
 import com.charles.base.BaseThread;
+import com.charles.base.BooleanPropertyKey;
 import com.charles.base.EventArgs;
 import com.charles.base.EventHandler;
 import com.charles.base.EventKey;
 import com.charles.base.EventSource;
+import com.charles.base.FlightRecorder;
 import com.charles.base.Handle;
 import com.charles.base.HandlerUtils;
 import com.charles.base.Log;
+import com.charles.base.PooledBuffer;
 import com.charles.base.PropertyChangeEventArgs;
 import com.charles.base.PropertyChangedCallback;
 import com.charles.base.PropertyKey;
@@ -37,12 +40,14 @@ import com.charles.base.component.ComponentCreationPriority;
 import com.charles.base.component.ComponentEventArgs;
 import com.charles.base.component.ComponentManager;
 import com.charles.base.component.ComponentOwner;
+import com.charles.base.component.StartupProfile;
 import com.charles.camera.io.FileManager;
 import com.charles.camera.io.FileManagerBuilder;
 import com.charles.camera.io.PhotoSaveTask;
 import com.charles.camera.io.VideoSaveTask;
 import com.charles.camera.location.LocationManager;
 import com.charles.camera.media.AudioManager;
+import com.charles.camera.media.MediaEventArgs;
 import com.charles.camera.media.MediaType;
 import com.charles.camera.media.Resolution;
 
@@ -57,13 +62,20 @@ public class CameraThread extends BaseThread implements ComponentOwner
 		new ExposureControllerBuilder(),
 		new FileManagerBuilder(),
 		new FocusControllerBuilder(),
+		new FrameAnalysisManagerBuilder(),
 	};
 	
 	
 	// Constants
+	private static final int BURST_CAPTURE_FRAMES_IN_FLIGHT = 8;
+	private static final int BURST_CAPTURE_MEMORY_BUDGET_DIVISOR = 4;
+	private static final float BURST_CAPTURE_TARGET_RATE = 10;
 	private static final long DURATION_VIDEO_CAPTURE_DELAY = 300;
 	private static final int MSG_SCREEN_SIZE_CHANGED = 10000;
 	private static final int MSG_CAPTURE_VIDEO = 10010;
+	private static final int MSG_CREATE_LOW_PRIORITY_COMPONENTS = 10020;
+	private static final int MSG_UPDATE_BURST_CAPTURE = 10030;
+	private static final String STARTUP_PROFILE_FILE_NAME = "CameraThread.startup_profile";
 	
 	
 	/**
@@ -87,6 +99,10 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	 */
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public static final PropertyKey<List<Camera>> PROP_AVAILABLE_CAMERAS = new PropertyKey<List<Camera>>("AvailableCameras", (Class)List.class, CameraThread.class, Collections.EMPTY_LIST);
+	/**
+	 * Read-only property for statistics of current or last burst capture.
+	 */
+	public static final PropertyKey<BurstCaptureStats> PROP_BURST_CAPTURE_STATS = new PropertyKey<>("BurstCaptureStats", BurstCaptureStats.class, CameraThread.class, PropertyKey.FLAG_READONLY, null);
 	/**
 	 * Read-only property for current primary camera.
 	 */
@@ -102,7 +118,7 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	/**
 	 * Read-only property to check whether first camera preview frame is received or not.
 	 */
-	public static final PropertyKey<Boolean> PROP_IS_CAMERA_PREVIEW_RECEIVED = new PropertyKey<>("IsCameraPreviewReceived", Boolean.class, CameraThread.class, false);
+	public static final BooleanPropertyKey PROP_IS_CAMERA_PREVIEW_RECEIVED = new BooleanPropertyKey("IsCameraPreviewReceived", CameraThread.class, false);
 	/**
 	 * Read-only property to check whether video snapshot is enabled or not.
 	 */
@@ -141,6 +157,8 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	
 	// Private fields
 	private AudioManager m_AudioManager;
+	private BurstCaptureEngine m_BurstCaptureEngine;
+	private CaptureHandle m_BurstCaptureHandle;
 	private Handle m_BurstCaptureSoundStreamHandle;
 	private final Context m_Context;
 	private Handle m_CameraCaptureHandle;
@@ -149,6 +167,7 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	private final PhotoCaptureHandlerHandle m_DefaultPhotoCaptureHandlerHandle = new PhotoCaptureHandlerHandle(null);
 	private Handle m_DefaultShutterSoundHandle;
 	private final VideoCaptureHandlerHandle m_DefaultVideoCaptureHandlerHandle = new VideoCaptureHandlerHandle(null);
+	private FileManager m_FileManager;
 	private FocusController m_FocusController;
 	private boolean m_IsCapturingBurstPhotos;
 	private boolean m_IsNormalComponentsCreated;
@@ -181,6 +200,15 @@ public class CameraThread extends BaseThread implements ComponentOwner
 			closeCamerasInternal();
 		}
 	};
+	private final Runnable m_ContinueBurstCaptureRunnable = new Runnable()
+	{
+		@Override
+		public void run()
+		{
+			if(m_BurstCaptureEngine != null)
+				m_BurstCaptureEngine.onCaptureCompleted(SystemClock.elapsedRealtime());
+		}
+	};
 	
 	
 	// Property call-backs.
@@ -228,6 +256,22 @@ public class CameraThread extends BaseThread implements ComponentOwner
 			onCaptureFailed(e);
 		}
 	};
+	private final EventHandler<MediaEventArgs> m_MediaSaveFailedHandler = new EventHandler<MediaEventArgs>()
+	{
+		@Override
+		public void onEventReceived(EventSource source, EventKey<MediaEventArgs> key, MediaEventArgs e)
+		{
+			onMediaSaveCompleted(e, false);
+		}
+	};
+	private final EventHandler<MediaEventArgs> m_MediaSavedHandler = new EventHandler<MediaEventArgs>()
+	{
+		@Override
+		public void onEventReceived(EventSource source, EventKey<MediaEventArgs> key, MediaEventArgs e)
+		{
+			onMediaSaveCompleted(e, true);
+		}
+	};
 	private final EventHandler<CameraCaptureEventArgs> m_PictureReceivedHandler = new EventHandler<CameraCaptureEventArgs>()
 	{
 		@Override
@@ -246,6 +290,49 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	};
 	
 	
+	// Burst capture backend.
+	private final BurstCaptureEngine.Backend m_BurstCaptureBackend = new BurstCaptureEngine.Backend()
+	{
+		@Override
+		public long getAvailableMemory()
+		{
+			Runtime runtime = Runtime.getRuntime();
+			return (runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory()));
+		}
+		
+		@Override
+		public int getSaveQueueDepth()
+		{
+			return (m_FileManager != null ? m_FileManager.get(FileManager.PROP_PENDING_SAVE_COUNT) : 0);
+		}
+		
+		@Override
+		public void onCaptureStopped()
+		{
+			onBurstCaptureStopped();
+		}
+		
+		@Override
+		public void onStatsUpdated(BurstCaptureStats stats)
+		{
+			onBurstCaptureStatsUpdated(stats);
+		}
+		
+		@Override
+		public boolean requestFrames(int frameCount)
+		{
+			return requestBurstCaptureFrames(frameCount);
+		}
+		
+		@Override
+		public void scheduleUpdate(long delay)
+		{
+			HandlerUtils.removeMessages(CameraThread.this, MSG_UPDATE_BURST_CAPTURE);
+			HandlerUtils.sendMessage(CameraThread.this, MSG_UPDATE_BURST_CAPTURE, delay);
+		}
+	};
+	
+	
 	/**
 	 * Resource ID table.
 	 */
@@ -682,7 +769,7 @@ public class CameraThread extends BaseThread implements ComponentOwner
 			if(handlerHandle == null)
 			{
 				Log.v(TAG, "capturePhotoInternal() - Use default capture process");
-				if(!this.capturePhotoInternal(handle.frameCount))
+				if(!this.capturePhotoInternal(handle))
 					throw new RuntimeException("Fail to use default photo capture process.");
 				handlerHandle = m_DefaultPhotoCaptureHandlerHandle;
 			}
@@ -706,7 +793,7 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	
 	
 	// Default photo capture process.
-	private boolean capturePhotoInternal(int frameCount)
+	private boolean capturePhotoInternal(PhotoCaptureHandle handle)
 	{
 		// prepare event handlers
 		Camera camera = this.get(PROP_CAMERA);
@@ -718,8 +805,16 @@ public class CameraThread extends BaseThread implements ComponentOwner
 		camera.addCallback(Camera.PROP_CAPTURE_STATE, m_CaptureStateChangedCallback);
 		
 		// capture
-		m_CameraCaptureHandle = camera.capture(frameCount, 0);
-		if(!Handle.isValid(m_CameraCaptureHandle))
+		int frameCount = handle.frameCount;
+		boolean isStarted;
+		if(frameCount != 1)
+			isStarted = this.startBurstCapture(handle);
+		else
+		{
+			m_CameraCaptureHandle = camera.capture(frameCount, 0);
+			isStarted = Handle.isValid(m_CameraCaptureHandle);
+		}
+		if(!isStarted)
 		{
 			Log.e(TAG, "capturePhotoInternal() - Fail to capture");
 			camera.removeHandler(Camera.EVENT_CAPTURE_FAILED, m_CaptureFailedHandler);
@@ -1030,6 +1125,26 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	}
 	
 	
+	// Complete default photo capture process.
+	private void completeDefaultPhotoCapture(Camera camera)
+	{
+		// remove handlers and call-backs
+		if(camera != null)
+		{
+			camera.removeHandler(Camera.EVENT_CAPTURE_FAILED, m_CaptureFailedHandler);
+			camera.removeHandler(Camera.EVENT_PICTURE_RECEIVED, m_PictureReceivedHandler);
+			camera.removeHandler(Camera.EVENT_SHUTTER, m_ShutterHandler);
+			camera.removeCallback(Camera.PROP_CAPTURE_STATE, m_CaptureStateChangedCallback);
+		}
+		
+		// raise event
+		this.raise(EVENT_DEFAULT_PHOTO_CAPTURE_COMPLETED, new CaptureEventArgs(m_PhotoCaptureHandle));
+		
+		// complete capture
+		this.completeCapture(m_DefaultPhotoCaptureHandlerHandle, m_PhotoCaptureHandle);
+	}
+	
+	
 	/**
 	 * Disable video snapshot.
 	 * @return Handle to this operation.
@@ -1103,10 +1218,20 @@ public class CameraThread extends BaseThread implements ComponentOwner
 				this.captureVideoInternal(m_VideoCaptureHandle, (Resolution)msg.obj, true);
 				break;
 				
+			case MSG_CREATE_LOW_PRIORITY_COMPONENTS:
+				if(m_IsNormalComponentsCreated)
+					m_ComponentManager.createComponents(ComponentCreationPriority.LOW, this);
+				break;
+				
 			case MSG_SCREEN_SIZE_CHANGED:
 				this.setReadOnly(PROP_SCREEN_SIZE, (ScreenSize)msg.obj);
 				break;
 				
+			case MSG_UPDATE_BURST_CAPTURE:
+				if(m_BurstCaptureEngine != null)
+					m_BurstCaptureEngine.update(SystemClock.elapsedRealtime());
+				break;
+				
 			default:
 				super.handleMessage(msg);
 				break;
@@ -1154,6 +1279,28 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	}
 	
 	
+	// Called when burst capture statistics changed.
+	private void onBurstCaptureStatsUpdated(BurstCaptureStats stats)
+	{
+		this.setReadOnly(PROP_BURST_CAPTURE_STATS, stats);
+		if(stats.isCompleted())
+		{
+			Log.w(TAG, "onBurstCaptureStatsUpdated() - Burst completed : " + stats);
+			m_BurstCaptureHandle = null;
+		}
+	}
+	
+	
+	// Called when burst capture engine stops requesting frames.
+	private void onBurstCaptureStopped()
+	{
+		Log.v(TAG, "onBurstCaptureStopped()");
+		HandlerUtils.removeMessages(this, MSG_UPDATE_BURST_CAPTURE);
+		m_BurstCaptureSoundStreamHandle = Handle.close(m_BurstCaptureSoundStreamHandle);
+		this.completeDefaultPhotoCapture(this.get(PROP_CAMERA));
+	}
+	
+	
 	// Called when unexpected camera error occurred.
 	private void onCameraError(Camera camera)
 	{
@@ -1161,6 +1308,7 @@ public class CameraThread extends BaseThread implements ComponentOwner
 		{
 			Log.e(TAG, "onCameraError() - Camera : " + camera);
 			this.raise(EVENT_CAMERA_ERROR, new CameraEventArgs(camera));
+			FlightRecorder.dump("Camera error : " + camera);
 		}
 	}
 	
@@ -1173,7 +1321,11 @@ public class CameraThread extends BaseThread implements ComponentOwner
 			return;
 		
 		// update property
-		this.setReadOnly(PROP_IS_CAMERA_PREVIEW_RECEIVED, isReceived);
+		this.setReadOnlyBoolean(PROP_IS_CAMERA_PREVIEW_RECEIVED, isReceived);
+		
+		// complete startup
+		if(isReceived)
+			this.onStartupCompleted();
 	}
 	
 	
@@ -1201,36 +1353,45 @@ public class CameraThread extends BaseThread implements ComponentOwner
 		if(this.get(PROP_CAMERA) != camera)
 			return;
 		
-		// update preview state property
-		this.setReadOnly(PROP_CAMERA_PREVIEW_STATE, state);
-		
-		// release media recorder
-		if(m_VideoCaptureHandle == null && m_MediaRecorder != null)
+		// update properties in single transaction
+		Handle transaction = this.beginPropertyTransaction();
+		try
 		{
-			if(state == OperationState.STARTED || state == OperationState.STOPPED)
+			// update preview state property
+			this.setReadOnly(PROP_CAMERA_PREVIEW_STATE, state);
+			
+			// release media recorder
+			if(m_VideoCaptureHandle == null && m_MediaRecorder != null)
 			{
-				Log.v(TAG, "onCameraPreviewStateChanged() - Release media recorder");
-				m_MediaRecorder.release();
-				m_MediaRecorder = null;
+				if(state == OperationState.STARTED || state == OperationState.STOPPED)
+				{
+					Log.v(TAG, "onCameraPreviewStateChanged() - Release media recorder");
+					m_MediaRecorder.release();
+					m_MediaRecorder = null;
+				}
+			}
+			
+			// update capture state properties
+			if(state == OperationState.STARTED)
+			{
+				// change capture state
+				if(this.get(PROP_PHOTO_CAPTURE_STATE) == PhotoCaptureState.PREPARING)
+					this.setReadOnly(PROP_PHOTO_CAPTURE_STATE, PhotoCaptureState.READY);
+				if(this.get(PROP_MEDIA_TYPE) == MediaType.VIDEO && this.get(PROP_VIDEO_CAPTURE_STATE) == VideoCaptureState.PREPARING)
+					this.setReadOnly(PROP_VIDEO_CAPTURE_STATE, VideoCaptureState.READY);
+			}
+			else
+			{
+				// change capture state
+				if(this.get(PROP_PHOTO_CAPTURE_STATE) == PhotoCaptureState.READY)
+					this.setReadOnly(PROP_PHOTO_CAPTURE_STATE, PhotoCaptureState.PREPARING);
+				if(this.get(PROP_VIDEO_CAPTURE_STATE) == VideoCaptureState.READY)
+					this.setReadOnly(PROP_VIDEO_CAPTURE_STATE, VideoCaptureState.PREPARING);
 			}
 		}
-		
-		// update capture state properties
-		if(state == OperationState.STARTED)
-		{
-			// change capture state
-			if(this.get(PROP_PHOTO_CAPTURE_STATE) == PhotoCaptureState.PREPARING)
-				this.setReadOnly(PROP_PHOTO_CAPTURE_STATE, PhotoCaptureState.READY);
-			if(this.get(PROP_MEDIA_TYPE) == MediaType.VIDEO && this.get(PROP_VIDEO_CAPTURE_STATE) == VideoCaptureState.PREPARING)
-				this.setReadOnly(PROP_VIDEO_CAPTURE_STATE, VideoCaptureState.READY);
-		}
-		else
+		finally
 		{
-			// change capture state
-			if(this.get(PROP_PHOTO_CAPTURE_STATE) == PhotoCaptureState.READY)
-				this.setReadOnly(PROP_PHOTO_CAPTURE_STATE, PhotoCaptureState.PREPARING);
-			if(this.get(PROP_VIDEO_CAPTURE_STATE) == VideoCaptureState.READY)
-				this.setReadOnly(PROP_VIDEO_CAPTURE_STATE, VideoCaptureState.PREPARING);
+			Handle.close(transaction);
 		}
 	}
 	
@@ -1238,27 +1399,26 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	// Called when capture completed.
 	private void onCaptureCompleted(Camera camera)
 	{
-		// remove handlers and call-backs
-		camera.removeHandler(Camera.EVENT_CAPTURE_FAILED, m_CaptureFailedHandler);
-		camera.removeHandler(Camera.EVENT_PICTURE_RECEIVED, m_PictureReceivedHandler);
-		camera.removeHandler(Camera.EVENT_SHUTTER, m_ShutterHandler);
-		camera.removeCallback(Camera.PROP_CAPTURE_STATE, m_CaptureStateChangedCallback);
-		
 		// reset state
 		m_CameraCaptureHandle = null;
 		
-		// raise event
-		this.raise(EVENT_DEFAULT_PHOTO_CAPTURE_COMPLETED, new CaptureEventArgs(m_PhotoCaptureHandle));
+		// continue burst capture after capture state change completes
+		if(m_BurstCaptureEngine != null && m_BurstCaptureEngine.isCapturing())
+		{
+			HandlerUtils.post(this, m_ContinueBurstCaptureRunnable);
+			return;
+		}
 		
 		// complete capture
-		this.completeCapture(m_DefaultPhotoCaptureHandlerHandle, m_PhotoCaptureHandle);
+		this.completeDefaultPhotoCapture(camera);
 	}
 	
 	
 	// Called when capture failed.
 	private void onCaptureFailed(CameraCaptureEventArgs e)
 	{
-		//
+		if(m_BurstCaptureEngine != null && m_BurstCaptureEngine.isCapturing())
+			m_BurstCaptureEngine.onFrameFailed(SystemClock.elapsedRealtime());
 	}
 	
 	
@@ -1276,12 +1436,42 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	}
 	
 	
+	// Called when media saving completed or failed.
+	private void onMediaSaveCompleted(MediaEventArgs e, boolean isSaved)
+	{
+		if(m_BurstCaptureEngine == null || m_BurstCaptureHandle == null || e.getCaptureHandle() != m_BurstCaptureHandle)
+			return;
+		if(isSaved)
+			m_BurstCaptureEngine.onFrameSaved(SystemClock.elapsedRealtime());
+		else
+			m_BurstCaptureEngine.onFrameSaveFailed(SystemClock.elapsedRealtime());
+	}
+	
+	
 	// Called when receiving captured picture.
 	private void onPictureReceived(CameraCaptureEventArgs e)
 	{
 		Log.v(TAG, "onPictureReceived() - Index : ", e.getFrameIndex());
 		
-		m_ComponentManager.findComponent(FileManager.class, this).saveMedia(new PhotoSaveTask(this.getContext(), e), 0);
+		// save picture
+		boolean isBurstCapture = (m_BurstCaptureEngine != null && m_BurstCaptureEngine.isCapturing());
+		CaptureHandle captureHandle = (isBurstCapture ? m_BurstCaptureHandle : null);
+		m_ComponentManager.findComponent(FileManager.class, this).saveMedia(new PhotoSaveTask(this.getContext(), e, captureHandle), 0);
+		
+		// update burst capture
+		if(isBurstCapture)
+		{
+			PooledBuffer buffer = e.getPictureBuffer();
+			long pictureSize;
+			if(buffer != null)
+				pictureSize = buffer.getLength();
+			else
+			{
+				byte[] picture = e.getPicture();
+				pictureSize = (picture != null ? picture.length : 0);
+			}
+			m_BurstCaptureEngine.onFrameCaptured(pictureSize, SystemClock.elapsedRealtime());
+		}
 	}
 	
 	
@@ -1297,10 +1487,13 @@ public class CameraThread extends BaseThread implements ComponentOwner
 		{
 			if(m_IsCapturingBurstPhotos)
 			{
-				if(Handle.isValid(m_DefaultShutterSoundHandle))
-					m_BurstCaptureSoundStreamHandle = m_AudioManager.playSound(m_DefaultShutterSoundHandle, AudioManager.FLAG_LOOP);
-				else
-					Log.w(TAG, "onShutter() - No sound for burst capture");
+				if(!Handle.isValid(m_BurstCaptureSoundStreamHandle))
+				{
+					if(Handle.isValid(m_DefaultShutterSoundHandle))
+						m_BurstCaptureSoundStreamHandle = m_AudioManager.playSound(m_DefaultShutterSoundHandle, AudioManager.FLAG_LOOP);
+					else
+						Log.w(TAG, "onShutter() - No sound for burst capture");
+				}
 			}
 			else
 				this.playDefaultShutterSound();
@@ -1366,6 +1559,7 @@ public class CameraThread extends BaseThread implements ComponentOwner
 			
 			// create component manager
 			m_ComponentManager = new ComponentManager();
+			m_ComponentManager.setStartupProfile(StartupProfile.load(new File(m_Context.getFilesDir(), STARTUP_PROFILE_FILE_NAME)));
 			m_ComponentManager.addComponentBuilders(DEFAULT_COMPONENT_BUILDERS, this);
 			m_ComponentManager.addHandler(ComponentManager.EVENT_COMPONENT_ADDED, new EventHandler<ComponentEventArgs<Component>>()
 			{
@@ -1397,6 +1591,20 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	}
 	
 	
+	// Called when first camera preview frame received.
+	private void onStartupCompleted()
+	{
+		// complete startup profile
+		StartupProfile profile = m_ComponentManager.getStartupProfile();
+		if(profile == null || !profile.completeStartup())
+			return;
+		profile.saveAsync();
+		
+		// create components with LOW priority later
+		HandlerUtils.sendMessage(this, MSG_CREATE_LOW_PRIORITY_COMPONENTS);
+	}
+	
+	
 	// Called before stopping thread.
 	@Override
 	protected void onStopping()
@@ -1497,7 +1705,7 @@ public class CameraThread extends BaseThread implements ComponentOwner
 		camera.set(Camera.PROP_IS_RECORDING_MODE, this.get(PROP_MEDIA_TYPE) == MediaType.VIDEO);
 		
 		// update property
-		this.setReadOnly(PROP_IS_CAMERA_PREVIEW_RECEIVED, camera.get(Camera.PROP_IS_PREVIEW_RECEIVED));
+		this.setReadOnlyBoolean(PROP_IS_CAMERA_PREVIEW_RECEIVED, camera.getBoolean(Camera.PROP_IS_PREVIEW_RECEIVED));
 		this.setReadOnly(PROP_CAMERA, camera);
 		
 		// complete
@@ -1649,6 +1857,20 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	}
 	
 	
+	// Request frames for burst capture.
+	private boolean requestBurstCaptureFrames(int frameCount)
+	{
+		Camera camera = this.get(PROP_CAMERA);
+		if(camera == null)
+		{
+			Log.e(TAG, "requestBurstCaptureFrames() - No primary camera");
+			return false;
+		}
+		m_CameraCaptureHandle = camera.capture(frameCount, 0);
+		return Handle.isValid(m_CameraCaptureHandle);
+	}
+	
+	
 	/**
 	 * Change current media type.
 	 * @param mediaType New media type.
@@ -1844,6 +2066,40 @@ public class CameraThread extends BaseThread implements ComponentOwner
 	}
 	
 	
+	// Start burst capture by burst capture engine.
+	private boolean startBurstCapture(PhotoCaptureHandle handle)
+	{
+		// bind to FileManager
+		if(m_FileManager == null)
+		{
+			m_FileManager = m_ComponentManager.findComponent(FileManager.class, this);
+			if(m_FileManager != null)
+			{
+				m_FileManager.addHandler(FileManager.EVENT_MEDIA_SAVE_FAILED, m_MediaSaveFailedHandler);
+				m_FileManager.addHandler(FileManager.EVENT_MEDIA_SAVED, m_MediaSavedHandler);
+			}
+			else
+				Log.w(TAG, "startBurstCapture() - No FileManager");
+		}
+		
+		// create engine
+		if(m_BurstCaptureEngine == null)
+		{
+			long memoryBudget = (Runtime.getRuntime().maxMemory() / BURST_CAPTURE_MEMORY_BUDGET_DIVISOR);
+			m_BurstCaptureEngine = new BurstCaptureEngine(m_BurstCaptureBackend, BURST_CAPTURE_TARGET_RATE, BURST_CAPTURE_FRAMES_IN_FLIGHT, memoryBudget);
+		}
+		
+		// start
+		m_BurstCaptureHandle = handle;
+		if(!m_BurstCaptureEngine.start(handle.frameCount, SystemClock.elapsedRealtime()))
+		{
+			m_BurstCaptureHandle = null;
+			return false;
+		}
+		return true;
+	}
+	
+	
 	/**
 	 * Start camera preview.
 	 * @param camera Camera to start preview.
@@ -2161,6 +2417,8 @@ public class CameraThread extends BaseThread implements ComponentOwner
 			if(handle.captureHandler == null)
 			{
 				Log.w(TAG, "stopPhotoCaptureInternal() - Use default photo capture stop process");
+				if(m_BurstCaptureEngine != null)
+					m_BurstCaptureEngine.stop(SystemClock.elapsedRealtime());
 				m_CameraCaptureHandle = Handle.close(m_CameraCaptureHandle);
 				m_BurstCaptureSoundStreamHandle = Handle.close(m_BurstCaptureSoundStreamHandle);
 			}
@@ -0,0 +1,427 @@
+package com.charles.camera;
+
+/**
+ * Fixed-capacity table to join capture start, capture result and picture of each captured frame by frame number and sensor timestamp.
+ * Parts of frame can arrive in any order, frame is reported once all needed parts are received, and parts which cannot be joined within timeout are reported as failed or orphaned frame.
+ * This class is not thread-safe.
+ * @param <TResult> Type of capture result.
+ * @param <TPicture> Type of picture.
+ */
+public final class CaptureFrameMatcher<TResult, TPicture>
+{
+	/**
+	 * Call-back to receive joined frames, ownership of picture is transferred to call-back.
+	 * @param <TResult> Type of capture result.
+	 * @param <TPicture> Type of picture.
+	 */
+	public interface Callback<TResult, TPicture>
+	{
+		/**
+		 * Called when capture failed or frame is not completed within timeout.
+		 * @param index Capture index given when capture started.
+		 * @param frameNumber Frame number, or -1 if it is unknown.
+		 * @param result Capture result, or Null if it is not received.
+		 * @param picture Picture, or Null if it is not received.
+		 */
+		void onFrameFailed(int index, long frameNumber, TResult result, TPicture picture);
+		
+		/**
+		 * Called when capture result and picture are joined.
+		 * @param index Capture index given when capture started.
+		 * @param frameNumber Frame number.
+		 * @param result Capture result.
+		 * @param picture Picture.
+		 */
+		void onFrameMatched(int index, long frameNumber, TResult result, TPicture picture);
+		
+		/**
+		 * Called when dropping capture result or picture which does not belong to any started capture.
+		 * @param result Capture result, or Null.
+		 * @param picture Picture, or Null.
+		 */
+		void onOrphanDropped(TResult result, TPicture picture);
+	}
+	
+	
+	// Private fields
+	private final Callback<TResult, TPicture> m_Callback;
+	private long m_FailedFrameCount;
+	private long m_MatchedFrameCount;
+	private long m_OrphanCount;
+	private int m_PendingCount;
+	private final Slot[] m_Slots;
+	private final long m_Timeout;
+	
+	
+	// Frame which is waiting for other parts.
+	private static final class Slot
+	{
+		public long arrivalTime;
+		public long frameNumber = -1;
+		public boolean hasPicture;
+		public boolean hasResult;
+		public int index = -1;
+		public boolean isFailed;
+		public boolean isUsed;
+		public Object picture;
+		public Object result;
+		public long timestamp = -1;
+		
+		public void clear()
+		{
+			this.frameNumber = -1;
+			this.hasPicture = false;
+			this.hasResult = false;
+			this.index = -1;
+			this.isFailed = false;
+			this.isUsed = false;
+			this.picture = null;
+			this.result = null;
+			this.timestamp = -1;
+		}
+	}
+	
+	
+	/**
+	 * Initialize new CaptureFrameMatcher instance.
+	 * @param capacity Maximum number of frames waiting for other parts, oldest frame is dropped when table is full.
+	 * @param timeout Timeout for frame waiting for other parts, in the same unit as time given to other methods.
+	 * @param callback Call-back to receive joined frames.
+	 */
+	public CaptureFrameMatcher(int capacity, long timeout, Callback<TResult, TPicture> callback)
+	{
+		if(capacity <= 0)
+			throw new IllegalArgumentException("Invalid capacity : " + capacity);
+		if(timeout <= 0)
+			throw new IllegalArgumentException("Invalid timeout : " + timeout);
+		if(callback == null)
+			throw new IllegalArgumentException("No call-back");
+		m_Slots = new Slot[capacity];
+		for(int i = capacity - 1 ; i >= 0 ; --i)
+			m_Slots[i] = new Slot();
+		m_Timeout = timeout;
+		m_Callback = callback;
+	}
+	
+	
+	// Get unused slot, drop oldest frame if table is full.
+	private Slot allocate(long time)
+	{
+		Slot oldestSlot = null;
+		for(int i = m_Slots.length - 1 ; i >= 0 ; --i)
+		{
+			Slot slot = m_Slots[i];
+			if(!slot.isUsed)
+			{
+				slot.isUsed = true;
+				slot.arrivalTime = time;
+				++m_PendingCount;
+				return slot;
+			}
+			if(oldestSlot == null || slot.arrivalTime < oldestSlot.arrivalTime)
+				oldestSlot = slot;
+		}
+		this.drop(oldestSlot);
+		oldestSlot.isUsed = true;
+		oldestSlot.arrivalTime = time;
+		++m_PendingCount;
+		return oldestSlot;
+	}
+	
+	
+	/**
+	 * Drop all waiting frames as orphans without reporting failures.
+	 */
+	public void clear()
+	{
+		for(int i = m_Slots.length - 1 ; i >= 0 ; --i)
+		{
+			Slot slot = m_Slots[i];
+			if(slot.isUsed)
+				this.drop(slot, false);
+		}
+	}
+	
+	
+	// Complete frame if all needed parts are received.
+	@SuppressWarnings("unchecked")
+	private void complete(Slot slot)
+	{
+		if(slot.index < 0)
+			return;
+		if(slot.isFailed)
+		{
+			this.drop(slot, true);
+			return;
+		}
+		if(!slot.hasResult || !slot.hasPicture)
+			return;
+		int index = slot.index;
+		long frameNumber = slot.frameNumber;
+		TResult result = (TResult)slot.result;
+		TPicture picture = (TPicture)slot.picture;
+		this.release(slot);
+		++m_MatchedFrameCount;
+		m_Callback.onFrameMatched(index, frameNumber, result, picture);
+	}
+	
+	
+	// Drop frame.
+	private void drop(Slot slot)
+	{
+		this.drop(slot, true);
+	}
+	
+	
+	// Drop frame and report it as failed frame or orphan.
+	@SuppressWarnings("unchecked")
+	private void drop(Slot slot, boolean reportFailure)
+	{
+		int index = slot.index;
+		long frameNumber = slot.frameNumber;
+		TResult result = (TResult)slot.result;
+		TPicture picture = (TPicture)slot.picture;
+		this.release(slot);
+		if(reportFailure && index >= 0)
+		{
+			++m_FailedFrameCount;
+			m_Callback.onFrameFailed(index, frameNumber, result, picture);
+		}
+		else if(result != null || picture != null)
+		{
+			++m_OrphanCount;
+			m_Callback.onOrphanDropped(result, picture);
+		}
+	}
+	
+	
+	/**
+	 * Drop frames which wait for other parts longer than timeout.
+	 * @param time Current time.
+	 * @return Number of dropped frames.
+	 */
+	public int expire(long time)
+	{
+		int count = 0;
+		for(int i = m_Slots.length - 1 ; i >= 0 ; --i)
+		{
+			Slot slot = m_Slots[i];
+			if(slot.isUsed && (time - slot.arrivalTime) >= m_Timeout)
+			{
+				this.drop(slot);
+				++count;
+			}
+		}
+		return count;
+	}
+	
+	
+	// Find slot by frame number.
+	private Slot findByFrameNumber(long frameNumber)
+	{
+		if(frameNumber < 0)
+			return null;
+		for(int i = m_Slots.length - 1 ; i >= 0 ; --i)
+		{
+			Slot slot = m_Slots[i];
+			if(slot.isUsed && slot.frameNumber == frameNumber)
+				return slot;
+		}
+		return null;
+	}
+	
+	
+	// Find slot by sensor timestamp.
+	private Slot findByTimestamp(long timestamp)
+	{
+		if(timestamp < 0)
+			return null;
+		for(int i = m_Slots.length - 1 ; i >= 0 ; --i)
+		{
+			Slot slot = m_Slots[i];
+			if(slot.isUsed && slot.timestamp == timestamp)
+				return slot;
+		}
+		return null;
+	}
+	
+	
+	// Find or create slot for given frame, slots which are created for different parts of the same frame are merged.
+	private Slot findOrAllocate(long frameNumber, long timestamp, long time)
+	{
+		Slot slot = this.findByFrameNumber(frameNumber);
+		Slot timestampSlot = this.findByTimestamp(timestamp);
+		if(slot == null)
+			slot = timestampSlot;
+		else if(timestampSlot != null && timestampSlot != slot)
+			this.merge(timestampSlot, slot);
+		if(slot == null)
+			slot = this.allocate(time);
+		if(frameNumber >= 0)
+			slot.frameNumber = frameNumber;
+		if(timestamp >= 0)
+			slot.timestamp = timestamp;
+		return slot;
+	}
+	
+	
+	/**
+	 * Get number of frames reported as failed.
+	 * @return Number of frames.
+	 */
+	public long getFailedFrameCount()
+	{
+		return m_FailedFrameCount;
+	}
+	
+	
+	/**
+	 * Get number of joined frames.
+	 * @return Number of frames.
+	 */
+	public long getMatchedFrameCount()
+	{
+		return m_MatchedFrameCount;
+	}
+	
+	
+	/**
+	 * Get number of dropped parts which do not belong to any started capture.
+	 * @return Number of orphans.
+	 */
+	public long getOrphanCount()
+	{
+		return m_OrphanCount;
+	}
+	
+	
+	/**
+	 * Get number of frames waiting for other parts.
+	 * @return Number of frames.
+	 */
+	public int getPendingCount()
+	{
+		return m_PendingCount;
+	}
+	
+	
+	// Move parts from source slot to target slot, duplicate parts are dropped as orphans.
+	@SuppressWarnings("unchecked")
+	private void merge(Slot source, Slot target)
+	{
+		// move parts
+		Object duplicateResult = null;
+		Object duplicatePicture = null;
+		if(source.index >= 0)
+			target.index = source.index;
+		if(source.hasResult)
+		{
+			if(!target.hasResult)
+			{
+				target.hasResult = true;
+				target.result = source.result;
+			}
+			else
+				duplicateResult = source.result;
+		}
+		if(source.hasPicture)
+		{
+			if(!target.hasPicture)
+			{
+				target.hasPicture = true;
+				target.picture = source.picture;
+			}
+			else
+				duplicatePicture = source.picture;
+		}
+		target.isFailed |= source.isFailed;
+		target.arrivalTime = Math.min(target.arrivalTime, source.arrivalTime);
+		this.release(source);
+		
+		// drop duplicate parts
+		if(duplicateResult != null || duplicatePicture != null)
+		{
+			++m_OrphanCount;
+			m_Callback.onOrphanDropped((TResult)duplicateResult, (TPicture)duplicatePicture);
+		}
+	}
+	
+	
+	/**
+	 * Called when capture failed.
+	 * @param frameNumber Frame number.
+	 * @param time Current time.
+	 */
+	public void onCaptureFailed(long frameNumber, long time)
+	{
+		Slot slot = this.findOrAllocate(frameNumber, -1, time);
+		slot.isFailed = true;
+		this.complete(slot);
+	}
+	
+	
+	/**
+	 * Called when capture result received.
+	 * @param frameNumber Frame number.
+	 * @param timestamp Sensor timestamp, or -1 if it is unknown.
+	 * @param result Capture result.
+	 * @param time Current time.
+	 */
+	public void onCaptureResult(long frameNumber, long timestamp, TResult result, long time)
+	{
+		Slot slot = this.findOrAllocate(frameNumber, timestamp, time);
+		if(slot.hasResult)
+		{
+			++m_OrphanCount;
+			m_Callback.onOrphanDropped(result, null);
+			return;
+		}
+		slot.hasResult = true;
+		slot.result = result;
+		this.complete(slot);
+	}
+	
+	
+	/**
+	 * Called when capture started.
+	 * @param index Capture index.
+	 * @param frameNumber Frame number.
+	 * @param timestamp Sensor timestamp.
+	 * @param time Current time.
+	 */
+	public void onCaptureStarted(int index, long frameNumber, long timestamp, long time)
+	{
+		Slot slot = this.findOrAllocate(frameNumber, timestamp, time);
+		slot.index = index;
+		this.complete(slot);
+	}
+	
+	
+	/**
+	 * Called when picture received.
+	 * @param timestamp Sensor timestamp.
+	 * @param picture Picture.
+	 * @param time Current time.
+	 */
+	public void onPictureReceived(long timestamp, TPicture picture, long time)
+	{
+		Slot slot = this.findOrAllocate(-1, timestamp, time);
+		if(slot.hasPicture)
+		{
+			++m_OrphanCount;
+			m_Callback.onOrphanDropped(null, picture);
+			return;
+		}
+		slot.hasPicture = true;
+		slot.picture = picture;
+		this.complete(slot);
+	}
+	
+	
+	// Release slot.
+	private void release(Slot slot)
+	{
+		slot.clear();
+		--m_PendingCount;
+	}
+}
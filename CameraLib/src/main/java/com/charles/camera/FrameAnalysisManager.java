@@ -0,0 +1,33 @@
+package com.charles.camera;
+
+import com.charles.base.Handle;
+import com.charles.base.PropertyKey;
+import com.charles.base.component.Component;
+
+/**
+ * Component to analyze preview frames of primary camera by {@link FrameAnalyzer} stages off the camera thread.
+ * Results are published as read-only properties of this component with keys defined by analyzers.
+ */
+public interface FrameAnalysisManager extends Component
+{
+	/**
+	 * Read-only property to get luminance histogram with 256 bins, published by {@link LumaHistogramAnalyzer}.
+	 */
+	PropertyKey<int[]> PROP_LUMA_HISTOGRAM = new PropertyKey<>("LumaHistogram", int[].class, FrameAnalysisManager.class, PropertyKey.FLAG_READONLY, null);
+	/**
+	 * Read-only property to get motion level in range [0, 1], published by {@link MotionAnalyzer}.
+	 */
+	PropertyKey<Float> PROP_MOTION_LEVEL = new PropertyKey<>("MotionLevel", Float.class, FrameAnalysisManager.class, 0f);
+	/**
+	 * Read-only property to get sharpness score, larger value means sharper frame, published by {@link SharpnessAnalyzer}.
+	 */
+	PropertyKey<Float> PROP_SHARPNESS = new PropertyKey<>("Sharpness", Float.class, FrameAnalysisManager.class, 0f);
+	
+	
+	/**
+	 * Add analyzer, preview frames are analyzed only when there is at least one analyzer.
+	 * @param analyzer Analyzer to add, its result key should be owned by {@link FrameAnalysisManager}.
+	 * @return Handle to analyzer, close the handle to remove analyzer.
+	 */
+	Handle addAnalyzer(FrameAnalyzer<?> analyzer);
+}
@@ -0,0 +1,25 @@
+package com.charles.camera;
+
+import com.charles.base.component.ComponentCreationPriority;
+
+/**
+ * Component builder for {@link FrameAnalysisManager}.
+ */
+public final class FrameAnalysisManagerBuilder extends CameraThreadComponentBuilder
+{
+	/**
+	 * Initialize new FrameAnalysisManagerBuilder instance.
+	 */
+	public FrameAnalysisManagerBuilder()
+	{
+		super(ComponentCreationPriority.ON_DEMAND, FrameAnalysisManagerImpl.class);
+	}
+	
+	
+	// Create component.
+	@Override
+	protected CameraThreadComponent create(CameraThread cameraThread)
+	{
+		return new FrameAnalysisManagerImpl(cameraThread);
+	}
+}
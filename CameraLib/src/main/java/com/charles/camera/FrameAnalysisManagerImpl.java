@@ -0,0 +1,214 @@
+package com.charles.camera;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Size;
+
+import com.charles.base.Handle;
+import com.charles.base.HandlerUtils;
+import com.charles.base.Log;
+import com.charles.base.PropertyChangeEventArgs;
+import com.charles.base.PropertyChangedCallback;
+import com.charles.base.PropertyKey;
+import com.charles.base.PropertySource;
+
+final class FrameAnalysisManagerImpl extends CameraThreadComponent implements FrameAnalysisManager
+{
+	// Constants.
+	private static final int MAX_WORKER_COUNT = 2;
+	
+	
+	// Private fields.
+	private final List<Handle> m_AnalyzerHandles = new ArrayList<>();
+	private PreviewFrameRing.Consumer m_Consumer;
+	private Handler m_DispatcherHandler;
+	private HandlerThread m_DispatcherThread;
+	private final FrameAnalysisPipeline m_Pipeline;
+	private PreviewFrameRing m_PreviewFrameRing;
+	
+	
+	// Call-backs.
+	private final PreviewFrameRing.FrameCallback m_FrameCallback = new PreviewFrameRing.FrameCallback()
+	{
+		@Override
+		public void onFrameReceived(PreviewFrameRing.Consumer consumer, PreviewFrame frame)
+		{
+			Size size = frame.getSize();
+			m_Pipeline.submitFrame(frame.getData(), size.getWidth(), size.getHeight(), frame.getSequence(), frame.getTimestamp());
+		}
+	};
+	private final FrameAnalysisPipeline.ResultCallback m_ResultCallback = new FrameAnalysisPipeline.ResultCallback()
+	{
+		@Override
+		public <TResult> void onResultReady(final FrameAnalyzer<TResult> analyzer, final TResult result, long sequence, long timestamp)
+		{
+			HandlerUtils.post(FrameAnalysisManagerImpl.this, new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					onResultReceived(analyzer.resultKey, result);
+				}
+			});
+		}
+	};
+	
+	
+	// Constructor.
+	FrameAnalysisManagerImpl(CameraThread cameraThread)
+	{
+		super("Frame Analysis Manager", cameraThread, true);
+		int workerCount = Math.max(1, Math.min(MAX_WORKER_COUNT, Runtime.getRuntime().availableProcessors() - 1));
+		m_Pipeline = new FrameAnalysisPipeline("Frame analysis", workerCount, m_ResultCallback);
+	}
+	
+	
+	// Add analyzer.
+	@Override
+	public Handle addAnalyzer(FrameAnalyzer<?> analyzer)
+	{
+		// check state
+		this.verifyAccess();
+		if(!this.isRunningOrInitializing())
+		{
+			Log.e(TAG, "addAnalyzer() - Component is not running");
+			return null;
+		}
+		
+		// check parameter
+		if(analyzer == null)
+			throw new IllegalArgumentException("No analyzer.");
+		if(!analyzer.resultKey.ownerType.isAssignableFrom(this.getClass()))
+			throw new IllegalArgumentException("Result key " + analyzer.resultKey + " is not owned by FrameAnalysisManager.");
+		
+		// add to pipeline
+		final Handle stageHandle = m_Pipeline.addAnalyzer(analyzer);
+		if(stageHandle == null)
+			return null;
+		Handle handle = new Handle("FrameAnalyzer")
+		{
+			@Override
+			protected void onClose(int flags)
+			{
+				removeAnalyzer(this, stageHandle);
+			}
+		};
+		m_AnalyzerHandles.add(handle);
+		
+		// start receiving frames
+		this.updateFrameConsumer();
+		return handle;
+	}
+	
+	
+	// Attach to given camera.
+	private void attachToCamera(Camera camera)
+	{
+		if(camera == null)
+			return;
+		m_PreviewFrameRing = camera.get(Camera.PROP_PREVIEW_FRAME_RING);
+		m_Pipeline.reset();
+		this.updateFrameConsumer();
+	}
+	
+	
+	// Detach from current camera.
+	private void detachFromCamera()
+	{
+		m_Consumer = Handle.close(m_Consumer);
+		m_PreviewFrameRing = null;
+	}
+	
+	
+	// Initialize.
+	@Override
+	protected void onInitialize()
+	{
+		// call super
+		super.onInitialize();
+		
+		// add property changed call-backs
+		CameraThread cameraThread = this.getCameraThread();
+		cameraThread.addCallback(CameraThread.PROP_CAMERA, new PropertyChangedCallback<Camera>()
+		{
+			@Override
+			public void onPropertyChanged(PropertySource source, PropertyKey<Camera> key, PropertyChangeEventArgs<Camera> e)
+			{
+				detachFromCamera();
+				attachToCamera(e.getNewValue());
+			}
+		});
+		
+		// attach to camera
+		this.attachToCamera(this.getCamera());
+	}
+	
+	
+	// Release component.
+	@Override
+	protected void onRelease()
+	{
+		// detach from camera
+		this.detachFromCamera();
+		
+		// release pipeline
+		m_AnalyzerHandles.clear();
+		m_Pipeline.release();
+		if(m_DispatcherThread != null)
+		{
+			m_DispatcherThread.quitSafely();
+			m_DispatcherThread = null;
+			m_DispatcherHandler = null;
+		}
+		
+		// call super
+		super.onRelease();
+	}
+	
+	
+	// Called when analysis result received.
+	private <TResult> void onResultReceived(PropertyKey<TResult> key, TResult result)
+	{
+		if(!this.isRunningOrInitializing())
+			return;
+		this.setReadOnly(key, result);
+	}
+	
+	
+	// Remove analyzer.
+	private void removeAnalyzer(Handle handle, Handle stageHandle)
+	{
+		this.verifyAccess();
+		if(!m_AnalyzerHandles.remove(handle))
+			return;
+		Handle.close(stageHandle);
+		this.updateFrameConsumer();
+	}
+	
+	
+	// Add or remove preview frame consumer according to analyzers and camera.
+	private void updateFrameConsumer()
+	{
+		boolean isNeeded = (m_PreviewFrameRing != null && !m_AnalyzerHandles.isEmpty());
+		if(isNeeded && m_Consumer == null)
+		{
+			if(m_DispatcherThread == null)
+			{
+				m_DispatcherThread = new HandlerThread("Frame analysis dispatcher", Process.THREAD_PRIORITY_DEFAULT);
+				m_DispatcherThread.start();
+				m_DispatcherHandler = new Handler(m_DispatcherThread.getLooper());
+			}
+			Log.v(TAG, "updateFrameConsumer() - Start receiving preview frames");
+			m_Consumer = m_PreviewFrameRing.addConsumer("Frame analysis", PreviewFrameRing.Policy.LATEST_ONLY, 0, m_DispatcherHandler, m_FrameCallback);
+		}
+		else if(!isNeeded && m_Consumer != null)
+		{
+			Log.v(TAG, "updateFrameConsumer() - Stop receiving preview frames");
+			m_Consumer = Handle.close(m_Consumer);
+		}
+	}
+}
@@ -0,0 +1,392 @@
+package com.charles.camera;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.charles.base.BufferPool;
+import com.charles.base.Handle;
+import com.charles.base.Log;
+import com.charles.base.PooledBuffer;
+
+/**
+ * Pipeline to run {@link FrameAnalyzer} stages on bounded worker pool.
+ * Each submitted frame is downscaled once for each distinct input size and shared by stages, stages which are not due or still analyzing previous frame skip the frame, so frames are dropped instead of being queued when workers cannot keep up.
+ */
+public final class FrameAnalysisPipeline
+{
+	// Constants
+	private static final String TAG = "FrameAnalysisPipeline";
+	private static final long MAX_FREE_BUFFER_SIZE = (2 * 1024 * 1024);
+	private static final int MAX_SAMPLES_PER_AXIS = 4;
+	private static final long WORKER_KEEP_ALIVE_TIME = 5000;
+	
+	
+	// Private fields
+	private final AtomicLong m_AnalyzedFrameCount = new AtomicLong();
+	private final BufferPool m_BufferPool;
+	private final ResultCallback m_Callback;
+	private final List<Stage> m_DueStages = new ArrayList<>();
+	private final ThreadPoolExecutor m_Executor;
+	private volatile boolean m_IsReleased;
+	private final String m_Name;
+	private volatile long m_SkippedFrameCount;
+	private final List<Stage> m_Stages = new CopyOnWriteArrayList<>();
+	private volatile long m_StageSkipCount;
+	private volatile long m_SubmittedFrameCount;
+	
+	
+	/**
+	 * Call-back to receive analysis results.
+	 */
+	public interface ResultCallback
+	{
+		/**
+		 * Called on worker thread when analyzer generates result.
+		 * @param analyzer Analyzer.
+		 * @param result Analysis result.
+		 * @param sequence Sequence number of source frame.
+		 * @param timestamp Timestamp of source frame in nanoseconds.
+		 */
+		<TResult> void onResultReady(FrameAnalyzer<TResult> analyzer, TResult result, long sequence, long timestamp);
+	}
+	
+	
+	// Registered analyzer.
+	private final class Stage extends Handle implements Runnable
+	{
+		public final FrameAnalyzer<?> analyzer;
+		public final long interval;
+		public final AtomicBoolean isBusy = new AtomicBoolean();
+		public volatile boolean isResetNeeded = true;
+		public long nextDueTime;
+		public PooledBuffer buffer;
+		public AnalysisFrame frame;
+		
+		public Stage(FrameAnalyzer<?> analyzer)
+		{
+			super("FrameAnalyzer(" + analyzer.name + ")");
+			this.analyzer = analyzer;
+			this.interval = (long)(1000000000L / analyzer.targetRate);
+		}
+		
+		public void complete()
+		{
+			if(this.buffer != null)
+			{
+				this.buffer.release();
+				this.buffer = null;
+			}
+			this.frame = null;
+			this.isBusy.set(false);
+		}
+		
+		@Override
+		protected void onClose(int flags)
+		{
+			removeStage(this);
+		}
+		
+		@Override
+		public void run()
+		{
+			try
+			{
+				if(this.isResetNeeded)
+				{
+					this.isResetNeeded = false;
+					this.analyzer.onReset();
+				}
+				analyze(this.analyzer, this.frame);
+				m_AnalyzedFrameCount.incrementAndGet();
+			}
+			catch(Throwable ex)
+			{
+				Log.e(TAG, "run() - Error occurred while analyzing frame by " + this.analyzer, ex);
+			}
+			finally
+			{
+				this.complete();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Initialize new FrameAnalysisPipeline instance.
+	 * @param name Pipeline name.
+	 * @param workerCount Maximum number of worker threads.
+	 * @param callback Call-back to receive analysis results.
+	 */
+	public FrameAnalysisPipeline(final String name, int workerCount, ResultCallback callback)
+	{
+		if(workerCount <= 0)
+			throw new IllegalArgumentException("Invalid worker count : " + workerCount);
+		if(callback == null)
+			throw new IllegalArgumentException("No call-back");
+		m_Name = name;
+		m_Callback = callback;
+		m_BufferPool = new BufferPool(name, MAX_FREE_BUFFER_SIZE);
+		m_Executor = new ThreadPoolExecutor(workerCount, workerCount, WORKER_KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+		{
+			private final AtomicInteger m_NextId = new AtomicInteger(1);
+			
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, name + " worker #" + m_NextId.getAndIncrement());
+				thread.setPriority(Thread.NORM_PRIORITY - 1);
+				return thread;
+			}
+		});
+		m_Executor.allowCoreThreadTimeOut(true);
+	}
+	
+	
+	/**
+	 * Add analyzer to pipeline.
+	 * @param analyzer Analyzer to add.
+	 * @return Handle to analyzer, close the handle to remove analyzer from pipeline.
+	 */
+	public Handle addAnalyzer(FrameAnalyzer<?> analyzer)
+	{
+		if(analyzer == null)
+			throw new IllegalArgumentException("No analyzer");
+		if(m_IsReleased)
+		{
+			Log.e(TAG, "addAnalyzer() - [" + m_Name + "] Pipeline is released");
+			return null;
+		}
+		Stage stage = new Stage(analyzer);
+		m_Stages.add(stage);
+		Log.v(TAG, "addAnalyzer() - [", m_Name, "] Add ", analyzer);
+		return stage;
+	}
+	
+	
+	// Analyze frame and publish result.
+	private <TResult> void analyze(FrameAnalyzer<TResult> analyzer, AnalysisFrame frame)
+	{
+		TResult result = analyzer.analyze(frame);
+		if(result != null)
+			m_Callback.onResultReady(analyzer, result, frame.getSequence(), frame.getTimestamp());
+	}
+	
+	
+	// Downscale luminance plane by averaging sub-sampled pixels in each box.
+	private static void downscale(byte[] src, int srcWidth, int srcHeight, byte[] dst, int dstWidth, int dstHeight)
+	{
+		for(int dy = 0, dstOffset = 0 ; dy < dstHeight ; ++dy)
+		{
+			int top = (int)((long)dy * srcHeight / dstHeight);
+			int bottom = Math.max(top + 1, (int)((long)(dy + 1) * srcHeight / dstHeight));
+			int stepY = Math.max(1, (bottom - top) / MAX_SAMPLES_PER_AXIS);
+			for(int dx = 0 ; dx < dstWidth ; ++dx, ++dstOffset)
+			{
+				int left = (int)((long)dx * srcWidth / dstWidth);
+				int right = Math.max(left + 1, (int)((long)(dx + 1) * srcWidth / dstWidth));
+				int stepX = Math.max(1, (right - left) / MAX_SAMPLES_PER_AXIS);
+				int sum = 0;
+				int count = 0;
+				for(int y = top ; y < bottom ; y += stepY)
+				{
+					for(int x = left, offset = (y * srcWidth + left) ; x < right ; x += stepX, offset += stepX)
+					{
+						sum += (src[offset] & 0xff);
+						++count;
+					}
+				}
+				dst[dstOffset] = (byte)(sum / count);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Get number of frames analyzed by stages, each stage which analyzes a frame counts once.
+	 * @return Number of analyzed frames.
+	 */
+	public long getAnalyzedFrameCount()
+	{
+		return m_AnalyzedFrameCount.get();
+	}
+	
+	
+	/**
+	 * Get number of analyzers.
+	 * @return Number of analyzers.
+	 */
+	public int getAnalyzerCount()
+	{
+		return m_Stages.size();
+	}
+	
+	
+	/**
+	 * Get number of submitted frames which are skipped by all stages.
+	 * @return Number of skipped frames.
+	 */
+	public long getSkippedFrameCount()
+	{
+		return m_SkippedFrameCount;
+	}
+	
+	
+	/**
+	 * Get number of times that stage is due but skips frame because it is still analyzing previous frame.
+	 * @return Number of skips.
+	 */
+	public long getStageSkipCount()
+	{
+		return m_StageSkipCount;
+	}
+	
+	
+	/**
+	 * Get number of submitted frames.
+	 * @return Number of frames.
+	 */
+	public long getSubmittedFrameCount()
+	{
+		return m_SubmittedFrameCount;
+	}
+	
+	
+	/**
+	 * Release pipeline, analyzers which are analyzing frames will complete but no more frames will be accepted.
+	 */
+	public void release()
+	{
+		if(m_IsReleased)
+			return;
+		m_IsReleased = true;
+		m_Executor.shutdown();
+		m_Stages.clear();
+		m_BufferPool.trim();
+	}
+	
+	
+	// Remove stage.
+	private void removeStage(Stage stage)
+	{
+		if(m_Stages.remove(stage))
+			Log.v(TAG, "removeStage() - [", m_Name, "] Remove ", stage.analyzer);
+	}
+	
+	
+	/**
+	 * Request all analyzers to reset their state before analyzing next frame, for example after switching camera.
+	 */
+	public void reset()
+	{
+		for(Stage stage : m_Stages)
+			stage.isResetNeeded = true;
+	}
+	
+	
+	/**
+	 * Submit frame to pipeline, frame data is not referenced after this method returns.
+	 * This method should not be called concurrently.
+	 * @param data Frame data which starts with luminance plane with row stride equals to width, for example YUV_420_888 or NV21.
+	 * @param width Frame width.
+	 * @param height Frame height.
+	 * @param sequence Sequence number of frame.
+	 * @param timestamp Timestamp of frame in nanoseconds.
+	 * @return Whether frame is accepted by at least one stage or not.
+	 */
+	public boolean submitFrame(byte[] data, int width, int height, long sequence, long timestamp)
+	{
+		// check state
+		if(m_IsReleased)
+			return false;
+		if(data == null || width <= 0 || height <= 0 || data.length < width * height)
+			throw new IllegalArgumentException("Invalid frame : " + width + "x" + height);
+		++m_SubmittedFrameCount;
+		
+		// select stages
+		for(Stage stage : m_Stages)
+		{
+			if(timestamp < stage.nextDueTime)
+				continue;
+			if(!stage.isBusy.compareAndSet(false, true))
+			{
+				++m_StageSkipCount;
+				continue;
+			}
+			m_DueStages.add(stage);
+		}
+		if(m_DueStages.isEmpty())
+		{
+			++m_SkippedFrameCount;
+			return false;
+		}
+		
+		// downscale once for each input size
+		for(int i = 0, count = m_DueStages.size() ; i < count ; ++i)
+		{
+			// check frame
+			Stage stage = m_DueStages.get(i);
+			if(stage.frame != null)
+				continue;
+			
+			// downscale
+			float ratio = Math.min(1, Math.min((float)stage.analyzer.inputWidth / width, (float)stage.analyzer.inputHeight / height));
+			int scaledWidth = Math.max(1, Math.round(width * ratio));
+			int scaledHeight = Math.max(1, Math.round(height * ratio));
+			PooledBuffer buffer = m_BufferPool.obtain(scaledWidth * scaledHeight);
+			downscale(data, width, height, buffer.getData(), scaledWidth, scaledHeight);
+			AnalysisFrame frame = new AnalysisFrame(buffer.getData(), scaledWidth, scaledHeight, sequence, timestamp);
+			
+			// share with other stages
+			for(int j = i ; j < count ; ++j)
+			{
+				Stage candidate = m_DueStages.get(j);
+				if(candidate.frame != null)
+					continue;
+				FrameAnalyzer<?> analyzer = candidate.analyzer;
+				float candidateRatio = Math.min(1, Math.min((float)analyzer.inputWidth / width, (float)analyzer.inputHeight / height));
+				if(Math.max(1, Math.round(width * candidateRatio)) != scaledWidth || Math.max(1, Math.round(height * candidateRatio)) != scaledHeight)
+					continue;
+				candidate.buffer = buffer.retain();
+				candidate.frame = frame;
+			}
+			buffer.release();
+		}
+		
+		// schedule stages
+		for(int i = 0, count = m_DueStages.size() ; i < count ; ++i)
+		{
+			Stage stage = m_DueStages.get(i);
+			stage.nextDueTime += stage.interval;
+			if(stage.nextDueTime <= timestamp)
+				stage.nextDueTime = (timestamp + stage.interval);
+			try
+			{
+				m_Executor.execute(stage);
+			}
+			catch(RejectedExecutionException ex)
+			{
+				Log.w(TAG, "submitFrame() - [" + m_Name + "] Fail to schedule " + stage.analyzer);
+				stage.complete();
+			}
+		}
+		m_DueStages.clear();
+		return true;
+	}
+	
+	
+	// Get string represents this pipeline.
+	@Override
+	public String toString()
+	{
+		return m_Name;
+	}
+}
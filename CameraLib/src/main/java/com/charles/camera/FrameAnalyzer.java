@@ -0,0 +1,79 @@
+package com.charles.camera;
+
+import com.charles.base.PropertyKey;
+
+/**
+ * Base class for stage of {@link FrameAnalysisPipeline}.
+ * Analyzer is called on worker thread, but never called concurrently, so it can keep state between frames without synchronization.
+ * @param <TResult> Type of analysis result.
+ */
+public abstract class FrameAnalyzer<TResult>
+{
+	/**
+	 * Maximum height of input frame, frame is downscaled to fit this size.
+	 */
+	public final int inputHeight;
+	/**
+	 * Maximum width of input frame, frame is downscaled to fit this size.
+	 */
+	public final int inputWidth;
+	/**
+	 * Analyzer name.
+	 */
+	public final String name;
+	/**
+	 * Key of property to publish analysis result.
+	 */
+	public final PropertyKey<TResult> resultKey;
+	/**
+	 * Target number of analyzed frames per second.
+	 */
+	public final float targetRate;
+	
+	
+	/**
+	 * Initialize new FrameAnalyzer instance.
+	 * @param name Analyzer name.
+	 * @param resultKey Key of property to publish analysis result.
+	 * @param inputWidth Maximum width of input frame.
+	 * @param inputHeight Maximum height of input frame.
+	 * @param targetRate Target number of analyzed frames per second.
+	 */
+	protected FrameAnalyzer(String name, PropertyKey<TResult> resultKey, int inputWidth, int inputHeight, float targetRate)
+	{
+		if(resultKey == null)
+			throw new IllegalArgumentException("No result key.");
+		if(inputWidth <= 0 || inputHeight <= 0)
+			throw new IllegalArgumentException("Invalid input size : " + inputWidth + "x" + inputHeight);
+		if(!(targetRate > 0))
+			throw new IllegalArgumentException("Invalid target rate : " + targetRate);
+		this.name = name;
+		this.resultKey = resultKey;
+		this.inputWidth = inputWidth;
+		this.inputHeight = inputHeight;
+		this.targetRate = targetRate;
+	}
+	
+	
+	/**
+	 * Analyze frame, called on worker thread.
+	 * @param frame Downscaled frame, which is valid only until this method returns.
+	 * @return Analysis result, or Null to skip publishing result.
+	 */
+	protected abstract TResult analyze(AnalysisFrame frame);
+	
+	
+	/**
+	 * Called on worker thread before analyzing frame from new source, for example after switching camera.
+	 */
+	protected void onReset()
+	{}
+	
+	
+	// Get string represents this analyzer.
+	@Override
+	public String toString()
+	{
+		return this.name;
+	}
+}
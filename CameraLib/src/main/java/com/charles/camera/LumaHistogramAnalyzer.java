@@ -0,0 +1,39 @@
+package com.charles.camera;
+
+/**
+ * Analyzer to generate luminance histogram with 256 bins.
+ */
+public class LumaHistogramAnalyzer extends FrameAnalyzer<int[]>
+{
+	/**
+	 * Initialize new LumaHistogramAnalyzer instance with 160x120 input size and 5 frames per second.
+	 */
+	public LumaHistogramAnalyzer()
+	{
+		this(160, 120, 5);
+	}
+	
+	
+	/**
+	 * Initialize new LumaHistogramAnalyzer instance.
+	 * @param inputWidth Maximum width of input frame.
+	 * @param inputHeight Maximum height of input frame.
+	 * @param targetRate Target number of analyzed frames per second.
+	 */
+	public LumaHistogramAnalyzer(int inputWidth, int inputHeight, float targetRate)
+	{
+		super("Luma histogram", FrameAnalysisManager.PROP_LUMA_HISTOGRAM, inputWidth, inputHeight, targetRate);
+	}
+	
+	
+	// Generate histogram.
+	@Override
+	protected int[] analyze(AnalysisFrame frame)
+	{
+		int[] histogram = new int[256];
+		byte[] data = frame.getData();
+		for(int i = frame.getWidth() * frame.getHeight() - 1 ; i >= 0 ; --i)
+			++histogram[data[i] & 0xff];
+		return histogram;
+	}
+}
@@ -1,6 +1,7 @@
 package com.charles.camera;
 
 import com.charles.base.HandlerUtils;
+import com.charles.base.KeyedScheduler;
 import com.charles.base.Log;
 import com.charles.base.component.Component;
 
@@ -20,6 +21,7 @@ public abstract class ModeController<TUI extends Component> extends CameraCompon
 	
 	// Private fields.
 	private boolean m_IsEntered;
+	private final KeyedScheduler m_MessageScheduler = new KeyedScheduler(this);
 	private TUI m_UI;
 	
 	
@@ -44,8 +46,8 @@ public abstract class ModeController<TUI extends Component> extends CameraCompon
 		// enter asynchronously
 		if(!this.isDependencyThread())
 		{
-			HandlerUtils.removeMessages(this, MSG_EXIT);
-			return HandlerUtils.sendMessage(this, MSG_ENTER, flags, 0, null, true);
+			m_MessageScheduler.cancel(MSG_EXIT);
+			return m_MessageScheduler.schedule(MSG_ENTER, flags, 0, null);
 		}
 		
 		// check state
@@ -89,8 +91,8 @@ public abstract class ModeController<TUI extends Component> extends CameraCompon
 		// exit asynchronously
 		if(!this.isDependencyThread())
 		{
-			HandlerUtils.removeMessages(this, MSG_ENTER);
-			HandlerUtils.sendMessage(this, MSG_EXIT, flags, 0, null, true);
+			m_MessageScheduler.cancel(MSG_ENTER);
+			m_MessageScheduler.schedule(MSG_EXIT, flags, 0, null);
 			return;
 		}
 		
@@ -0,0 +1,65 @@
+package com.charles.camera;
+
+/**
+ * Analyzer to estimate motion level by mean absolute difference of luminance between consecutive analyzed frames.
+ */
+public class MotionAnalyzer extends FrameAnalyzer<Float>
+{
+	// Private fields
+	private byte[] m_PreviousFrame;
+	private int m_PreviousFrameSize;
+	
+	
+	/**
+	 * Initialize new MotionAnalyzer instance with 80x60 input size and 10 frames per second.
+	 */
+	public MotionAnalyzer()
+	{
+		this(80, 60, 10);
+	}
+	
+	
+	/**
+	 * Initialize new MotionAnalyzer instance.
+	 * @param inputWidth Maximum width of input frame.
+	 * @param inputHeight Maximum height of input frame.
+	 * @param targetRate Target number of analyzed frames per second.
+	 */
+	public MotionAnalyzer(int inputWidth, int inputHeight, float targetRate)
+	{
+		super("Motion", FrameAnalysisManager.PROP_MOTION_LEVEL, inputWidth, inputHeight, targetRate);
+	}
+	
+	
+	// Compare with previous frame.
+	@Override
+	protected Float analyze(AnalysisFrame frame)
+	{
+		// compare
+		byte[] data = frame.getData();
+		int size = (frame.getWidth() * frame.getHeight());
+		Float result = null;
+		if(m_PreviousFrame != null && m_PreviousFrameSize == size)
+		{
+			long sum = 0;
+			for(int i = size - 1 ; i >= 0 ; --i)
+				sum += Math.abs((data[i] & 0xff) - (m_PreviousFrame[i] & 0xff));
+			result = (float)(sum / (size * 255.0));
+		}
+		
+		// keep frame
+		if(m_PreviousFrame == null || m_PreviousFrame.length < size)
+			m_PreviousFrame = new byte[size];
+		System.arraycopy(data, 0, m_PreviousFrame, 0, size);
+		m_PreviousFrameSize = size;
+		return result;
+	}
+	
+	
+	// Drop previous frame.
+	@Override
+	protected void onReset()
+	{
+		m_PreviousFrameSize = 0;
+	}
+}
@@ -0,0 +1,110 @@
+package com.charles.camera;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.hardware.camera2.CaptureResult;
+import android.util.Size;
+
+/**
+ * Slot of {@link PreviewFrameRing} which holds one preview frame.
+ * Frame is valid only while it is delivered to consumer, it may be overwritten by later frames after call-back returns.
+ */
+public final class PreviewFrame
+{
+	// Constants
+	static final int STATE_WRITING = -1;
+	
+	
+	// Package fields
+	volatile CaptureResult m_CaptureResult;
+	byte[] m_Data;
+	volatile int m_DataSize;
+	volatile int m_Format;
+	volatile long m_Sequence;
+	volatile Size m_Size;
+	final AtomicInteger m_State = new AtomicInteger();
+	volatile long m_Timestamp;
+	
+	
+	// Constructor
+	PreviewFrame()
+	{}
+	
+	
+	/**
+	 * Get capture result of preview request which is linked to this frame.
+	 * @return Capture result, or Null if there is no result received before this frame.
+	 */
+	public CaptureResult getCaptureResult()
+	{
+		return m_CaptureResult;
+	}
+	
+	
+	/**
+	 * Get frame data, only first {@link #getDataSize()} bytes are valid.
+	 * @return Frame data.
+	 */
+	public byte[] getData()
+	{
+		return m_Data;
+	}
+	
+	
+	/**
+	 * Get size of valid frame data.
+	 * @return Size in bytes.
+	 */
+	public int getDataSize()
+	{
+		return m_DataSize;
+	}
+	
+	
+	/**
+	 * Get frame format defined in {@link android.graphics.ImageFormat}.
+	 * @return Frame format.
+	 */
+	public int getFormat()
+	{
+		return m_Format;
+	}
+	
+	
+	/**
+	 * Get sequence number of frame, which starts from 1 and increases by 1 for each published frame.
+	 * @return Sequence number.
+	 */
+	public long getSequence()
+	{
+		return m_Sequence;
+	}
+	
+	
+	/**
+	 * Get frame size.
+	 * @return Frame size.
+	 */
+	public Size getSize()
+	{
+		return m_Size;
+	}
+	
+	
+	/**
+	 * Get time when frame is received, based on {@link android.os.SystemClock#elapsedRealtimeNanos()}.
+	 * @return Timestamp in nanoseconds.
+	 */
+	public long getTimestamp()
+	{
+		return m_Timestamp;
+	}
+	
+	
+	// Get string represents this frame.
+	@Override
+	public String toString()
+	{
+		return "PreviewFrame #" + m_Sequence;
+	}
+}
@@ -0,0 +1,477 @@
+package com.charles.camera;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.hardware.camera2.CaptureResult;
+import android.os.Handler;
+import android.util.Size;
+
+import com.charles.base.Handle;
+import com.charles.base.Log;
+
+/**
+ * Ring of preview frames written by camera thread and read by consumers on their own threads.
+ * Each consumer has its own read cursor and frame policy. Slot which is being read by consumer is skipped by writer, so slow consumer never blocks camera thread, it drops frames instead.
+ */
+public final class PreviewFrameRing
+{
+	/**
+	 * Default number of slots.
+	 */
+	public static final int DEFAULT_SLOT_COUNT = 3;
+	
+	
+	// Constants
+	private static final String TAG = "PreviewFrameRing";
+	
+	
+	// Private fields
+	private final List<Consumer> m_Consumers = new CopyOnWriteArrayList<>();
+	private volatile Runnable m_ConsumersChangedCallback;
+	private volatile long m_LatestSequence;
+	private final String m_Name;
+	private int m_NextWriteIndex;
+	private final PreviewFrame[] m_Slots;
+	private volatile long m_WriterDropCount;
+	
+	
+	/**
+	 * Policy to select frames delivered to consumer.
+	 */
+	public enum Policy
+	{
+		/**
+		 * Deliver latest frame only, frames replaced by newer frames before consumer reads them are counted as dropped.
+		 */
+		LATEST_ONLY,
+		/**
+		 * Deliver every frame in order, frames overwritten before consumer reads them are counted as dropped.
+		 */
+		EVERY_FRAME,
+		/**
+		 * Deliver every N-th frame in order, frames overwritten before consumer reads them are counted as dropped.
+		 */
+		EVERY_NTH,
+	}
+	
+	
+	/**
+	 * Call-back to receive preview frame.
+	 */
+	public interface FrameCallback
+	{
+		/**
+		 * Called on consumer thread when frame is available, frame is valid until this method returns.
+		 * @param consumer Consumer.
+		 * @param frame Preview frame.
+		 */
+		void onFrameReceived(Consumer consumer, PreviewFrame frame);
+	}
+	
+	
+	/**
+	 * Consumer of preview frames, close the handle to stop receiving frames.
+	 */
+	public final class Consumer extends Handle
+	{
+		// Private fields
+		private final FrameCallback m_Callback;
+		private volatile long m_Cursor;
+		private volatile long m_DeliveredCount;
+		private volatile long m_DroppedCount;
+		private final Runnable m_DrainRunnable = new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				drain();
+			}
+		};
+		private final Handler m_Handler;
+		private final int m_Interval;
+		private final AtomicBoolean m_IsDrainScheduled = new AtomicBoolean();
+		private volatile long m_LastLag;
+		private volatile long m_MaxLag;
+		private final Policy m_Policy;
+		
+		// Constructor
+		Consumer(String name, Policy policy, int interval, Handler handler, FrameCallback callback)
+		{
+			super(name);
+			m_Policy = policy;
+			m_Interval = (policy == Policy.EVERY_NTH ? interval : 1);
+			m_Handler = handler;
+			m_Callback = callback;
+			m_Cursor = m_LatestSequence;
+		}
+		
+		// Count wanted frames in (from, to).
+		private long countWantedFrames(long from, long to)
+		{
+			if(to <= from + 1)
+				return 0;
+			if(m_Interval > 1)
+				return Math.max(0, ((to - 1) / m_Interval) - (from / m_Interval));
+			return (to - from - 1);
+		}
+		
+		// Deliver available frames, called on consumer thread.
+		private void drain()
+		{
+			m_IsDrainScheduled.set(false);
+			while(Handle.isValid(this))
+			{
+				// select frame
+				long latest = m_LatestSequence;
+				long cursor = m_Cursor;
+				long sequence = (m_Policy == Policy.LATEST_ONLY ? latest : this.getNextWantedSequence(cursor));
+				if(sequence > latest || sequence <= cursor)
+					return;
+				PreviewFrame frame = null;
+				for( ; sequence <= latest ; sequence = this.getNextWantedSequence(sequence))
+				{
+					frame = acquire(sequence);
+					if(frame != null)
+						break;
+				}
+				if(frame == null)
+				{
+					if(m_LatestSequence == latest)
+					{
+						m_DroppedCount += this.countWantedFrames(cursor, latest + 1);
+						m_Cursor = latest;
+					}
+					continue;
+				}
+				
+				// update statistics
+				m_DroppedCount += this.countWantedFrames(cursor, sequence);
+				m_Cursor = sequence;
+				m_LastLag = (m_LatestSequence - sequence);
+				if(m_LastLag > m_MaxLag)
+					m_MaxLag = m_LastLag;
+				
+				// deliver
+				try
+				{
+					m_Callback.onFrameReceived(this, frame);
+				}
+				catch(Throwable ex)
+				{
+					Log.e(TAG, "drain() - Error occurred while delivering frame to '" + this.name + "'", ex);
+				}
+				finally
+				{
+					release(frame);
+					++m_DeliveredCount;
+				}
+			}
+		}
+		
+		/**
+		 * Get number of delivered frames.
+		 * @return Number of frames.
+		 */
+		public long getDeliveredFrameCount()
+		{
+			return m_DeliveredCount;
+		}
+		
+		/**
+		 * Get number of frames which are wanted by this consumer but not delivered.
+		 * @return Number of frames.
+		 */
+		public long getDroppedFrameCount()
+		{
+			return m_DroppedCount;
+		}
+		
+		/**
+		 * Get number of frames between latest published frame and last delivered frame when delivering.
+		 * @return Lag in frames.
+		 */
+		public long getLag()
+		{
+			return m_LastLag;
+		}
+		
+		/**
+		 * Get maximum lag observed since consumer is added.
+		 * @return Lag in frames.
+		 */
+		public long getMaxLag()
+		{
+			return m_MaxLag;
+		}
+		
+		// Get next sequence wanted after given sequence.
+		private long getNextWantedSequence(long sequence)
+		{
+			if(m_Interval > 1)
+				return ((sequence / m_Interval) + 1) * m_Interval;
+			return (sequence + 1);
+		}
+		
+		/**
+		 * Get frame policy.
+		 * @return Policy.
+		 */
+		public Policy getPolicy()
+		{
+			return m_Policy;
+		}
+		
+		// Check whether given frame is wanted or not.
+		boolean isWanted(long sequence)
+		{
+			return (m_Interval <= 1 || (sequence % m_Interval) == 0);
+		}
+		
+		// Remove from ring.
+		@Override
+		protected void onClose(int flags)
+		{
+			removeConsumer(this);
+		}
+		
+		// Schedule delivering frames on consumer thread.
+		void scheduleDrain()
+		{
+			if(!m_IsDrainScheduled.compareAndSet(false, true))
+				return;
+			if(!m_Handler.post(m_DrainRunnable))
+			{
+				Log.e(TAG, "scheduleDrain() - Fail to post to consumer '" + this.name + "'");
+				m_IsDrainScheduled.set(false);
+			}
+		}
+		
+		// Get string represents this consumer.
+		@Override
+		public String toString()
+		{
+			return this.name + " (" + m_Policy + ", delivered : " + m_DeliveredCount + ", dropped : " + m_DroppedCount + ", max lag : " + m_MaxLag + ")";
+		}
+	}
+	
+	
+	/**
+	 * Initialize new PreviewFrameRing instance.
+	 * @param name Name.
+	 * @param slotCount Number of slots.
+	 */
+	public PreviewFrameRing(String name, int slotCount)
+	{
+		if(slotCount < 2)
+			throw new IllegalArgumentException("Invalid slot count : " + slotCount);
+		m_Name = name;
+		m_Slots = new PreviewFrame[slotCount];
+		for(int i = slotCount - 1 ; i >= 0 ; --i)
+			m_Slots[i] = new PreviewFrame();
+	}
+	
+	
+	// Pin frame with given sequence number.
+	PreviewFrame acquire(long sequence)
+	{
+		for(int i = m_Slots.length - 1 ; i >= 0 ; --i)
+		{
+			PreviewFrame frame = m_Slots[i];
+			if(frame.m_Sequence != sequence)
+				continue;
+			while(true)
+			{
+				int state = frame.m_State.get();
+				if(state == PreviewFrame.STATE_WRITING)
+					return null;
+				if(frame.m_State.compareAndSet(state, state + 1))
+					break;
+			}
+			if(frame.m_Sequence == sequence)
+				return frame;
+			frame.m_State.decrementAndGet();
+			return null;
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * Add consumer.
+	 * @param name Consumer name.
+	 * @param policy Frame policy.
+	 * @param interval Frame interval for {@link Policy#EVERY_NTH}, ignored for other policies.
+	 * @param handler Handler to deliver frames.
+	 * @param callback Call-back to receive frames.
+	 * @return Consumer handle.
+	 */
+	public Consumer addConsumer(String name, Policy policy, int interval, Handler handler, FrameCallback callback)
+	{
+		// check parameters
+		if(policy == null)
+			throw new IllegalArgumentException("No policy");
+		if(policy == Policy.EVERY_NTH && interval < 1)
+			throw new IllegalArgumentException("Invalid interval : " + interval);
+		if(handler == null)
+			throw new IllegalArgumentException("No handler");
+		if(callback == null)
+			throw new IllegalArgumentException("No call-back");
+		
+		// add consumer
+		Consumer consumer = new Consumer(name, policy, interval, handler, callback);
+		m_Consumers.add(consumer);
+		Log.v(TAG, "addConsumer() - [", m_Name, "] Add ", consumer);
+		if(m_Consumers.size() == 1)
+			this.notifyConsumersChanged();
+		return consumer;
+	}
+	
+	
+	/**
+	 * Start writing new frame, called by writer thread.
+	 * @return Slot to write, or Null if all slots are being read and frame should be dropped.
+	 */
+	PreviewFrame beginWrite()
+	{
+		for(int i = 0, count = m_Slots.length ; i < count ; ++i)
+		{
+			int index = ((m_NextWriteIndex + i) % count);
+			PreviewFrame frame = m_Slots[index];
+			if(frame.m_State.compareAndSet(0, PreviewFrame.STATE_WRITING))
+			{
+				m_NextWriteIndex = ((index + 1) % count);
+				frame.m_Sequence = 0;
+				return frame;
+			}
+		}
+		++m_WriterDropCount;
+		return null;
+	}
+	
+	
+	/**
+	 * Cancel writing frame, called by writer thread.
+	 * @param frame Frame returned from {@link #beginWrite()}.
+	 */
+	void cancelWrite(PreviewFrame frame)
+	{
+		frame.m_State.set(0);
+	}
+	
+	
+	/**
+	 * Get number of consumers.
+	 * @return Number of consumers.
+	 */
+	public int getConsumerCount()
+	{
+		return m_Consumers.size();
+	}
+	
+	
+	/**
+	 * Get sequence number of latest published frame.
+	 * @return Sequence number, or 0 if there is no published frame.
+	 */
+	public long getLatestSequence()
+	{
+		return m_LatestSequence;
+	}
+	
+	
+	/**
+	 * Get number of slots.
+	 * @return Number of slots.
+	 */
+	public int getSlotCount()
+	{
+		return m_Slots.length;
+	}
+	
+	
+	/**
+	 * Get number of frames dropped by writer because all slots are being read.
+	 * @return Number of frames.
+	 */
+	public long getWriterDropCount()
+	{
+		return m_WriterDropCount;
+	}
+	
+	
+	// Notify that consumers changed between empty and non-empty.
+	private void notifyConsumersChanged()
+	{
+		Runnable callback = m_ConsumersChangedCallback;
+		if(callback != null)
+			callback.run();
+	}
+	
+	
+	/**
+	 * Publish written frame and notify consumers, called by writer thread.
+	 * @param frame Frame returned from {@link #beginWrite()}.
+	 * @param dataSize Size of valid data.
+	 * @param format Frame format.
+	 * @param size Frame size.
+	 * @param timestamp Timestamp in nanoseconds.
+	 * @param result Linked capture result.
+	 * @return Sequence number of published frame.
+	 */
+	long publish(PreviewFrame frame, int dataSize, int format, Size size, long timestamp, CaptureResult result)
+	{
+		// update frame
+		long sequence = (m_LatestSequence + 1);
+		frame.m_DataSize = dataSize;
+		frame.m_Format = format;
+		frame.m_Size = size;
+		frame.m_Timestamp = timestamp;
+		frame.m_CaptureResult = result;
+		frame.m_Sequence = sequence;
+		frame.m_State.set(0);
+		m_LatestSequence = sequence;
+		
+		// notify consumers
+		for(Consumer consumer : m_Consumers)
+		{
+			if(consumer.isWanted(sequence))
+				consumer.scheduleDrain();
+		}
+		return sequence;
+	}
+	
+	
+	// Unpin frame.
+	void release(PreviewFrame frame)
+	{
+		frame.m_State.decrementAndGet();
+	}
+	
+	
+	// Remove consumer.
+	private void removeConsumer(Consumer consumer)
+	{
+		if(!m_Consumers.remove(consumer))
+			return;
+		Log.v(TAG, "removeConsumer() - [", m_Name, "] Remove ", consumer);
+		if(m_Consumers.isEmpty())
+			this.notifyConsumersChanged();
+	}
+	
+	
+	// Set call-back which is called when consumers changed between empty and non-empty.
+	void setConsumersChangedCallback(Runnable callback)
+	{
+		m_ConsumersChangedCallback = callback;
+	}
+	
+	
+	// Get string represents this ring.
+	@Override
+	public String toString()
+	{
+		return m_Name;
+	}
+}
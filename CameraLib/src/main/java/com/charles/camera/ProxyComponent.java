@@ -1,13 +1,14 @@
 package com.charles.camera;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import android.os.Message;
 import android.os.SystemClock;
 
+import com.charles.base.DispatchStatistics;
 import com.charles.base.EventArgs;
 import com.charles.base.EventHandler;
 import com.charles.base.EventKey;
@@ -38,13 +39,22 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 	
 	// Private fields.
 	private boolean m_IsBindingToTarget;
-	private final LinkedList<AsyncMethodCallHandle> m_PendingAsyncMethodCalls = new LinkedList<>();
-	private TTarget m_Target;
+	private final AtomicBoolean m_IsPendingCallsDrainScheduled = new AtomicBoolean();
+	private final ConcurrentLinkedQueue<AsyncMethodCallHandle> m_PendingAsyncMethodCalls = new ConcurrentLinkedQueue<>();
+	private volatile TTarget m_Target;
 	private final Class<? extends TTarget> m_TargetClass;
 	private ComponentOwner m_TargetOwner;
 	
 	
 	// Call-backs.
+	private final Runnable m_DrainPendingCallsRunnable = new Runnable()
+	{
+		@Override
+		public void run()
+		{
+			drainPendingAsyncMethodCalls();
+		}
+	};
 	private PropertyChangedCallback<Boolean> m_IsCameraThreadStartedCallback;
 	private final ComponentSearchCallback<TTarget> m_TargetSearchCallback = new ComponentSearchCallback<TTarget>()
 	{
@@ -60,17 +70,16 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 	private final class AsyncMethodCallHandle extends Handle
 	{
 		public final Object[] args;
-		public Runnable callingRunnable;
 		public volatile Handle resultHandle;
-		public final Method method;
+		public final TargetMethod<? super TTarget> method;
 		
-		public AsyncMethodCallHandle(Method method, Object... args)
+		public AsyncMethodCallHandle(TargetMethod<? super TTarget> method, Object... args)
 		{
 			super("AsyncMethodCall");
 			this.method = method;
 			this.args = args;
 		}
-
+		
 		@Override
 		protected void onClose(int flags)
 		{
@@ -79,6 +88,45 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 	}
 	
 	
+	/**
+	 * Pre-bound invoker of method in target component, which is usually declared as static field in proxy component.
+	 * @param <TTarget> Type of target component.
+	 */
+	protected static abstract class TargetMethod<TTarget>
+	{
+		/**
+		 * Method name.
+		 */
+		public final String name;
+		
+		/**
+		 * Initialize new TargetMethod instance.
+		 * @param name Method name.
+		 */
+		protected TargetMethod(String name)
+		{
+			if(name == null)
+				throw new IllegalArgumentException("No target method name");
+			this.name = name;
+		}
+		
+		/**
+		 * Invoke method in target thread.
+		 * @param target Target component.
+		 * @param args Arguments.
+		 * @return Result of method.
+		 */
+		protected abstract Object invoke(TTarget target, Object[] args);
+		
+		// Get string represents this method.
+		@Override
+		public String toString()
+		{
+			return this.name;
+		}
+	}
+	
+	
 	/**
 	 * Initialize new ProxyComponent instance.
 	 * @param name Component name.
@@ -164,54 +212,28 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 	
 	/**
 	 * Call method in target component.
-	 * @param methodName Method name.
-	 * @param paramTypes Type of method parameters.
+	 * @param method Method to call.
 	 * @param args Arguments.
 	 * @return Handle to method call.
 	 */
-	protected final Handle callTargetMethod(String methodName, Class<?>[] paramTypes, Object... args)
+	protected final Handle callTargetMethod(TargetMethod<? super TTarget> method, Object... args)
 	{
 		// check parameter
-		if(methodName == null)
-			throw new IllegalArgumentException("No target method name");
-		
-		// find method
-		Method method;
-		try
-		{
-			method = m_TargetClass.getMethod(methodName, paramTypes);
-		}
-		catch(Throwable ex)
-		{
-			Log.e(TAG, "callTargetMethod() - Cannot find method '" + methodName + "'", ex);
-			return null;
-		}
+		if(method == null)
+			throw new IllegalArgumentException("No target method");
 		
 		// create handle
-		final AsyncMethodCallHandle handle = new AsyncMethodCallHandle(method, args);
+		AsyncMethodCallHandle handle = new AsyncMethodCallHandle(method, args);
 		
 		// call
-		if(m_Target != null && m_Target.isDependencyThread())
-			this.callTargetMethod(handle);
+		TTarget target = m_Target;
+		if(target != null && target.isDependencyThread() && m_PendingAsyncMethodCalls.isEmpty())
+			this.callTargetMethod(target, handle);
 		else
 		{
-			synchronized(m_PendingAsyncMethodCalls)
-			{
-				m_PendingAsyncMethodCalls.add(handle);
-			}
-			handle.callingRunnable = new Runnable()
-			{
-				@Override
-				public void run()
-				{
-					synchronized(m_PendingAsyncMethodCalls)
-					{
-						m_PendingAsyncMethodCalls.remove(handle);
-					}
-					callTargetMethod(handle);
-				}
-			};
-			HandlerUtils.post(m_TargetOwner, handle.callingRunnable);
+			m_PendingAsyncMethodCalls.add(handle);
+			if(target != null)
+				this.schedulePendingAsyncMethodCalls();
 		}
 		
 		// complete
@@ -220,11 +242,11 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 	
 	
 	// Call target method in target thread.
-	private void callTargetMethod(AsyncMethodCallHandle handle)
+	private void callTargetMethod(TTarget target, AsyncMethodCallHandle handle)
 	{
 		try
 		{
-			Object result = handle.method.invoke(m_Target, handle.args);
+			Object result = handle.method.invoke(target, handle.args);
 			if(result instanceof Handle)
 			{
 				synchronized(handle)
@@ -235,10 +257,10 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 						Handle.close((Handle)result);
 				}
 			}
-		} 
+		}
 		catch (Throwable ex)
 		{
-			Log.e(TAG, "callTargetMethod() - Fail to call target method", ex);
+			Log.e(TAG, "callTargetMethod() - Fail to call target method '" + handle.method + "'", ex);
 			throw new RuntimeException("Fail to call target method.", ex);
 		}
 	}
@@ -247,15 +269,9 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 	// Cancel calling target method.
 	private void cancelCallingTargetMethod(final AsyncMethodCallHandle handle)
 	{
-		synchronized(m_PendingAsyncMethodCalls)
-		{
-			if(m_PendingAsyncMethodCalls.remove(handle))
-				return;
-		}
+		// pending calls are skipped when draining
 		synchronized(handle)
 		{
-			if(handle.callingRunnable != null)
-				HandlerUtils.removeCallbacks(m_TargetOwner, handle.callingRunnable);
 			if(Handle.isValid(handle.resultHandle))
 			{
 				if(!HandlerUtils.post(m_TargetOwner, new Runnable()
@@ -274,6 +290,22 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 	}
 	
 	
+	// Call all pending target methods in one batch, called in target thread.
+	private void drainPendingAsyncMethodCalls()
+	{
+		m_IsPendingCallsDrainScheduled.set(false);
+		TTarget target = m_Target;
+		if(target == null)
+			return;
+		AsyncMethodCallHandle handle;
+		while((handle = m_PendingAsyncMethodCalls.poll()) != null)
+		{
+			if(Handle.isValid(handle))
+				this.callTargetMethod(target, handle);
+		}
+	}
+	
+	
 	/**
 	 * Get bound target component.
 	 * @return Target component.
@@ -396,6 +428,19 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 	}
 	
 	
+	// Schedule calling pending target methods in target thread.
+	private void schedulePendingAsyncMethodCalls()
+	{
+		if(!m_IsPendingCallsDrainScheduled.compareAndSet(false, true))
+			return;
+		if(!HandlerUtils.post(m_TargetOwner, m_DrainPendingCallsRunnable))
+		{
+			Log.e(TAG, "schedulePendingAsyncMethodCalls() - Fail to call target methods asynchronously");
+			m_IsPendingCallsDrainScheduled.set(false);
+		}
+	}
+	
+	
 	// Called when target component is found.
 	private void onTargetFound(final TTarget target)
 	{
@@ -433,6 +478,7 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 							@Override
 							public void onEventReceived(EventSource source, EventKey key, EventArgs e)
 							{
+								DispatchStatistics.recordCrossThreadHop(key);
 								HandlerUtils.sendMessage(ProxyComponent.this, MSG_TARGET_EVENT_RAISED, 0, 0, new Object[]{ SystemClock.elapsedRealtimeNanos(), key, e.clone() });
 							}
 						};
@@ -448,6 +494,7 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 							@Override
 							public void onPropertyChanged(PropertySource source, PropertyKey key, PropertyChangeEventArgs e)
 							{
+								DispatchStatistics.recordCrossThreadHop(key);
 								HandlerUtils.sendMessage(ProxyComponent.this, MSG_TARGET_PROPERTY_CHANGED, 0, 0, new Object[]{ SystemClock.elapsedRealtimeNanos(), key, e.clone() });
 							}
 						};
@@ -459,23 +506,6 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 							HandlerUtils.sendMessage(ProxyComponent.this, MSG_TARGET_PROPERTY_CHANGED, 0, 0, new Object[]{ SystemClock.elapsedRealtimeNanos(), key, PropertyChangeEventArgs.obtain(key.defaultValue, value) });
 						}
 					}
-					
-					// call target methods
-					AsyncMethodCallHandle[] asyncCallHandles = null;
-					synchronized(m_PendingAsyncMethodCalls)
-					{
-						if(!m_PendingAsyncMethodCalls.isEmpty())
-						{
-							asyncCallHandles = new ProxyComponent.AsyncMethodCallHandle[m_PendingAsyncMethodCalls.size()];
-							m_PendingAsyncMethodCalls.toArray(asyncCallHandles);
-							m_PendingAsyncMethodCalls.clear();
-						}
-					}
-					if(asyncCallHandles != null)
-					{
-						for(int i = 0, count = asyncCallHandles.length ; i < count ; ++i)
-							callTargetMethod(asyncCallHandles[i]);
-					}
 				}
 			}))
 			{
@@ -485,6 +515,10 @@ public abstract class ProxyComponent<TTarget extends Component> extends CameraCo
 			}
 		}
 		
+		// call pending target methods
+		if(!m_PendingAsyncMethodCalls.isEmpty())
+			this.schedulePendingAsyncMethodCalls();
+		
 		// complete
 		this.onTargetBound(target);
 	}
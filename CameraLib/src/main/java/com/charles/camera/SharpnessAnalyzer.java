@@ -0,0 +1,53 @@
+package com.charles.camera;
+
+/**
+ * Analyzer to estimate sharpness by variance of Laplacian of luminance.
+ */
+public class SharpnessAnalyzer extends FrameAnalyzer<Float>
+{
+	/**
+	 * Initialize new SharpnessAnalyzer instance with 320x240 input size and 5 frames per second.
+	 */
+	public SharpnessAnalyzer()
+	{
+		this(320, 240, 5);
+	}
+	
+	
+	/**
+	 * Initialize new SharpnessAnalyzer instance.
+	 * @param inputWidth Maximum width of input frame.
+	 * @param inputHeight Maximum height of input frame.
+	 * @param targetRate Target number of analyzed frames per second.
+	 */
+	public SharpnessAnalyzer(int inputWidth, int inputHeight, float targetRate)
+	{
+		super("Sharpness", FrameAnalysisManager.PROP_SHARPNESS, inputWidth, inputHeight, targetRate);
+	}
+	
+	
+	// Calculate variance of Laplacian.
+	@Override
+	protected Float analyze(AnalysisFrame frame)
+	{
+		int width = frame.getWidth();
+		int height = frame.getHeight();
+		if(width < 3 || height < 3)
+			return 0f;
+		byte[] data = frame.getData();
+		long sum = 0;
+		long squareSum = 0;
+		for(int y = height - 2 ; y >= 1 ; --y)
+		{
+			for(int x = width - 2, offset = (y * width + x) ; x >= 1 ; --x, --offset)
+			{
+				int laplacian = ((data[offset - 1] & 0xff) + (data[offset + 1] & 0xff) + (data[offset - width] & 0xff) + (data[offset + width] & 0xff) - 4 * (data[offset] & 0xff));
+				sum += laplacian;
+				squareSum += (laplacian * laplacian);
+			}
+		}
+		double count = ((double)(width - 2) * (height - 2));
+		double mean = (sum / count);
+		return (float)(squareSum / count - mean * mean);
+	}
+}
@@ -16,6 +16,17 @@ import com.charles.camera.capturemode.CaptureModeManager;
 
 final class UIExposureControllerImpl extends ProxyComponent<ExposureController> implements ExposureController
 {
+	// Constants.
+	private static final TargetMethod<ExposureController> METHOD_LOCK_AUTO_EXPOSURE = new TargetMethod<ExposureController>("lockAutoExposure")
+	{
+		@Override
+		protected Object invoke(ExposureController target, Object[] args)
+		{
+			return target.lockAutoExposure((Integer)args[0]);
+		}
+	};
+	
+	
 	// Private fields.
 	private final LinkedList<AELockHandle> m_AELockHandles = new LinkedList<>();
 	
@@ -30,7 +41,7 @@ final class UIExposureControllerImpl extends ProxyComponent<ExposureController>
 			super("AELockWrapper");
 			this.internalHandle = internalHandle;
 		}
-
+		
 		@Override
 		protected void onClose(int flags)
 		{
@@ -51,7 +62,7 @@ final class UIExposureControllerImpl extends ProxyComponent<ExposureController>
 	public Handle lockAutoExposure(int flags)
 	{
 		this.verifyAccess();
-		Handle handle = this.callTargetMethod("lockAutoExposure", new Class[]{ int.class }, flags);
+		Handle handle = this.callTargetMethod(METHOD_LOCK_AUTO_EXPOSURE, flags);
 		if(Handle.isValid(handle))
 		{
 			AELockHandle wrappedHandle = new AELockHandle(handle);
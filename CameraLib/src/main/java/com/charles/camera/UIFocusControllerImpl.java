@@ -15,6 +15,26 @@ import com.charles.camera.capturemode.CaptureModeManager;
 
 final class UIFocusControllerImpl extends ProxyComponent<FocusController> implements FocusController
 {
+	// Constants.
+	private static final TargetMethod<FocusController> METHOD_LOCK_FOCUS = new TargetMethod<FocusController>("lockFocus")
+	{
+		@Override
+		protected Object invoke(FocusController target, Object[] args)
+		{
+			return target.lockFocus((Integer)args[0]);
+		}
+	};
+	private static final TargetMethod<FocusController> METHOD_START_AUTO_FOCUS = new TargetMethod<FocusController>("startAutoFocus")
+	{
+		@SuppressWarnings("unchecked")
+		@Override
+		protected Object invoke(FocusController target, Object[] args)
+		{
+			return target.startAutoFocus((List<MeteringRect>)args[0], (Integer)args[1]);
+		}
+	};
+	
+	
 	// Private fields.
 	private final LinkedList<FocusLockHandle> m_FocusLockHandles = new LinkedList<>();
 	
@@ -29,7 +49,7 @@ final class UIFocusControllerImpl extends ProxyComponent<FocusController> implem
 			super("FocusLockWrapper");
 			this.internalHandle = internalHandle;
 		}
-
+		
 		@Override
 		protected void onClose(int flags)
 		{
@@ -63,7 +83,7 @@ final class UIFocusControllerImpl extends ProxyComponent<FocusController> implem
 	public Handle lockFocus(int flags)
 	{
 		this.verifyAccess();
-		Handle handle = this.callTargetMethod("lockFocus", new Class[]{ int.class }, flags);
+		Handle handle = this.callTargetMethod(METHOD_LOCK_FOCUS, flags);
 		if(Handle.isValid(handle))
 		{
 			FocusLockHandle wrappedHandle = new FocusLockHandle(handle);
@@ -118,7 +138,7 @@ final class UIFocusControllerImpl extends ProxyComponent<FocusController> implem
 	public Handle startAutoFocus(List<MeteringRect> regions, int flags)
 	{
 		this.verifyAccess();
-		return this.callTargetMethod("startAutoFocus", new Class[]{ List.class, int.class }, regions, flags);
+		return this.callTargetMethod(METHOD_START_AUTO_FOCUS, regions, flags);
 	}
 	
 	
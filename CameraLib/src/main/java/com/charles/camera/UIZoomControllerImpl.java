@@ -5,6 +5,7 @@ import java.util.List;
 import android.os.SystemClock;
 
 import com.charles.base.BaseActivity.State;
+import com.charles.base.FloatPropertyKey;
 import com.charles.base.Handle;
 import com.charles.base.HandlerUtils;
 import com.charles.base.Log;
@@ -15,6 +16,17 @@ import com.charles.base.PropertySource;
 
 final class UIZoomControllerImpl extends ProxyComponent<ZoomController> implements ZoomController
 {
+	// Constants.
+	private static final TargetMethod<ZoomController> METHOD_LOCK_ZOOM = new TargetMethod<ZoomController>("lockZoom")
+	{
+		@Override
+		protected Object invoke(ZoomController target, Object[] args)
+		{
+			return target.lockZoom((Integer)args[0]);
+		}
+	};
+	
+	
 	// Private fields.
 	private long m_LastZoomChangedTime;
 	
@@ -36,7 +48,7 @@ final class UIZoomControllerImpl extends ProxyComponent<ZoomController> implemen
 				@Override
 				public void run()
 				{
-					getTarget().set(PROP_DIGITAL_ZOOM, zoom);
+					getTarget().setFloat(PROP_DIGITAL_ZOOM, zoom);
 				}
 			}))
 			{
@@ -61,7 +73,7 @@ final class UIZoomControllerImpl extends ProxyComponent<ZoomController> implemen
 		this.verifyAccess();
 		
 		// lock zoom
-		Handle handle = this.callTargetMethod("lockZoom", new Class[]{ int.class }, flags);
+		Handle handle = this.callTargetMethod(METHOD_LOCK_ZOOM, flags);
 		if(Handle.isValid(handle))
 			this.setReadOnly(PROP_IS_ZOOM_LOCKED, true);
 		return handle;
@@ -110,7 +122,7 @@ final class UIZoomControllerImpl extends ProxyComponent<ZoomController> implemen
 		
 		// apply zoom
 		if(m_LastZoomChangedTime > 0)
-			this.applyDigitalZoom(this.get(PROP_DIGITAL_ZOOM));
+			this.applyDigitalZoom(this.getFloat(PROP_DIGITAL_ZOOM));
 	}
 	
 	
@@ -121,7 +133,7 @@ final class UIZoomControllerImpl extends ProxyComponent<ZoomController> implemen
 		if(key == PROP_DIGITAL_ZOOM)
 		{
 			if(time >= m_LastZoomChangedTime)
-				super.set(PROP_DIGITAL_ZOOM, (Float)e.getNewValue());
+				super.setFloat(PROP_DIGITAL_ZOOM, (Float)e.getNewValue());
 		}
 		else
 			super.onTargetPropertyChanged(time, key, e);
@@ -138,6 +150,16 @@ final class UIZoomControllerImpl extends ProxyComponent<ZoomController> implemen
 	}
 	
 	
+	// Set float property value.
+	@Override
+	public boolean setFloat(FloatPropertyKey key, float value)
+	{
+		if(key == PROP_DIGITAL_ZOOM)
+			return this.setDigitalZoomProp(value);
+		return super.setFloat(key, value);
+	}
+	
+	
 	// Set PROP_DIGITAL_ZOOM property.
 	private boolean setDigitalZoomProp(float zoom)
 	{
@@ -157,9 +179,9 @@ final class UIZoomControllerImpl extends ProxyComponent<ZoomController> implemen
 		
 		// save zoom
 		m_LastZoomChangedTime = SystemClock.elapsedRealtimeNanos();
-		if(!super.set(PROP_DIGITAL_ZOOM, zoom))
+		if(!super.setFloat(PROP_DIGITAL_ZOOM, zoom))
 			return false;
-		zoom = this.get(PROP_DIGITAL_ZOOM);
+		zoom = this.getFloat(PROP_DIGITAL_ZOOM);
 		
 		// apply zoom
 		this.applyDigitalZoom(zoom);
@@ -1,5 +1,6 @@
 package com.charles.camera;
 
+import com.charles.base.FloatPropertyKey;
 import com.charles.base.Handle;
 import com.charles.base.PropertyKey;
 import com.charles.base.component.Component;
@@ -12,7 +13,7 @@ public interface ZoomController extends Component
 	/**
 	 * Property to get or set digital zoom applied on primary camera.
 	 */
-	PropertyKey<Float> PROP_DIGITAL_ZOOM = new PropertyKey<>("DigitalZoom", Float.class, ZoomController.class, PropertyKey.FLAG_NOT_NULL, 1f);
+	FloatPropertyKey PROP_DIGITAL_ZOOM = new FloatPropertyKey("DigitalZoom", ZoomController.class, PropertyKey.FLAG_NOT_NULL, 1f);
 	/**
 	 * Read-only property to check whether digital zoom is supported by primary camera or not.
 	 */
@@ -8,6 +8,7 @@ import android.graphics.Bitmap;
 import com.charles.base.EventArgs;
 import com.charles.base.EventKey;
 import com.charles.base.Handle;
+import com.charles.base.PropertyKey;
 import com.charles.base.component.Component;
 import com.charles.camera.media.MediaEventArgs;
 
@@ -45,6 +46,11 @@ public interface FileManager extends Component
 	 */
 	EventKey<MediaEventArgs> EVENT_MEDIA_SAVED = new EventKey<>("MediaSaved", MediaEventArgs.class, FileManager.class);
 	
+	/**
+	 * Read-only property for number of media which are waiting to be saved or being saved.
+	 */
+	PropertyKey<Integer> PROP_PENDING_SAVE_COUNT = new PropertyKey<>("PendingSaveCount", Integer.class, FileManager.class, 0);
+	
 	public interface PhotoCallback
 	{
 		/**
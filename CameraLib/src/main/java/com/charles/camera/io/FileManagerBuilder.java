@@ -1,11 +1,13 @@
 package com.charles.camera.io;
 
+import com.charles.base.component.Component;
 import com.charles.base.component.ComponentCreationPriority;
+import com.charles.base.component.PreparableComponentBuilder;
 import com.charles.camera.CameraThread;
 import com.charles.camera.CameraThreadComponent;
 import com.charles.camera.CameraThreadComponentBuilder;
 
-public class FileManagerBuilder extends CameraThreadComponentBuilder
+public class FileManagerBuilder extends CameraThreadComponentBuilder implements PreparableComponentBuilder
 {
 	public FileManagerBuilder()
 	{
@@ -15,6 +17,46 @@ public class FileManagerBuilder extends CameraThreadComponentBuilder
 	@Override
 	protected CameraThreadComponent create(CameraThread cameraThread)
 	{
-		return new FileManagerImpl(cameraThread);
+		return new FileManagerImpl(cameraThread, null);
+	}
+
+	@Override
+	public Component createPrepared(Object preparedData, Object... args)
+	{
+		FileManagerImpl.PreparedData data = (FileManagerImpl.PreparedData)preparedData;
+		if(args == null || args.length == 0 || !(args[0] instanceof CameraThread))
+		{
+			if(data != null)
+				data.release();
+			return null;
+		}
+		return new FileManagerImpl((CameraThread)args[0], data);
+	}
+
+	@Override
+	public void discardPrepared(Object preparedData, Object... args)
+	{
+		if(preparedData != null)
+			((FileManagerImpl.PreparedData)preparedData).release();
+	}
+
+	@Override
+	public Class<?>[] getDependencies()
+	{
+		return null;
+	}
+
+	@Override
+	public boolean isPreparationThreadIndependent()
+	{
+		return true;
+	}
+
+	@Override
+	public Object prepare(Object... args)
+	{
+		if(args == null || args.length == 0 || !(args[0] instanceof CameraThread))
+			return null;
+		return FileManagerImpl.PreparedData.prepare((CameraThread)args[0]);
 	}
 }
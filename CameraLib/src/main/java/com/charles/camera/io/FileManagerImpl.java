@@ -29,14 +29,17 @@ import com.charles.base.EventArgs;
 import com.charles.base.EventKey;
 import com.charles.base.Handle;
 import com.charles.base.HandlerUtils;
+import com.charles.base.ThreadMonitor;
 import com.charles.camera.CameraThread;
 import com.charles.camera.CameraThreadComponent;
 import com.charles.camera.media.MediaEventArgs;
 
 final class FileManagerImpl extends CameraThreadComponent implements FileManager {
-	private FileManageerThread m_FileThread = null;
-	private DecodeBitmapThread m_DecodeBitmapThread = null;
-	private Handler m_FileHandler, m_DecodeBitmapHandler;
+	private HandlerThread m_FileThread = null;
+	private HandlerThread m_DecodeBitmapThread = null;
+	private FileHandler m_FileHandler;
+	private DecodeBitmapHandler m_DecodeBitmapHandler;
+	private PreparedData m_PreparedData;
 	private final int MESSAGE_SAVE_MEDIA = 1000;
 	private final int MESSAGE_LOAD_IMAGES = 1001;
 	private final int MESSAGE_GET_BITMAP = 1002;
@@ -53,30 +56,75 @@ final class FileManagerImpl extends CameraThreadComponent implements FileManager
 	// A queue of Runnables for the image decoding pool
 	private BlockingQueue<Runnable> m_DecodeWorkQueue;
 
-	private final File m_DefaultFolder = new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DCIM),
-			"100MEDIA");
+	private final File m_DefaultFolder = getDefaultFolder();
 	static final String[] IMAGE_FILTER = { ".jpg", };
 	static final String[] VIDEO_FILTER = { ".mp4", };
 
+	/**
+	 * Threads and media files prepared before creating component.
+	 */
+	static final class PreparedData {
+		final HandlerThread decodeBitmapThread;
+		final HandlerThread fileThread;
+		final List<File> mediaFiles;
+
+		PreparedData(HandlerThread fileThread, HandlerThread decodeBitmapThread, List<File> mediaFiles) {
+			this.fileThread = fileThread;
+			this.decodeBitmapThread = decodeBitmapThread;
+			this.mediaFiles = mediaFiles;
+		}
+
+		/**
+		 * Start threads, and scan media files if it is called on thread other than camera thread.
+		 */
+		static PreparedData prepare(CameraThread cameraThread) {
+			// start file thread
+			HandlerThread fileThread = new MonitoredThread("save media thread");
+			fileThread.start();
+			// start image thread
+			HandlerThread decodeBitmapThread = new MonitoredThread("decode bitmap thread");
+			decodeBitmapThread.start();
+			// scan media files, leave it to file thread if preparing on camera thread
+			List<File> mediaFiles = null;
+			if (!cameraThread.isDependencyThread()) {
+				mediaFiles = scanMediaFiles(getDefaultFolder());
+			}
+			return new PreparedData(fileThread, decodeBitmapThread, mediaFiles);
+		}
+
+		/**
+		 * Stop prepared threads.
+		 */
+		void release() {
+			fileThread.quitSafely();
+			decodeBitmapThread.quitSafely();
+		}
+	}
+
 	// Constructor
-	FileManagerImpl(CameraThread cameraThread) {
+	FileManagerImpl(CameraThread cameraThread, PreparedData preparedData) {
 		super("File manager", cameraThread, true);
+		m_PreparedData = preparedData;
 	}
 
 	/**
 	 * Called when initializing component.
 	 */
 	protected void onInitialize() {
-		// start file thread
-		m_FileThread = new FileManageerThread("save media thread");
-		m_FileThread.start();
-		m_FileHandler = m_FileThread.getHandler();
-		// start image thread
-		m_DecodeBitmapThread = new DecodeBitmapThread("decode bitmap thread");
-		m_DecodeBitmapThread.start();
-		m_DecodeBitmapHandler = m_DecodeBitmapThread.getHandler();
+		// use prepared threads
+		PreparedData preparedData = (m_PreparedData != null ? m_PreparedData : PreparedData.prepare(getCameraThread()));
+		m_PreparedData = null;
+		m_FileThread = preparedData.fileThread;
+		m_FileHandler = new FileHandler(m_FileThread.getLooper());
+		m_DecodeBitmapThread = preparedData.decodeBitmapThread;
+		m_DecodeBitmapHandler = new DecodeBitmapHandler(m_DecodeBitmapThread.getLooper());
+		// load media files
+		if (preparedData.mediaFiles != null) {
+			m_FileList.addAll(preparedData.mediaFiles);
+		} else {
+			m_FileHandler.sendMessage(Message.obtain(m_FileHandler, MESSAGE_LOAD_IMAGES));
+		}
 		// observe file change
-		m_FileHandler.sendMessage(Message.obtain(m_FileHandler, MESSAGE_LOAD_IMAGES));
 		m_FileObserver = new FileObserver(m_DefaultFolder.getAbsolutePath()) {
 
 			@Override
@@ -112,11 +160,25 @@ final class FileManagerImpl extends CameraThreadComponent implements FileManager
 		m_FileObserver = null;
 	}
 
+	/**
+	 * Called when releasing component.
+	 */
+	protected void onRelease() {
+		super.onRelease();
+		if (m_PreparedData != null) {
+			m_PreparedData.release();
+			m_PreparedData = null;
+		}
+	}
+
 	@Override
 	public Handle saveMedia(final MediaSaveTask task, final int flags) {
 		verifyAccess();
 		if (task != null && isRunningOrInitializing()) {
+			setReadOnly(PROP_PENDING_SAVE_COUNT, get(PROP_PENDING_SAVE_COUNT) + 1);
 			m_FileHandler.sendMessageAtFrontOfQueue(Message.obtain(m_FileHandler, MESSAGE_SAVE_MEDIA, task));
+		} else if (task != null) {
+			task.release();
 		}
 
 		return null;
@@ -144,13 +206,13 @@ final class FileManagerImpl extends CameraThreadComponent implements FileManager
 
 	@Override
 	public void setCurrent(int position){
-		m_DecodeBitmapThread.m_Current = position;
+		m_DecodeBitmapHandler.m_Current = position;
 	}
 	
 	@Override
 	public void getBitmap(final String path, final int width, final int height, final PhotoCallback callback, int position) {
 
-		if(position == m_DecodeBitmapThread.m_Current){
+		if(position == m_DecodeBitmapHandler.m_Current){
 			Log.d(TAG, "getBitmap: now");
 			m_DecodeBitmapHandler.sendMessageAtFrontOfQueue(Message.obtain(m_FileHandler, MESSAGE_GET_BITMAP, width, height, 
 					new BitmapArgs(position, path, callback)));
@@ -200,6 +262,53 @@ final class FileManagerImpl extends CameraThreadComponent implements FileManager
 		return bitmap;
 	}
 
+	static File getDefaultFolder() {
+		return new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DCIM), "100MEDIA");
+	}
+
+	/**
+	 * Get image and video files in given folder, newest first.
+	 */
+	static List<File> scanMediaFiles(File folder) {
+		List<File> fileList = new ArrayList<>();
+		File[] files = folder.listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				boolean ret = false;
+				for (String filter : IMAGE_FILTER) {
+					if (name.toLowerCase().endsWith(filter)) {
+						ret = true;
+						break;
+					}
+				}
+				for (String filter : VIDEO_FILTER) {
+					if (name.toLowerCase().endsWith(filter)) {
+						ret = true;
+						break;
+					}
+				}
+				return ret;
+			}
+		});
+		if (files != null && files.length > 0) {
+			Arrays.sort(files, new Comparator<File>() {
+				public int compare(File f1, File f2) {
+					return Long.valueOf(f2.lastModified()).compareTo(f1.lastModified());
+				}
+			});
+			
+			fileList.addAll(Arrays.asList(files));
+			Iterator<File> it = fileList.iterator();
+			File fileItem;
+			while (it.hasNext()) {
+				fileItem = it.next();
+				if (fileItem.length()==0) {
+					it.remove();
+				}
+			}
+		}
+		return fileList;
+	}
+
 	public static int calculateInSampleSize(BitmapFactory.Options options, int reqWidth, int reqHeight) {
 		// Raw height and width of image
 		final int height = options.outHeight;
@@ -242,197 +351,188 @@ final class FileManagerImpl extends CameraThreadComponent implements FileManager
 		});
 	}
 
-	class FileManageerThread extends HandlerThread {
-		private static final String TAG = "SaveMediaThread";
-		private Handler m_Handler;
+	private boolean notifySaveCompleted() {
+		return HandlerUtils.post(this, new Runnable() {
+
+			@Override
+			public void run() {
+				setReadOnly(PROP_PENDING_SAVE_COUNT, Math.max(0, get(PROP_PENDING_SAVE_COUNT) - 1));
+			}
+		});
+	}
 
-		public FileManageerThread(String name) {
+	static class MonitoredThread extends HandlerThread {
+		public MonitoredThread(String name) {
 			super(name);
 		}
 
-		public Handler getHandler() {
-			return m_Handler;
+		@Override
+		protected void onLooperPrepared() {
+			ThreadMonitor.startMonitorCurrentThread();
 		}
 
 		@Override
-		public void start() {
-			super.start();
-			Looper looper = getLooper(); // will block until thread's looper object initialized
-			m_Handler = new Handler(looper) {
-				@Override
-				public void handleMessage(Message msg) {
-					switch (msg.what) {
-					// process messages here
-					case MESSAGE_SAVE_MEDIA: {
-						MediaSaveTask task = (MediaSaveTask) msg.obj;
-						// save file
-						if (task.saveMediaToFile()) {
-							m_FileList.add(0, new File(task.getFilePath()));
-							notifyCameraThread(EVENT_MEDIA_FILE_SAVED, task);
-							notifyCameraThread(EVENT_MEDIA_FILE_ADDED, task);
-							// insert MediaStore
-							if (task.insertToMediaStore()) {
-								notifyCameraThread(EVENT_MEDIA_SAVED, task);
-							} else {
-								notifyCameraThread(EVENT_MEDIA_SAVE_FAILED, task);
-							}
-						} else {
-							notifyCameraThread(EVENT_MEDIA_SAVE_FAILED, task);
-						}
-						break;
+		public void run() {
+			super.run();
+			ThreadMonitor.stopMonitorCurrentThread();
+		}
+	}
+
+	class FileHandler extends Handler {
+		private static final String TAG = "SaveMediaThread";
+
+		public FileHandler(Looper looper) {
+			super(looper);
+		}
+
+		@Override
+		public void dispatchMessage(Message msg) {
+			long startTime = ThreadMonitor.onMessageDispatching(msg);
+			try {
+				super.dispatchMessage(msg);
+			} finally {
+				ThreadMonitor.onMessageDispatched(startTime);
+			}
+		}
+
+		@Override
+		public void handleMessage(Message msg) {
+			switch (msg.what) {
+			// process messages here
+			case MESSAGE_SAVE_MEDIA: {
+				MediaSaveTask task = (MediaSaveTask) msg.obj;
+				// save file
+				if (task.saveMediaToFile()) {
+					m_FileList.add(0, new File(task.getFilePath()));
+					notifyCameraThread(EVENT_MEDIA_FILE_SAVED, task);
+					notifyCameraThread(EVENT_MEDIA_FILE_ADDED, task);
+					// insert MediaStore
+					if (task.insertToMediaStore()) {
+						notifyCameraThread(EVENT_MEDIA_SAVED, task);
+					} else {
+						notifyCameraThread(EVENT_MEDIA_SAVE_FAILED, task);
 					}
-					case MESSAGE_LOAD_IMAGES: {
-						m_FileList.clear();
-						if (m_DefaultFolder.exists()) {
-							File[] files = m_DefaultFolder.listFiles(new FilenameFilter() {
-								public boolean accept(File dir, String name) {
-									boolean ret = false;
-									for (String filter : IMAGE_FILTER) {
-										if (name.toLowerCase().endsWith(filter)) {
-											ret = true;
-											break;
-										}
-									}
-									for (String filter : VIDEO_FILTER) {
-										if (name.toLowerCase().endsWith(filter)) {
-											ret = true;
-											break;
-										}
-									}
-									return ret;
-								}
-							});
-							if (files != null && files.length > 0) {
-								Arrays.sort(files, new Comparator<File>() {
-									public int compare(File f1, File f2) {
-										return Long.valueOf(f2.lastModified()).compareTo(f1.lastModified());
-									}
-								});
-								
-								m_FileList.addAll(Arrays.asList(files));
-								Iterator<File> it = m_FileList.iterator();
-								File fileItem;
-								while (it.hasNext()) {
-									fileItem = it.next();
-									if (fileItem.length()==0) {
-										it.remove();
-									}
-								}
-							}
-							if (msg.arg1 == 1) {
-								notifyCameraThread(EVENT_MEDIA_FILES_RESET, EventArgs.EMPTY);
-							}
-						}
-						break;
+				} else {
+					notifyCameraThread(EVENT_MEDIA_SAVE_FAILED, task);
+				}
+				notifySaveCompleted();
+				task.release();
+				break;
+			}
+			case MESSAGE_LOAD_IMAGES: {
+				m_FileList.clear();
+				if (m_DefaultFolder.exists()) {
+					m_FileList.addAll(scanMediaFiles(m_DefaultFolder));
+					if (msg.arg1 == 1) {
+						notifyCameraThread(EVENT_MEDIA_FILES_RESET, EventArgs.EMPTY);
 					}
-					case MESSAGE_GET_BITMAP: {
-						BitmapArgs args = (BitmapArgs) msg.obj;
-						boolean isImage = false;
-						for (String filter : IMAGE_FILTER) {
-							if (args.getPath().toLowerCase().endsWith(filter)) {
-								isImage = true;
-								break;
-							}
-						}
-						Bitmap bitmap;
-						Boolean isVideo;
-						if (isImage) {
-							bitmap = decodeBitmap(args.getPath(), msg.arg1, msg.arg2);
-							isVideo = false;
-						} else {
-							bitmap = ThumbnailUtils.createVideoThumbnail(args.getPath(),
-									MediaStore.Video.Thumbnails.FULL_SCREEN_KIND);
-							isVideo = true;
-						}
-						if (args.m_IsVertical) {
-							Matrix matrix = new Matrix();
-
-							matrix.postRotate(90);
-
-							bitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
-						}
-
-						args.getCallback().onBitmapLoad(ThumbnailUtils.extractThumbnail(bitmap, msg.arg1, msg.arg2), isVideo, false);
+				}
+				break;
+			}
+			case MESSAGE_GET_BITMAP: {
+				BitmapArgs args = (BitmapArgs) msg.obj;
+				boolean isImage = false;
+				for (String filter : IMAGE_FILTER) {
+					if (args.getPath().toLowerCase().endsWith(filter)) {
+						isImage = true;
 						break;
 					}
-					}
 				}
-			};
+				Bitmap bitmap;
+				Boolean isVideo;
+				if (isImage) {
+					bitmap = decodeBitmap(args.getPath(), msg.arg1, msg.arg2);
+					isVideo = false;
+				} else {
+					bitmap = ThumbnailUtils.createVideoThumbnail(args.getPath(),
+							MediaStore.Video.Thumbnails.FULL_SCREEN_KIND);
+					isVideo = true;
+				}
+				if (args.m_IsVertical) {
+					Matrix matrix = new Matrix();
+
+					matrix.postRotate(90);
+
+					bitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+				}
+
+				args.getCallback().onBitmapLoad(ThumbnailUtils.extractThumbnail(bitmap, msg.arg1, msg.arg2), isVideo, false);
+				break;
+			}
+			}
 		}
 	}
 
-	class DecodeBitmapThread extends HandlerThread {
+	class DecodeBitmapHandler extends Handler {
 		private static final String TAG = "DecodeBitmapThread";
-		private Handler m_Handler;
 		private int m_Current;
 		static final private int OFFSET = 2;
 
-		public DecodeBitmapThread(String name) {
-			super(name);
+		public DecodeBitmapHandler(Looper looper) {
+			super(looper);
 		}
 
-		public Handler getHandler() {
-			return m_Handler;
-		}
-		
 		private boolean checkInterrupt(int position){
 			return position > m_Current+OFFSET || position < Math.max(1, m_Current-OFFSET);
 		}
 
 		@Override
-		public void start() {
-			super.start();
-			Looper looper = getLooper(); // will block until thread's looper object initialized
-			m_Handler = new Handler(looper) {
-				@Override
-				public void handleMessage(Message msg) {
-					switch (msg.what) {
-					case MESSAGE_GET_BITMAP: {
-						BitmapArgs args = (BitmapArgs) msg.obj;
-						String path = args.getPath();
-						PhotoCallback callback = args.getCallback();
-						int position = args.getPosition();
-						int width = msg.arg1;
-						int height = msg.arg2;
-						//
-						boolean isImage = false;
-						for (String filter : IMAGE_FILTER) {
-							if (path.toLowerCase().endsWith(filter)) {
-								isImage = true;
-								break;
-							}
-						}
-						Bitmap bitmap;
-						Boolean isVideo;
-						//
-						if(checkInterrupt(position)){
-							Log.d(TAG, "checkInterrupt before decode : position: " + position +" m_Current: " + m_Current);
-							callback.onBitmapLoad(null, !isImage, true);
-							return;
-						}
-						//
-						if (isImage) {
-							bitmap = decodeBitmap(path, width, height);
-							isVideo = false;
-						} else {
-							bitmap = ThumbnailUtils.createVideoThumbnail(path,
-									MediaStore.Video.Thumbnails.FULL_SCREEN_KIND);
-							isVideo = true;
-						}
-						//
-						if(checkInterrupt(position)){
-							Log.d(TAG, "checkInterrupt after decode : position: " + position +" m_Current: " + m_Current);
-							callback.onBitmapLoad(null, isVideo, true);
-							return;
-						}
-						
-						Log.d(TAG, ": " + position + " bitmap: " + bitmap + " path: "+path);
-						callback.onBitmapLoad(ThumbnailUtils.extractThumbnail(bitmap, width, height), isVideo, false);
+		public void dispatchMessage(Message msg) {
+			long startTime = ThreadMonitor.onMessageDispatching(msg);
+			try {
+				super.dispatchMessage(msg);
+			} finally {
+				ThreadMonitor.onMessageDispatched(startTime);
+			}
+		}
+
+		@Override
+		public void handleMessage(Message msg) {
+			switch (msg.what) {
+			case MESSAGE_GET_BITMAP: {
+				BitmapArgs args = (BitmapArgs) msg.obj;
+				String path = args.getPath();
+				PhotoCallback callback = args.getCallback();
+				int position = args.getPosition();
+				int width = msg.arg1;
+				int height = msg.arg2;
+				//
+				boolean isImage = false;
+				for (String filter : IMAGE_FILTER) {
+					if (path.toLowerCase().endsWith(filter)) {
+						isImage = true;
 						break;
 					}
-					}
 				}
-			};
+				Bitmap bitmap;
+				Boolean isVideo;
+				//
+				if(checkInterrupt(position)){
+					Log.d(TAG, "checkInterrupt before decode : position: " + position +" m_Current: " + m_Current);
+					callback.onBitmapLoad(null, !isImage, true);
+					return;
+				}
+				//
+				if (isImage) {
+					bitmap = decodeBitmap(path, width, height);
+					isVideo = false;
+				} else {
+					bitmap = ThumbnailUtils.createVideoThumbnail(path,
+							MediaStore.Video.Thumbnails.FULL_SCREEN_KIND);
+					isVideo = true;
+				}
+				//
+				if(checkInterrupt(position)){
+					Log.d(TAG, "checkInterrupt after decode : position: " + position +" m_Current: " + m_Current);
+					callback.onBitmapLoad(null, isVideo, true);
+					return;
+				}
+				
+				Log.d(TAG, ": " + position + " bitmap: " + bitmap + " path: "+path);
+				callback.onBitmapLoad(ThumbnailUtils.extractThumbnail(bitmap, width, height), isVideo, false);
+				break;
+			}
+			}
 		}
 	}
 }
@@ -161,6 +161,13 @@ public abstract class MediaSaveTask
 	protected abstract boolean onPrepareMediaStoreValues(String filePath, ContentValues values);
 	
 	
+	/**
+	 * Called when releasing resources held by this task.
+	 */
+	protected void onRelease()
+	{}
+	
+	
 	/**
 	 * Called when saving media to given file.
 	 * @param filePath Media file path.
@@ -169,6 +176,22 @@ public abstract class MediaSaveTask
 	protected abstract boolean onSaveToFile(String filePath);
 	
 	
+	/**
+	 * Release resources held by this task, called by file manager after completing or dropping the task.
+	 */
+	public final void release()
+	{
+		try
+		{
+			this.onRelease();
+		}
+		catch(Throwable ex)
+		{
+			Log.e(TAG, "release() - Fail to release", ex);
+		}
+	}
+	
+	
 	/**
 	 * Save media to file.
 	 * @return Whether media is saved to file successfully or not.
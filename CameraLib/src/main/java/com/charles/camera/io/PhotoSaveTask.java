@@ -6,7 +6,9 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 
 import com.charles.base.Log;
+import com.charles.base.PooledBuffer;
 import com.charles.camera.CameraCaptureEventArgs;
+import com.charles.camera.CaptureHandle;
 import com.charles.io.Path;
 
 import android.content.ContentValues;
@@ -26,9 +28,20 @@ public class PhotoSaveTask extends MediaSaveTask {
 	
 	public PhotoSaveTask(Context context, CameraCaptureEventArgs e)
 	{
+		this(context, e, null);
+	}
+	
+	public PhotoSaveTask(Context context, CameraCaptureEventArgs e, CaptureHandle captureHandle)
+	{
+		super(captureHandle);
 		this.TAG = this.getClass().getSimpleName();
 		this.context = context;
-		this.args = e;
+		this.args = e.clone();
+	}
+	
+	@Override
+	protected void onRelease() {
+		args.recycle();
 	}
 	
 	@Override
@@ -74,6 +87,10 @@ public class PhotoSaveTask extends MediaSaveTask {
 		//
 		try(FileOutputStream stream = new FileOutputStream(file))
 		{
+			PooledBuffer buffer = args.getPictureBuffer();
+			if(buffer != null)
+				stream.write(buffer.getData(), 0, buffer.getLength());
+			else
 			stream.write(args.getPicture());
 			Log.w(TAG, "onPictureReceived() - Picture saved");
 		} 
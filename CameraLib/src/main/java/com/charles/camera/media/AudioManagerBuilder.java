@@ -1,30 +1,60 @@
 package com.charles.camera.media;
 
+import android.media.SoundPool;
+
 import com.charles.base.component.Component;
-import com.charles.base.component.ComponentBuilder;
 import com.charles.base.component.ComponentCreationPriority;
+import com.charles.base.component.PreparableComponentBuilder;
 import com.charles.camera.CameraActivity;
 import com.charles.camera.CameraThread;
 
 /**
- * Component builder for {@link AudioManager}.
+ * Component builder for {@link AudioManager}, sound pool for {@link AudioManager#STREAM_RING STREAM_RING} which is used by camera sounds is created when preparing.
  */
-public final class AudioManagerBuilder implements ComponentBuilder
+public final class AudioManagerBuilder implements PreparableComponentBuilder
 {
 	// Create component.
 	@Override
 	public Component create(Object... args)
 	{
+		return this.createPrepared(null, args);
+	}
+	
+	
+	// Create component with prepared sound pool.
+	@Override
+	public Component createPrepared(Object preparedData, Object... args)
+	{
+		SoundPool soundPool = (SoundPool)preparedData;
 		if(args != null && args.length > 0)
 		{
 			if(args[0] instanceof CameraActivity)
-				return new AudioManagerImpl((CameraActivity)args[0]);
+				return new AudioManagerImpl((CameraActivity)args[0], soundPool);
 			if(args[0] instanceof CameraThread)
-				return new AudioManagerImpl((CameraThread)args[0]);
+				return new AudioManagerImpl((CameraThread)args[0], soundPool);
 		}
+		if(soundPool != null)
+			soundPool.release();
 		return null;
 	}
-
+	
+	
+	// Release prepared sound pool.
+	@Override
+	public void discardPrepared(Object preparedData, Object... args)
+	{
+		if(preparedData != null)
+			((SoundPool)preparedData).release();
+	}
+	
+	
+	// Get dependencies.
+	@Override
+	public Class<?>[] getDependencies()
+	{
+		return null;
+	}
+	
 	
 	// Get priority.
 	@Override
@@ -32,7 +62,7 @@ public final class AudioManagerBuilder implements ComponentBuilder
 	{
 		return ComponentCreationPriority.ON_DEMAND;
 	}
-
+	
 	
 	// Check whether given type is supported or not.
 	@Override
@@ -40,4 +70,24 @@ public final class AudioManagerBuilder implements ComponentBuilder
 	{
 		return AudioManager.class.isAssignableFrom(componentType);
 	}
+	
+	
+	// Check whether preparation is thread independent or not.
+	@Override
+	public boolean isPreparationThreadIndependent()
+	{
+		return true;
+	}
+	
+	
+	// Create sound pool for camera sounds.
+	@Override
+	public Object prepare(Object... args)
+	{
+		if(args == null || args.length == 0)
+			return null;
+		if(!(args[0] instanceof CameraActivity) && !(args[0] instanceof CameraThread))
+			return null;
+		return AudioManagerImpl.createSoundPool(AudioManager.STREAM_RING);
+	}
 }
@@ -45,7 +45,7 @@ final class AudioManagerImpl extends CameraComponent implements AudioManager
 			this.streamType = streamType;
 			this.soundId = soundId;
 		}
-
+		
 		@Override
 		protected void onClose(int flags)
 		{
@@ -67,7 +67,7 @@ final class AudioManagerImpl extends CameraComponent implements AudioManager
 			this.sound = sound;
 			this.flags = flags;
 		}
-
+		
 		@Override
 		protected void onClose(int flags)
 		{
@@ -77,13 +77,43 @@ final class AudioManagerImpl extends CameraComponent implements AudioManager
 	
 	
 	// Constructor
-	AudioManagerImpl(CameraActivity cameraActivity)
+	AudioManagerImpl(CameraActivity cameraActivity, SoundPool ringSoundPool)
 	{
 		super("Camera Audio Manager", cameraActivity, false);
+		this.adoptSoundPool(AudioManager.STREAM_RING, ringSoundPool);
 	}
-	AudioManagerImpl(CameraThread cameraThread)
+	AudioManagerImpl(CameraThread cameraThread, SoundPool ringSoundPool)
 	{
 		super("Camera Audio Manager", cameraThread, false);
+		this.adoptSoundPool(AudioManager.STREAM_RING, ringSoundPool);
+	}
+	
+	
+	// Use sound pool created in advance for given stream type.
+	private void adoptSoundPool(int streamType, SoundPool soundPool)
+	{
+		if(soundPool == null)
+			return;
+		soundPool.setOnLoadCompleteListener(m_LoadCompleteListener);
+		m_SoundPools.put(streamType, soundPool);
+	}
+	
+	
+	/**
+	 * Create sound pool for given stream type, this method can be called on any thread.
+	 * @param streamType Stream type.
+	 * @return Created sound pool.
+	 */
+	static SoundPool createSoundPool(int streamType)
+	{
+		AudioAttributes.Builder attrBuilder = new AudioAttributes.Builder();
+		SoundPool.Builder soundPoolBuilder = new SoundPool.Builder();
+		attrBuilder.setLegacyStreamType(streamType);
+		attrBuilder.setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION);
+		attrBuilder.setUsage(AudioAttributes.USAGE_NOTIFICATION_COMMUNICATION_INSTANT);
+		soundPoolBuilder.setAudioAttributes(attrBuilder.build());
+		soundPoolBuilder.setMaxStreams(4);
+		return soundPoolBuilder.build();
 	}
 	
 	
@@ -94,14 +124,7 @@ final class AudioManagerImpl extends CameraComponent implements AudioManager
 		if(soundPool == null && createNew)
 		{
 			Log.v(TAG, "getSoundPool() - Create sound pool for stream type ", streamType);
-			AudioAttributes.Builder attrBuilder = new AudioAttributes.Builder();
-			SoundPool.Builder soundPoolBuilder = new SoundPool.Builder();
-			attrBuilder.setLegacyStreamType(streamType);
-			attrBuilder.setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION);
-			attrBuilder.setUsage(AudioAttributes.USAGE_NOTIFICATION_COMMUNICATION_INSTANT);
-			soundPoolBuilder.setAudioAttributes(attrBuilder.build());
-			soundPoolBuilder.setMaxStreams(4);
-			soundPool = soundPoolBuilder.build();
+			soundPool = createSoundPool(streamType);
 			soundPool.setOnLoadCompleteListener(m_LoadCompleteListener);
 			m_SoundPools.put(streamType, soundPool);
 		}
@@ -169,6 +192,20 @@ final class AudioManagerImpl extends CameraComponent implements AudioManager
 	}
 	
 	
+	// Release.
+	@Override
+	protected void onRelease()
+	{
+		// call super
+		super.onRelease();
+		
+		// release sound pools which are not used since component is not initialized
+		for(SoundPool soundPool : m_SoundPools.values())
+			soundPool.release();
+		m_SoundPools.clear();
+	}
+	
+	
 	// Called when sound loaded.
 	private void onSoundLoaded(SoundPool soundPool, int soundId, int status)
 	{
@@ -1,10 +1,9 @@
 package com.charles.camera.ui;
 
-import java.util.ArrayDeque;
-
 import android.view.MotionEvent;
 
 import com.charles.base.EventArgs;
+import com.charles.base.ObjectPool;
 import com.charles.base.RecyclableObject;
 
 /**
@@ -17,7 +16,14 @@ public class MotionEventArgs extends EventArgs implements RecyclableObject
 	
 	
 	// Private static fields.
-	private static final ArrayDeque<MotionEventArgs> POOL = new ArrayDeque<>(POOL_SIZE);
+	private static final ObjectPool<MotionEventArgs> POOL = new ObjectPool<MotionEventArgs>("MotionEventArgs", POOL_SIZE)
+	{
+		@Override
+		protected MotionEventArgs create()
+		{
+			return new MotionEventArgs();
+		}
+	};
 	
 	
 	// Private fields.
@@ -40,6 +46,8 @@ public class MotionEventArgs extends EventArgs implements RecyclableObject
 	 */
 	public final int getAction()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_Action;
 	}
 	
@@ -50,6 +58,8 @@ public class MotionEventArgs extends EventArgs implements RecyclableObject
 	 */
 	public final MotionEvent getMotionEvent()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_MotionEvent;
 	}
 	
@@ -60,6 +70,8 @@ public class MotionEventArgs extends EventArgs implements RecyclableObject
 	 */
 	public final int getPointerCount()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_PointerCount;
 	}
 	
@@ -70,6 +82,8 @@ public class MotionEventArgs extends EventArgs implements RecyclableObject
 	 */
 	public final float getX()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_X;
 	}
 	
@@ -80,6 +94,8 @@ public class MotionEventArgs extends EventArgs implements RecyclableObject
 	 */
 	public final float getY()
 	{
+		if(m_IsFreeInstance)
+			POOL.reportUseAfterRecycle(this);
 		return m_Y;
 	}
 	
@@ -89,11 +105,9 @@ public class MotionEventArgs extends EventArgs implements RecyclableObject
 	 * @param event {@link MotionEvent}.
 	 * @return {@link MotionEventArgs} instance.
 	 */
-	public static synchronized MotionEventArgs obtain(MotionEvent event)
+	public static MotionEventArgs obtain(MotionEvent event)
 	{
-		MotionEventArgs e = POOL.pollLast();
-		if(e == null)
-			e = new MotionEventArgs();
+		MotionEventArgs e = POOL.obtain();
 		e.m_MotionEvent = event;
 		e.m_Action = event.getAction();
 		e.m_PointerCount = event.getPointerCount();
@@ -109,15 +123,14 @@ public class MotionEventArgs extends EventArgs implements RecyclableObject
 	 */
 	public void recycle()
 	{
-		synchronized(MotionEventArgs.class)
+		if(m_IsFreeInstance)
 		{
-			if(m_IsFreeInstance)
-				return;
-			m_MotionEvent = null;
-			m_IsFreeInstance = true;
-			this.clearHandledState();
-			if(POOL.size() < POOL_SIZE)
-				POOL.addLast(this);
+			POOL.reportDoubleRecycle(this);
+			return;
 		}
+		m_MotionEvent = null;
+		m_IsFreeInstance = true;
+		this.clearHandledState();
+		POOL.release(this);
 	}
 }
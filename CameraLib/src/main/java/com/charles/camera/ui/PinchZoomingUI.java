@@ -109,7 +109,7 @@ final class PinchZoomingUI extends CameraComponent
 			digitalZoom = Math.min(digitalZoom, maxDigitalZoom);
 		
 		// change zoom
-		m_ZoomController.set(ZoomController.PROP_DIGITAL_ZOOM, digitalZoom);
+		m_ZoomController.setFloat(ZoomController.PROP_DIGITAL_ZOOM, digitalZoom);
 	}
 	
 	